@@ -68,6 +68,7 @@ public class SecurityConfig {
                     config.setAllowedOrigins(List.of("http://localhost:3000", "http://localhost:5173", "https://team-tensors.github.io", "https://drivecare.pcgenerals.com"));
                     config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
                     config.setAllowedHeaders(List.of("*"));
+                    config.setExposedHeaders(List.of("X-Next-Cursor", "Idempotent-Replayed"));
                     config.setAllowCredentials(true);
                     return config;
                 }))
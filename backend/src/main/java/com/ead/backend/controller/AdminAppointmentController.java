@@ -1,20 +1,32 @@
 package com.ead.backend.controller;
 
 import com.ead.backend.dto.AdminAppointmentDTO;
+import com.ead.backend.dto.AdminAppointmentPageDTO;
 import com.ead.backend.dto.AdminEmployeeCenterDTO;
+import com.ead.backend.dto.AnalyticsFilterRequestDTO;
 import com.ead.backend.dto.EmployeeDTO;
 import com.ead.backend.entity.Appointment;
 import com.ead.backend.entity.ServiceCenter;
 import com.ead.backend.entity.User;
+import com.ead.backend.enums.AppointmentType;
+import com.ead.backend.enums.ExportFormat;
 import com.ead.backend.service.AdminService;
+import com.ead.backend.service.AppointmentExportService;
 import com.ead.backend.service.AppointmentService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -24,18 +36,23 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class AdminAppointmentController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private AppointmentService appointmentService;
     private final AdminService adminService;
+    private final AppointmentExportService appointmentExportService;
 
     // ===================================================================
     // 1. ADMIN: Get all upcoming appointments
     // ===================================================================
     @GetMapping("/upcoming")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AdminAppointmentDTO>> getUpcomingAppointments() {
-        List<AdminAppointmentDTO> dtos = appointmentService.getAllUpcomingAppointments();
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<AdminAppointmentDTO>> getUpcomingAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        AdminAppointmentPageDTO page = appointmentService.getAllUpcomingAppointments(cursor, size);
+        return toPageResponse(page);
     }
 
     // ===================================================================
@@ -43,9 +60,11 @@ public class AdminAppointmentController {
     // ===================================================================
     @GetMapping("/ongoing")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AdminAppointmentDTO>> getOngoingAppointments() {
-        List<AdminAppointmentDTO> dtos = appointmentService.getAllOngoingAppointments();
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<AdminAppointmentDTO>> getOngoingAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        AdminAppointmentPageDTO page = appointmentService.getAllOngoingAppointments(cursor, size);
+        return toPageResponse(page);
     }
 
     // ===================================================================
@@ -53,9 +72,11 @@ public class AdminAppointmentController {
     // ===================================================================
     @GetMapping("/unassigned")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AdminAppointmentDTO>> getUnassignedAppointments() {
-        List<AdminAppointmentDTO> dtos = appointmentService.getAllUnassignedAppointments();
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<AdminAppointmentDTO>> getUnassignedAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        AdminAppointmentPageDTO page = appointmentService.getAllUnassignedAppointments(cursor, size);
+        return toPageResponse(page);
     }
 
     // ===================================================================
@@ -75,6 +96,23 @@ public class AdminAppointmentController {
         }
     }
 
+    // ===================================================================
+    // 4.1 ADMIN: Assign employees to many appointments (e.g. a whole day's schedule)
+    // Body: { "<appointmentId>": ["<employeeId>", ...], ... }
+    // ===================================================================
+    @PostMapping("/assign-employees")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> assignEmployeesBatch(@RequestBody Map<UUID, Set<UUID>> assignments) {
+        try {
+            List<AdminAppointmentDTO> updated = appointmentService.assignEmployees(assignments).stream()
+                    .map(this::toAdminAppointmentDTO)
+                    .toList();
+            return ResponseEntity.ok(updated);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // ===================================================================
     // 5. ADMIN: Get all employees (for dropdown)
     // ===================================================================
@@ -97,6 +135,37 @@ public class AdminAppointmentController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    // ===================================================================
+    // 6. ADMIN: Export appointment history (streamed NDJSON or CSV)
+    // ===================================================================
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportAppointments(
+            @RequestParam(required = false, defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) UUID serviceCenterId,
+            @RequestParam(required = false) AppointmentType appointmentType,
+            @RequestParam(required = false) String status,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+
+        // Missing dates leave that side of the range open
+        AnalyticsFilterRequestDTO filter = new AnalyticsFilterRequestDTO();
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+        filter.setServiceCenterId(serviceCenterId);
+        filter.setAppointmentType(appointmentType);
+        filter.setStatus(status);
+
+        response.setContentType(AppointmentExportService.contentType(exportFormat));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"appointments-"
+                + LocalDate.now() + "." + exportFormat.name().toLowerCase() + "\"");
+        appointmentExportService.export(filter, exportFormat, response.getOutputStream());
+    }
+
     // ===================================================================
     // HELPER: Convert Appointment to AdminAppointmentDTO
     // ===================================================================
@@ -119,4 +188,15 @@ public class AdminAppointmentController {
         dto.setAssignedEmployeeCount(appointment.getAssignedEmployees().size());
         return dto;
     }
+
+    // ===================================================================
+    // Helper: page items as the body, cursor of the next page as a header
+    // ===================================================================
+    private ResponseEntity<List<AdminAppointmentDTO>> toPageResponse(AdminAppointmentPageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
 }
@@ -1,28 +1,63 @@
 package com.ead.backend.controller;
 
 import com.ead.backend.dto.*;
+import com.ead.backend.enums.AnalyticsReportType;
 import com.ead.backend.enums.AppointmentType;
 import com.ead.backend.enums.PeriodType;
+import com.ead.backend.enums.UtilizationWindow;
+import com.ead.backend.exception.ResourceNotFoundException;
+import com.ead.backend.service.AnalyticsCacheService;
+import com.ead.backend.service.AnalyticsComparisonService;
+import com.ead.backend.service.AnalyticsReportJobService;
 import com.ead.backend.service.AnalyticsService;
+import com.ead.backend.service.SlotUtilizationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/analytics")
 @PreAuthorize("hasRole('ADMIN')")
 public class AnalyticsController {
 
+    // Tomcat request attributes for zero-copy file responses (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private AnalyticsCacheService analyticsCacheService;
+
+    @Autowired
+    private SlotUtilizationService slotUtilizationService;
+
+    @Autowired
+    private AnalyticsReportJobService analyticsReportJobService;
+
+    @Autowired
+    private AnalyticsComparisonService analyticsComparisonService;
+
     /**
      * Get service type distribution analytics
      * GET /analytics/service-distribution
@@ -38,7 +73,8 @@ public class AnalyticsController {
 
         try {
             AnalyticsFilterRequestDTO filter = createFilter(startDate, endDate, serviceCenterId, appointmentType, status, PeriodType.DAILY, allTime);
-            ServiceDistributionResponseDTO data = analyticsService.getServiceTypeDistribution(filter);
+            ServiceDistributionResponseDTO data = analyticsCacheService.get("service-distribution", filter, null,
+                    () -> analyticsService.getServiceTypeDistribution(filter));
             return ResponseEntity.ok(AnalyticsResponseDTO.success("Service distribution retrieved successfully", data));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -60,7 +96,8 @@ public class AnalyticsController {
 
         try {
             AnalyticsFilterRequestDTO filter = createFilter(startDate, endDate, serviceCenterId, null, null, periodType, allTime);
-            RevenueTrendResponseDTO data = analyticsService.getRevenueTrend(filter);
+            RevenueTrendResponseDTO data = analyticsCacheService.get("revenue-trend", filter, null,
+                    () -> analyticsService.getRevenueTrend(filter));
             return ResponseEntity.ok(AnalyticsResponseDTO.success("Revenue trend retrieved successfully", data));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -81,7 +118,8 @@ public class AnalyticsController {
 
         try {
             AnalyticsFilterRequestDTO filter = createFilter(startDate, endDate, serviceCenterId, null, null, PeriodType.DAILY, allTime);
-            EmployeePerformanceResponseDTO data = analyticsService.getEmployeePerformance(filter);
+            EmployeePerformanceResponseDTO data = analyticsCacheService.get("employee-performance", filter, null,
+                    () -> analyticsService.getEmployeePerformance(filter));
             return ResponseEntity.ok(AnalyticsResponseDTO.success("Employee performance retrieved successfully", data));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -90,19 +128,99 @@ public class AnalyticsController {
     }
 
     /**
-     * Get customer insights analytics
-     * GET /analytics/customer-insights
+     * Get turnaround (wait and work duration) percentiles
+     * GET /analytics/turnaround
+     */
+    @GetMapping("/turnaround")
+    public ResponseEntity<AnalyticsResponseDTO<TurnaroundResponseDTO>> getTurnaround(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) UUID serviceCenterId,
+            @RequestParam(required = false, defaultValue = "false") Boolean allTime) {
+
+        try {
+            AnalyticsFilterRequestDTO filter = createFilter(startDate, endDate, serviceCenterId, null, null, PeriodType.DAILY, allTime);
+            TurnaroundResponseDTO data = analyticsCacheService.get("turnaround", filter, null,
+                    () -> analyticsService.getTurnaroundReport(filter));
+            return ResponseEntity.ok(AnalyticsResponseDTO.success("Turnaround analytics retrieved successfully", data));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(AnalyticsResponseDTO.error("Error retrieving turnaround analytics: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Compare service distribution, revenue trend and employee performance across centers in one call
+     * GET /analytics/comparison?serviceCenterIds=...,...&periodType=MONTHLY (all active centers when omitted)
+     */
+    @GetMapping("/comparison")
+    public ResponseEntity<AnalyticsResponseDTO<CenterComparisonResponseDTO>> getCenterComparison(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) List<UUID> serviceCenterIds,
+            @RequestParam(required = false, defaultValue = "DAILY") PeriodType periodType,
+            @RequestParam(required = false, defaultValue = "false") Boolean allTime) {
+
+        try {
+            AnalyticsFilterRequestDTO filter = createFilter(startDate, endDate, null, null, null, periodType, allTime);
+            CenterComparisonResponseDTO data = analyticsComparisonService.compare(filter, serviceCenterIds);
+            return ResponseEntity.ok(AnalyticsResponseDTO.success("Service center comparison retrieved successfully", data));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(AnalyticsResponseDTO.error(e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(AnalyticsResponseDTO.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(AnalyticsResponseDTO.error("Error comparing service centers: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get precomputed slot utilization heatmaps (booked vs capacity per weekday and hour)
+     * GET /analytics/slot-utilization?window=last_28_days&serviceCenterId=...
+     */
+    @GetMapping("/slot-utilization")
+    public ResponseEntity<AnalyticsResponseDTO<List<SlotUtilizationDTO>>> getSlotUtilization(
+            @RequestParam(defaultValue = "last_28_days") String window,
+            @RequestParam(required = false) UUID serviceCenterId) {
+
+        try {
+            List<SlotUtilizationDTO> data = slotUtilizationService.getHeatmaps(UtilizationWindow.from(window), serviceCenterId);
+            return ResponseEntity.ok(AnalyticsResponseDTO.success("Slot utilization retrieved successfully", data));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(AnalyticsResponseDTO.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(AnalyticsResponseDTO.error("Error retrieving slot utilization: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get customer insights analytics, one page at a time
+     * GET /analytics/customer-insights?page=0&size=20&sortBy=totalSpent&direction=DESC
      */
     @GetMapping("/customer-insights")
     public ResponseEntity<AnalyticsResponseDTO<CustomerInsightsResponseDTO>> getCustomerInsights(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
-            @RequestParam(required = false, defaultValue = "false") Boolean allTime) {
+            @RequestParam(required = false, defaultValue = "false") Boolean allTime,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "totalAppointments") String sortBy,
+            @RequestParam(defaultValue = "DESC") String direction) {
 
         try {
             AnalyticsFilterRequestDTO filter = createFilter(startDate, endDate, null, null, null, PeriodType.DAILY, allTime);
-            CustomerInsightsResponseDTO data = analyticsService.getCustomerInsights(filter);
+            CustomerInsightsResponseDTO data = analyticsCacheService.get("customer-insights", filter,
+                    List.of(page, size, sortBy, direction),
+                    () -> analyticsService.getCustomerInsights(filter, page, size, sortBy, direction));
             return ResponseEntity.ok(AnalyticsResponseDTO.success("Customer insights retrieved successfully", data));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(AnalyticsResponseDTO.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(AnalyticsResponseDTO.error("Error retrieving customer insights: " + e.getMessage()));
@@ -111,18 +229,21 @@ public class AnalyticsController {
 
     /**
      * Get dashboard summary analytics
-     * GET /analytics/dashboard
+     * GET /analytics/dashboard?approximate=true (estimated customer counts, cheaper for long ranges)
      */
     @GetMapping("/dashboard")
     public ResponseEntity<AnalyticsResponseDTO<AnalyticsDashboardDTO>> getDashboard(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(required = false) UUID serviceCenterId,
-            @RequestParam(required = false, defaultValue = "false") Boolean allTime) {
+            @RequestParam(required = false, defaultValue = "false") Boolean allTime,
+            @RequestParam(required = false, defaultValue = "false") Boolean approximate) {
 
         try {
             AnalyticsFilterRequestDTO filter = createFilter(startDate, endDate, serviceCenterId, null, null, PeriodType.DAILY, allTime);
-            AnalyticsDashboardDTO data = analyticsService.getDashboardSummary(filter);
+            filter.setApproximate(approximate);
+            AnalyticsDashboardDTO data = analyticsCacheService.get("dashboard", filter, null,
+                    () -> analyticsService.getDashboardSummary(filter));
             return ResponseEntity.ok(AnalyticsResponseDTO.success("Dashboard summary retrieved successfully", data));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -139,7 +260,8 @@ public class AnalyticsController {
             @Valid @RequestBody AnalyticsFilterRequestDTO filter) {
 
         try {
-            AnalyticsDashboardDTO data = analyticsService.getDashboardSummary(filter);
+            // Sliced from the in-memory fact snapshot; cheap enough not to need the report cache
+            AnalyticsDashboardDTO data = analyticsService.getCustomAnalytics(filter);
             return ResponseEntity.ok(AnalyticsResponseDTO.success("Custom analytics retrieved successfully", data));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -147,6 +269,105 @@ public class AnalyticsController {
         }
     }
 
+    /**
+     * Queue a report to run in the background (for long ranges that would time out)
+     * POST /analytics/reports?report=revenue-trend
+     */
+    @PostMapping("/reports")
+    public ResponseEntity<AnalyticsResponseDTO<ReportJobDTO>> submitReportJob(
+            @RequestParam String report,
+            @RequestBody AnalyticsFilterRequestDTO body) {
+
+        try {
+            AnalyticsFilterRequestDTO filter = createFilter(body.getStartDate(), body.getEndDate(), body.getServiceCenterId(),
+                    body.getAppointmentType(), body.getStatus(), body.getPeriodType(), body.getAllTime());
+            filter.setServiceOrModificationId(body.getServiceOrModificationId());
+            filter.setEmployeeId(body.getEmployeeId());
+            filter.setApproximate(body.getApproximate());
+            ReportJobDTO job = analyticsReportJobService.submit(AnalyticsReportType.from(report), filter);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(AnalyticsResponseDTO.success("Analytics report queued", job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(AnalyticsResponseDTO.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(AnalyticsResponseDTO.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Poll the status of a background report
+     * GET /analytics/reports/{jobId}
+     */
+    @GetMapping("/reports/{jobId}")
+    public ResponseEntity<AnalyticsResponseDTO<ReportJobDTO>> getReportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(AnalyticsResponseDTO.success("Analytics report job retrieved successfully",
+                analyticsReportJobService.getJob(jobId)));
+    }
+
+    /**
+     * Cancel a queued or running background report
+     * DELETE /analytics/reports/{jobId}
+     */
+    @DeleteMapping("/reports/{jobId}")
+    public ResponseEntity<AnalyticsResponseDTO<ReportJobDTO>> cancelReportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(AnalyticsResponseDTO.success("Analytics report job cancelled",
+                analyticsReportJobService.cancel(jobId)));
+    }
+
+    /**
+     * Download the result (JSON) of a completed background report
+     * GET /analytics/reports/{jobId}/result
+     * <p>
+     * The stored gzip file is sent as-is with Content-Encoding gzip, handed to Tomcat's sendfile when
+     * the connector supports it so the bytes never pass through the JVM.
+     */
+    @GetMapping("/reports/{jobId}/result")
+    public ResponseEntity<?> downloadReportJobResult(
+            @PathVariable UUID jobId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest request) throws IOException {
+
+        Path file;
+        try {
+            file = analyticsReportJobService.getResultFile(jobId);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(AnalyticsResponseDTO.error(e.getMessage()));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"analytics-report-" + jobId + ".json\"");
+
+        if (acceptEncoding == null || !acceptEncoding.toLowerCase().contains("gzip")) {
+            // Rare client without gzip support: inflate while streaming
+            return response.body(new InputStreamResource(new GZIPInputStream(Files.newInputStream(file))));
+        }
+
+        long length = Files.size(file);
+        response.header(HttpHeaders.CONTENT_ENCODING, "gzip").contentLength(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return response.build();
+        }
+        return response.body(new FileSystemResource(file));
+    }
+
+    /**
+     * Report cache hit/miss counters, for tuning TTL and size
+     * GET /analytics/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<AnalyticsResponseDTO<AnalyticsCacheService.CacheStats>> getCacheStats() {
+        return ResponseEntity.ok(AnalyticsResponseDTO.success("Analytics cache statistics retrieved successfully",
+                analyticsCacheService.stats()));
+    }
+
     // ===================================================================
     // HELPER METHODS
     // ===================================================================
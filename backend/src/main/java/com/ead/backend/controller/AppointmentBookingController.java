@@ -3,11 +3,13 @@ package com.ead.backend.controller;
 import com.ead.backend.dto.*;
 import com.ead.backend.entity.*;
 import com.ead.backend.service.AppointmentService;
+import com.ead.backend.service.IdempotencyService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -21,53 +23,37 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*") // Configure properly in production
 public class AppointmentBookingController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     // ===================================================================
     // 1. BOOK APPOINTMENT (Customer only)
     // ===================================================================
     @PostMapping("/book")
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<?> bookAppointment(
-            @Valid @RequestBody AppointmentBookingRequestDTO request) {
+            @Valid @RequestBody AppointmentBookingRequestDTO request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
 
         try {
-            // Map DTO → Entity
-            Appointment appointment = new Appointment();
-
-            // Set vehicle by ID (service will fetch it)
-            Vehicle vehicle = new Vehicle();
-            vehicle.setId(request.getVehicleId());
-            appointment.setVehicle(vehicle);
-
-            ServiceOrModification som = new ServiceOrModification();
-            som.setId(request.getServiceOrModificationId());
-            appointment.setServiceOrModification(som);
-
-            ServiceCenter serviceCenter = new ServiceCenter();
-            serviceCenter.setId(request.getServiceCenterId());
-            appointment.setServiceCenter(serviceCenter);
-
-            appointment.setAppointmentType(request.getAppointmentType());
-            appointment.setAppointmentDate(request.getAppointmentDate());
-            appointment.setDescription(request.getDescription());
-
-            // Save via service
-            Appointment saved = appointmentService.createAppointment(appointment);
-
-            // Build response
-            AppointmentBookingResponseDTO response = new AppointmentBookingResponseDTO();
-            response.setId(saved.getId());
-            response.setVehicleId(saved.getVehicle().getId());
-            response.setVehicleInfo(saved.getVehicle().getBrand() + " " + saved.getVehicle().getModel() + " " + saved.getVehicle().getYear());
-            response.setServiceName(saved.getServiceOrModification().getName());
-            response.setAppointmentType(saved.getAppointmentType());
-            response.setAppointmentDate(saved.getAppointmentDate());
-            response.setStatus(saved.getStatus());
-            response.setMessage("Appointment booked successfully! Awaiting confirmation.");
-
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            // Without a key every call books; with a key replays return the original booking
+            if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(book(request));
+            }
+
+            IdempotencyService.IdempotentResult<AppointmentBookingResponseDTO> result = idempotencyService.execute(
+                    authentication.getName(), idempotencyKey, request, () -> book(request));
+
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                    .body(result.value());
 
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
@@ -75,6 +61,43 @@ public class AppointmentBookingController {
         }
     }
 
+    private AppointmentBookingResponseDTO book(AppointmentBookingRequestDTO request) {
+        // Map DTO → Entity
+        Appointment appointment = new Appointment();
+
+        // Set vehicle by ID (service will fetch it)
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(request.getVehicleId());
+        appointment.setVehicle(vehicle);
+
+        ServiceOrModification som = new ServiceOrModification();
+        som.setId(request.getServiceOrModificationId());
+        appointment.setServiceOrModification(som);
+
+        ServiceCenter serviceCenter = new ServiceCenter();
+        serviceCenter.setId(request.getServiceCenterId());
+        appointment.setServiceCenter(serviceCenter);
+
+        appointment.setAppointmentType(request.getAppointmentType());
+        appointment.setAppointmentDate(request.getAppointmentDate());
+        appointment.setDescription(request.getDescription());
+
+        // Save via service
+        Appointment saved = appointmentService.createAppointment(appointment);
+
+        // Build response
+        AppointmentBookingResponseDTO response = new AppointmentBookingResponseDTO();
+        response.setId(saved.getId());
+        response.setVehicleId(saved.getVehicle().getId());
+        response.setVehicleInfo(saved.getVehicle().getBrand() + " " + saved.getVehicle().getModel() + " " + saved.getVehicle().getYear());
+        response.setServiceName(saved.getServiceOrModification().getName());
+        response.setAppointmentType(saved.getAppointmentType());
+        response.setAppointmentDate(saved.getAppointmentDate());
+        response.setStatus(saved.getStatus());
+        response.setMessage("Appointment booked successfully! Awaiting confirmation.");
+        return response;
+    }
+
     // ===================================================================
     // 2. GET MY APPOINTMENTS (Customer)
     // ===================================================================
@@ -145,6 +168,27 @@ public class AppointmentBookingController {
         }
     }
 
+    // ===================================================================
+    // 3.1 AVAILABILITY CALENDAR (Customer)
+    // One request for up to 30 days x business hours across several centers
+    // ===================================================================
+    @GetMapping("/availability-calendar")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<?> getAvailabilityCalendar(
+            @RequestParam(required = true) List<UUID> serviceCenterIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(defaultValue = "30") int days) {
+        try {
+            LocalDate from = startDate != null ? startDate : LocalDate.now();
+            List<AvailabilityCalendarDTO> calendar = appointmentService.getAvailabilityCalendar(serviceCenterIds, from, days);
+            return ResponseEntity.ok(calendar);
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponseDTO(e.getMessage(), false));
+        }
+    }
+
 
     // ===================================================================
     // Helper: Convert Appointment → Summary DTO
@@ -97,6 +97,8 @@ public class EmployeeController {
                 return ResponseEntity.status(HttpStatus.OK).body(new MessageResponseDTO("Unable to retrieve appointment in order to update status.", false));
             } else if ("INVALID_STATUS".equals(errorMessage))  {
                 return ResponseEntity.status(HttpStatus.OK).body(new MessageResponseDTO("Invalid appointment status.", false));
+            } else if ("SLOT_FULL".equals(errorMessage)) {
+                return ResponseEntity.status(HttpStatus.OK).body(new MessageResponseDTO("Service center is fully booked for this time slot.", false));
             }
             else {
                 return ResponseEntity.status(HttpStatus.OK).body(new MessageResponseDTO(errorMessage, false));
@@ -2,9 +2,13 @@ package com.ead.backend.controller;
 
 import com.ead.backend.entity.Notification;
 import com.ead.backend.service.NotificationService;
+import com.ead.backend.service.NotificationWriteBuffer;
+import com.ead.backend.service.SseConnectionRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -19,13 +23,36 @@ public class NotificationController {
 
     private final NotificationService notificationService;
 
-    // SSE subscription endpoint
+    // SSE subscription endpoint. Browsers resend the id of the last event they got as Last-Event-ID when
+    // EventSource reconnects; clients that open a new EventSource can pass it as lastEventId instead
     @GetMapping(value = "/subscribe/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter subscribe(
+    public ResponseEntity<SseEmitter> subscribe(
             @PathVariable UUID userId,
-            @RequestParam(required = false) String token
+            @RequestParam(required = false) String token,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId
     ) {
-        return notificationService.subscribe(userId);
+        try {
+            Long resumeAfter = parseEventId(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+            return ResponseEntity.ok(notificationService.subscribe(userId, resumeAfter));
+        } catch (IllegalStateException e) {
+            // Node at its connection cap
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    // Live connection and outbound queue counters
+    @GetMapping("/connections/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SseConnectionRegistry.ConnectionStats> getConnectionStats() {
+        return ResponseEntity.ok(notificationService.getConnectionStats());
+    }
+
+    // Notification write buffer and batch insert counters
+    @GetMapping("/persistence/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<NotificationWriteBuffer.WriteStats> getWriteStats() {
+        return ResponseEntity.ok(notificationService.getWriteStats());
     }
 
     // Get all notifications
@@ -66,4 +93,16 @@ public class NotificationController {
         notificationService.clearAllNotifications(userId);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    // Ids we did not hand out are ignored: the browser then just gets live events
+    private static Long parseEventId(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ead.backend.dto;
 
 import com.ead.backend.enums.AppointmentType;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public class AdminAppointmentDTO {
@@ -19,6 +20,28 @@ public class AdminAppointmentDTO {
     private String assignedEmployees; // Comma-separated names
     private Integer assignedEmployeeCount;
 
+    public AdminAppointmentDTO() {
+    }
+
+    // Used by the JPQL constructor projections in AppointmentRepository; employees are filled in separately
+    public AdminAppointmentDTO(UUID id, UUID vehicleId, String vehicleBrand, String vehicleModel, String licensePlate,
+                               String customerName, String customerEmail, String service, AppointmentType type,
+                               LocalDateTime date, String status, String serviceCenter) {
+        this.id = id;
+        this.vehicleId = vehicleId;
+        this.vehicleName = vehicleBrand + " " + vehicleModel;
+        this.licensePlate = licensePlate;
+        this.customerName = customerName;
+        this.customerEmail = customerEmail;
+        this.service = service;
+        this.type = type;
+        this.date = date.toString();
+        this.status = status;
+        this.serviceCenter = serviceCenter;
+        this.assignedEmployees = "";
+        this.assignedEmployeeCount = 0;
+    }
+
     // Getters and Setters
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
@@ -0,0 +1,15 @@
+package com.ead.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminAppointmentPageDTO {
+    private List<AdminAppointmentDTO> items;
+    private String nextCursor; // null when this is the last page
+}
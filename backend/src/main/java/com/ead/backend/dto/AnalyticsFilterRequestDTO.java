@@ -21,6 +21,13 @@ public class AnalyticsFilterRequestDTO {
     private PeriodType periodType = PeriodType.DAILY;
     private Boolean allTime = false;
 
+    // Extra slicing dimensions, used by /analytics/custom
+    private UUID serviceOrModificationId;
+    private UUID employeeId;
+
+    // Estimate distinct and repeat customers from the daily sketches instead of counting them
+    private Boolean approximate = false;
+
     // Default constructor with last 30 days
     public static AnalyticsFilterRequestDTO defaultLast30Days() {
         AnalyticsFilterRequestDTO dto = new AnalyticsFilterRequestDTO();
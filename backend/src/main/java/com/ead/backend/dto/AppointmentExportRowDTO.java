@@ -0,0 +1,33 @@
+package com.ead.backend.dto;
+
+import com.ead.backend.enums.AppointmentType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One line of the appointment export. Built by a constructor projection, so exported rows
+ * never become managed entities and the persistence context stays empty while streaming.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentExportRowDTO {
+    private UUID id;
+    private LocalDateTime appointmentDate;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String status;
+    private AppointmentType appointmentType;
+    private String serviceName;
+    private Double estimatedCost;
+    private String serviceCenterName;
+    private String customerName;
+    private String customerEmail;
+    private String vehicleBrand;
+    private String vehicleModel;
+    private String licensePlate;
+}
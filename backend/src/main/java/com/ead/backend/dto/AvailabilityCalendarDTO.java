@@ -0,0 +1,18 @@
+package com.ead.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityCalendarDTO {
+    private UUID serviceCenterId;
+    private String serviceCenterName;
+    private Integer centerSlot;
+    private List<AvailabilityDayDTO> days;
+}
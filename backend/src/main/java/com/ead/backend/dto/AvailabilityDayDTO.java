@@ -0,0 +1,16 @@
+package com.ead.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDayDTO {
+    private LocalDate date;
+    private int firstHour;          // Hour of remainingSlots[0]; slots are consecutive hours
+    private int[] remainingSlots;   // Free slots per business hour, 0 for hours that can no longer be booked
+}
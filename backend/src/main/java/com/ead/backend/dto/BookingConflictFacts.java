@@ -0,0 +1,49 @@
+package com.ead.backend.dto;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Conflict facts for a prospective booking, loaded with a single query
+ * (see AppointmentRepository.getBookingConflictFacts).
+ *
+ * @param duplicateCount            non-cancelled appointments of the vehicle at exactly the requested time
+ * @param pendingElsewhereCount     upcoming PENDING appointments of the same type at another service center
+ * @param customerAppointmentsOnDay non-cancelled appointments of the customer on the requested day
+ * @param overlappingServiceName    service of the earliest active appointment overlapping the requested window, or null
+ * @param overlappingStart          start of that appointment, or null
+ * @param overlappingMinutes        estimated duration of that appointment, or null
+ */
+public record BookingConflictFacts(
+        long duplicateCount,
+        long pendingElsewhereCount,
+        long customerAppointmentsOnDay,
+        String overlappingServiceName,
+        LocalDateTime overlappingStart,
+        Integer overlappingMinutes
+) {
+
+    public static final BookingConflictFacts NONE = new BookingConflictFacts(0, 0, 0, null, null, null);
+
+    public static BookingConflictFacts fromRow(Object[] row) {
+        return new BookingConflictFacts(
+                row[0] != null ? ((Number) row[0]).longValue() : 0,
+                row[1] != null ? ((Number) row[1]).longValue() : 0,
+                row[2] != null ? ((Number) row[2]).longValue() : 0,
+                (String) row[3],
+                toLocalDateTime(row[4]),
+                row[5] != null ? ((Number) row[5]).intValue() : null
+        );
+    }
+
+    public boolean hasOverlap() {
+        return overlappingStart != null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
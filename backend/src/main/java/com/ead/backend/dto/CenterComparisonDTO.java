@@ -0,0 +1,18 @@
+package com.ead.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CenterComparisonDTO {
+    private UUID serviceCenterId;
+    private String serviceCenterName;
+    private ServiceDistributionResponseDTO serviceDistribution;
+    private RevenueTrendResponseDTO revenueTrend;
+    private EmployeePerformanceResponseDTO employeePerformance;
+}
@@ -0,0 +1,23 @@
+package com.ead.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CenterComparisonResponseDTO {
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private Boolean allTime;
+
+    // Totals over all compared centers
+    private Long totalAppointments;
+    private Double totalRevenue;
+
+    private List<CenterComparisonDTO> centers;
+}
@@ -19,5 +19,8 @@ public class CustomerInsightsResponseDTO {
     private Long totalAppointments;
     private List<CustomerInsightDTO> customerInsights;
     private List<CustomerInsightDTO> topCustomers;
+    private Integer page;
+    private Integer pageSize;
+    private Integer totalPages;
 }
 
@@ -0,0 +1,25 @@
+package com.ead.backend.dto;
+
+import com.ead.backend.enums.AnalyticsReportType;
+import com.ead.backend.enums.ReportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+    private UUID jobId;
+    private AnalyticsReportType report;
+    private ReportJobStatus status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime expiresAt;
+    private Long resultBytes;  // Size of the stored (gzip) result, once completed
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.ead.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotUtilizationCellDTO {
+    private DayOfWeek dayOfWeek;
+    private Integer hour;
+    private Long bookedSlots;
+    private Long capacitySlots;
+    private Double utilizationPercentage;
+}
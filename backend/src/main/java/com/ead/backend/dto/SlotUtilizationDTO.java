@@ -0,0 +1,29 @@
+package com.ead.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Booked vs available slots of one service center per weekday and business hour over a window
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotUtilizationDTO {
+    private UUID serviceCenterId;
+    private String serviceCenterName;
+    private Integer centerSlot;
+    private LocalDate windowStart;
+    private LocalDate windowEnd;
+    private Long bookedSlots;
+    private Long capacitySlots;
+    private Double utilizationPercentage;
+    private List<SlotUtilizationCellDTO> cells;
+    private LocalDateTime computedAt;
+}
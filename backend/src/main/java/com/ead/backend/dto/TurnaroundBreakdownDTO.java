@@ -0,0 +1,17 @@
+package com.ead.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TurnaroundBreakdownDTO {
+    private UUID id;
+    private String name;
+    private TurnaroundStatsDTO waitTime;
+    private TurnaroundStatsDTO workDuration;
+}
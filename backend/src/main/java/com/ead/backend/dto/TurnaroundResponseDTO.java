@@ -0,0 +1,22 @@
+package com.ead.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TurnaroundResponseDTO {
+    // Wait: scheduled time to actual start; work: actual start to actual end
+    private TurnaroundStatsDTO waitTime;
+    private TurnaroundStatsDTO workDuration;
+    private List<TurnaroundBreakdownDTO> byService;
+    private List<TurnaroundBreakdownDTO> byServiceCenter;
+    private List<TurnaroundBreakdownDTO> byEmployee;
+    private LocalDateTime periodStart;
+    private LocalDateTime periodEnd;
+}
@@ -0,0 +1,18 @@
+package com.ead.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Percentiles of one duration, in minutes (within about 3%; null when there are no samples)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TurnaroundStatsDTO {
+    private Long sampleCount;
+    private Double p50Minutes;
+    private Double p90Minutes;
+    private Double p99Minutes;
+}
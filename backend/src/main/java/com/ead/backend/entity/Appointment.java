@@ -11,10 +11,52 @@ import com.ead.backend.enums.AppointmentType;
 
 @Entity
 @Table(name = "appointment")
+// Fetch plans for the list endpoints: everything a DTO mapper walks is loaded in the same select.
+// User.roles is EAGER, so it is part of each user subgraph instead of a follow-up select per user.
+@NamedEntityGraph(
+        name = Appointment.GRAPH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "user", subgraph = "user"),
+                @NamedAttributeNode("vehicle"),
+                @NamedAttributeNode("serviceOrModification"),
+                @NamedAttributeNode("serviceCenter")
+        },
+        subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("roles"))
+)
+// Customer lists are filtered by the already loaded customer, so they fetch the assigned employees instead.
+@NamedEntityGraph(
+        name = Appointment.GRAPH_CUSTOMER_VIEW,
+        attributeNodes = {
+                @NamedAttributeNode("vehicle"),
+                @NamedAttributeNode("serviceOrModification"),
+                @NamedAttributeNode("serviceCenter"),
+                @NamedAttributeNode(value = "assignedEmployees", subgraph = "employee")
+        },
+        subgraphs = @NamedSubgraph(name = "employee", attributeNodes = @NamedAttributeNode("roles"))
+)
+// Employee assignment works on the full appointment plus its current assignees.
+@NamedEntityGraph(
+        name = Appointment.GRAPH_ASSIGNMENT,
+        attributeNodes = {
+                @NamedAttributeNode(value = "user", subgraph = "user"),
+                @NamedAttributeNode("vehicle"),
+                @NamedAttributeNode("serviceOrModification"),
+                @NamedAttributeNode("serviceCenter"),
+                @NamedAttributeNode(value = "assignedEmployees", subgraph = "employee")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("roles")),
+                @NamedSubgraph(name = "employee", attributeNodes = @NamedAttributeNode("roles"))
+        }
+)
 @Data
 @NoArgsConstructor
 public class Appointment {
 
+    public static final String GRAPH_DETAILS = "Appointment.details";
+    public static final String GRAPH_CUSTOMER_VIEW = "Appointment.customerView";
+    public static final String GRAPH_ASSIGNMENT = "Appointment.assignment";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     @Column(columnDefinition = "UUID")
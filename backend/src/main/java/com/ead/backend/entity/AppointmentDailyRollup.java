@@ -0,0 +1,47 @@
+package com.ead.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Number of appointments per (day, service center, service/modification, status).
+ * Maintained incrementally by {@link com.ead.backend.service.AnalyticsRollupService}.
+ */
+@Entity
+@Table(name = "appointment_daily_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentDailyRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "appointment_count", nullable = false)
+    private Long appointmentCount = 0L;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "appointment_day", nullable = false)
+        private LocalDate day;
+
+        @Column(name = "service_center_id", nullable = false, columnDefinition = "UUID")
+        private UUID serviceCenterId;
+
+        @Column(name = "service_or_modification_id", nullable = false, columnDefinition = "UUID")
+        private UUID serviceOrModificationId;
+
+        @Column(name = "status", nullable = false, length = 20)
+        private String status;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ead.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One register of a daily HyperLogLog sketch of customer ids (see {@link com.ead.backend.util.HyperLogLog}).
+ * <p>
+ * Sketch ALL covers every customer with an appointment on that day and center; sketch RETURNING only
+ * customers who already had another appointment when booking it. Only non-empty registers are stored.
+ * Maintained incrementally by {@link com.ead.backend.service.AnalyticsRollupService}.
+ */
+@Entity
+@Table(name = "customer_daily_sketch")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerDailySketch {
+
+    public static final String SKETCH_ALL = "ALL";
+    public static final String SKETCH_RETURNING = "RETURNING";
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "register_rank", nullable = false)
+    private Integer registerRank;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "appointment_day", nullable = false)
+        private LocalDate day;
+
+        @Column(name = "service_center_id", nullable = false, columnDefinition = "UUID")
+        private UUID serviceCenterId;
+
+        @Column(name = "sketch", nullable = false, length = 20)
+        private String sketch;
+
+        @Column(name = "register_index", nullable = false)
+        private Integer registerIndex;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ead.backend.entity;
+
+import com.ead.backend.enums.TurnaroundMetric;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One bucket of a daily turnaround histogram (see {@link com.ead.backend.util.LatencyHistogram}).
+ * <p>
+ * Histograms are kept per (day, service center, dimension, metric): dimension SERVICE holds one
+ * sample per appointment keyed by its service/modification, dimension EMPLOYEE one sample per
+ * assigned employee. Maintained incrementally by {@link com.ead.backend.service.AnalyticsRollupService}.
+ */
+@Entity
+@Table(name = "turnaround_histogram")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TurnaroundHistogramBucket {
+
+    public static final String DIMENSION_SERVICE = "SERVICE";
+    public static final String DIMENSION_EMPLOYEE = "EMPLOYEE";
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount = 0L;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "appointment_day", nullable = false)
+        private LocalDate day;
+
+        @Column(name = "service_center_id", nullable = false, columnDefinition = "UUID")
+        private UUID serviceCenterId;
+
+        @Column(name = "dimension", nullable = false, length = 20)
+        private String dimension;
+
+        @Column(name = "dimension_id", nullable = false, columnDefinition = "UUID")
+        private UUID dimensionId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "metric", nullable = false, length = 20)
+        private TurnaroundMetric metric;
+
+        @Column(name = "bucket", nullable = false)
+        private Integer bucket;
+    }
+}
@@ -2,6 +2,7 @@ package com.ead.backend.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -46,6 +47,9 @@ public class User {
     @Column(name = "oauth_id")
     private String oauthId;
 
+    // Kept out of equals/hashCode: users are put into Sets (e.g. Appointment.assignedEmployees) while the
+    // result set is still being read, and hashing the collection there forces an extra select per user
+    @EqualsAndHashCode.Exclude
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
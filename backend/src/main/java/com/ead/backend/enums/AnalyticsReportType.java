@@ -0,0 +1,23 @@
+package com.ead.backend.enums;
+
+public enum AnalyticsReportType {
+    DASHBOARD,
+    SERVICE_DISTRIBUTION,
+    REVENUE_TREND,
+    EMPLOYEE_PERFORMANCE,
+    TURNAROUND,
+    CUSTOM;
+
+    /**
+     * Accepts the enum name or the endpoint name, e.g. {@code revenue-trend}.
+     */
+    public static AnalyticsReportType from(String value) {
+        for (AnalyticsReportType type : values()) {
+            if (type.name().equalsIgnoreCase(value) || type.name().replace('_', '-').equalsIgnoreCase(value)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported analytics report: " + value
+                + ". Use dashboard, service-distribution, revenue-trend, employee-performance, turnaround or custom");
+    }
+}
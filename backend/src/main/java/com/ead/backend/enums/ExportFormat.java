@@ -0,0 +1,15 @@
+package com.ead.backend.enums;
+
+public enum ExportFormat {
+    NDJSON,
+    CSV;
+
+    public static ExportFormat from(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + value + ". Use ndjson or csv");
+    }
+}
@@ -0,0 +1,25 @@
+package com.ead.backend.enums;
+
+public enum NotificationDurability {
+    /**
+     * Rows are batch-inserted in the caller's transaction just before it commits.
+     */
+    FLUSH_ON_COMMIT,
+    /**
+     * Rows are buffered in memory and batch-inserted in the background; a crash loses what is still buffered.
+     */
+    BEST_EFFORT;
+
+    /**
+     * Accepts the enum name or the property form, e.g. {@code best-effort}.
+     */
+    public static NotificationDurability from(String value) {
+        for (NotificationDurability durability : values()) {
+            if (durability.name().equalsIgnoreCase(value) || durability.name().replace('_', '-').equalsIgnoreCase(value)) {
+                return durability;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported notification durability: " + value
+                + ". Use flush-on-commit or best-effort");
+    }
+}
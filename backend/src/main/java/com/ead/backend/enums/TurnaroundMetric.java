@@ -0,0 +1,6 @@
+package com.ead.backend.enums;
+
+public enum TurnaroundMetric {
+    WAIT,   // Scheduled appointment time to actual start
+    WORK    // Actual start to actual end
+}
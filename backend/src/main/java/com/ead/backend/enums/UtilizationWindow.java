@@ -0,0 +1,38 @@
+package com.ead.backend.enums;
+
+import java.time.LocalDate;
+
+/**
+ * Rolling windows of the slot utilization heatmap: complete past days up to yesterday, or the booking horizon.
+ */
+public enum UtilizationWindow {
+    LAST_7_DAYS(-7),
+    LAST_28_DAYS(-28),
+    LAST_91_DAYS(-91),
+    NEXT_30_DAYS(30);
+
+    // Negative: days before today; positive: days from today on
+    private final int days;
+
+    UtilizationWindow(int days) {
+        this.days = days;
+    }
+
+    public LocalDate startDay(LocalDate today) {
+        return days < 0 ? today.plusDays(days) : today;
+    }
+
+    public LocalDate endDay(LocalDate today) {
+        return days < 0 ? today.minusDays(1) : today.plusDays(days - 1L);
+    }
+
+    public static UtilizationWindow from(String value) {
+        for (UtilizationWindow window : values()) {
+            if (window.name().equalsIgnoreCase(value)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported utilization window: " + value
+                + ". Use last_7_days, last_28_days, last_91_days or next_30_days");
+    }
+}
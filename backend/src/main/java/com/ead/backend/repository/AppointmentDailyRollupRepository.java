@@ -0,0 +1,122 @@
+package com.ead.backend.repository;
+
+import com.ead.backend.entity.AppointmentDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface AppointmentDailyRollupRepository extends JpaRepository<AppointmentDailyRollup, AppointmentDailyRollup.Key> {
+
+    /**
+     * Atomically add {@code delta} (may be negative) to one rollup row, creating it if needed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO appointment_daily_rollup " +
+            "(appointment_day, service_center_id, service_or_modification_id, status, appointment_count) " +
+            "VALUES (:day, CAST(:serviceCenterId AS UUID), CAST(:serviceOrModificationId AS UUID), :status, :delta) " +
+            "ON CONFLICT (appointment_day, service_center_id, service_or_modification_id, status) " +
+            "DO UPDATE SET appointment_count = appointment_daily_rollup.appointment_count + EXCLUDED.appointment_count",
+            nativeQuery = true)
+    void addToCount(
+            @Param("day") LocalDate day,
+            @Param("serviceCenterId") UUID serviceCenterId,
+            @Param("serviceOrModificationId") UUID serviceOrModificationId,
+            @Param("status") String status,
+            @Param("delta") long delta
+    );
+
+    /**
+     * Block incremental updates until the surrounding rebuild transaction ends
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE appointment_daily_rollup, employee_daily_rollup, turnaround_histogram, customer_daily_sketch " +
+            "IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM appointment_daily_rollup", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO appointment_daily_rollup " +
+            "(appointment_day, service_center_id, service_or_modification_id, status, appointment_count) " +
+            "SELECT CAST(a.appointment_date AS DATE), a.service_center_id, a.service_or_modification_id, a.status, COUNT(*) " +
+            "FROM appointment a " +
+            "GROUP BY CAST(a.appointment_date AS DATE), a.service_center_id, a.service_or_modification_id, a.status",
+            nativeQuery = true)
+    int rebuildFromAppointments();
+
+    /**
+     * Service type distribution with revenue, from the rollups.
+     * Revenue is the count times the current estimated cost, as in the live queries.
+     */
+    @Query("SELECT som.id, som.name, som.type, SUM(r.appointmentCount), " +
+            "SUM(r.appointmentCount * som.estimatedCost), MAX(som.estimatedCost) " +
+            "FROM AppointmentDailyRollup r " +
+            "JOIN ServiceOrModification som ON som.id = r.id.serviceOrModificationId " +
+            "WHERE r.id.day BETWEEN :startDay AND :endDay " +
+            "AND (:serviceCenterId IS NULL OR r.id.serviceCenterId = :serviceCenterId) " +
+            "AND (:status IS NULL OR r.id.status = :status) " +
+            "GROUP BY som.id, som.name, som.type " +
+            "HAVING SUM(r.appointmentCount) > 0 " +
+            "ORDER BY SUM(r.appointmentCount) DESC")
+    List<Object[]> getServiceTypeDistribution(
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay,
+            @Param("serviceCenterId") UUID serviceCenterId,
+            @Param("status") String status
+    );
+
+    /**
+     * Completed-appointment revenue and counts per day, from the rollups.
+     * Revenue is the count times the current estimated cost, as in the live queries.
+     */
+    @Query("SELECT r.id.day, " +
+            "SUM(r.appointmentCount * som.estimatedCost), " +
+            "SUM(r.appointmentCount), " +
+            "SUM(CASE WHEN som.type = com.ead.backend.enums.AppointmentType.SERVICE " +
+            "THEN r.appointmentCount * som.estimatedCost ELSE 0.0 END), " +
+            "SUM(CASE WHEN som.type = com.ead.backend.enums.AppointmentType.MODIFICATION " +
+            "THEN r.appointmentCount * som.estimatedCost ELSE 0.0 END), " +
+            "SUM(CASE WHEN som.type = com.ead.backend.enums.AppointmentType.SERVICE THEN r.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN som.type = com.ead.backend.enums.AppointmentType.MODIFICATION THEN r.appointmentCount ELSE 0 END) " +
+            "FROM AppointmentDailyRollup r " +
+            "JOIN ServiceOrModification som ON som.id = r.id.serviceOrModificationId " +
+            "WHERE r.id.day BETWEEN :startDay AND :endDay " +
+            "AND (:serviceCenterId IS NULL OR r.id.serviceCenterId = :serviceCenterId) " +
+            "AND r.id.status = 'COMPLETED' " +
+            "GROUP BY r.id.day " +
+            "HAVING SUM(r.appointmentCount) > 0 " +
+            "ORDER BY r.id.day")
+    List<Object[]> getRevenueByDay(
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay,
+            @Param("serviceCenterId") UUID serviceCenterId
+    );
+
+    /**
+     * Dashboard counters from the rollups (no distinct customers; see CustomerDailySketchRepository).
+     * Row: [total, completed, confirmed, pending, inProgress, cancelled, revenue]
+     */
+    @Query("SELECT SUM(r.appointmentCount), " +
+            "SUM(CASE WHEN r.id.status = 'COMPLETED' THEN r.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN r.id.status = 'CONFIRMED' THEN r.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN r.id.status = 'PENDING' THEN r.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN r.id.status = 'IN_PROGRESS' THEN r.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN r.id.status = 'CANCELLED' THEN r.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN r.id.status = 'COMPLETED' THEN r.appointmentCount * som.estimatedCost ELSE 0.0 END) " +
+            "FROM AppointmentDailyRollup r " +
+            "JOIN ServiceOrModification som ON som.id = r.id.serviceOrModificationId " +
+            "WHERE r.id.day BETWEEN :startDay AND :endDay " +
+            "AND (:serviceCenterId IS NULL OR r.id.serviceCenterId = :serviceCenterId)")
+    List<Object[]> getDashboardCounters(
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay,
+            @Param("serviceCenterId") UUID serviceCenterId
+    );
+}
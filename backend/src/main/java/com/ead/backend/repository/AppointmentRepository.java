@@ -1,100 +1,120 @@
 package com.ead.backend.repository;
 
+import com.ead.backend.dto.AdminAppointmentDTO;
+import com.ead.backend.dto.AppointmentExportRowDTO;
 import com.ead.backend.entity.Appointment;
 import com.ead.backend.entity.ServiceCenter;
-import com.ead.backend.entity.User;
+import com.ead.backend.enums.AppointmentType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, UUID> {
 
     // Find all appointments for a customer (by userId)
     List<Appointment> findByUserId(UUID userId);
 
+    // Customer appointment lists: vehicle, service, center and assigned employees in one select
+    @EntityGraph(Appointment.GRAPH_CUSTOMER_VIEW)
+    List<Appointment> findWithEmployeesByUserId(UUID userId);
+
+    // Batch employee assignment: appointments with their current assignees in one select
+    @EntityGraph(Appointment.GRAPH_ASSIGNMENT)
+    List<Appointment> findForAssignmentByIdIn(Collection<UUID> ids);
+
     // Find all appointments assigned to an employee with specific status
     List<Appointment> findByAssignedEmployeesIdAndStatus(UUID employeeId, String status);
 
-    List<Appointment> findByAssignedEmployees(Set<User> assignedEmployees);
+    // Employee work list: customer, vehicle and service in one select
+    @EntityGraph(Appointment.GRAPH_DETAILS)
+    List<Appointment> findDetailedByAssignedEmployeesId(UUID employeeId);
 
     // Find all appointments assigned to an employee with multiple statuses
     List<Appointment> findByAssignedEmployeesIdAndStatusIn(UUID employeeId, List<String> statuses);
 
-    // Check if there's an existing appointment for the same vehicle, date, and time (excluding cancelled)
-    List<Appointment> findByVehicleIdAndAppointmentDateAndStatusNot(
-            UUID vehicleId,
-            LocalDateTime appointmentDate,
-            String status
-    );
-
     // Count appointments for a service center at a specific date/time (excluding cancelled)
     Long countByServiceCenterIdAndAppointmentDateAndStatusNot(
             UUID serviceCenterId,
             LocalDateTime appointmentDate,
             String status
     );
-    List<Appointment> findByStatusAndServiceCenter(String pending, ServiceCenter serviceCenter);
+    // Shift scheduling lists: customer, vehicle, service and center in one select
+    @EntityGraph(Appointment.GRAPH_DETAILS)
+    List<Appointment> findDetailedByStatusAndServiceCenter(String status, ServiceCenter serviceCenter);
 
-    List<Appointment> findByStatus(String status);
+    @EntityGraph(Appointment.GRAPH_DETAILS)
+    List<Appointment> findDetailedByStatus(String status);
 
     // Check if vehicle has any active appointments (non-cancelled)
     boolean existsByVehicleIdAndStatusNot(UUID vehicleId, String status);
 
+    // Whether any appointment exists at all / has been started (analytics warm-up)
+    boolean existsByAppointmentDateIsNotNull();
+
+    boolean existsByStartTimeIsNotNull();
+
+    // Whether the customer has an appointment dated before this one (returning customer)
+    boolean existsByUserIdAndAppointmentDateBefore(UUID userId, LocalDateTime appointmentDate);
+
     // Check if vehicle has confirmed or in-progress appointments
     @Query("SELECT COUNT(a) > 0 FROM Appointment a " +
             "WHERE a.vehicle.id = :vehicleId " +
             "AND (a.status = 'PENDING' OR a.status = 'IN_PROGRESS')")
     boolean hasActiveAppointments(@Param("vehicleId") UUID vehicleId);
 
-    // Find pending appointments for a vehicle with a specific appointment type
-    @Query("SELECT a FROM Appointment a " +
-            "WHERE a.vehicle.id = :vehicleId " +
-            "AND a.appointmentType = :appointmentType " +
-            "AND a.status = 'PENDING' " +
-            "AND a.appointmentDate >= :currentDate")
-    List<Appointment> findPendingAppointmentsByVehicleAndType(
+    // All conflict facts for a prospective booking in one round trip:
+    // duplicate at the same time, pending of the same type at another center,
+    // customer appointments that day, and the earliest overlapping active appointment
+    @Query(value = "WITH overlap AS (" +
+            "  SELECT som.name AS service_name, a.appointment_date AS start_time, " +
+            "         som.estimated_time_minutes AS duration_minutes " +
+            "  FROM appointment a " +
+            "  JOIN service_or_modification som ON a.service_or_modification_id = som.id " +
+            "  WHERE a.vehicle_id = :vehicleId " +
+            "  AND a.status NOT IN ('CANCELLED', 'COMPLETED') " +
+            "  AND a.appointment_date < :endTime " +
+            "  AND a.appointment_date + som.estimated_time_minutes * INTERVAL '1 minute' > :startTime " +
+            "  ORDER BY a.appointment_date " +
+            "  LIMIT 1" +
+            ") " +
+            "SELECT " +
+            "(SELECT COUNT(*) FROM appointment a " +
+            "  WHERE a.vehicle_id = :vehicleId " +
+            "  AND a.appointment_date = :startTime " +
+            "  AND a.status <> 'CANCELLED'), " +
+            "(SELECT COUNT(*) FROM appointment a " +
+            "  WHERE a.vehicle_id = :vehicleId " +
+            "  AND a.appointment_type = :appointmentType " +
+            "  AND a.status = 'PENDING' " +
+            "  AND a.appointment_date >= :currentDate " +
+            "  AND a.service_center_id <> :serviceCenterId), " +
+            "(SELECT COUNT(*) FROM appointment a " +
+            "  WHERE a.user_id = :userId " +
+            "  AND CAST(a.appointment_date AS DATE) = CAST(:startTime AS DATE) " +
+            "  AND a.status <> 'CANCELLED'), " +
+            "o.service_name, o.start_time, o.duration_minutes " +
+            "FROM (SELECT 1) AS params " +
+            "LEFT JOIN overlap o ON TRUE",
+            nativeQuery = true)
+    List<Object[]> getBookingConflictFacts(
             @Param("vehicleId") UUID vehicleId,
-            @Param("appointmentType") com.ead.backend.enums.AppointmentType appointmentType,
-            @Param("currentDate") LocalDateTime currentDate
-    );
-
-    // Count active appointments for a customer on a specific day (excluding cancelled)
-    @Query("SELECT COUNT(a) FROM Appointment a " +
-            "WHERE a.user.id = :userId " +
-            "AND CAST(a.appointmentDate AS date) = CAST(:appointmentDate AS date) " +
-            "AND a.status != 'CANCELLED'")
-    Long countCustomerAppointmentsForDay(
             @Param("userId") UUID userId,
-            @Param("appointmentDate") LocalDateTime appointmentDate
-    );
-
-    // Find overlapping appointments for a vehicle (to prevent cross-service conflicts)
-    @Query("SELECT a FROM Appointment a " +
-            "JOIN a.serviceOrModification som " +
-            "WHERE a.vehicle.id = :vehicleId " +
-            "AND a.status NOT IN ('CANCELLED', 'COMPLETED') " +
-            "AND (" +
-            "  (a.appointmentDate < :endTime AND " +
-            "   FUNCTION('TIMESTAMPADD', MINUTE, som.estimatedTimeMinutes, a.appointmentDate) > :startTime)" +
-            ")")
-    List<Appointment> findOverlappingAppointments(
-            @Param("vehicleId") UUID vehicleId,
-            @Param("startTime") LocalDateTime startTime,
-            @Param("endTime") LocalDateTime endTime
-    );
-
-    // Find all appointments for a service center on a specific date (for slot availability display)
-    @Query("SELECT a FROM Appointment a WHERE a.serviceCenter.id = :serviceCenterId " +
-            "AND CAST(a.appointmentDate AS date) = CAST(:date AS date) " +
-            "AND a.status != 'CANCELLED'")
-    List<Appointment> findByServiceCenterAndDate(
             @Param("serviceCenterId") UUID serviceCenterId,
-            @Param("date") LocalDateTime date
+            @Param("appointmentType") String appointmentType,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("currentDate") LocalDateTime currentDate
     );
 
     // Get available slots for a specific date range
@@ -109,6 +129,73 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>
             @Param("endDate") LocalDateTime endDate
     );
 
+    // Get booked slots for several service centers in a date range (for the availability calendar)
+    @Query("SELECT a.serviceCenter.id, a.appointmentDate, COUNT(a) FROM Appointment a " +
+            "WHERE a.serviceCenter.id IN :serviceCenterIds " +
+            "AND a.appointmentDate BETWEEN :startDate AND :endDate " +
+            "AND a.status != 'CANCELLED' " +
+            "GROUP BY a.serviceCenter.id, a.appointmentDate")
+    List<Object[]> getSlotUsageByCentersAndDateRange(
+            @Param("serviceCenterIds") List<UUID> serviceCenterIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    // Get booked slots for every service center in a date range (for warming the slot capacity ledger)
+    @Query("SELECT a.serviceCenter.id, a.appointmentDate, COUNT(a) FROM Appointment a " +
+            "WHERE a.appointmentDate BETWEEN :startDate AND :endDate " +
+            "AND a.status != 'CANCELLED' " +
+            "GROUP BY a.serviceCenter.id, a.appointmentDate")
+    List<Object[]> getSlotUsageForAllCenters(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    // ===================================================================
+    // ADMIN DASHBOARD QUERIES (keyset pagination on appointmentDate, id)
+    // ===================================================================
+
+    @Query("SELECT new com.ead.backend.dto.AdminAppointmentDTO(" +
+            "a.id, v.id, v.brand, v.model, v.licensePlate, u.fullName, u.email, som.name, " +
+            "a.appointmentType, a.appointmentDate, a.status, sc.name) " +
+            "FROM Appointment a " +
+            "JOIN a.vehicle v JOIN a.user u JOIN a.serviceOrModification som JOIN a.serviceCenter sc " +
+            "WHERE a.status IN :statuses " +
+            "AND a.appointmentDate > :from " +
+            "AND (a.appointmentDate > :afterDate OR (a.appointmentDate = :afterDate AND a.id > :afterId)) " +
+            "ORDER BY a.appointmentDate, a.id")
+    List<AdminAppointmentDTO> findAdminAppointmentPage(
+            @Param("statuses") List<String> statuses,
+            @Param("from") LocalDateTime from,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") UUID afterId,
+            Pageable pageable
+    );
+
+    @Query("SELECT new com.ead.backend.dto.AdminAppointmentDTO(" +
+            "a.id, v.id, v.brand, v.model, v.licensePlate, u.fullName, u.email, som.name, " +
+            "a.appointmentType, a.appointmentDate, a.status, sc.name) " +
+            "FROM Appointment a " +
+            "JOIN a.vehicle v JOIN a.user u JOIN a.serviceOrModification som JOIN a.serviceCenter sc " +
+            "WHERE a.status IN :statuses " +
+            "AND a.appointmentDate > :from " +
+            "AND a.assignedEmployees IS EMPTY " +
+            "AND (a.appointmentDate > :afterDate OR (a.appointmentDate = :afterDate AND a.id > :afterId)) " +
+            "ORDER BY a.appointmentDate, a.id")
+    List<AdminAppointmentDTO> findUnassignedAdminAppointmentPage(
+            @Param("statuses") List<String> statuses,
+            @Param("from") LocalDateTime from,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") UUID afterId,
+            Pageable pageable
+    );
+
+    // Assigned employee names for a page of appointments: [appointmentId, fullName]
+    @Query("SELECT a.id, e.fullName FROM Appointment a JOIN a.assignedEmployees e " +
+            "WHERE a.id IN :appointmentIds " +
+            "ORDER BY e.fullName")
+    List<Object[]> findAssignedEmployeeNames(@Param("appointmentIds") List<UUID> appointmentIds);
+
     // ===================================================================
     // ANALYTICS QUERIES
     // ===================================================================
@@ -154,133 +241,105 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>
     );
 
     /**
-     * Get service type distribution with revenue
+     * Dashboard counters in a single pass: total, per-status counts, completed revenue, distinct customers
+     * and customers with more than one appointment, aggregated per customer first.
+     * Row: [total, completed, confirmed, pending, inProgress, cancelled, revenue, customers, repeatCustomers].
+     * A null {@code serviceCenterId} counts every center.
      */
-    @Query("SELECT som.id, som.name, som.type, COUNT(a), SUM(som.estimatedCost), AVG(som.estimatedCost) " +
+    @Query("SELECT SUM(c.total), SUM(c.completed), SUM(c.confirmed), SUM(c.pending), " +
+            "SUM(c.inProgress), SUM(c.cancelled), SUM(c.revenue), " +
+            "COUNT(c.customerId), " +
+            "SUM(CASE WHEN c.total > 1 THEN 1 ELSE 0 END) " +
+            "FROM (SELECT a.user.id AS customerId, COUNT(a) AS total, " +
+            "SUM(CASE WHEN a.status = 'COMPLETED' THEN 1 ELSE 0 END) AS completed, " +
+            "SUM(CASE WHEN a.status = 'CONFIRMED' THEN 1 ELSE 0 END) AS confirmed, " +
+            "SUM(CASE WHEN a.status = 'PENDING' THEN 1 ELSE 0 END) AS pending, " +
+            "SUM(CASE WHEN a.status = 'IN_PROGRESS' THEN 1 ELSE 0 END) AS inProgress, " +
+            "SUM(CASE WHEN a.status = 'CANCELLED' THEN 1 ELSE 0 END) AS cancelled, " +
+            "SUM(CASE WHEN a.status = 'COMPLETED' THEN som.estimatedCost ELSE 0.0 END) AS revenue " +
             "FROM Appointment a " +
-            "JOIN a.serviceOrModification som " +
+            "LEFT JOIN a.serviceOrModification som " +
             "WHERE a.appointmentDate BETWEEN :startDate AND :endDate " +
             "AND (:serviceCenterId IS NULL OR a.serviceCenter.id = :serviceCenterId) " +
-            "AND (:status IS NULL OR a.status = :status) " +
-            "GROUP BY som.id, som.name, som.type " +
-            "ORDER BY COUNT(a) DESC")
-    List<Object[]> getServiceTypeDistribution(
+            "GROUP BY a.user.id) c")
+    List<Object[]> getDashboardCounters(
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate,
-            @Param("serviceCenterId") UUID serviceCenterId,
-            @Param("status") String status
+            @Param("serviceCenterId") UUID serviceCenterId
     );
 
-    /**
-     * Get service type distribution with revenue (all time)
-     */
-    @Query("SELECT som.id, som.name, som.type, COUNT(a), SUM(som.estimatedCost), AVG(som.estimatedCost) " +
+    // Analytics fact snapshot load: one row per appointment, read in fetch-size chunks
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT a.id, a.appointmentDate, a.serviceCenter.id, som.id, som.name, som.type, " +
+            "a.status, som.estimatedCost, a.user.id " +
             "FROM Appointment a " +
-            "JOIN a.serviceOrModification som " +
-            "WHERE (:serviceCenterId IS NULL OR a.serviceCenter.id = :serviceCenterId) " +
-            "AND (:status IS NULL OR a.status = :status) " +
-            "GROUP BY som.id, som.name, som.type " +
-            "ORDER BY COUNT(a) DESC")
-    List<Object[]> getServiceTypeDistributionAllTime(
-            @Param("serviceCenterId") UUID serviceCenterId,
-            @Param("status") String status
-    );
-
-    /**
-     * Get revenue and appointment count grouped by date
-     */
-    @Query(value = "SELECT CAST(a.appointment_date AS DATE), " +
-            "SUM(som.estimated_cost), " +
-            "COUNT(a.id), " +
-            "SUM(CASE WHEN som.type = 'SERVICE' THEN som.estimated_cost ELSE 0 END), " +
-            "SUM(CASE WHEN som.type = 'MODIFICATION' THEN som.estimated_cost ELSE 0 END), " +
-            "COUNT(CASE WHEN som.type = 'SERVICE' THEN 1 END), " +
-            "COUNT(CASE WHEN som.type = 'MODIFICATION' THEN 1 END) " +
-            "FROM appointment a " +
-            "JOIN service_or_modification som ON a.service_or_modification_id = som.id " +
-            "WHERE a.appointment_date BETWEEN :startDate AND :endDate " +
-            "AND (:serviceCenterId IS NULL OR a.service_center_id = CAST(:serviceCenterId AS UUID)) " +
-            "AND a.status = 'COMPLETED' " +
-            "GROUP BY CAST(a.appointment_date AS DATE) " +
-            "ORDER BY CAST(a.appointment_date AS DATE)",
-            nativeQuery = true)
-    List<Object[]> getRevenueByDateRange(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate,
-            @Param("serviceCenterId") UUID serviceCenterId
-    );
+            "JOIN a.serviceOrModification som")
+    Stream<Object[]> streamAnalyticsFacts();
 
-    /**
-     * Get revenue and appointment count grouped by date (all time)
-     */
-    @Query(value = "SELECT CAST(a.appointment_date AS DATE), " +
-            "SUM(som.estimated_cost), " +
-            "COUNT(a.id), " +
-            "SUM(CASE WHEN som.type = 'SERVICE' THEN som.estimated_cost ELSE 0 END), " +
-            "SUM(CASE WHEN som.type = 'MODIFICATION' THEN som.estimated_cost ELSE 0 END), " +
-            "COUNT(CASE WHEN som.type = 'SERVICE' THEN 1 END), " +
-            "COUNT(CASE WHEN som.type = 'MODIFICATION' THEN 1 END) " +
-            "FROM appointment a " +
-            "JOIN service_or_modification som ON a.service_or_modification_id = som.id " +
-            "WHERE (:serviceCenterId IS NULL OR a.service_center_id = CAST(:serviceCenterId AS UUID)) " +
-            "AND a.status = 'COMPLETED' " +
-            "GROUP BY CAST(a.appointment_date AS DATE) " +
-            "ORDER BY CAST(a.appointment_date AS DATE)",
-            nativeQuery = true)
-    List<Object[]> getRevenueByDateRangeAllTime(
-            @Param("serviceCenterId") UUID serviceCenterId
-    );
+    // Analytics fact snapshot load: one row per (appointment, assigned employee)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT a.id, e.id, e.fullName, e.email " +
+            "FROM Appointment a " +
+            "JOIN a.assignedEmployees e")
+    Stream<Object[]> streamAnalyticsFactEmployees();
 
-    /**
-     * Get appointments for employees (for performance metrics)
-     */
-    @Query("SELECT ae.id, u.id, u.fullName, u.email, COUNT(a), " +
-            "COUNT(CASE WHEN a.status = 'COMPLETED' THEN 1 END), " +
-            "COUNT(CASE WHEN a.status = 'IN_PROGRESS' THEN 1 END), " +
-            "COUNT(CASE WHEN a.status = 'PENDING' THEN 1 END) " +
+    // Turnaround histogram rebuild: started appointments, one row per assigned employee (or one with null)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT a.id, a.appointmentDate, a.serviceCenter.id, a.serviceOrModification.id, " +
+            "a.startTime, a.endTime, e.id " +
             "FROM Appointment a " +
-            "JOIN a.assignedEmployees ae " +
-            "JOIN User u ON u.id = ae.id " +
-            "WHERE a.appointmentDate BETWEEN :startDate AND :endDate " +
-            "AND (:serviceCenterId IS NULL OR a.serviceCenter.id = :serviceCenterId) " +
-            "GROUP BY ae.id, u.id, u.fullName, u.email " +
-            "ORDER BY COUNT(CASE WHEN a.status = 'COMPLETED' THEN 1 END) DESC")
-    List<Object[]> getEmployeeAppointmentMetrics(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate,
-            @Param("serviceCenterId") UUID serviceCenterId
-    );
+            "LEFT JOIN a.assignedEmployees e " +
+            "WHERE a.startTime IS NOT NULL " +
+            "ORDER BY a.id")
+    Stream<Object[]> streamTurnaroundSamples();
 
-    /**
-     * Get appointments for employees (all time)
-     */
-    @Query("SELECT ae.id, u.id, u.fullName, u.email, COUNT(a), " +
-            "COUNT(CASE WHEN a.status = 'COMPLETED' THEN 1 END), " +
-            "COUNT(CASE WHEN a.status = 'IN_PROGRESS' THEN 1 END), " +
-            "COUNT(CASE WHEN a.status = 'PENDING' THEN 1 END) " +
+    // Customer sketch rebuild: every appointment, each customer's appointments in date order
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT a.appointmentDate, a.serviceCenter.id, a.user.id " +
             "FROM Appointment a " +
-            "JOIN a.assignedEmployees ae " +
-            "JOIN User u ON u.id = ae.id " +
-            "WHERE (:serviceCenterId IS NULL OR a.serviceCenter.id = :serviceCenterId) " +
-            "GROUP BY ae.id, u.id, u.fullName, u.email " +
-            "ORDER BY COUNT(CASE WHEN a.status = 'COMPLETED' THEN 1 END) DESC")
-    List<Object[]> getEmployeeAppointmentMetricsAllTime(
-            @Param("serviceCenterId") UUID serviceCenterId
-    );
+            "ORDER BY a.user.id, a.appointmentDate, a.id")
+    Stream<Object[]> streamCustomerSketchSamples();
 
-    /**
-     * Count distinct customers
-     */
-    @Query("SELECT COUNT(DISTINCT a.user.id) FROM Appointment a " +
-            "WHERE a.appointmentDate BETWEEN :startDate AND :endDate")
-    Long countDistinctCustomers(
+    // Appointment export: forward-only cursor read in fetch-size chunks (needs a surrounding transaction)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.ead.backend.dto.AppointmentExportRowDTO(" +
+            "a.id, a.appointmentDate, a.startTime, a.endTime, a.status, a.appointmentType, " +
+            "som.name, som.estimatedCost, sc.name, u.fullName, u.email, v.brand, v.model, v.licensePlate) " +
+            "FROM Appointment a " +
+            "JOIN a.serviceOrModification som " +
+            "JOIN a.serviceCenter sc " +
+            "JOIN a.user u " +
+            "JOIN a.vehicle v " +
+            "WHERE a.appointmentDate BETWEEN :startDate AND :endDate " +
+            "AND (:serviceCenterId IS NULL OR sc.id = :serviceCenterId) " +
+            "AND (:appointmentType IS NULL OR a.appointmentType = :appointmentType) " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "ORDER BY a.appointmentDate, a.id")
+    Stream<AppointmentExportRowDTO> streamForExport(
             @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
+            @Param("endDate") LocalDateTime endDate,
+            @Param("serviceCenterId") UUID serviceCenterId,
+            @Param("appointmentType") AppointmentType appointmentType,
+            @Param("status") String status
     );
-
-    /**
-     * Count distinct customers (all time)
-     */
-    @Query("SELECT COUNT(DISTINCT a.user.id) FROM Appointment a")
-    Long countDistinctCustomersAllTime();
 }
\ No newline at end of file
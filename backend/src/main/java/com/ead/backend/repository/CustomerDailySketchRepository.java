@@ -0,0 +1,55 @@
+package com.ead.backend.repository;
+
+import com.ead.backend.entity.CustomerDailySketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface CustomerDailySketchRepository extends JpaRepository<CustomerDailySketch, CustomerDailySketch.Key> {
+
+    /**
+     * Atomically raise one sketch register to {@code rank} if that is higher, creating it if needed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO customer_daily_sketch " +
+            "(appointment_day, service_center_id, sketch, register_index, register_rank) " +
+            "VALUES (:day, CAST(:serviceCenterId AS UUID), :sketch, :register, :rank) " +
+            "ON CONFLICT (appointment_day, service_center_id, sketch, register_index) " +
+            "DO UPDATE SET register_rank = GREATEST(customer_daily_sketch.register_rank, EXCLUDED.register_rank)",
+            nativeQuery = true)
+    void raiseRegister(
+            @Param("day") LocalDate day,
+            @Param("serviceCenterId") UUID serviceCenterId,
+            @Param("sketch") String sketch,
+            @Param("register") int register,
+            @Param("rank") int rank
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM customer_daily_sketch", nativeQuery = true)
+    int deleteAllRows();
+
+    // False until the first rebuild has filled the sketches
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM customer_daily_sketch)", nativeQuery = true)
+    boolean hasRows();
+
+    /**
+     * Sketch registers over a day range, merged across days and centers (register-wise maximum).
+     * Row: [sketch, register, rank]
+     */
+    @Query("SELECT s.id.sketch, s.id.registerIndex, MAX(s.registerRank) " +
+            "FROM CustomerDailySketch s " +
+            "WHERE s.id.day BETWEEN :startDay AND :endDay " +
+            "AND (:serviceCenterId IS NULL OR s.id.serviceCenterId = :serviceCenterId) " +
+            "GROUP BY s.id.sketch, s.id.registerIndex")
+    List<Object[]> getMergedRegisters(
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay,
+            @Param("serviceCenterId") UUID serviceCenterId
+    );
+}
@@ -0,0 +1,67 @@
+package com.ead.backend.repository;
+
+import com.ead.backend.entity.EmployeeDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface EmployeeDailyRollupRepository extends JpaRepository<EmployeeDailyRollup, EmployeeDailyRollup.Key> {
+
+    /**
+     * Atomically add {@code delta} (may be negative) to one rollup row, creating it if needed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO employee_daily_rollup " +
+            "(appointment_day, service_center_id, employee_id, status, appointment_count) " +
+            "VALUES (:day, CAST(:serviceCenterId AS UUID), CAST(:employeeId AS UUID), :status, :delta) " +
+            "ON CONFLICT (appointment_day, service_center_id, employee_id, status) " +
+            "DO UPDATE SET appointment_count = employee_daily_rollup.appointment_count + EXCLUDED.appointment_count",
+            nativeQuery = true)
+    void addToCount(
+            @Param("day") LocalDate day,
+            @Param("serviceCenterId") UUID serviceCenterId,
+            @Param("employeeId") UUID employeeId,
+            @Param("status") String status,
+            @Param("delta") long delta
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM employee_daily_rollup", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO employee_daily_rollup " +
+            "(appointment_day, service_center_id, employee_id, status, appointment_count) " +
+            "SELECT CAST(a.appointment_date AS DATE), a.service_center_id, ae.employee_id, a.status, COUNT(*) " +
+            "FROM appointment a " +
+            "JOIN appointment_employees ae ON ae.appointment_id = a.id " +
+            "GROUP BY CAST(a.appointment_date AS DATE), a.service_center_id, ae.employee_id, a.status",
+            nativeQuery = true)
+    int rebuildFromAppointments();
+
+    /**
+     * Appointment counts per employee, from the rollups.
+     * Row: [employeeId, employeeId, fullName, email, total, completed, inProgress, pending].
+     */
+    @Query("SELECT u.id, u.id, u.fullName, u.email, SUM(r.appointmentCount), " +
+            "SUM(CASE WHEN r.id.status = 'COMPLETED' THEN r.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN r.id.status = 'IN_PROGRESS' THEN r.appointmentCount ELSE 0 END), " +
+            "SUM(CASE WHEN r.id.status = 'PENDING' THEN r.appointmentCount ELSE 0 END) " +
+            "FROM EmployeeDailyRollup r " +
+            "JOIN User u ON u.id = r.id.employeeId " +
+            "WHERE r.id.day BETWEEN :startDay AND :endDay " +
+            "AND (:serviceCenterId IS NULL OR r.id.serviceCenterId = :serviceCenterId) " +
+            "GROUP BY u.id, u.fullName, u.email " +
+            "HAVING SUM(r.appointmentCount) > 0 " +
+            "ORDER BY SUM(CASE WHEN r.id.status = 'COMPLETED' THEN r.appointmentCount ELSE 0 END) DESC")
+    List<Object[]> getEmployeeAppointmentMetrics(
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay,
+            @Param("serviceCenterId") UUID serviceCenterId
+    );
+}
@@ -1,8 +1,12 @@
 package com.ead.backend.repository;
 
 import com.ead.backend.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,5 +19,15 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     Long countByUserIdAndIsReadFalse(UUID userId);
 
+    // Keyset read of a user's notifications from a point in time, oldest first (SSE replay after a long gap)
+    @Query("SELECT n FROM Notification n " +
+            "WHERE n.userId = :userId AND n.createdAt >= :since " +
+            "ORDER BY n.createdAt, n.id")
+    List<Notification> findCreatedSince(
+            @Param("userId") UUID userId,
+            @Param("since") LocalDateTime since,
+            Pageable pageable
+    );
+
     void deleteByUserId(UUID userId);
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.ead.backend.repository;
+
+import com.ead.backend.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Lock a batch of due events (pending, or processing with an expired lease).
+    // SKIP LOCKED lets several application instances drain the outbox without double delivery.
+    @Query(value = "SELECT * FROM outbox_events " +
+            "WHERE status IN ('PENDING', 'PROCESSING') " +
+            "AND next_attempt_at <= :now " +
+            "ORDER BY id " +
+            "LIMIT :batchSize " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEvent> lockDueEvents(
+            @Param("now") LocalDateTime now,
+            @Param("batchSize") int batchSize
+    );
+
+    // Lease claimed events so a crashed dispatcher's batch is picked up again once the lease expires
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSING', e.nextAttemptAt = :leaseUntil WHERE e.id IN :ids")
+    int markProcessing(@Param("ids") List<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'DISPATCHED', e.processedAt = :processedAt WHERE e.id IN :ids")
+    int markDispatched(@Param("ids") List<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = :attempts, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError WHERE e.id = :id")
+    int markAttemptFailed(
+            @Param("id") Long id,
+            @Param("status") String status,
+            @Param("attempts") int attempts,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("lastError") String lastError
+    );
+
+    // Purge delivered events older than the retention window
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'DISPATCHED' AND e.processedAt < :before")
+    int deleteDispatchedBefore(@Param("before") LocalDateTime before);
+}
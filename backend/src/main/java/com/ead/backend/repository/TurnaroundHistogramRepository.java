@@ -0,0 +1,61 @@
+package com.ead.backend.repository;
+
+import com.ead.backend.entity.TurnaroundHistogramBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface TurnaroundHistogramRepository
+        extends JpaRepository<TurnaroundHistogramBucket, TurnaroundHistogramBucket.Key> {
+
+    /**
+     * Atomically add {@code delta} (may be negative) samples to one histogram bucket, creating it if needed.
+     * A bucket never drops below zero, so removing a sample the histogram never counted leaves it unchanged.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO turnaround_histogram " +
+            "(appointment_day, service_center_id, dimension, dimension_id, metric, bucket, sample_count) " +
+            "VALUES (:day, CAST(:serviceCenterId AS UUID), :dimension, CAST(:dimensionId AS UUID), :metric, :bucket, " +
+            "GREATEST(:delta, 0)) " +
+            "ON CONFLICT (appointment_day, service_center_id, dimension, dimension_id, metric, bucket) " +
+            "DO UPDATE SET sample_count = GREATEST(turnaround_histogram.sample_count + :delta, 0)",
+            nativeQuery = true)
+    void addToCount(
+            @Param("day") LocalDate day,
+            @Param("serviceCenterId") UUID serviceCenterId,
+            @Param("dimension") String dimension,
+            @Param("dimensionId") UUID dimensionId,
+            @Param("metric") String metric,
+            @Param("bucket") int bucket,
+            @Param("delta") long delta
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM turnaround_histogram", nativeQuery = true)
+    int deleteAllRows();
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM turnaround_histogram)", nativeQuery = true)
+    boolean hasRows();
+
+    /**
+     * Bucket counts over a day range, merged across days.
+     * Row: [dimension, dimensionId, serviceCenterId, metric, bucket, count]
+     */
+    @Query("SELECT h.id.dimension, h.id.dimensionId, h.id.serviceCenterId, h.id.metric, h.id.bucket, " +
+            "SUM(h.sampleCount) " +
+            "FROM TurnaroundHistogramBucket h " +
+            "WHERE h.id.day BETWEEN :startDay AND :endDay " +
+            "AND (:serviceCenterId IS NULL OR h.id.serviceCenterId = :serviceCenterId) " +
+            "GROUP BY h.id.dimension, h.id.dimensionId, h.id.serviceCenterId, h.id.metric, h.id.bucket " +
+            "HAVING SUM(h.sampleCount) > 0")
+    List<Object[]> getMergedBuckets(
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay,
+            @Param("serviceCenterId") UUID serviceCenterId
+    );
+}
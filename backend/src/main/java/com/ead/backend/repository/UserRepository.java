@@ -1,6 +1,8 @@
 package com.ead.backend.repository;
 
 import com.ead.backend.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,6 +19,9 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     // Find all users with a specific role name (e.g., "ADMIN")
     @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = :roleName")
     List<User> findByRoleName(@Param("roleName") String roleName);
+
+    @Query("SELECT COUNT(u) FROM User u JOIN u.roles r WHERE r.name = :roleName")
+    long countByRoleName(@Param("roleName") String roleName);
     // void deleteByExpiryDateBefore(Instant date);
 
     // ===================================================================
@@ -24,49 +29,45 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     // ===================================================================
 
     /**
-     * Get customer insights with appointment statistics
+     * One page of customer insights with appointment statistics and completed spend.
+     * Sort with {@code JpaSort.unsafe} on the aggregate expressions (e.g. {@code COUNT(a)}).
+     * Row: [id, fullName, email, phoneNumber, total, completed, cancelled, firstDate, lastDate, totalSpent]
      */
-    @Query("SELECT u.id, u.fullName, u.email, u.phoneNumber, " +
+    @Query(value = "SELECT u.id, u.fullName, u.email, u.phoneNumber, " +
             "COUNT(a), " +
             "COUNT(CASE WHEN a.status = 'COMPLETED' THEN 1 END), " +
             "COUNT(CASE WHEN a.status = 'CANCELLED' THEN 1 END), " +
             "MIN(a.appointmentDate), " +
-            "MAX(a.appointmentDate) " +
+            "MAX(a.appointmentDate), " +
+            "SUM(CASE WHEN a.status = 'COMPLETED' THEN som.estimatedCost ELSE 0.0 END) " +
             "FROM User u " +
             "JOIN Appointment a ON a.user.id = u.id " +
+            "LEFT JOIN a.serviceOrModification som " +
             "WHERE a.appointmentDate BETWEEN :startDate AND :endDate " +
-            "GROUP BY u.id, u.fullName, u.email, u.phoneNumber " +
-            "ORDER BY COUNT(a) DESC")
-    List<Object[]> getCustomerInsights(
+            "GROUP BY u.id, u.fullName, u.email, u.phoneNumber",
+            countQuery = "SELECT COUNT(DISTINCT a.user.id) FROM Appointment a " +
+                    "WHERE a.appointmentDate BETWEEN :startDate AND :endDate")
+    Page<Object[]> getCustomerInsights(
             @Param("startDate") java.time.LocalDateTime startDate,
-            @Param("endDate") java.time.LocalDateTime endDate
+            @Param("endDate") java.time.LocalDateTime endDate,
+            Pageable pageable
     );
 
     /**
-     * Get customer insights (all time)
+     * Customer insight totals over all customers in the range, aggregated per customer first.
+     * Row: [customers, repeatCustomers, appointments, totalSpent]
      */
-    @Query("SELECT u.id, u.fullName, u.email, u.phoneNumber, " +
-            "COUNT(a), " +
-            "COUNT(CASE WHEN a.status = 'COMPLETED' THEN 1 END), " +
-            "COUNT(CASE WHEN a.status = 'CANCELLED' THEN 1 END), " +
-            "MIN(a.appointmentDate), " +
-            "MAX(a.appointmentDate) " +
-            "FROM User u " +
-            "JOIN Appointment a ON a.user.id = u.id " +
-            "GROUP BY u.id, u.fullName, u.email, u.phoneNumber " +
-            "ORDER BY COUNT(a) DESC")
-    List<Object[]> getCustomerInsightsAllTime();
-
-    /**
-     * Count customers with multiple appointments (repeat customers)
-     */
-    @Query("SELECT COUNT(DISTINCT u.id) " +
-            "FROM User u " +
-            "JOIN Appointment a ON a.user.id = u.id " +
+    @Query("SELECT COUNT(c.customerId), " +
+            "SUM(CASE WHEN c.appointments > 1 THEN 1 ELSE 0 END), " +
+            "SUM(c.appointments), " +
+            "SUM(c.spent) " +
+            "FROM (SELECT a.user.id AS customerId, COUNT(a) AS appointments, " +
+            "SUM(CASE WHEN a.status = 'COMPLETED' THEN som.estimatedCost ELSE 0.0 END) AS spent " +
+            "FROM Appointment a " +
+            "LEFT JOIN a.serviceOrModification som " +
             "WHERE a.appointmentDate BETWEEN :startDate AND :endDate " +
-            "GROUP BY u.id " +
-            "HAVING COUNT(a) > 1")
-    Long countRepeatCustomers(
+            "GROUP BY a.user.id) c")
+    List<Object[]> getCustomerInsightsSummary(
             @Param("startDate") java.time.LocalDateTime startDate,
             @Param("endDate") java.time.LocalDateTime endDate
     );
@@ -0,0 +1,325 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.AnalyticsFilterRequestDTO;
+import com.ead.backend.enums.AppointmentType;
+import com.ead.backend.enums.PeriodType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache for analytics reports, keyed by report name and normalized filter.
+ * <p>
+ * Results are fresh for the TTL. For a further stale window they are still served while one
+ * background refresh recomputes them (stale-while-revalidate); after that they count as a miss.
+ * Concurrent misses for the same key share one computation. Appointment changes invalidate only
+ * the entries whose service center and date range cover the changed appointment.
+ */
+@Service
+@Slf4j
+public class AnalyticsCacheService {
+
+    @Value("${app.analytics.cache.ttl-ms:30000}")
+    private long ttlMs = 30_000;
+
+    @Value("${app.analytics.cache.stale-ms:300000}")
+    private long staleMs = 300_000;
+
+    @Value("${app.analytics.cache.max-entries:500}")
+    private int maxEntries = 500;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation; a load that overlaps one is returned but not stored
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // Background refreshes only; when busy, stale entries are simply refreshed on a later hit
+    private final ExecutorService refreshExecutor = new ThreadPoolExecutor(
+            2, 2, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(32),
+            r -> {
+                Thread thread = new Thread(r, "analytics-cache-refresh");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidatedEntries = new LongAdder();
+
+    /**
+     * Cache counters since startup.
+     */
+    public record CacheStats(long hits, long staleHits, long misses, long loadFailures, long evictions,
+                             long invalidatedEntries, int size, double hitRate) {
+    }
+
+    /**
+     * Return the cached result of {@code report} for {@code filter}, computing it with {@code loader} if needed.
+     *
+     * @param variant anything else that changes the result (e.g. paging), or null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String report, AnalyticsFilterRequestDTO filter, Object variant, Supplier<T> loader) {
+        Key key = Key.of(report, filter, variant);
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            Entry existing = entries.get(key);
+
+            if (existing == null) {
+                Entry fresh = new Entry(key);
+                if (entries.putIfAbsent(key, fresh) != null) {
+                    continue;
+                }
+                misses.increment();
+                return (T) load(fresh, loader);
+            }
+
+            if (!existing.value.isDone()) {
+                // Someone else is computing it: wait for the same result
+                hits.increment();
+                return (T) await(existing);
+            }
+
+            long age = now - existing.loadedAt;
+            if (age <= ttlMs) {
+                hits.increment();
+                return (T) await(existing);
+            }
+            if (age <= ttlMs + staleMs) {
+                staleHits.increment();
+                refreshInBackground(existing, loader);
+                return (T) await(existing);
+            }
+
+            // Too old to serve
+            entries.remove(key, existing);
+        }
+    }
+
+    /**
+     * Drop the entries affected by a change to an appointment of {@code serviceCenterId} on {@code day}.
+     * Inside a transaction this happens after commit, so a recomputation cannot see the old rows.
+     */
+    public void invalidate(UUID serviceCenterId, LocalDate day) {
+        afterCommit(() -> invalidateNow(serviceCenterId, day));
+    }
+
+    /**
+     * Drop every entry (after commit when called inside a transaction).
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            invalidations.incrementAndGet();
+            int size = entries.size();
+            entries.clear();
+            invalidatedEntries.add(size);
+        });
+    }
+
+    public CacheStats stats() {
+        long hitCount = hits.sum();
+        long staleCount = staleHits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + staleCount + missCount;
+        double hitRate = lookups == 0 ? 0.0 : (double) (hitCount + staleCount) / lookups;
+        return new CacheStats(hitCount, staleCount, missCount, loadFailures.sum(), evictions.sum(),
+                invalidatedEntries.sum(), entries.size(), hitRate);
+    }
+
+    /**
+     * Drop entries that are too old to be served, even stale.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> {
+            boolean expired = entry.isExpired(now, ttlMs + staleMs);
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdown();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void invalidateNow(UUID serviceCenterId, LocalDate day) {
+        invalidations.incrementAndGet();
+        entries.values().removeIf(entry -> {
+            boolean affected = entry.key.covers(serviceCenterId, day);
+            if (affected) {
+                invalidatedEntries.increment();
+            }
+            return affected;
+        });
+    }
+
+    private Object load(Entry entry, Supplier<?> loader) {
+        long invalidationsBefore = invalidations.get();
+        Object value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            // Not stored: waiters see the same failure, the next request loads again
+            loadFailures.increment();
+            entries.remove(entry.key, entry);
+            entry.value.completeExceptionally(e);
+            throw e;
+        }
+
+        entry.loadedAt = System.currentTimeMillis();
+        entry.value.complete(value);
+        if (invalidations.get() != invalidationsBefore) {
+            // The data may have changed while loading; serve this result once but do not keep it
+            entries.remove(entry.key, entry);
+        } else {
+            evictIfFull();
+        }
+        return value;
+    }
+
+    private void refreshInBackground(Entry stale, Supplier<?> loader) {
+        if (!stale.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            long invalidationsBefore = invalidations.get();
+            try {
+                Object value = loader.get();
+                if (invalidations.get() == invalidationsBefore) {
+                    Entry refreshed = new Entry(stale.key);
+                    refreshed.loadedAt = System.currentTimeMillis();
+                    refreshed.value.complete(value);
+                    // Only replace the entry we refreshed; an invalidation may have removed it meanwhile
+                    entries.replace(stale.key, stale, refreshed);
+                }
+            } catch (RuntimeException e) {
+                loadFailures.increment();
+                log.warn("Background refresh of analytics report {} failed: {}", stale.key.report(), e.getMessage());
+            } finally {
+                stale.refreshing.set(false);
+            }
+        });
+    }
+
+    private Object await(Entry entry) {
+        try {
+            return entry.value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        purgeExpired();
+        // Still full: evict the least recently loaded entries (in-flight loads are never evicted)
+        int excess = entries.size() - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        entries.values().stream()
+                .filter(entry -> entry.value.isDone())
+                .sorted(Comparator.comparingLong(entry -> entry.loadedAt))
+                .limit(excess)
+                .toList()
+                .forEach(entry -> {
+                    if (entries.remove(entry.key, entry)) {
+                        evictions.increment();
+                    }
+                });
+    }
+
+    /**
+     * Normalized filter: allTime ignores the dates, so all allTime requests share one entry.
+     */
+    private record Key(String report, LocalDateTime startDate, LocalDateTime endDate, UUID serviceCenterId,
+                       AppointmentType appointmentType, String status, PeriodType periodType,
+                       UUID serviceOrModificationId, UUID employeeId, boolean approximate, boolean allTime,
+                       Object variant) {
+
+        static Key of(String report, AnalyticsFilterRequestDTO filter, Object variant) {
+            boolean allTime = filter.getAllTime() != null && filter.getAllTime();
+            return new Key(
+                    report,
+                    allTime ? null : filter.getStartDate(),
+                    allTime ? null : filter.getEndDate(),
+                    filter.getServiceCenterId(),
+                    filter.getAppointmentType(),
+                    filter.getStatus(),
+                    filter.getPeriodType(),
+                    filter.getServiceOrModificationId(),
+                    filter.getEmployeeId(),
+                    filter.getApproximate() != null && filter.getApproximate(),
+                    allTime,
+                    variant);
+        }
+
+        // Entries without a center filter aggregate every center; open date bounds cover every day
+        boolean covers(UUID changedCenterId, LocalDate day) {
+            if (serviceCenterId != null && changedCenterId != null && !serviceCenterId.equals(changedCenterId)) {
+                return false;
+            }
+            if (allTime || day == null) {
+                return true;
+            }
+            return (startDate == null || !day.isBefore(startDate.toLocalDate()))
+                    && (endDate == null || !day.isAfter(endDate.toLocalDate()));
+        }
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final CompletableFuture<Object> value = new CompletableFuture<>();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long loadedAt;
+
+        private Entry(Key key) {
+            this.key = key;
+        }
+
+        // In-flight loads never expire
+        private boolean isExpired(long now, long maxAgeMs) {
+            return value.isDone() && now - loadedAt > maxAgeMs;
+        }
+    }
+}
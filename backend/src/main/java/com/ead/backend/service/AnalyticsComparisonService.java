@@ -0,0 +1,200 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.*;
+import com.ead.backend.entity.ServiceCenter;
+import com.ead.backend.enums.PeriodType;
+import com.ead.backend.exception.ResourceNotFoundException;
+import com.ead.backend.repository.ServiceCenterRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Side-by-side service distribution, revenue trend and employee performance for several centers.
+ * <p>
+ * Every (center, report) pair runs as its own task on virtual threads, so N centers take roughly as
+ * long as the slowest one instead of the sum. A shared semaphore bounds how many reports compute at
+ * once (each holds at most one pooled connection at a time), leaving the rest of the connection pool
+ * to regular requests. Reports go through {@link AnalyticsCacheService} under the same keys as the
+ * per-center endpoints, so either one warms the other.
+ */
+@Service
+@Slf4j
+public class AnalyticsComparisonService {
+
+    private static final int MAX_CENTERS = 50;
+
+    private final AnalyticsService analyticsService;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final ServiceCenterRepository serviceCenterRepository;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("analytics-comparison-", 0).factory());
+
+    // Concurrent report computations across all comparison requests (cache hits need no permit)
+    private final Semaphore connectionBudget;
+
+    @Value("${app.analytics.comparison.timeout-ms:60000}")
+    private long timeoutMs = 60_000;
+
+    public AnalyticsComparisonService(AnalyticsService analyticsService,
+                                      AnalyticsCacheService analyticsCacheService,
+                                      ServiceCenterRepository serviceCenterRepository,
+                                      @Value("${app.analytics.comparison.max-concurrent-queries:3}") int maxConcurrentQueries) {
+        this.analyticsService = analyticsService;
+        this.analyticsCacheService = analyticsCacheService;
+        this.serviceCenterRepository = serviceCenterRepository;
+        this.connectionBudget = new Semaphore(maxConcurrentQueries, true);
+    }
+
+    /**
+     * Compare {@code serviceCenterIds} (all active centers when empty) over the range of {@code filter}.
+     *
+     * @throws IllegalArgumentException if too many centers are requested
+     * @throws IllegalStateException    if the comparison does not finish within the timeout
+     */
+    public CenterComparisonResponseDTO compare(AnalyticsFilterRequestDTO filter, List<UUID> serviceCenterIds) {
+        List<ServiceCenter> centers = resolveCenters(serviceCenterIds);
+        long started = System.currentTimeMillis();
+
+        List<CenterFutures> perCenter = new ArrayList<>();
+        for (ServiceCenter center : centers) {
+            AnalyticsFilterRequestDTO daily = forCenter(filter, center.getId(), PeriodType.DAILY);
+            AnalyticsFilterRequestDTO trend = forCenter(filter, center.getId(), filter.getPeriodType());
+
+            CenterFutures tasks = new CenterFutures(
+                    center,
+                    executor.submit(() -> analyticsCacheService.get("service-distribution", daily, null,
+                            budgeted(() -> analyticsService.getServiceTypeDistribution(daily)))),
+                    executor.submit(() -> analyticsCacheService.get("revenue-trend", trend, null,
+                            budgeted(() -> analyticsService.getRevenueTrend(trend)))),
+                    executor.submit(() -> analyticsCacheService.get("employee-performance", daily, null,
+                            budgeted(() -> analyticsService.getEmployeePerformance(daily)))));
+            perCenter.add(tasks);
+        }
+
+        long deadline = started + timeoutMs;
+        List<CenterComparisonDTO> results = new ArrayList<>();
+        long totalAppointments = 0;
+        double totalRevenue = 0.0;
+        try {
+            for (CenterFutures tasks : perCenter) {
+                ServiceDistributionResponseDTO distribution = await(tasks.distribution(), deadline);
+                RevenueTrendResponseDTO revenue = await(tasks.revenue(), deadline);
+                EmployeePerformanceResponseDTO employees = await(tasks.employees(), deadline);
+
+                results.add(new CenterComparisonDTO(tasks.center().getId(), tasks.center().getName(),
+                        distribution, revenue, employees));
+                if (distribution != null && distribution.getTotalAppointments() != null) {
+                    totalAppointments += distribution.getTotalAppointments();
+                }
+                if (revenue != null && revenue.getTotalRevenue() != null) {
+                    totalRevenue += revenue.getTotalRevenue();
+                }
+            }
+        } catch (RuntimeException e) {
+            // One failed or slow center fails the comparison; stop the work nobody will read
+            perCenter.forEach(CenterFutures::cancel);
+            throw e;
+        }
+
+        log.debug("Compared {} service centers in {} ms", centers.size(), System.currentTimeMillis() - started);
+        return new CenterComparisonResponseDTO(filter.getStartDate(), filter.getEndDate(),
+                Boolean.TRUE.equals(filter.getAllTime()), totalAppointments, totalRevenue, results);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<ServiceCenter> resolveCenters(List<UUID> serviceCenterIds) {
+        if (serviceCenterIds == null || serviceCenterIds.isEmpty()) {
+            List<ServiceCenter> active = serviceCenterRepository.findByIsActiveTrue();
+            if (active.size() > MAX_CENTERS) {
+                throw new IllegalArgumentException("Too many active service centers to compare at once ("
+                        + active.size() + "). Pass at most " + MAX_CENTERS + " serviceCenterIds");
+            }
+            return active;
+        }
+
+        Set<UUID> ids = new LinkedHashSet<>(serviceCenterIds);
+        if (ids.size() > MAX_CENTERS) {
+            throw new IllegalArgumentException("At most " + MAX_CENTERS + " service centers can be compared at once");
+        }
+        Map<UUID, ServiceCenter> found = new HashMap<>();
+        for (ServiceCenter center : serviceCenterRepository.findAllById(ids)) {
+            found.put(center.getId(), center);
+        }
+        List<ServiceCenter> centers = new ArrayList<>();
+        for (UUID id : ids) {
+            ServiceCenter center = found.get(id);
+            if (center == null) {
+                throw new ResourceNotFoundException("Service center not found: " + id);
+            }
+            centers.add(center);
+        }
+        return centers;
+    }
+
+    // Same normalized filter as the per-center endpoints build, so cache entries are shared
+    private static AnalyticsFilterRequestDTO forCenter(AnalyticsFilterRequestDTO filter, UUID centerId,
+                                                       PeriodType periodType) {
+        AnalyticsFilterRequestDTO centerFilter = new AnalyticsFilterRequestDTO();
+        centerFilter.setStartDate(filter.getStartDate());
+        centerFilter.setEndDate(filter.getEndDate());
+        centerFilter.setAllTime(filter.getAllTime());
+        centerFilter.setServiceCenterId(centerId);
+        centerFilter.setPeriodType(periodType != null ? periodType : PeriodType.DAILY);
+        return centerFilter;
+    }
+
+    private <T> Supplier<T> budgeted(Supplier<T> report) {
+        return () -> {
+            try {
+                connectionBudget.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Comparison cancelled", e);
+            }
+            try {
+                return report.get();
+            } finally {
+                connectionBudget.release();
+            }
+        };
+    }
+
+    private static <T> T await(Future<T> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Service center comparison timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Service center comparison interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Service center comparison failed", e.getCause());
+        }
+    }
+
+    private record CenterFutures(ServiceCenter center,
+                                 Future<ServiceDistributionResponseDTO> distribution,
+                                 Future<RevenueTrendResponseDTO> revenue,
+                                 Future<EmployeePerformanceResponseDTO> employees) {
+
+        void cancel() {
+            distribution.cancel(true);
+            revenue.cancel(true);
+            employees.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.AnalyticsFilterRequestDTO;
+import com.ead.backend.dto.ReportJobDTO;
+import com.ead.backend.enums.AnalyticsReportType;
+import com.ead.backend.enums.ReportJobStatus;
+import com.ead.backend.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs expensive analytics reports (e.g. long {@code allTime} ranges) off the request threads.
+ * <p>
+ * Submitted jobs wait in a bounded queue for a small fixed worker pool; a full queue rejects new
+ * submissions instead of piling up work. Each result is written once as gzip JSON to the report
+ * directory and served from there until the TTL expires, so finished results survive restarts
+ * and downloads never recompute or re-serialize the report.
+ */
+@Service
+@Slf4j
+public class AnalyticsReportJobService {
+
+    private static final String RESULT_SUFFIX = ".json.gz";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final AnalyticsService analyticsService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.analytics.jobs.dir:${java.io.tmpdir}/analytics-reports}")
+    private String directory = System.getProperty("java.io.tmpdir") + "/analytics-reports";
+
+    @Value("${app.analytics.jobs.workers:2}")
+    private int workers = 2;
+
+    @Value("${app.analytics.jobs.queue-capacity:20}")
+    private int queueCapacity = 20;
+
+    @Value("${app.analytics.jobs.result-ttl-ms:86400000}")
+    private long resultTtlMs = 86_400_000;
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    private Path reportDirectory;
+    private ThreadPoolExecutor executor;
+
+    public AnalyticsReportJobService(AnalyticsService analyticsService, ObjectMapper objectMapper) {
+        this.analyticsService = analyticsService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Create the report directory, pick up results of a previous run that are still within the TTL
+     * and start the worker pool.
+     */
+    @PostConstruct
+    public void start() {
+        reportDirectory = Paths.get(directory);
+        try {
+            Files.createDirectories(reportDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create analytics report directory " + reportDirectory, e);
+        }
+        recoverResults();
+
+        executor = new ThreadPoolExecutor(
+                workers, workers, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "analytics-report-job");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue {@code report} for {@code filter}.
+     *
+     * @throws IllegalStateException if the queue is full
+     */
+    public ReportJobDTO submit(AnalyticsReportType report, AnalyticsFilterRequestDTO filter) {
+        Job job = new Job(UUID.randomUUID(), report, filter);
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new IllegalStateException("Too many analytics reports queued, try again later");
+        }
+        log.info("Queued analytics report job {} ({})", job.id, report);
+        return job.toDTO();
+    }
+
+    public ReportJobDTO getJob(UUID jobId) {
+        return require(jobId).toDTO();
+    }
+
+    /**
+     * Cancel a queued or running job. Finished jobs are returned unchanged.
+     */
+    public ReportJobDTO cancel(UUID jobId) {
+        Job job = require(jobId);
+        synchronized (job) {
+            if (job.status == ReportJobStatus.QUEUED || job.status == ReportJobStatus.RUNNING) {
+                job.finish(ReportJobStatus.CANCELLED, resultTtlMs);
+                if (job.future != null) {
+                    job.future.cancel(true);
+                }
+            }
+        }
+        // Free the queue slot of a cancelled job that had not started
+        executor.purge();
+        return job.toDTO();
+    }
+
+    /**
+     * Stored gzip JSON result of a completed job.
+     *
+     * @throws IllegalStateException if the job has not completed
+     */
+    public Path getResultFile(UUID jobId) {
+        Job job = require(jobId);
+        if (job.status != ReportJobStatus.COMPLETED) {
+            throw new IllegalStateException("Analytics report job " + jobId + " is " + job.status);
+        }
+        if (!Files.isRegularFile(job.file)) {
+            throw new ResourceNotFoundException("Result of analytics report job " + jobId + " has expired");
+        }
+        return job.file;
+    }
+
+    /**
+     * Forget finished jobs past the TTL and delete their results.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.jobs.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> {
+            boolean expired = job.expiresAt != null && job.expiresAt.isBefore(now);
+            if (expired && job.file != null) {
+                deleteQuietly(job.file);
+            }
+            return expired;
+        });
+    }
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.status != ReportJobStatus.QUEUED) {
+                return;
+            }
+            job.status = ReportJobStatus.RUNNING;
+            job.startedAt = LocalDateTime.now();
+        }
+
+        Path temp = null;
+        try {
+            Object result = compute(job.report, job.filter);
+            temp = Files.createTempFile(reportDirectory, job.id.toString(), ".tmp");
+            try (OutputStream out = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), WRITE_BUFFER_SIZE), WRITE_BUFFER_SIZE)) {
+                objectMapper.writeValue(out, result);
+            }
+
+            synchronized (job) {
+                if (job.status == ReportJobStatus.CANCELLED) {
+                    return;
+                }
+                Path file = resultFile(job.id, job.report);
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+                temp = null;
+                job.file = file;
+                job.resultBytes = Files.size(file);
+                job.finish(ReportJobStatus.COMPLETED, resultTtlMs);
+            }
+            log.info("Analytics report job {} completed ({} bytes)", job.id, job.resultBytes);
+        } catch (Exception e) {
+            synchronized (job) {
+                if (job.status == ReportJobStatus.RUNNING) {
+                    String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    job.error = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+                    job.finish(ReportJobStatus.FAILED, resultTtlMs);
+                    log.error("Analytics report job {} failed: {}", job.id, message);
+                }
+            }
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    private Object compute(AnalyticsReportType report, AnalyticsFilterRequestDTO filter) {
+        return switch (report) {
+            case DASHBOARD -> analyticsService.getDashboardSummary(filter);
+            case SERVICE_DISTRIBUTION -> analyticsService.getServiceTypeDistribution(filter);
+            case REVENUE_TREND -> analyticsService.getRevenueTrend(filter);
+            case EMPLOYEE_PERFORMANCE -> analyticsService.getEmployeePerformance(filter);
+            case TURNAROUND -> analyticsService.getTurnaroundReport(filter);
+            case CUSTOM -> analyticsService.getCustomAnalytics(filter);
+        };
+    }
+
+    private Job require(UUID jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Analytics report job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private Path resultFile(UUID jobId, AnalyticsReportType report) {
+        return reportDirectory.resolve(jobId + "." + report.name() + RESULT_SUFFIX);
+    }
+
+    // Results are named <jobId>.<REPORT>.json.gz, so a restart can re-register them without extra metadata
+    private void recoverResults() {
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(reportDirectory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(RESULT_SUFFIX)) {
+                    if (name.endsWith(".tmp")) {
+                        deleteQuietly(file);
+                    }
+                    continue;
+                }
+                String[] parts = name.substring(0, name.length() - RESULT_SUFFIX.length()).split("\\.");
+                long modifiedAt = Files.getLastModifiedTime(file).toMillis();
+                if (parts.length != 2 || now - modifiedAt > resultTtlMs) {
+                    deleteQuietly(file);
+                    continue;
+                }
+                try {
+                    Job job = Job.recovered(UUID.fromString(parts[0]), AnalyticsReportType.valueOf(parts[1]),
+                            file, Files.size(file), modifiedAt, resultTtlMs);
+                    jobs.put(job.id, job);
+                } catch (IllegalArgumentException e) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan analytics report directory {}: {}", reportDirectory, e.getMessage());
+        }
+        if (!jobs.isEmpty()) {
+            log.info("Recovered {} analytics report results from {}", jobs.size(), reportDirectory);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete analytics report file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class Job {
+        private final UUID id;
+        private final AnalyticsReportType report;
+        private final AnalyticsFilterRequestDTO filter;
+        private final LocalDateTime submittedAt;
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile LocalDateTime expiresAt;
+        private volatile Path file;
+        private volatile Long resultBytes;
+        private volatile String error;
+        private volatile Future<?> future;
+
+        private Job(UUID id, AnalyticsReportType report, AnalyticsFilterRequestDTO filter) {
+            this(id, report, filter, LocalDateTime.now());
+        }
+
+        private Job(UUID id, AnalyticsReportType report, AnalyticsFilterRequestDTO filter, LocalDateTime submittedAt) {
+            this.id = id;
+            this.report = report;
+            this.filter = filter;
+            this.submittedAt = submittedAt;
+        }
+
+        private static Job recovered(UUID id, AnalyticsReportType report, Path file, long size,
+                                     long modifiedAtMs, long ttlMs) {
+            LocalDateTime modifiedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(modifiedAtMs), ZoneId.systemDefault());
+            Job job = new Job(id, report, null, modifiedAt);
+            job.status = ReportJobStatus.COMPLETED;
+            job.finishedAt = modifiedAt;
+            job.expiresAt = modifiedAt.plus(Duration.ofMillis(ttlMs));
+            job.file = file;
+            job.resultBytes = size;
+            return job;
+        }
+
+        // Caller holds the job lock
+        private void finish(ReportJobStatus finalStatus, long ttlMs) {
+            status = finalStatus;
+            finishedAt = LocalDateTime.now();
+            expiresAt = finishedAt.plus(Duration.ofMillis(ttlMs));
+        }
+
+        private ReportJobDTO toDTO() {
+            return new ReportJobDTO(id, report, status, submittedAt, startedAt, finishedAt, expiresAt,
+                    resultBytes, error);
+        }
+    }
+}
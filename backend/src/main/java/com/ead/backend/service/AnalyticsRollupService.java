@@ -0,0 +1,346 @@
+package com.ead.backend.service;
+
+import com.ead.backend.entity.Appointment;
+import com.ead.backend.entity.CustomerDailySketch;
+import com.ead.backend.entity.TurnaroundHistogramBucket;
+import com.ead.backend.entity.User;
+import com.ead.backend.enums.TurnaroundMetric;
+import com.ead.backend.repository.AppointmentDailyRollupRepository;
+import com.ead.backend.repository.AppointmentRepository;
+import com.ead.backend.repository.CustomerDailySketchRepository;
+import com.ead.backend.repository.EmployeeDailyRollupRepository;
+import com.ead.backend.repository.TurnaroundHistogramRepository;
+import com.ead.backend.util.HyperLogLog;
+import com.ead.backend.util.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the daily analytics rollups, turnaround histograms and customer sketches in step with the
+ * appointment table.
+ * <p>
+ * Every appointment mutation records a before/after {@link Snapshot}; the difference is applied
+ * to the rollups and histograms as +1/-1 upserts in the caller's transaction, so they commit (or
+ * roll back) together with the appointment. Sketch registers can only be raised, so they are written
+ * on booking alone; cancellations, moves and deletions leave them as they are until the rebuild.
+ * A nightly rebuild recomputes the appointment and employee rollups, the turnaround histograms and
+ * the customer sketches from scratch to repair that and any other drift (e.g. rows changed by hand
+ * in the database). The same rebuild runs at startup while the histograms or sketches have not been
+ * filled yet (first start after they were added), so they do not wait for the first night.
+ */
+@Service
+@Slf4j
+public class AnalyticsRollupService {
+
+    private final AppointmentDailyRollupRepository appointmentRollupRepository;
+    private final EmployeeDailyRollupRepository employeeRollupRepository;
+    private final TurnaroundHistogramRepository turnaroundHistogramRepository;
+    private final CustomerDailySketchRepository customerSketchRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final AppointmentFactSnapshot appointmentFactSnapshot;
+    private final TransactionTemplate transactionTemplate;
+
+    public AnalyticsRollupService(AppointmentDailyRollupRepository appointmentRollupRepository,
+                                  EmployeeDailyRollupRepository employeeRollupRepository,
+                                  TurnaroundHistogramRepository turnaroundHistogramRepository,
+                                  CustomerDailySketchRepository customerSketchRepository,
+                                  AppointmentRepository appointmentRepository,
+                                  AnalyticsCacheService analyticsCacheService,
+                                  AppointmentFactSnapshot appointmentFactSnapshot,
+                                  PlatformTransactionManager transactionManager) {
+        this.appointmentRollupRepository = appointmentRollupRepository;
+        this.employeeRollupRepository = employeeRollupRepository;
+        this.turnaroundHistogramRepository = turnaroundHistogramRepository;
+        this.customerSketchRepository = customerSketchRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.analyticsCacheService = analyticsCacheService;
+        this.appointmentFactSnapshot = appointmentFactSnapshot;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * The rollup-relevant state of one appointment at a point in time.
+     * Wait and work durations are in seconds, null until the appointment is started / finished.
+     */
+    public record Snapshot(LocalDate day, UUID serviceCenterId, UUID serviceOrModificationId,
+                           String status, Set<UUID> employeeIds, Long waitSeconds, Long workSeconds) {
+    }
+
+    /**
+     * Capture the current state of {@code appointment}; take it before mutating the entity.
+     *
+     * @return the snapshot, or null if the appointment is not (yet) complete enough to be counted
+     */
+    public Snapshot snapshot(Appointment appointment) {
+        if (appointment == null
+                || appointment.getAppointmentDate() == null
+                || appointment.getServiceCenter() == null
+                || appointment.getServiceOrModification() == null
+                || appointment.getStatus() == null) {
+            return null;
+        }
+
+        Set<UUID> employeeIds = new HashSet<>();
+        if (appointment.getAssignedEmployees() != null) {
+            for (User employee : appointment.getAssignedEmployees()) {
+                employeeIds.add(employee.getId());
+            }
+        }
+
+        return new Snapshot(
+                appointment.getAppointmentDate().toLocalDate(),
+                appointment.getServiceCenter().getId(),
+                appointment.getServiceOrModification().getId(),
+                appointment.getStatus(),
+                employeeIds,
+                waitSeconds(appointment.getAppointmentDate(), appointment.getStartTime()),
+                workSeconds(appointment.getStartTime(), appointment.getEndTime()));
+    }
+
+    /**
+     * Apply the change from {@code before} to the current state of {@code after}.
+     *
+     * @param before snapshot taken before the mutation, or null for a newly created appointment
+     */
+    @Transactional
+    public void recordChange(Snapshot before, Appointment after) {
+        Snapshot current = snapshot(after);
+
+        Map<List<Object>, Long> appointmentDeltas = new HashMap<>();
+        Map<List<Object>, Long> employeeDeltas = new HashMap<>();
+        Map<List<Object>, Long> histogramDeltas = new HashMap<>();
+        addDeltas(before, -1, appointmentDeltas, employeeDeltas, histogramDeltas);
+        addDeltas(current, 1, appointmentDeltas, employeeDeltas, histogramDeltas);
+
+        appointmentDeltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                appointmentRollupRepository.addToCount(
+                        (LocalDate) key.get(0), (UUID) key.get(1), (UUID) key.get(2), (String) key.get(3), delta);
+            }
+        });
+        employeeDeltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                employeeRollupRepository.addToCount(
+                        (LocalDate) key.get(0), (UUID) key.get(1), (UUID) key.get(2), (String) key.get(3), delta);
+            }
+        });
+
+        histogramDeltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                addToHistogram(key, delta);
+            }
+        });
+
+        // Sketches only grow: a booking adds its customer, later changes are repaired by the rebuild
+        if (before == null && current != null && after.getUser() != null) {
+            boolean returning = appointmentRepository.existsByUserIdAndAppointmentDateBefore(
+                    after.getUser().getId(), after.getAppointmentDate());
+            Map<List<Object>, Integer> registers = new HashMap<>();
+            addCustomer(registers, current.day(), current.serviceCenterId(), after.getUser().getId(), returning);
+            registers.forEach(this::raiseRegister);
+        }
+
+        appointmentFactSnapshot.recordChange(after);
+
+        // Cached reports covering the old or new center/day are recomputed on their next request
+        if (!appointmentDeltas.isEmpty() || !employeeDeltas.isEmpty() || !histogramDeltas.isEmpty()) {
+            if (before != null) {
+                analyticsCacheService.invalidate(before.serviceCenterId(), before.day());
+            }
+            if (current != null && (before == null
+                    || !current.serviceCenterId().equals(before.serviceCenterId())
+                    || !current.day().equals(before.day()))) {
+                analyticsCacheService.invalidate(current.serviceCenterId(), current.day());
+            }
+        }
+    }
+
+    /**
+     * Rebuild at startup if the turnaround histograms or customer sketches are still empty while
+     * there are appointments they should cover; afterwards the incremental updates keep them current.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            boolean histogramsMissing = !turnaroundHistogramRepository.hasRows()
+                    && appointmentRepository.existsByStartTimeIsNotNull();
+            boolean sketchesMissing = !customerSketchRepository.hasRows()
+                    && appointmentRepository.existsByAppointmentDateIsNotNull();
+            if (histogramsMissing || sketchesMissing) {
+                // Called on this instance, so the transaction is opened here rather than by the proxy
+                transactionTemplate.executeWithoutResult(status -> rebuild());
+            }
+        } catch (Exception e) {
+            log.error("Failed to warm analytics histograms and sketches: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the rollup tables, turnaround histograms and customer sketches from the appointment table.
+     * <p>
+     * The tables are locked for the whole transaction, so incremental updates from concurrent
+     * appointment changes wait and are applied on top of the rebuilt rows.
+     */
+    @Scheduled(cron = "${app.analytics.rollup.rebuild-cron:0 15 4 * * *}")
+    @Transactional
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        appointmentRollupRepository.lockForRebuild();
+
+        appointmentRollupRepository.deleteAllRows();
+        employeeRollupRepository.deleteAllRows();
+        int appointmentRows = appointmentRollupRepository.rebuildFromAppointments();
+        int employeeRows = employeeRollupRepository.rebuildFromAppointments();
+        turnaroundHistogramRepository.deleteAllRows();
+        int histogramRows = rebuildTurnaroundHistograms();
+        customerSketchRepository.deleteAllRows();
+        int sketchRows = rebuildCustomerSketches();
+        analyticsCacheService.invalidateAll();
+
+        log.info("Rebuilt analytics rollups ({} appointment rows, {} employee rows, {} histogram buckets, "
+                        + "{} sketch registers) in {} ms",
+                appointmentRows, employeeRows, histogramRows, sketchRows, System.currentTimeMillis() - started);
+    }
+
+    // Same definition as recordChange: an appointment counts as returning when the customer has an earlier-dated one
+    private int rebuildCustomerSketches() {
+        Map<List<Object>, Integer> registers = new HashMap<>();
+        try (Stream<Object[]> rows = appointmentRepository.streamCustomerSketchSamples()) {
+            UUID previousCustomerId = null;
+            LocalDateTime firstDate = null;
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] row = it.next();
+                LocalDateTime appointmentDate = (LocalDateTime) row[0];
+                UUID customerId = (UUID) row[2];
+                if (!customerId.equals(previousCustomerId)) {
+                    previousCustomerId = customerId;
+                    firstDate = appointmentDate;
+                }
+                boolean returning = appointmentDate.isAfter(firstDate);
+                addCustomer(registers, appointmentDate.toLocalDate(), (UUID) row[1], customerId, returning);
+            }
+        }
+        registers.forEach(this::raiseRegister);
+        return registers.size();
+    }
+
+    private static void addCustomer(Map<List<Object>, Integer> registers, LocalDate day, UUID serviceCenterId,
+                                    UUID customerId, boolean returning) {
+        int register = HyperLogLog.registerOf(customerId);
+        int rank = HyperLogLog.rankOf(customerId);
+        registers.merge(List.of(day, serviceCenterId, CustomerDailySketch.SKETCH_ALL, register), rank, Math::max);
+        if (returning) {
+            registers.merge(List.of(day, serviceCenterId, CustomerDailySketch.SKETCH_RETURNING, register),
+                    rank, Math::max);
+        }
+    }
+
+    private void raiseRegister(List<Object> key, int rank) {
+        customerSketchRepository.raiseRegister(
+                (LocalDate) key.get(0), (UUID) key.get(1), (String) key.get(2), (Integer) key.get(3), rank);
+    }
+
+    // Bucket indexes are computed in Java, so the histograms are rebuilt from a streamed read
+    private int rebuildTurnaroundHistograms() {
+        Map<List<Object>, Long> counts = new HashMap<>();
+        try (Stream<Object[]> rows = appointmentRepository.streamTurnaroundSamples()) {
+            UUID previousAppointmentId = null;
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] row = it.next();
+                UUID appointmentId = (UUID) row[0];
+                LocalDateTime appointmentDate = (LocalDateTime) row[1];
+                UUID serviceCenterId = (UUID) row[2];
+                UUID serviceId = (UUID) row[3];
+                Long wait = waitSeconds(appointmentDate, (LocalDateTime) row[4]);
+                Long work = workSeconds((LocalDateTime) row[4], (LocalDateTime) row[5]);
+                UUID employeeId = (UUID) row[6];
+                LocalDate day = appointmentDate.toLocalDate();
+
+                // Rows are ordered by appointment, one per assigned employee
+                if (!appointmentId.equals(previousAppointmentId)) {
+                    addSamples(counts, day, serviceCenterId, TurnaroundHistogramBucket.DIMENSION_SERVICE,
+                            serviceId, wait, work, 1);
+                    previousAppointmentId = appointmentId;
+                }
+                if (employeeId != null) {
+                    addSamples(counts, day, serviceCenterId, TurnaroundHistogramBucket.DIMENSION_EMPLOYEE,
+                            employeeId, wait, work, 1);
+                }
+            }
+        }
+        counts.forEach(this::addToHistogram);
+        return counts.size();
+    }
+
+    private void addToHistogram(List<Object> key, long delta) {
+        turnaroundHistogramRepository.addToCount(
+                (LocalDate) key.get(0), (UUID) key.get(1), (String) key.get(2), (UUID) key.get(3),
+                ((TurnaroundMetric) key.get(4)).name(), (Integer) key.get(5), delta);
+    }
+
+    private static void addDeltas(Snapshot snapshot, long sign,
+                                  Map<List<Object>, Long> appointmentDeltas,
+                                  Map<List<Object>, Long> employeeDeltas,
+                                  Map<List<Object>, Long> histogramDeltas) {
+        if (snapshot == null) {
+            return;
+        }
+        appointmentDeltas.merge(
+                List.of(snapshot.day(), snapshot.serviceCenterId(), snapshot.serviceOrModificationId(), snapshot.status()),
+                sign, Long::sum);
+        for (UUID employeeId : snapshot.employeeIds()) {
+            employeeDeltas.merge(
+                    List.of(snapshot.day(), snapshot.serviceCenterId(), employeeId, snapshot.status()),
+                    sign, Long::sum);
+        }
+
+        addSamples(histogramDeltas, snapshot.day(), snapshot.serviceCenterId(),
+                TurnaroundHistogramBucket.DIMENSION_SERVICE, snapshot.serviceOrModificationId(),
+                snapshot.waitSeconds(), snapshot.workSeconds(), sign);
+        for (UUID employeeId : snapshot.employeeIds()) {
+            addSamples(histogramDeltas, snapshot.day(), snapshot.serviceCenterId(),
+                    TurnaroundHistogramBucket.DIMENSION_EMPLOYEE, employeeId,
+                    snapshot.waitSeconds(), snapshot.workSeconds(), sign);
+        }
+    }
+
+    private static void addSamples(Map<List<Object>, Long> histogramCounts, LocalDate day, UUID serviceCenterId,
+                                   String dimension, UUID dimensionId, Long waitSeconds, Long workSeconds, long sign) {
+        if (waitSeconds != null) {
+            histogramCounts.merge(List.of(day, serviceCenterId, dimension, dimensionId, TurnaroundMetric.WAIT,
+                    LatencyHistogram.bucketOf(waitSeconds)), sign, Long::sum);
+        }
+        if (workSeconds != null) {
+            histogramCounts.merge(List.of(day, serviceCenterId, dimension, dimensionId, TurnaroundMetric.WORK,
+                    LatencyHistogram.bucketOf(workSeconds)), sign, Long::sum);
+        }
+    }
+
+    // Starting early counts as no wait
+    private static Long waitSeconds(LocalDateTime appointmentDate, LocalDateTime startTime) {
+        if (appointmentDate == null || startTime == null) {
+            return null;
+        }
+        return Math.max(0, Duration.between(appointmentDate, startTime).getSeconds());
+    }
+
+    private static Long workSeconds(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            return null;
+        }
+        return Math.max(0, Duration.between(startTime, endTime).getSeconds());
+    }
+}
@@ -1,21 +1,46 @@
 package com.ead.backend.service;
 
 import com.ead.backend.dto.*;
-import com.ead.backend.entity.Appointment;
+import com.ead.backend.entity.CustomerDailySketch;
+import com.ead.backend.entity.ServiceCenter;
+import com.ead.backend.entity.ServiceOrModification;
+import com.ead.backend.entity.TurnaroundHistogramBucket;
+import com.ead.backend.entity.User;
 import com.ead.backend.enums.AppointmentType;
+import com.ead.backend.enums.TurnaroundMetric;
 import com.ead.backend.enums.PeriodType;
+import com.ead.backend.repository.AppointmentDailyRollupRepository;
 import com.ead.backend.repository.AppointmentRepository;
+import com.ead.backend.repository.CustomerDailySketchRepository;
+import com.ead.backend.repository.EmployeeDailyRollupRepository;
+import com.ead.backend.repository.ServiceCenterRepository;
+import com.ead.backend.repository.ServiceOrModificationRepository;
 import com.ead.backend.repository.TimeLogRepository;
+import com.ead.backend.repository.TurnaroundHistogramRepository;
 import com.ead.backend.repository.UserRepository;
 import com.ead.backend.util.AnalyticsHelper;
 import com.ead.backend.util.DatePeriodGrouper;
+import com.ead.backend.util.HyperLogLog;
+import com.ead.backend.util.LatencyHistogram;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,24 +55,67 @@ public class AnalyticsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AppointmentDailyRollupRepository appointmentRollupRepository;
+
+    @Autowired
+    private EmployeeDailyRollupRepository employeeRollupRepository;
+
+    @Autowired
+    private AppointmentFactSnapshot appointmentFactSnapshot;
+
+    @Autowired
+    private TurnaroundHistogramRepository turnaroundHistogramRepository;
+
+    @Autowired
+    private CustomerDailySketchRepository customerSketchRepository;
+
+    @Autowired
+    private ServiceOrModificationRepository serviceOrModificationRepository;
+
+    @Autowired
+    private ServiceCenterRepository serviceCenterRepository;
+
+    // Day bounds for allTime / open-ended filters on the rollup tables
+    private static final LocalDate MIN_DAY = LocalDate.of(1970, 1, 1);
+    private static final LocalDate MAX_DAY = LocalDate.of(9999, 12, 31);
+
+    // Bounds for allTime queries on the appointment table
+    private static final LocalDateTime MIN_DATE = MIN_DAY.atStartOfDay();
+    private static final LocalDateTime MAX_DATE = MAX_DAY.atTime(23, 59, 59);
+
+    // Dashboard sub-reports run concurrently; each holds one database connection while it runs
+    private static final int REPORT_THREADS = 4;
+    private static final int REPORT_QUEUE_CAPACITY = 64;
+
+    private final ExecutorService reportExecutor = newReportExecutor();
+
+    // Customer insights paging; sort keys map to the aggregate expressions of the insights query
+    private static final int DEFAULT_CUSTOMER_PAGE_SIZE = 20;
+    private static final int MAX_CUSTOMER_PAGE_SIZE = 100;
+    private static final int TOP_CUSTOMERS = 10;
+    private static final String DEFAULT_CUSTOMER_SORT = "totalAppointments";
+    private static final Map<String, String> CUSTOMER_SORT_EXPRESSIONS = Map.of(
+            "totalAppointments", "COUNT(a)",
+            "completedAppointments", "COUNT(CASE WHEN a.status = 'COMPLETED' THEN 1 END)",
+            "cancelledAppointments", "COUNT(CASE WHEN a.status = 'CANCELLED' THEN 1 END)",
+            "totalSpent", "SUM(CASE WHEN a.status = 'COMPLETED' THEN som.estimatedCost ELSE 0.0 END)",
+            "firstAppointmentDate", "MIN(a.appointmentDate)",
+            "lastAppointmentDate", "MAX(a.appointmentDate)",
+            "customerName", "u.fullName"
+    );
+
     /**
      * Get service type distribution analytics
      */
     public ServiceDistributionResponseDTO getServiceTypeDistribution(AnalyticsFilterRequestDTO filter) {
-        List<Object[]> rawData;
-        if (filter.getAllTime() != null && filter.getAllTime()) {
-            rawData = appointmentRepository.getServiceTypeDistributionAllTime(
-                    filter.getServiceCenterId(),
-                    filter.getStatus()
-            );
-        } else {
-            rawData = appointmentRepository.getServiceTypeDistribution(
-                    filter.getStartDate(),
-                    filter.getEndDate(),
-                    filter.getServiceCenterId(),
-                    filter.getStatus()
-            );
-        }
+        // Read from the daily rollups: cost depends on the number of days, not appointments
+        List<Object[]> rawData = appointmentRollupRepository.getServiceTypeDistribution(
+                startDay(filter),
+                endDay(filter),
+                filter.getServiceCenterId(),
+                filter.getStatus()
+        );
 
         List<ServiceTypeDistributionDTO> distributions = new ArrayList<>();
         long totalAppointments = 0;
@@ -102,18 +170,11 @@ public class AnalyticsService {
      * Get revenue trend analytics
      */
     public RevenueTrendResponseDTO getRevenueTrend(AnalyticsFilterRequestDTO filter) {
-        List<Object[]> rawData;
-        if (filter.getAllTime() != null && filter.getAllTime()) {
-            rawData = appointmentRepository.getRevenueByDateRangeAllTime(
-                    filter.getServiceCenterId()
-            );
-        } else {
-            rawData = appointmentRepository.getRevenueByDateRange(
-                    filter.getStartDate(),
-                    filter.getEndDate(),
-                    filter.getServiceCenterId()
-            );
-        }
+        List<Object[]> rawData = appointmentRollupRepository.getRevenueByDay(
+                startDay(filter),
+                endDay(filter),
+                filter.getServiceCenterId()
+        );
 
         Map<LocalDate, RevenueTrendDTO> trendMap = new HashMap<>();
 
@@ -189,18 +250,11 @@ public class AnalyticsService {
      */
     public EmployeePerformanceResponseDTO getEmployeePerformance(AnalyticsFilterRequestDTO filter) {
         // Get appointment metrics
-        List<Object[]> appointmentMetrics;
-        if (filter.getAllTime() != null && filter.getAllTime()) {
-            appointmentMetrics = appointmentRepository.getEmployeeAppointmentMetricsAllTime(
-                    filter.getServiceCenterId()
-            );
-        } else {
-            appointmentMetrics = appointmentRepository.getEmployeeAppointmentMetrics(
-                    filter.getStartDate(),
-                    filter.getEndDate(),
-                    filter.getServiceCenterId()
-            );
-        }
+        List<Object[]> appointmentMetrics = employeeRollupRepository.getEmployeeAppointmentMetrics(
+                startDay(filter),
+                endDay(filter),
+                filter.getServiceCenterId()
+        );
 
         // Get time log metrics
         List<Object[]> timeMetrics;
@@ -285,91 +339,69 @@ public class AnalyticsService {
     }
 
     /**
-     * Get customer insights analytics
+     * Get customer insights analytics (first page, most appointments first)
      */
     public CustomerInsightsResponseDTO getCustomerInsights(AnalyticsFilterRequestDTO filter) {
-        List<Object[]> rawData;
-        if (filter.getAllTime() != null && filter.getAllTime()) {
-            rawData = userRepository.getCustomerInsightsAllTime();
-        } else {
-            rawData = userRepository.getCustomerInsights(
-                    filter.getStartDate(),
-                    filter.getEndDate()
-            );
-        }
-
-        List<CustomerInsightDTO> insights = new ArrayList<>();
-        List<UUID> customerIds = new ArrayList<>();
-
-        for (Object[] row : rawData) {
-            UUID customerId = (UUID) row[0];
-            String customerName = (String) row[1];
-            String email = (String) row[2];
-            String phoneNumber = (String) row[3];
-            Long totalAppts = AnalyticsHelper.toSafeLong(row[4]);
-            Long completed = AnalyticsHelper.toSafeLong(row[5]);
-            Long cancelled = AnalyticsHelper.toSafeLong(row[6]);
-            LocalDateTime firstAppt = (LocalDateTime) row[7];
-            LocalDateTime lastAppt = (LocalDateTime) row[8];
-
-            customerIds.add(customerId);
-
-            // Calculate total spent (based on completed appointments)
-            Double totalSpent = calculateCustomerSpending(customerId, filter.getStartDate(), filter.getEndDate());
-
-            // Calculate days since last appointment
-            Integer daysSinceLast = (int) ChronoUnit.DAYS.between(lastAppt.toLocalDate(), LocalDate.now());
+        return getCustomerInsights(filter, 0, DEFAULT_CUSTOMER_PAGE_SIZE, DEFAULT_CUSTOMER_SORT, "DESC");
+    }
 
-            CustomerInsightDTO dto = new CustomerInsightDTO(
-                    customerId,
-                    customerName,
-                    email,
-                    phoneNumber,
-                    totalAppts,
-                    completed,
-                    cancelled,
-                    totalSpent,
-                    firstAppt,
-                    lastAppt,
-                    totalAppts > 1, // isRepeatCustomer
-                    0, // Will set vehicle count later
-                    daysSinceLast
-            );
-            insights.add(dto);
+    /**
+     * Get one page of customer insights analytics.
+     * <p>
+     * Spend is aggregated in the same query as the appointment counts, and the summary figures
+     * come from one aggregate over all customers, so only the requested page is materialized.
+     *
+     * @param sortBy    one of {@link #CUSTOMER_SORT_EXPRESSIONS}
+     * @param direction ASC or DESC
+     */
+    public CustomerInsightsResponseDTO getCustomerInsights(AnalyticsFilterRequestDTO filter, int page, int size,
+                                                           String sortBy, String direction) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
         }
-
-        // Get vehicle counts
-        if (!customerIds.isEmpty()) {
-            List<Object[]> vehicleCounts = userRepository.getVehicleCountByCustomers(customerIds);
-            Map<UUID, Long> vehicleMap = new HashMap<>();
-            for (Object[] row : vehicleCounts) {
-                vehicleMap.put((UUID) row[0], AnalyticsHelper.toSafeLong(row[1]));
-            }
-            insights.forEach(dto -> dto.setVehicleCount(vehicleMap.getOrDefault(dto.getCustomerId(), 0L).intValue()));
+        if (size < 1 || size > MAX_CUSTOMER_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CUSTOMER_PAGE_SIZE);
+        }
+        String sortExpression = CUSTOMER_SORT_EXPRESSIONS.get(sortBy);
+        if (sortExpression == null) {
+            throw new IllegalArgumentException("Invalid sort field: " + sortBy
+                    + ". Valid fields: " + String.join(", ", CUSTOMER_SORT_EXPRESSIONS.keySet()));
+        }
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid sort direction: " + direction));
+
+        boolean allTime = filter.getAllTime() != null && filter.getAllTime();
+        LocalDateTime startDate = allTime ? MIN_DATE : filter.getStartDate();
+        LocalDateTime endDate = allTime ? MAX_DATE : filter.getEndDate();
+
+        Page<Object[]> rawPage = userRepository.getCustomerInsights(startDate, endDate,
+                PageRequest.of(page, size, customerSort(sortExpression, sortDirection)));
+        List<CustomerInsightDTO> insights = toCustomerInsights(rawPage.getContent());
+
+        // The first page in the default order already holds the top customers
+        List<CustomerInsightDTO> topCustomers;
+        if (page == 0 && DEFAULT_CUSTOMER_SORT.equals(sortBy) && sortDirection == Sort.Direction.DESC
+                && size >= TOP_CUSTOMERS) {
+            topCustomers = insights.stream().limit(TOP_CUSTOMERS).collect(Collectors.toList());
+        } else {
+            topCustomers = toCustomerInsights(userRepository.getCustomerInsights(startDate, endDate,
+                    PageRequest.of(0, TOP_CUSTOMERS, customerSort(
+                            CUSTOMER_SORT_EXPRESSIONS.get(DEFAULT_CUSTOMER_SORT), Sort.Direction.DESC))).getContent());
         }
 
         // Calculate summary statistics
-        Long totalCustomers = (long) insights.size();
-        Long repeatCustomers = insights.stream().filter(CustomerInsightDTO::getIsRepeatCustomer).count();
+        List<Object[]> summaryRows = userRepository.getCustomerInsightsSummary(startDate, endDate);
+        Object[] summary = summaryRows.isEmpty() ? new Object[4] : summaryRows.get(0);
+        Long totalCustomers = AnalyticsHelper.toSafeLong(summary[0]);
+        Long repeatCustomers = AnalyticsHelper.toSafeLong(summary[1]);
+        Long totalAppointments = AnalyticsHelper.toSafeLong(summary[2]);
+        Double totalSpent = AnalyticsHelper.toSafeDouble(summary[3]);
+
         Long newCustomers = totalCustomers - repeatCustomers;
         Double repeatRate = AnalyticsHelper.calculatePercentage(repeatCustomers, totalCustomers);
-
-        Long totalAppointments = insights.stream()
-                .mapToLong(CustomerInsightDTO::getTotalAppointments)
-                .sum();
         Double avgAppointments = AnalyticsHelper.safeDivide(totalAppointments, totalCustomers);
-
-        Double totalSpent = insights.stream()
-                .mapToDouble(dto -> dto.getTotalSpent() != null ? dto.getTotalSpent() : 0.0)
-                .sum();
         Double avgSpent = AnalyticsHelper.safeDivide(totalSpent, totalCustomers.doubleValue());
 
-        // Get top 10 customers
-        List<CustomerInsightDTO> topCustomers = insights.stream()
-                .sorted((a, b) -> Long.compare(b.getTotalAppointments(), a.getTotalAppointments()))
-                .limit(10)
-                .collect(Collectors.toList());
-
         CustomerInsightsResponseDTO response = new CustomerInsightsResponseDTO();
         response.setTotalCustomers(totalCustomers);
         response.setRepeatCustomers(repeatCustomers);
@@ -380,73 +412,80 @@ public class AnalyticsService {
         response.setTotalAppointments(totalAppointments);
         response.setCustomerInsights(insights);
         response.setTopCustomers(topCustomers);
+        response.setPage(page);
+        response.setPageSize(size);
+        response.setTotalPages(rawPage.getTotalPages());
 
         return response;
     }
 
     /**
-     * Get dashboard summary analytics
+     * Get dashboard summary analytics.
+     * <p>
+     * The counters come from one aggregate query; it and the sub-reports run in parallel on the
+     * report executor, so the response takes about as long as the slowest of them.
+     * <p>
+     * With {@code approximate} set, the counters come from the daily rollups and distinct / repeat
+     * customers are estimated from the daily customer sketches (about 2% error), so no part of the
+     * dashboard scans appointments. Before the first rebuild has filled the sketches, the customer
+     * counts are exact instead.
      */
     public AnalyticsDashboardDTO getDashboardSummary(AnalyticsFilterRequestDTO filter) {
-        // Get all appointments in range (or all appointments if allTime mode)
-        List<Appointment> appointments;
-        if (filter.getAllTime() != null && filter.getAllTime()) {
-            // Get ALL appointments regardless of date
-            appointments = appointmentRepository.findAll();
-        } else {
-            // Get appointments within date range
-            appointments = appointmentRepository.findByAppointmentDateBetween(
-                    filter.getStartDate(),
-                    filter.getEndDate()
-            );
-        }
+        boolean allTime = filter.getAllTime() != null && filter.getAllTime();
+        boolean approximate = filter.getApproximate() != null && filter.getApproximate();
+        LocalDateTime startDate = allTime ? MIN_DATE : filter.getStartDate();
+        LocalDateTime endDate = allTime ? MAX_DATE : filter.getEndDate();
+
+        CompletableFuture<List<Object[]>> countersFuture = CompletableFuture.supplyAsync(() -> approximate
+                ? appointmentRollupRepository.getDashboardCounters(startDay(filter), endDay(filter), filter.getServiceCenterId())
+                : appointmentRepository.getDashboardCounters(startDate, endDate, filter.getServiceCenterId()), reportExecutor);
+        CompletableFuture<Long> employeesFuture = CompletableFuture.supplyAsync(
+                () -> userRepository.countByRoleName("EMPLOYEE"), reportExecutor);
+        CompletableFuture<ServiceDistributionResponseDTO> serviceFuture = CompletableFuture.supplyAsync(
+                () -> getServiceTypeDistribution(filter), reportExecutor);
+        CompletableFuture<EmployeePerformanceResponseDTO> employeeFuture = CompletableFuture.supplyAsync(
+                () -> getEmployeePerformance(filter), reportExecutor);
+        CompletableFuture<CustomerEstimate> customerEstimateFuture = approximate
+                ? CompletableFuture.supplyAsync(() -> estimateCustomers(filter, startDate, endDate), reportExecutor)
+                : null;
 
         // Calculate metrics
-        Long totalAppointments = (long) appointments.size();
-        Long completed = appointments.stream().filter(a -> "COMPLETED".equals(a.getStatus())).count();
-        Long confirmed = appointments.stream().filter(a -> "CONFIRMED".equals(a.getStatus())).count();
-        Long pending = appointments.stream().filter(a -> "PENDING".equals(a.getStatus())).count();
-        Long inProgress = appointments.stream().filter(a -> "IN_PROGRESS".equals(a.getStatus())).count();
-        Long cancelled = appointments.stream().filter(a -> "CANCELLED".equals(a.getStatus())).count();
+        List<Object[]> counterRows = await(countersFuture);
+        Object[] counters = counterRows.isEmpty() ? new Object[9] : counterRows.get(0);
+        Long totalAppointments = AnalyticsHelper.toSafeLong(counters[0]);
+        Long completed = AnalyticsHelper.toSafeLong(counters[1]);
+        Long confirmed = AnalyticsHelper.toSafeLong(counters[2]);
+        Long pending = AnalyticsHelper.toSafeLong(counters[3]);
+        Long inProgress = AnalyticsHelper.toSafeLong(counters[4]);
+        Long cancelled = AnalyticsHelper.toSafeLong(counters[5]);
+        Double totalRevenue = AnalyticsHelper.toSafeDouble(counters[6]);
 
         Double completionRate = AnalyticsHelper.calculatePercentage(completed, totalAppointments);
-
-        // Calculate revenue
-        Double totalRevenue = appointments.stream()
-                .filter(a -> "COMPLETED".equals(a.getStatus()))
-                .mapToDouble(a -> a.getServiceOrModification().getEstimatedCost() != null ?
-                        a.getServiceOrModification().getEstimatedCost() : 0.0)
-                .sum();
-
         Double avgServiceCost = AnalyticsHelper.safeDivide(totalRevenue, completed.doubleValue());
 
-        // Get customer count
-        Long totalCustomers;
-        if (filter.getAllTime() != null && filter.getAllTime()) {
-            totalCustomers = appointmentRepository.countDistinctCustomersAllTime();
-        } else {
-            totalCustomers = appointmentRepository.countDistinctCustomers(
-                    filter.getStartDate(),
-                    filter.getEndDate()
-            );
-        }
-
         // Get employee count
-        Long totalEmployees = (long) userRepository.findByRoleName("EMPLOYEE").size();
+        Long totalEmployees = await(employeesFuture);
 
         // Get popular services
-        ServiceDistributionResponseDTO serviceDistribution = getServiceTypeDistribution(filter);
-        List<ServiceTypeDistributionDTO> popularServices = serviceDistribution.getServiceBreakdown().stream()
+        List<ServiceTypeDistributionDTO> popularServices = await(serviceFuture).getServiceBreakdown().stream()
                 .limit(5)
                 .collect(Collectors.toList());
 
         // Get top employees
-        EmployeePerformanceResponseDTO employeePerformance = getEmployeePerformance(filter);
-        List<EmployeePerformanceDTO> topEmployees = employeePerformance.getTopPerformers();
+        List<EmployeePerformanceDTO> topEmployees = await(employeeFuture).getTopPerformers();
 
-        // Get repeat customer rate
-        CustomerInsightsResponseDTO customerInsights = getCustomerInsights(filter);
-        Double repeatCustomerRate = customerInsights.getRepeatCustomerRate();
+        // Get customer count and repeat customer rate
+        Long totalCustomers;
+        Double repeatCustomerRate;
+        if (approximate) {
+            CustomerEstimate estimate = await(customerEstimateFuture);
+            totalCustomers = estimate.customers();
+            repeatCustomerRate = AnalyticsHelper.calculatePercentage(estimate.returningCustomers(), estimate.customers());
+        } else {
+            totalCustomers = AnalyticsHelper.toSafeLong(counters[7]);
+            repeatCustomerRate = AnalyticsHelper.calculatePercentage(
+                    AnalyticsHelper.toSafeLong(counters[8]), totalCustomers);
+        }
 
         AnalyticsDashboardDTO dashboard = new AnalyticsDashboardDTO();
         dashboard.setTotalRevenue(AnalyticsHelper.roundToTwoDecimals(totalRevenue));
@@ -469,10 +508,215 @@ public class AnalyticsService {
         return dashboard;
     }
 
+    /**
+     * Dashboard for an ad-hoc slice (center, service, type, status, period, employee).
+     * <p>
+     * Answered from the in-memory fact snapshot instead of the database. Hours logged are not part
+     * of the snapshot, so the employee entries leave them empty.
+     */
+    public AnalyticsDashboardDTO getCustomAnalytics(AnalyticsFilterRequestDTO filter) {
+        AppointmentFactSnapshot.SliceResult slice = appointmentFactSnapshot.query(new AppointmentFactSnapshot.Slice(
+                startDay(filter),
+                endDay(filter),
+                filter.getServiceCenterId(),
+                filter.getServiceOrModificationId(),
+                filter.getAppointmentType(),
+                filter.getStatus(),
+                filter.getEmployeeId()));
+
+        long totalAppointments = slice.totalAppointments();
+        long completed = slice.count("COMPLETED");
+
+        // Popular services
+        List<ServiceTypeDistributionDTO> popularServices = slice.services().stream()
+                .limit(5)
+                .map(service -> new ServiceTypeDistributionDTO(
+                        service.id(),
+                        service.name(),
+                        service.type(),
+                        service.count(),
+                        AnalyticsHelper.calculatePercentage(service.count(), totalAppointments),
+                        AnalyticsHelper.roundToTwoDecimals(service.revenue()),
+                        AnalyticsHelper.safeDivide(service.revenue(), (double) service.count())))
+                .collect(Collectors.toList());
+
+        // Top employees by completion rate
+        List<EmployeePerformanceDTO> employees = slice.employees().stream()
+                .map(employee -> new EmployeePerformanceDTO(
+                        employee.id(),
+                        employee.name(),
+                        employee.email(),
+                        employee.total(),
+                        employee.completed(),
+                        employee.inProgress(),
+                        employee.pending(),
+                        AnalyticsHelper.calculatePercentage(employee.completed(), employee.total()),
+                        null,
+                        null,
+                        0))
+                .sorted((a, b) -> Double.compare(b.getCompletionRate(), a.getCompletionRate()))
+                .limit(5)
+                .collect(Collectors.toList());
+        for (int i = 0; i < employees.size(); i++) {
+            employees.get(i).setRank(i + 1);
+        }
+
+        AnalyticsDashboardDTO dashboard = new AnalyticsDashboardDTO();
+        dashboard.setTotalRevenue(AnalyticsHelper.roundToTwoDecimals(slice.completedRevenue()));
+        dashboard.setTotalAppointments(totalAppointments);
+        dashboard.setCompletedAppointments(completed);
+        dashboard.setConfirmedAppointments(slice.count("CONFIRMED"));
+        dashboard.setPendingAppointments(slice.count("PENDING"));
+        dashboard.setInProgressAppointments(slice.count("IN_PROGRESS"));
+        dashboard.setCancelledAppointments(slice.count("CANCELLED"));
+        dashboard.setTotalCustomers(slice.customers());
+        dashboard.setTotalEmployees(userRepository.countByRoleName("EMPLOYEE"));
+        dashboard.setCompletionRate(AnalyticsHelper.calculatePercentage(completed, totalAppointments));
+        dashboard.setAverageServiceCost(AnalyticsHelper.safeDivide(slice.completedRevenue(), (double) completed));
+        dashboard.setRepeatCustomerRate(AnalyticsHelper.calculatePercentage(slice.repeatCustomers(), slice.customers()));
+        dashboard.setPopularServices(popularServices);
+        dashboard.setTopEmployees(employees);
+        dashboard.setPeriodStart(filter.getStartDate());
+        dashboard.setPeriodEnd(filter.getEndDate());
+
+        return dashboard;
+    }
+
+    /**
+     * Get turnaround analytics: p50/p90/p99 of wait time (scheduled to started) and work duration
+     * (started to finished), overall and per service, service center and employee.
+     * <p>
+     * Merges the stored daily histograms of the range, so the cost depends on the number of days
+     * and buckets, not on the number of appointments.
+     */
+    public TurnaroundResponseDTO getTurnaroundReport(AnalyticsFilterRequestDTO filter) {
+        List<Object[]> buckets = turnaroundHistogramRepository.getMergedBuckets(
+                startDay(filter),
+                endDay(filter),
+                filter.getServiceCenterId()
+        );
+
+        // [wait, work] histograms per breakdown key
+        LatencyHistogram[] overall = newTurnaroundHistograms();
+        Map<UUID, LatencyHistogram[]> byService = new HashMap<>();
+        Map<UUID, LatencyHistogram[]> byCenter = new HashMap<>();
+        Map<UUID, LatencyHistogram[]> byEmployee = new HashMap<>();
+
+        for (Object[] row : buckets) {
+            String dimension = (String) row[0];
+            UUID dimensionId = (UUID) row[1];
+            UUID serviceCenterId = (UUID) row[2];
+            int metric = ((TurnaroundMetric) row[3]).ordinal();
+            int bucket = (Integer) row[4];
+            long count = AnalyticsHelper.toSafeLong(row[5]);
+
+            if (TurnaroundHistogramBucket.DIMENSION_SERVICE.equals(dimension)) {
+                // One sample per appointment: also the source of the overall and per-center figures
+                overall[metric].add(bucket, count);
+                byService.computeIfAbsent(dimensionId, id -> newTurnaroundHistograms())[metric].add(bucket, count);
+                byCenter.computeIfAbsent(serviceCenterId, id -> newTurnaroundHistograms())[metric].add(bucket, count);
+            } else {
+                byEmployee.computeIfAbsent(dimensionId, id -> newTurnaroundHistograms())[metric].add(bucket, count);
+            }
+        }
+
+        Map<UUID, String> serviceNames = new HashMap<>();
+        for (ServiceOrModification service : serviceOrModificationRepository.findAllById(byService.keySet())) {
+            serviceNames.put(service.getId(), service.getName());
+        }
+        Map<UUID, String> centerNames = new HashMap<>();
+        for (ServiceCenter center : serviceCenterRepository.findAllById(byCenter.keySet())) {
+            centerNames.put(center.getId(), center.getName());
+        }
+        Map<UUID, String> employeeNames = new HashMap<>();
+        for (User employee : userRepository.findAllById(byEmployee.keySet())) {
+            employeeNames.put(employee.getId(), employee.getFullName());
+        }
+
+        TurnaroundResponseDTO response = new TurnaroundResponseDTO();
+        response.setWaitTime(toTurnaroundStats(overall[TurnaroundMetric.WAIT.ordinal()]));
+        response.setWorkDuration(toTurnaroundStats(overall[TurnaroundMetric.WORK.ordinal()]));
+        response.setByService(toTurnaroundBreakdown(byService, serviceNames));
+        response.setByServiceCenter(toTurnaroundBreakdown(byCenter, centerNames));
+        response.setByEmployee(toTurnaroundBreakdown(byEmployee, employeeNames));
+        response.setPeriodStart(filter.getStartDate());
+        response.setPeriodEnd(filter.getEndDate());
+
+        return response;
+    }
+
+    /**
+     * Estimated distinct customers, and how many of them are returning customers
+     */
+    private record CustomerEstimate(long customers, long returningCustomers) {
+    }
+
+    /**
+     * Merge the daily customer sketches of the filter range (one register row per day and center at most).
+     * Returning customers are those who already had another appointment when booking one in the range;
+     * over all time that is exactly the customers with more than one appointment.
+     * <p>
+     * Until the first rebuild has filled the sketches, the exact counts are returned instead.
+     */
+    private CustomerEstimate estimateCustomers(AnalyticsFilterRequestDTO filter,
+                                               LocalDateTime startDate, LocalDateTime endDate) {
+        if (!customerSketchRepository.hasRows()) {
+            List<Object[]> rows = appointmentRepository.getDashboardCounters(
+                    startDate, endDate, filter.getServiceCenterId());
+            Object[] counters = rows.isEmpty() ? new Object[9] : rows.get(0);
+            return new CustomerEstimate(AnalyticsHelper.toSafeLong(counters[7]), AnalyticsHelper.toSafeLong(counters[8]));
+        }
+        HyperLogLog all = new HyperLogLog();
+        HyperLogLog returning = new HyperLogLog();
+        for (Object[] row : customerSketchRepository.getMergedRegisters(
+                startDay(filter), endDay(filter), filter.getServiceCenterId())) {
+            HyperLogLog sketch = CustomerDailySketch.SKETCH_RETURNING.equals(row[0]) ? returning : all;
+            sketch.raise((Integer) row[1], (Integer) row[2]);
+        }
+        long customers = all.estimate();
+        // Returning customers are a subset; keep the two estimates consistent
+        return new CustomerEstimate(customers, Math.min(returning.estimate(), customers));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reportExecutor.shutdown();
+    }
+
     // ===================================================================
     // PRIVATE HELPER METHODS
     // ===================================================================
 
+    /**
+     * Wait for a dashboard sub-report, rethrowing its failure as is
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static ExecutorService newReportExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                REPORT_THREADS, REPORT_THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(REPORT_QUEUE_CAPACITY),
+                r -> {
+                    Thread thread = new Thread(r, "analytics-report-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Saturated: run the sub-report on the request thread instead of queueing without bound
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * Group revenue trends by period
      */
@@ -535,28 +779,118 @@ public class AnalyticsService {
     }
 
     /**
-     * Calculate total spending for a customer
+     * First rollup day covered by the filter
      */
-    private Double calculateCustomerSpending(UUID customerId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Appointment> appointments = appointmentRepository.findByUserId(customerId);
-
-        if (startDate == null || endDate == null) {
-            // All time - no date filtering
-            return appointments.stream()
-                    .filter(a -> "COMPLETED".equals(a.getStatus()))
-                    .mapToDouble(a -> a.getServiceOrModification().getEstimatedCost() != null ?
-                            a.getServiceOrModification().getEstimatedCost() : 0.0)
-                    .sum();
-        } else {
-            // Filter by date range
-            return appointments.stream()
-                    .filter(a -> a.getAppointmentDate().isAfter(startDate) &&
-                            a.getAppointmentDate().isBefore(endDate) &&
-                            "COMPLETED".equals(a.getStatus()))
-                    .mapToDouble(a -> a.getServiceOrModification().getEstimatedCost() != null ?
-                            a.getServiceOrModification().getEstimatedCost() : 0.0)
-                    .sum();
+    private LocalDate startDay(AnalyticsFilterRequestDTO filter) {
+        boolean allTime = filter.getAllTime() != null && filter.getAllTime();
+        return !allTime && filter.getStartDate() != null ? filter.getStartDate().toLocalDate() : MIN_DAY;
+    }
+
+    /**
+     * Last rollup day covered by the filter (the rollups have day granularity)
+     */
+    private LocalDate endDay(AnalyticsFilterRequestDTO filter) {
+        boolean allTime = filter.getAllTime() != null && filter.getAllTime();
+        return !allTime && filter.getEndDate() != null ? filter.getEndDate().toLocalDate() : MAX_DAY;
+    }
+
+    private static LatencyHistogram[] newTurnaroundHistograms() {
+        LatencyHistogram[] histograms = new LatencyHistogram[TurnaroundMetric.values().length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    /**
+     * Percentiles of a histogram of seconds, in minutes
+     */
+    private static TurnaroundStatsDTO toTurnaroundStats(LatencyHistogram histogram) {
+        return new TurnaroundStatsDTO(
+                histogram.getTotalCount(),
+                toMinutes(histogram.valueAtPercentile(50)),
+                toMinutes(histogram.valueAtPercentile(90)),
+                toMinutes(histogram.valueAtPercentile(99)));
+    }
+
+    private static Double toMinutes(Long seconds) {
+        return seconds != null ? AnalyticsHelper.roundToTwoDecimals(seconds / 60.0) : null;
+    }
+
+    /**
+     * One entry per key, slowest median work duration first
+     */
+    private static List<TurnaroundBreakdownDTO> toTurnaroundBreakdown(Map<UUID, LatencyHistogram[]> histograms,
+                                                                      Map<UUID, String> names) {
+        return histograms.entrySet().stream()
+                .map(entry -> new TurnaroundBreakdownDTO(
+                        entry.getKey(),
+                        names.get(entry.getKey()),
+                        toTurnaroundStats(entry.getValue()[TurnaroundMetric.WAIT.ordinal()]),
+                        toTurnaroundStats(entry.getValue()[TurnaroundMetric.WORK.ordinal()])))
+                .sorted(Comparator.comparing((TurnaroundBreakdownDTO dto) -> dto.getWorkDuration().getP50Minutes(),
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Map customer insight rows and attach vehicle counts (one query for the whole page)
+     */
+    private List<CustomerInsightDTO> toCustomerInsights(List<Object[]> rawData) {
+        List<CustomerInsightDTO> insights = new ArrayList<>();
+        List<UUID> customerIds = new ArrayList<>();
+
+        for (Object[] row : rawData) {
+            UUID customerId = (UUID) row[0];
+            String customerName = (String) row[1];
+            String email = (String) row[2];
+            String phoneNumber = (String) row[3];
+            Long totalAppts = AnalyticsHelper.toSafeLong(row[4]);
+            Long completed = AnalyticsHelper.toSafeLong(row[5]);
+            Long cancelled = AnalyticsHelper.toSafeLong(row[6]);
+            LocalDateTime firstAppt = (LocalDateTime) row[7];
+            LocalDateTime lastAppt = (LocalDateTime) row[8];
+            Double totalSpent = AnalyticsHelper.toSafeDouble(row[9]);
+
+            customerIds.add(customerId);
+
+            // Calculate days since last appointment
+            Integer daysSinceLast = (int) ChronoUnit.DAYS.between(lastAppt.toLocalDate(), LocalDate.now());
+
+            CustomerInsightDTO dto = new CustomerInsightDTO(
+                    customerId,
+                    customerName,
+                    email,
+                    phoneNumber,
+                    totalAppts,
+                    completed,
+                    cancelled,
+                    totalSpent,
+                    firstAppt,
+                    lastAppt,
+                    totalAppts > 1, // isRepeatCustomer
+                    0, // Will set vehicle count later
+                    daysSinceLast
+            );
+            insights.add(dto);
         }
+
+        // Get vehicle counts
+        if (!customerIds.isEmpty()) {
+            List<Object[]> vehicleCounts = userRepository.getVehicleCountByCustomers(customerIds);
+            Map<UUID, Long> vehicleMap = new HashMap<>();
+            for (Object[] row : vehicleCounts) {
+                vehicleMap.put((UUID) row[0], AnalyticsHelper.toSafeLong(row[1]));
+            }
+            insights.forEach(dto -> dto.setVehicleCount(vehicleMap.getOrDefault(dto.getCustomerId(), 0L).intValue()));
+        }
+
+        return insights;
+    }
+
+    // Aggregate expressions cannot be sorted by property name; the customer id keeps pages stable
+    private static Sort customerSort(String expression, Sort.Direction direction) {
+        return JpaSort.unsafe(direction, expression).andUnsafe(Sort.Direction.ASC, "u.id");
     }
 }
 
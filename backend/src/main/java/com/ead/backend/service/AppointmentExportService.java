@@ -0,0 +1,193 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.AnalyticsFilterRequestDTO;
+import com.ead.backend.dto.AppointmentExportRowDTO;
+import com.ead.backend.enums.ExportFormat;
+import com.ead.backend.repository.AppointmentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams appointment history (for accounting) straight from a database cursor to the response.
+ * <p>
+ * Rows are read as projections in fetch-size chunks and written one at a time, so memory use
+ * does not depend on the number of rows exported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentExportService {
+
+    // Push written rows to the client regularly instead of buffering the whole export
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    // Open-ended filters still need bounds for the BETWEEN in the export query
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final String[] CSV_HEADER = {
+            "id", "appointmentDate", "startTime", "endTime", "status", "appointmentType", "service",
+            "estimatedCost", "serviceCenter", "customerName", "customerEmail", "vehicleBrand",
+            "vehicleModel", "licensePlate"
+    };
+
+    private final AppointmentRepository appointmentRepository;
+    private final ObjectMapper objectMapper;
+
+    public static String contentType(ExportFormat format) {
+        return format == ExportFormat.CSV ? "text/csv; charset=UTF-8" : "application/x-ndjson";
+    }
+
+    /**
+     * Write all appointments matching the filter to {@code out}. The stream is flushed but not closed.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long export(AnalyticsFilterRequestDTO filter, ExportFormat format, OutputStream out) throws IOException {
+        boolean allTime = filter.getAllTime() != null && filter.getAllTime();
+        LocalDateTime startDate = !allTime && filter.getStartDate() != null ? filter.getStartDate() : MIN_DATE;
+        LocalDateTime endDate = !allTime && filter.getEndDate() != null ? filter.getEndDate() : MAX_DATE;
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+
+        long started = System.currentTimeMillis();
+        long written;
+        try (Stream<AppointmentExportRowDTO> rows = appointmentRepository.streamForExport(
+                startDate,
+                endDate,
+                filter.getServiceCenterId(),
+                filter.getAppointmentType(),
+                filter.getStatus())) {
+
+            written = format == ExportFormat.CSV
+                    ? writeCsv(rows.iterator(), out)
+                    : writeNdjson(rows.iterator(), out);
+        }
+
+        log.info("Exported {} appointments as {} in {} ms", written, format, System.currentTimeMillis() - started);
+        return written;
+    }
+
+    private long writeNdjson(Iterator<AppointmentExportRowDTO> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        // One object per line; the servlet stream is owned by the container
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+
+        long count = 0;
+        while (rows.hasNext()) {
+            AppointmentExportRowDTO row = rows.next();
+            json.writeStartObject();
+            json.writeStringField("id", nullableText(row.getId()));
+            json.writeStringField("appointmentDate", nullableText(row.getAppointmentDate()));
+            json.writeStringField("startTime", nullableText(row.getStartTime()));
+            json.writeStringField("endTime", nullableText(row.getEndTime()));
+            json.writeStringField("status", row.getStatus());
+            json.writeStringField("appointmentType", nullableText(row.getAppointmentType()));
+            json.writeStringField("service", row.getServiceName());
+            if (row.getEstimatedCost() != null) {
+                json.writeNumberField("estimatedCost", row.getEstimatedCost());
+            } else {
+                json.writeNullField("estimatedCost");
+            }
+            json.writeStringField("serviceCenter", row.getServiceCenterName());
+            json.writeStringField("customerName", row.getCustomerName());
+            json.writeStringField("customerEmail", row.getCustomerEmail());
+            json.writeStringField("vehicleBrand", row.getVehicleBrand());
+            json.writeStringField("vehicleModel", row.getVehicleModel());
+            json.writeStringField("licensePlate", row.getLicensePlate());
+            json.writeEndObject();
+            json.writeRaw('\n');
+
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                json.flush();
+            }
+        }
+        json.close();
+        writer.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<AppointmentExportRowDTO> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write("\r\n");
+
+        long count = 0;
+        while (rows.hasNext()) {
+            AppointmentExportRowDTO row = rows.next();
+            writer.write(text(row.getId()));
+            writer.write(',');
+            writer.write(text(row.getAppointmentDate()));
+            writer.write(',');
+            writer.write(text(row.getStartTime()));
+            writer.write(',');
+            writer.write(text(row.getEndTime()));
+            writer.write(',');
+            writer.write(csv(row.getStatus()));
+            writer.write(',');
+            writer.write(text(row.getAppointmentType()));
+            writer.write(',');
+            writer.write(csv(row.getServiceName()));
+            writer.write(',');
+            writer.write(text(row.getEstimatedCost()));
+            writer.write(',');
+            writer.write(csv(row.getServiceCenterName()));
+            writer.write(',');
+            writer.write(csv(row.getCustomerName()));
+            writer.write(',');
+            writer.write(csv(row.getCustomerEmail()));
+            writer.write(',');
+            writer.write(csv(row.getVehicleBrand()));
+            writer.write(',');
+            writer.write(csv(row.getVehicleModel()));
+            writer.write(',');
+            writer.write(csv(row.getLicensePlate()));
+            writer.write("\r\n");
+
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static String nullableText(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    // RFC 4180 quoting; free-text cells starting with a formula character are neutralized for spreadsheets
+    static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String cell = "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (cell.indexOf(',') >= 0 || cell.indexOf('"') >= 0 || cell.indexOf('\n') >= 0 || cell.indexOf('\r') >= 0) {
+            return '"' + cell.replace("\"", "\"\"") + '"';
+        }
+        return cell;
+    }
+}
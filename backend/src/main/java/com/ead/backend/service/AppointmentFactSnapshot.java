@@ -0,0 +1,576 @@
+package com.ead.backend.service;
+
+import com.ead.backend.entity.Appointment;
+import com.ead.backend.entity.User;
+import com.ead.backend.enums.AppointmentType;
+import com.ead.backend.repository.AppointmentRepository;
+import com.ead.backend.util.AnalyticsHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory columnar copy of the appointment facts, for ad-hoc slicing without a database round trip.
+ * <p>
+ * Each appointment is one row across primitive arrays (epoch day, center/service/customer dictionary
+ * ids, status code, cost), so memory is a few dozen bytes per appointment. A slice is answered by
+ * building a row bitset from the filters and aggregating the matching rows in one loop.
+ * <p>
+ * The snapshot is loaded on first use, kept current by applying every committed appointment change,
+ * and fully reloaded periodically to pick up changes made outside the services (and cost changes).
+ */
+@Service
+@Slf4j
+public class AppointmentFactSnapshot {
+
+    private final AppointmentRepository appointmentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock; null until the first load
+    private Columns columns;
+
+    // Guarded by lock; non-null while a load is running, so changes committed meanwhile can be replayed
+    private List<Fact> changesDuringLoad;
+
+    private final Object loadMonitor = new Object();
+    private volatile boolean loaded;
+
+    public AppointmentFactSnapshot(AppointmentRepository appointmentRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.appointmentRepository = appointmentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * The sliceable state of one appointment.
+     */
+    public record Fact(UUID appointmentId, LocalDate day, UUID serviceCenterId, UUID serviceOrModificationId,
+                       String serviceName, AppointmentType serviceType, String status, double cost,
+                       UUID customerId, List<EmployeeRef> employees) {
+    }
+
+    public record EmployeeRef(UUID id, String name, String email) {
+    }
+
+    /**
+     * Filters of one slice; null means "any".
+     */
+    public record Slice(LocalDate startDay, LocalDate endDay, UUID serviceCenterId, UUID serviceOrModificationId,
+                        AppointmentType serviceType, String status, UUID employeeId) {
+    }
+
+    public record ServiceTotals(UUID id, String name, AppointmentType type, long count, double revenue) {
+    }
+
+    public record EmployeeTotals(UUID id, String name, String email, long total, long completed,
+                                 long inProgress, long pending) {
+    }
+
+    /**
+     * Aggregates over the rows of a slice. Revenue counts completed appointments only; service
+     * revenue counts every appointment of the service, as in the service distribution report.
+     */
+    public record SliceResult(long totalAppointments, Map<String, Long> statusCounts, double completedRevenue,
+                              long customers, long repeatCustomers, List<ServiceTotals> services,
+                              List<EmployeeTotals> employees) {
+
+        public long count(String status) {
+            return statusCounts.getOrDefault(status, 0L);
+        }
+    }
+
+    /**
+     * Extract the fact of {@code appointment}.
+     *
+     * @return the fact, or null if the appointment is not complete enough to be counted
+     */
+    public static Fact fact(Appointment appointment) {
+        if (appointment == null
+                || appointment.getId() == null
+                || appointment.getAppointmentDate() == null
+                || appointment.getServiceCenter() == null
+                || appointment.getServiceOrModification() == null
+                || appointment.getStatus() == null
+                || appointment.getUser() == null) {
+            return null;
+        }
+
+        List<EmployeeRef> employees = new ArrayList<>();
+        if (appointment.getAssignedEmployees() != null) {
+            for (User employee : appointment.getAssignedEmployees()) {
+                employees.add(new EmployeeRef(employee.getId(), employee.getFullName(), employee.getEmail()));
+            }
+        }
+
+        Double cost = appointment.getServiceOrModification().getEstimatedCost();
+        return new Fact(
+                appointment.getId(),
+                appointment.getAppointmentDate().toLocalDate(),
+                appointment.getServiceCenter().getId(),
+                appointment.getServiceOrModification().getId(),
+                appointment.getServiceOrModification().getName(),
+                appointment.getServiceOrModification().getType(),
+                appointment.getStatus(),
+                cost != null ? cost : 0.0,
+                appointment.getUser().getId(),
+                employees);
+    }
+
+    /**
+     * Aggregate the appointments matching {@code slice}, loading the snapshot first if needed.
+     */
+    public SliceResult query(Slice slice) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return columns.aggregate(slice);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply the current state of {@code appointment} after the surrounding transaction commits.
+     * Ignored while the snapshot has never been loaded: the first load reads it from the database.
+     */
+    public void recordChange(Appointment appointment) {
+        Fact fact = fact(appointment);
+        if (fact == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(fact);
+                }
+            });
+        } else {
+            apply(fact);
+        }
+    }
+
+    /**
+     * Replace the snapshot with a fresh copy of the appointment table.
+     */
+    public void reload() {
+        synchronized (loadMonitor) {
+            long started = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                changesDuringLoad = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Columns fresh;
+            try {
+                fresh = readOnlyTransaction.execute(status -> load());
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    changesDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            int replayed;
+            lock.writeLock().lock();
+            try {
+                // Upserts keyed by appointment, so replaying a change the load already saw is harmless
+                replayed = changesDuringLoad.size();
+                changesDuringLoad.forEach(fresh::put);
+                changesDuringLoad = null;
+                columns = fresh;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("Loaded analytics fact snapshot: {} appointments ({} changes replayed) in {} ms",
+                    fresh.size, replayed, System.currentTimeMillis() - started);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.snapshot.reload-interval-ms:3600000}",
+            initialDelayString = "${app.analytics.snapshot.reload-interval-ms:3600000}")
+    public void scheduledReload() {
+        // Nobody has sliced yet: keep the memory until someone does
+        if (!loaded) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Analytics fact snapshot reload failed, keeping the current copy: {}", e.getMessage());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (loadMonitor) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    private void apply(Fact fact) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(fact);
+            }
+            if (columns != null) {
+                columns.put(fact);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Columns load() {
+        Columns fresh = new Columns();
+        try (Stream<Object[]> rows = appointmentRepository.streamAnalyticsFacts()) {
+            rows.forEach(row -> fresh.put(new Fact(
+                    (UUID) row[0],
+                    ((LocalDateTime) row[1]).toLocalDate(),
+                    (UUID) row[2],
+                    (UUID) row[3],
+                    (String) row[4],
+                    (AppointmentType) row[5],
+                    (String) row[6],
+                    AnalyticsHelper.toSafeDouble(row[7]),
+                    (UUID) row[8],
+                    List.of())));
+        }
+        try (Stream<Object[]> rows = appointmentRepository.streamAnalyticsFactEmployees()) {
+            rows.forEach(row -> fresh.assign(
+                    (UUID) row[0], new EmployeeRef((UUID) row[1], (String) row[2], (String) row[3])));
+        }
+        return fresh;
+    }
+
+    // ===================================================================
+    // COLUMN STORE
+    // ===================================================================
+
+    /**
+     * Value-to-dense-id mapping, so rows store small ints instead of UUIDs and strings.
+     */
+    static final class Dictionary<T> {
+        private final Map<T, Integer> ids = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        int intern(T value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        // -1 if the value never occurred
+        int idOf(T value) {
+            Integer id = ids.get(value);
+            return id != null ? id : -1;
+        }
+
+        T value(int id) {
+            return values.get(id);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * The rows. Not thread-safe; {@link AppointmentFactSnapshot} guards it with its lock.
+     */
+    static final class Columns {
+        private static final int INITIAL_CAPACITY = 1024;
+        private static final int ANY = -1;
+        private static final int NONE = -2;
+
+        int size;
+        private int[] day = new int[INITIAL_CAPACITY];
+        private int[] center = new int[INITIAL_CAPACITY];
+        private int[] service = new int[INITIAL_CAPACITY];
+        private byte[] status = new byte[INITIAL_CAPACITY];
+        private double[] cost = new double[INITIAL_CAPACITY];
+        private int[] customer = new int[INITIAL_CAPACITY];
+        private int[][] employeesOfRow = new int[INITIAL_CAPACITY][];
+
+        private final Map<UUID, Integer> rowByAppointment = new HashMap<>();
+        private final Dictionary<UUID> centers = new Dictionary<>();
+        private final Dictionary<UUID> services = new Dictionary<>();
+        private final Dictionary<UUID> customers = new Dictionary<>();
+        private final Dictionary<String> statuses = new Dictionary<>();
+        private final Dictionary<UUID> employees = new Dictionary<>();
+
+        // Per service / employee dictionary id; the latest fact wins for names
+        private final List<String> serviceNames = new ArrayList<>();
+        private final List<AppointmentType> serviceTypes = new ArrayList<>();
+        private final List<String> employeeNames = new ArrayList<>();
+        private final List<String> employeeEmails = new ArrayList<>();
+        private final List<BitSet> rowsOfEmployee = new ArrayList<>();
+
+        /**
+         * Insert or overwrite the row of {@code fact.appointmentId()}.
+         */
+        void put(Fact fact) {
+            Integer existing = rowByAppointment.get(fact.appointmentId());
+            int row;
+            if (existing != null) {
+                row = existing;
+            } else {
+                ensureCapacity(size + 1);
+                row = size++;
+                rowByAppointment.put(fact.appointmentId(), row);
+            }
+
+            day[row] = Math.toIntExact(fact.day().toEpochDay());
+            center[row] = centers.intern(fact.serviceCenterId());
+            service[row] = internService(fact.serviceOrModificationId(), fact.serviceName(), fact.serviceType());
+            status[row] = statusCode(fact.status());
+            cost[row] = fact.cost();
+            customer[row] = customers.intern(fact.customerId());
+
+            int[] previous = employeesOfRow[row];
+            if (previous != null) {
+                for (int employee : previous) {
+                    rowsOfEmployee.get(employee).clear(row);
+                }
+            }
+            employeesOfRow[row] = null;
+            for (EmployeeRef employee : fact.employees()) {
+                assignRow(row, employee);
+            }
+        }
+
+        /**
+         * Add an assigned employee to an already loaded appointment row.
+         */
+        void assign(UUID appointmentId, EmployeeRef employee) {
+            Integer row = rowByAppointment.get(appointmentId);
+            if (row != null) {
+                assignRow(row, employee);
+            }
+        }
+
+        SliceResult aggregate(Slice slice) {
+            int fromDay = slice.startDay() != null ? Math.toIntExact(slice.startDay().toEpochDay()) : Integer.MIN_VALUE;
+            int toDay = slice.endDay() != null ? Math.toIntExact(slice.endDay().toEpochDay()) : Integer.MAX_VALUE;
+            int centerId = lookup(centers, slice.serviceCenterId());
+            int statusId = lookup(statuses, slice.status());
+            int employeeId = lookup(employees, slice.employeeId());
+
+            // Service id and type filters are evaluated once per dictionary entry, not per row
+            boolean[] serviceMatches = new boolean[services.size()];
+            int serviceId = lookup(services, slice.serviceOrModificationId());
+            for (int s = 0; s < serviceMatches.length; s++) {
+                serviceMatches[s] = (serviceId == ANY || serviceId == s)
+                        && (slice.serviceType() == null || slice.serviceType() == serviceTypes.get(s));
+            }
+
+            if (centerId == NONE || statusId == NONE || employeeId == NONE || serviceId == NONE) {
+                return emptyResult();
+            }
+
+            BitSet mask = filter(fromDay, toDay, centerId, statusId, employeeId, serviceMatches);
+            return aggregate(mask);
+        }
+
+        private BitSet filter(int fromDay, int toDay, int centerId, int statusId, int employeeId,
+                              boolean[] serviceMatches) {
+            BitSet mask = new BitSet(size);
+            if (employeeId != ANY) {
+                // Start from the employee's rows instead of scanning the whole table
+                BitSet candidates = rowsOfEmployee.get(employeeId);
+                for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                    if (matches(i, fromDay, toDay, centerId, statusId, serviceMatches)) {
+                        mask.set(i);
+                    }
+                }
+                return mask;
+            }
+            for (int i = 0; i < size; i++) {
+                if (matches(i, fromDay, toDay, centerId, statusId, serviceMatches)) {
+                    mask.set(i);
+                }
+            }
+            return mask;
+        }
+
+        private boolean matches(int i, int fromDay, int toDay, int centerId, int statusId, boolean[] serviceMatches) {
+            return day[i] >= fromDay && day[i] <= toDay
+                    && (centerId == ANY || center[i] == centerId)
+                    && (statusId == ANY || status[i] == statusId)
+                    && serviceMatches[service[i]];
+        }
+
+        private SliceResult aggregate(BitSet mask) {
+            long[] statusCounts = new long[statuses.size()];
+            long[] serviceCounts = new long[services.size()];
+            double[] serviceRevenue = new double[services.size()];
+            int[] appointmentsOfCustomer = new int[customers.size()];
+            int completed = statuses.idOf("COMPLETED");
+            double completedRevenue = 0.0;
+            long total = 0;
+
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                total++;
+                statusCounts[status[i]]++;
+                serviceCounts[service[i]]++;
+                serviceRevenue[service[i]] += cost[i];
+                appointmentsOfCustomer[customer[i]]++;
+                if (status[i] == completed) {
+                    completedRevenue += cost[i];
+                }
+            }
+
+            long distinctCustomers = 0;
+            long repeatCustomers = 0;
+            for (int appointments : appointmentsOfCustomer) {
+                if (appointments > 0) {
+                    distinctCustomers++;
+                }
+                if (appointments > 1) {
+                    repeatCustomers++;
+                }
+            }
+
+            Map<String, Long> countsByStatus = new HashMap<>();
+            for (int s = 0; s < statusCounts.length; s++) {
+                if (statusCounts[s] > 0) {
+                    countsByStatus.put(statuses.value(s), statusCounts[s]);
+                }
+            }
+
+            List<ServiceTotals> serviceTotals = new ArrayList<>();
+            for (int s = 0; s < serviceCounts.length; s++) {
+                if (serviceCounts[s] > 0) {
+                    serviceTotals.add(new ServiceTotals(services.value(s), serviceNames.get(s), serviceTypes.get(s),
+                            serviceCounts[s], serviceRevenue[s]));
+                }
+            }
+            serviceTotals.sort(Comparator.comparingLong(ServiceTotals::count).reversed());
+
+            return new SliceResult(total, countsByStatus, completedRevenue, distinctCustomers, repeatCustomers,
+                    serviceTotals, employeeTotals(mask));
+        }
+
+        private List<EmployeeTotals> employeeTotals(BitSet mask) {
+            int completed = statuses.idOf("COMPLETED");
+            int inProgress = statuses.idOf("IN_PROGRESS");
+            int pending = statuses.idOf("PENDING");
+
+            List<EmployeeTotals> totals = new ArrayList<>();
+            for (int e = 0; e < rowsOfEmployee.size(); e++) {
+                BitSet rows = (BitSet) rowsOfEmployee.get(e).clone();
+                rows.and(mask);
+                if (rows.isEmpty()) {
+                    continue;
+                }
+                long completedCount = 0;
+                long inProgressCount = 0;
+                long pendingCount = 0;
+                for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+                    if (status[i] == completed) {
+                        completedCount++;
+                    } else if (status[i] == inProgress) {
+                        inProgressCount++;
+                    } else if (status[i] == pending) {
+                        pendingCount++;
+                    }
+                }
+                totals.add(new EmployeeTotals(employees.value(e), employeeNames.get(e), employeeEmails.get(e),
+                        rows.cardinality(), completedCount, inProgressCount, pendingCount));
+            }
+            return totals;
+        }
+
+        private SliceResult emptyResult() {
+            return new SliceResult(0, Map.of(), 0.0, 0, 0, List.of(), List.of());
+        }
+
+        private void assignRow(int row, EmployeeRef employee) {
+            int id = employees.intern(employee.id());
+            if (id == rowsOfEmployee.size()) {
+                rowsOfEmployee.add(new BitSet());
+                employeeNames.add(employee.name());
+                employeeEmails.add(employee.email());
+            } else {
+                employeeNames.set(id, employee.name());
+                employeeEmails.set(id, employee.email());
+            }
+            rowsOfEmployee.get(id).set(row);
+
+            int[] previous = employeesOfRow[row];
+            int[] updated = previous == null ? new int[1] : Arrays.copyOf(previous, previous.length + 1);
+            updated[updated.length - 1] = id;
+            employeesOfRow[row] = updated;
+        }
+
+        private int internService(UUID id, String name, AppointmentType type) {
+            int serviceId = services.intern(id);
+            if (serviceId == serviceNames.size()) {
+                serviceNames.add(name);
+                serviceTypes.add(type);
+            } else {
+                serviceNames.set(serviceId, name);
+                serviceTypes.set(serviceId, type);
+            }
+            return serviceId;
+        }
+
+        private byte statusCode(String value) {
+            int code = statuses.intern(value);
+            if (code > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct appointment statuses for the fact snapshot");
+            }
+            return (byte) code;
+        }
+
+        private static <T> int lookup(Dictionary<T> dictionary, T value) {
+            if (value == null) {
+                return ANY;
+            }
+            int id = dictionary.idOf(value);
+            return id >= 0 ? id : NONE;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= day.length) {
+                return;
+            }
+            int capacity = Math.max(required, day.length * 2);
+            day = Arrays.copyOf(day, capacity);
+            center = Arrays.copyOf(center, capacity);
+            service = Arrays.copyOf(service, capacity);
+            status = Arrays.copyOf(status, capacity);
+            cost = Arrays.copyOf(cost, capacity);
+            customer = Arrays.copyOf(customer, capacity);
+            employeesOfRow = Arrays.copyOf(employeesOfRow, capacity);
+        }
+    }
+}
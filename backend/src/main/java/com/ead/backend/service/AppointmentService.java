@@ -1,9 +1,15 @@
 package com.ead.backend.service;
 
 import com.ead.backend.dto.AdminAppointmentDTO;
+import com.ead.backend.dto.AdminAppointmentPageDTO;
+import com.ead.backend.dto.AvailabilityCalendarDTO;
+import com.ead.backend.dto.BookingConflictFacts;
 import com.ead.backend.dto.EmployeeDTO;
 import com.ead.backend.entity.*;
 import com.ead.backend.repository.*;
+import com.ead.backend.util.KeysetCursor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -24,12 +30,30 @@ public class AppointmentService {
     @Autowired private VehicleRepository vehicleRepository;
     @Autowired private ServiceOrModificationRepository serviceOrModificationRepository;
     @Autowired private ServiceCenterRepository serviceCenterRepository;
-    @Autowired private EmailService emailService;
     @Autowired private NotificationService notificationService;
+    @Autowired private OutboxService outboxService;
+    @Autowired private SlotCapacityLedger slotCapacityLedger;
+    @Autowired private SlotAvailabilityService slotAvailabilityService;
+    @Autowired private AnalyticsRollupService analyticsRollupService;
+
+    // Admin appointment lists are served in keyset pages
+    private static final int DEFAULT_ADMIN_PAGE_SIZE = 50;
+    private static final int MAX_ADMIN_PAGE_SIZE = 200;
+    private static final List<String> ACTIVE_STATUSES = List.of("PENDING", "CONFIRMED");
+    private static final LocalDateTime KEYSET_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // Maximum service centers per availability calendar request
+    private static final int MAX_CALENDAR_CENTERS = 10;
+
+    // Maximum appointments per batch employee assignment request
+    private static final int MAX_ASSIGNMENT_BATCH = 500;
 
     // Maximum appointments per day per customer (to prevent overbooking/spamming)
     private static final int MAX_APPOINTMENTS_PER_DAY = 2;
 
+    // How many days ahead appointments can be booked, shared by booking, the calendar and the slot ledger
+    public static final int BOOKING_HORIZON_DAYS = 30;
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMMM dd, yyyy");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("hh:mm a");
 
@@ -110,8 +134,9 @@ public class AppointmentService {
             }
         }
 
-        // Check if appointment is not more than 1 month from now
-        if (appointment.getAppointmentDate().isAfter(now.plusDays(30))) {
+        // Check if appointment is not more than 1 month from now; the whole last day is bookable,
+        // matching the availability calendar
+        if (appointment.getAppointmentDate().toLocalDate().isAfter(now.toLocalDate().plusDays(BOOKING_HORIZON_DAYS))) {
             throw new RuntimeException("Appointment cannot be scheduled more than 1 month in advance");
         }
 
@@ -138,61 +163,36 @@ public class AppointmentService {
             }
         }
 
+        // Load every conflict fact for this booking with a single query and evaluate the rules in memory
+        LocalDateTime appointmentStartTime = appointment.getAppointmentDate();
+        LocalDateTime appointmentEndTime = appointmentStartTime.plusMinutes(som.getEstimatedTimeMinutes());
+        BookingConflictFacts conflicts = loadBookingConflictFacts(
+                vehicle.getId(), customer.getId(), serviceCenter.getId(),
+                appointment.getAppointmentType(), appointmentStartTime, appointmentEndTime, now);
+
         // Check for duplicate appointment (same vehicle, same date/time, not cancelled)
-        List<Appointment> existingAppointments = appointmentRepository
-                .findByVehicleIdAndAppointmentDateAndStatusNot(
-                        vehicle.getId(),
-                        appointment.getAppointmentDate(),
-                        "CANCELLED"
-                );
-        
-        if (!existingAppointments.isEmpty()) {
+        if (conflicts.duplicateCount() > 0) {
             throw new RuntimeException("This vehicle already has an appointment scheduled for the selected date and time");
         }
 
         // Check for overlapping appointments (cross-service overlap prevention)
-        LocalDateTime appointmentStartTime = appointment.getAppointmentDate();
-        LocalDateTime appointmentEndTime = appointmentStartTime.plusMinutes(som.getEstimatedTimeMinutes());
-        
-        List<Appointment> overlappingAppointments = appointmentRepository
-                .findOverlappingAppointments(
-                        vehicle.getId(),
-                        appointmentStartTime,
-                        appointmentEndTime
-                );
-        
-        if (!overlappingAppointments.isEmpty()) {
-            Appointment conflicting = overlappingAppointments.get(0);
-            String conflictingService = conflicting.getServiceOrModification().getName();
-            LocalDateTime conflictStart = conflicting.getAppointmentDate();
+        if (conflicts.hasOverlap()) {
+            LocalDateTime conflictStart = conflicts.overlappingStart();
             LocalDateTime conflictEnd = conflictStart.plusMinutes(
-                    conflicting.getServiceOrModification().getEstimatedTimeMinutes()
+                    conflicts.overlappingMinutes() != null ? conflicts.overlappingMinutes() : 0
             );
-            
+
             throw new RuntimeException(
                     String.format("This vehicle has a conflicting appointment for '%s' from %s to %s. " +
                             "Please choose a different time slot.",
-                            conflictingService,
+                            conflicts.overlappingServiceName(),
                             conflictStart.format(DateTimeFormatter.ofPattern("hh:mm a")),
                             conflictEnd.format(DateTimeFormatter.ofPattern("hh:mm a")))
             );
         }
 
         // Check for pending appointments of the same type at different centers
-        List<Appointment> pendingAppointments = appointmentRepository
-                .findPendingAppointmentsByVehicleAndType(
-                        vehicle.getId(),
-                        appointment.getAppointmentType(),
-                        LocalDateTime.now()
-                );
-        
-        // Filter to check if there's a pending appointment at a different service center
-        boolean hasPendingAtDifferentCenter = pendingAppointments.stream()
-                .anyMatch(existingAppt -> 
-                    !existingAppt.getServiceCenter().getId().equals(serviceCenter.getId())
-                );
-        
-        if (hasPendingAtDifferentCenter) {
+        if (conflicts.pendingElsewhereCount() > 0) {
             String appointmentTypeText = appointment.getAppointmentType() == AppointmentType.SERVICE 
                     ? "service" 
                     : "modification";
@@ -204,13 +204,7 @@ public class AppointmentService {
         }
 
         // Check maximum appointments per day per customer (prevent overbooking/spamming)
-        Long customerAppointmentsToday = appointmentRepository
-                .countCustomerAppointmentsForDay(
-                        customer.getId(),
-                        appointment.getAppointmentDate()
-                );
-        
-        if (customerAppointmentsToday >= MAX_APPOINTMENTS_PER_DAY) {
+        if (conflicts.customerAppointmentsOnDay() >= MAX_APPOINTMENTS_PER_DAY) {
             throw new RuntimeException(
                     String.format("You have reached the maximum limit of %d appointments per day. " +
                             "Please select a different date or cancel an existing appointment.", 
@@ -218,15 +212,16 @@ public class AppointmentService {
             );
         }
 
-        // Check if service center has available slots for the selected date/time
-        Long bookedSlots = appointmentRepository
-                .countByServiceCenterIdAndAppointmentDateAndStatusNot(
-                        serviceCenter.getId(),
-                        appointment.getAppointmentDate(),
-                        "CANCELLED"
-                );
-        
-        if (bookedSlots >= serviceCenter.getCenterSlot()) {
+        // Reserve a slot at the service center for the selected date/time.
+        // The ledger reserves atomically, so concurrent bookings cannot oversell the hour,
+        // and the reservation is released again if this transaction rolls back.
+        boolean reserved = slotCapacityLedger.tryReserve(
+                serviceCenter.getId(),
+                appointment.getAppointmentDate(),
+                serviceCenter.getCenterSlot()
+        );
+
+        if (!reserved) {
             throw new RuntimeException(
                     String.format("Service center is fully booked for this time slot. Available slots: 0/%d",
                             serviceCenter.getCenterSlot())
@@ -239,9 +234,10 @@ public class AppointmentService {
         appointment.setStatus("PENDING");
 
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        analyticsRollupService.recordChange(null, savedAppointment);
 
-        // Send notification to customer
-        notificationService.sendNotification(
+        // Queue notification to customer
+        outboxService.enqueueNotification(
                 customer.getId(),
                 "APPOINTMENT_CREATED",
                 String.format("Your appointment for %s has been scheduled", som.getName()),
@@ -255,21 +251,17 @@ public class AppointmentService {
                 )
         );
 
-        // Send confirmation email
-        try {
-            emailService.sendAppointmentConfirmationEmail(
-                    customer.getEmail(),
-                    customer.getFullName(),
-                    savedAppointment.getId().toString(),
-                    savedAppointment.getAppointmentDate().format(DATE_FORMATTER),
-                    savedAppointment.getAppointmentDate().format(TIME_FORMATTER),
-                    som.getName(),
-                    vehicle.getBrand() + " " + vehicle.getModel(),
-                    serviceCenter.getName()
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to send appointment confirmation email: " + e.getMessage());
-        }
+        // Queue confirmation email (delivered by the outbox dispatcher after commit)
+        outboxService.enqueueAppointmentConfirmationEmail(
+                customer.getEmail(),
+                customer.getFullName(),
+                savedAppointment.getId().toString(),
+                savedAppointment.getAppointmentDate().format(DATE_FORMATTER),
+                savedAppointment.getAppointmentDate().format(TIME_FORMATTER),
+                som.getName(),
+                vehicle.getBrand() + " " + vehicle.getModel(),
+                serviceCenter.getName()
+        );
 
         return savedAppointment;
     }
@@ -280,7 +272,7 @@ public class AppointmentService {
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public List<Appointment> getUserAppointments() {
         User customer = getCurrentUser();
-        return appointmentRepository.findByUserId(customer.getId());
+        return appointmentRepository.findWithEmployeesByUserId(customer.getId());
     }
 
     // ===================================================================
@@ -303,8 +295,11 @@ public class AppointmentService {
             throw new RuntimeException("Only pending appointments can be cancelled");
         }
 
+        AnalyticsRollupService.Snapshot before = analyticsRollupService.snapshot(appointment);
         appointment.setStatus("CANCELLED");
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        analyticsRollupService.recordChange(before, savedAppointment);
+        slotCapacityLedger.release(savedAppointment.getServiceCenter().getId(), savedAppointment.getAppointmentDate());
 
         // Try to send notification to customer (don't fail if notification fails)
         try {
@@ -332,7 +327,18 @@ public class AppointmentService {
     // ===================================================================
     // 3. ADMIN/MANAGER: Assign employees
     // ===================================================================
+    @Transactional
     public Appointment assignEmployees(UUID appointmentId, Set<UUID> employeeIds) {
+        return assignEmployees(Map.of(appointmentId, employeeIds)).get(0);
+    }
+
+    // ===================================================================
+    // 3.1 ADMIN/MANAGER: Assign employees to many appointments at once
+    // All appointments and employees are loaded with one query each, and the
+    // whole schedule is saved in one transaction (all or nothing).
+    // ===================================================================
+    @Transactional
+    public List<Appointment> assignEmployees(Map<UUID, Set<UUID>> assignments) {
         User currentUser = getCurrentUser();
 
         boolean isManagerOrAdmin = currentUser.getRoles().stream()
@@ -341,76 +347,117 @@ public class AppointmentService {
             throw new RuntimeException("Only MANAGER or ADMIN can assign employees");
         }
 
-        Appointment appointment = appointmentRepository.findById(appointmentId)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        if (assignments == null || assignments.isEmpty()) {
+            throw new IllegalArgumentException("At least one appointment is required");
+        }
+        if (assignments.size() > MAX_ASSIGNMENT_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_ASSIGNMENT_BATCH + " appointments can be assigned at once");
+        }
 
-        for (UUID empId : employeeIds) {
-            User employee = userRepository.findById(empId)
-                    .orElseThrow(() -> new RuntimeException("Employee not found: " + empId));
+        Map<UUID, Appointment> appointments = appointmentRepository.findForAssignmentByIdIn(assignments.keySet())
+                .stream()
+                .collect(Collectors.toMap(Appointment::getId, a -> a));
 
-            boolean hasEmployeeRole = employee.getRoles().stream()
-                    .anyMatch(r -> "EMPLOYEE".equals(r.getName()));
-            if (!hasEmployeeRole) {
-                throw new RuntimeException("User ID " + empId + " is not an EMPLOYEE");
+        Set<UUID> allEmployeeIds = new HashSet<>();
+        assignments.values().forEach(ids -> {
+            if (ids != null) {
+                allEmployeeIds.addAll(ids);
+            }
+        });
+        Map<UUID, User> employees = userRepository.findAllById(allEmployeeIds)
+                .stream()
+                .collect(Collectors.toMap(User::getId, u -> u));
+
+        // Validate everything before changing anything
+        for (Map.Entry<UUID, Set<UUID>> entry : assignments.entrySet()) {
+            if (!appointments.containsKey(entry.getKey())) {
+                throw new RuntimeException("Appointment not found: " + entry.getKey());
             }
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                throw new IllegalArgumentException("No employees given for appointment " + entry.getKey());
+            }
+            for (UUID empId : entry.getValue()) {
+                User employee = employees.get(empId);
+                if (employee == null) {
+                    throw new RuntimeException("Employee not found: " + empId);
+                }
+                boolean hasEmployeeRole = employee.getRoles().stream()
+                        .anyMatch(r -> "EMPLOYEE".equals(r.getName()));
+                if (!hasEmployeeRole) {
+                    throw new RuntimeException("User ID " + empId + " is not an EMPLOYEE");
+                }
+            }
+        }
 
-            appointment.getAssignedEmployees().add(employee);
+        List<Appointment> updated = new ArrayList<>(assignments.size());
+        Map<UUID, AnalyticsRollupService.Snapshot> before = new HashMap<>();
+        for (Map.Entry<UUID, Set<UUID>> entry : assignments.entrySet()) {
+            Appointment appointment = appointments.get(entry.getKey());
+            before.put(appointment.getId(), analyticsRollupService.snapshot(appointment));
+            entry.getValue().forEach(empId -> appointment.getAssignedEmployees().add(employees.get(empId)));
+            updated.add(appointment);
         }
 
-        Appointment savedAppointment = appointmentRepository.save(appointment);
+        // Join rows are written in JDBC batches (hibernate.jdbc.batch_size) on flush
+        List<Appointment> savedAppointments = appointmentRepository.saveAll(updated);
 
-        // Send notification to customer about assignment
-        notificationService.sendNotification(
+        // Notifications and emails go through the outbox and are delivered after commit
+        for (Appointment savedAppointment : savedAppointments) {
+            analyticsRollupService.recordChange(before.get(savedAppointment.getId()), savedAppointment);
+            enqueueAssignmentNotifications(savedAppointment, assignments.get(savedAppointment.getId()), employees);
+        }
+
+        return savedAppointments;
+    }
+
+    private void enqueueAssignmentNotifications(Appointment savedAppointment, Set<UUID> employeeIds,
+                                                Map<UUID, User> employees) {
+        String serviceName = savedAppointment.getServiceOrModification().getName();
+        String vehicleInfo = savedAppointment.getVehicle().getBrand() + " " + savedAppointment.getVehicle().getModel();
+        String date = savedAppointment.getAppointmentDate().format(DATE_FORMATTER);
+        String time = savedAppointment.getAppointmentDate().format(TIME_FORMATTER);
+        String customerName = savedAppointment.getUser().getFullName();
+
+        // Queue notification to customer about assignment
+        outboxService.enqueueNotification(
                 savedAppointment.getUser().getId(),
                 "APPOINTMENT_ASSIGNED",
                 "Technicians have been assigned to your appointment",
                 Map.of(
                         "appointmentId", savedAppointment.getId().toString(),
-                        "service", savedAppointment.getServiceOrModification().getName(),
+                        "service", serviceName,
                         "employeeCount", employeeIds.size()
                 )
         );
 
-        // Send notifications to assigned employees
-        try {
-            for (UUID empId : employeeIds) {
-                User employee = userRepository.findById(empId).orElse(null);
-                if (employee != null) {
-                    // Send notification
-                    notificationService.sendNotification(
-                            employee.getId(),
-                            "TASK_ASSIGNED",
-                            String.format("You've been assigned to %s appointment",
-                                    savedAppointment.getServiceOrModification().getName()),
-                            Map.of(
-                                    "appointmentId", savedAppointment.getId().toString(),
-                                    "service", savedAppointment.getServiceOrModification().getName(),
-                                    "vehicle", savedAppointment.getVehicle().getBrand() + " " +
-                                            savedAppointment.getVehicle().getModel(),
-                                    "date", savedAppointment.getAppointmentDate().format(DATE_FORMATTER),
-                                    "time", savedAppointment.getAppointmentDate().format(TIME_FORMATTER),
-                                    "customer", savedAppointment.getUser().getFullName()
-                            )
-                    );
-
-                    // Send email
-                    emailService.sendEmployeeAssignmentEmail(
-                            employee.getEmail(),
-                            employee.getFullName(),
-                            savedAppointment.getId().toString(),
-                            savedAppointment.getAppointmentDate().format(DATE_FORMATTER),
-                            savedAppointment.getAppointmentDate().format(TIME_FORMATTER),
-                            savedAppointment.getServiceOrModification().getName(),
-                            savedAppointment.getVehicle().getBrand() + " " + savedAppointment.getVehicle().getModel(),
-                            savedAppointment.getUser().getFullName()
-                    );
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to send employee assignment notifications: " + e.getMessage());
-        }
+        // Queue notifications and emails to assigned employees
+        for (UUID empId : employeeIds) {
+            User employee = employees.get(empId);
+            outboxService.enqueueNotification(
+                    employee.getId(),
+                    "TASK_ASSIGNED",
+                    String.format("You've been assigned to %s appointment", serviceName),
+                    Map.of(
+                            "appointmentId", savedAppointment.getId().toString(),
+                            "service", serviceName,
+                            "vehicle", vehicleInfo,
+                            "date", date,
+                            "time", time,
+                            "customer", customerName
+                    )
+            );
 
-        return savedAppointment;
+            outboxService.enqueueEmployeeAssignmentEmail(
+                    employee.getEmail(),
+                    employee.getFullName(),
+                    savedAppointment.getId().toString(),
+                    date,
+                    time,
+                    serviceName,
+                    vehicleInfo,
+                    customerName
+            );
+        }
     }
 
     // ===================================================================
@@ -427,6 +474,7 @@ public class AppointmentService {
     // ===================================================================
     // 5. EMPLOYEE: Start work
     // ===================================================================
+    @Transactional
     public Appointment startAppointment(UUID appointmentId) {
         User employee = getCurrentUser();
 
@@ -445,13 +493,15 @@ public class AppointmentService {
             throw new RuntimeException("Work already started");
         }
 
+        AnalyticsRollupService.Snapshot before = analyticsRollupService.snapshot(appt);
         appt.setStartTime(LocalDateTime.now());
         appt.setStatus("IN_PROGRESS");
 
         Appointment savedAppointment = appointmentRepository.save(appt);
+        analyticsRollupService.recordChange(before, savedAppointment);
 
-        // Send notification to customer
-        notificationService.sendNotification(
+        // Queue notification to customer
+        outboxService.enqueueNotification(
                 savedAppointment.getUser().getId(),
                 "APPOINTMENT_STARTED",
                 String.format("Work has started on your %s", savedAppointment.getVehicle().getModel()),
@@ -465,19 +515,15 @@ public class AppointmentService {
                 )
         );
 
-        // Send work started email to customer
-        try {
-            emailService.sendAppointmentStartedEmail(
-                    savedAppointment.getUser().getEmail(),
-                    savedAppointment.getUser().getFullName(),
-                    savedAppointment.getId().toString(),
-                    savedAppointment.getServiceOrModification().getName(),
-                    savedAppointment.getVehicle().getBrand() + " " + savedAppointment.getVehicle().getModel(),
-                    employee.getFullName()
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to send work started email: " + e.getMessage());
-        }
+        // Queue work started email to customer
+        outboxService.enqueueAppointmentStartedEmail(
+                savedAppointment.getUser().getEmail(),
+                savedAppointment.getUser().getFullName(),
+                savedAppointment.getId().toString(),
+                savedAppointment.getServiceOrModification().getName(),
+                savedAppointment.getVehicle().getBrand() + " " + savedAppointment.getVehicle().getModel(),
+                employee.getFullName()
+        );
 
         return savedAppointment;
     }
@@ -485,6 +531,7 @@ public class AppointmentService {
     // ===================================================================
     // 6. EMPLOYEE: Complete work
     // ===================================================================
+    @Transactional
     public Appointment completeAppointment(UUID appointmentId) {
         User employee = getCurrentUser();
 
@@ -506,10 +553,12 @@ public class AppointmentService {
             throw new RuntimeException("Work already completed");
         }
 
+        AnalyticsRollupService.Snapshot before = analyticsRollupService.snapshot(appt);
         appt.setEndTime(LocalDateTime.now());
         appt.setStatus("COMPLETED");
 
         Appointment savedAppointment = appointmentRepository.save(appt);
+        analyticsRollupService.recordChange(before, savedAppointment);
 
         // Update vehicle's last service date if this is a SERVICE appointment
         if (savedAppointment.getAppointmentType() == AppointmentType.SERVICE) {
@@ -518,8 +567,8 @@ public class AppointmentService {
             vehicleRepository.save(vehicle);
         }
 
-        // Send notification to customer
-        notificationService.sendNotification(
+        // Queue notification to customer
+        outboxService.enqueueNotification(
                 savedAppointment.getUser().getId(),
                 "APPOINTMENT_COMPLETED",
                 String.format("Your %s service has been completed!",
@@ -534,20 +583,16 @@ public class AppointmentService {
                 )
         );
 
-        // Send completion email to customer
-        try {
-            emailService.sendAppointmentCompletedEmail(
-                    savedAppointment.getUser().getEmail(),
-                    savedAppointment.getUser().getFullName(),
-                    savedAppointment.getId().toString(),
-                    savedAppointment.getServiceOrModification().getName(),
-                    savedAppointment.getVehicle().getBrand() + " " + savedAppointment.getVehicle().getModel(),
-                    savedAppointment.getStartTime().format(TIME_FORMATTER),
-                    savedAppointment.getEndTime().format(TIME_FORMATTER)
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to send completion email: " + e.getMessage());
-        }
+        // Queue completion email to customer
+        outboxService.enqueueAppointmentCompletedEmail(
+                savedAppointment.getUser().getEmail(),
+                savedAppointment.getUser().getFullName(),
+                savedAppointment.getId().toString(),
+                savedAppointment.getServiceOrModification().getName(),
+                savedAppointment.getVehicle().getBrand() + " " + savedAppointment.getVehicle().getModel(),
+                savedAppointment.getStartTime().format(TIME_FORMATTER),
+                savedAppointment.getEndTime().format(TIME_FORMATTER)
+        );
 
         return savedAppointment;
     }
@@ -561,35 +606,8 @@ public class AppointmentService {
             throw new RuntimeException("Service center is not active");
         }
 
-        // Get all appointments for this center on this date
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(23, 59, 59);
-
-        List<Appointment> appointments = appointmentRepository
-                .findByServiceCenterAndDate(serviceCenterId, startOfDay);
-
-        // Count bookings per hour
-        Map<Integer, Long> bookedPerHour = appointments.stream()
-                .collect(Collectors.groupingBy(
-                        a -> a.getAppointmentDate().getHour(),
-                        Collectors.counting()
-                ));
-
-        // Calculate available slots per hour
-        Map<Integer, Integer> availableSlots = new HashMap<>();
-        int dayOfWeek = date.getDayOfWeek().getValue();
-
-        // Determine operating hours based on day
-        int startHour = (dayOfWeek == 6 || dayOfWeek == 7) ? 9 : 8;
-        int endHour = (dayOfWeek == 6 || dayOfWeek == 7) ? 17 : 20;
-
-        for (int hour = startHour; hour < endHour; hour++) {
-            long booked = bookedPerHour.getOrDefault(hour, 0L);
-            int available = serviceCenter.getCenterSlot() - (int) booked;
-            availableSlots.put(hour, Math.max(0, available));
-        }
-
-        return availableSlots;
+        // One grouped (hour, count) query for the whole day
+        return slotAvailabilityService.getAvailableSlotsByHour(serviceCenterId, serviceCenter.getCenterSlot(), date);
     }
 
     // ===================================================================
@@ -618,25 +636,15 @@ public class AppointmentService {
             throw new RuntimeException("Cannot check availability for past dates");
         }
 
-        // Determine business hours based on day of week
-        int dayOfWeek = date.getDayOfWeek().getValue(); // 1=Monday, 7=Sunday
-        List<Integer> businessHours;
-        
-        // Weekend hours: Saturday(6) and Sunday(7) are 9 AM - 4 PM
-        if (dayOfWeek == 6 || dayOfWeek == 7) {
-            businessHours = List.of(9, 10, 11, 12, 13, 14, 15, 16);
-        } 
-        // Weekday hours: Monday-Friday are 8 AM - 7 PM
-        else {
-            businessHours = List.of(8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19);
-        }
-
         LocalDateTime now = LocalDateTime.now();
         boolean isToday = date.equals(now.toLocalDate());
-        
+
+        // Booked appointments per hour, loaded with a single grouped query
+        int[] bookedPerHour = slotAvailabilityService.getBookedSlotsPerHour(serviceCenterId, date);
+
         List<String> availableSlots = new java.util.ArrayList<>();
 
-        for (Integer hour : businessHours) {
+        for (Integer hour : SlotAvailabilityService.getBusinessHours(date)) {
             LocalDateTime slotDateTime = date.atTime(hour, 0);
 
             // Skip past time slots if checking today
@@ -644,18 +652,10 @@ public class AppointmentService {
                 continue;
             }
 
-            // Check how many appointments are booked for this slot
-            Long bookedSlots = appointmentRepository
-                    .countByServiceCenterIdAndAppointmentDateAndStatusNot(
-                            serviceCenterId,
-                            slotDateTime,
-                            "CANCELLED"
-                    );
-
             // Check if slot is available
-            if (bookedSlots < serviceCenter.getCenterSlot()) {
+            int availableCount = serviceCenter.getCenterSlot() - bookedPerHour[hour];
+            if (availableCount > 0) {
                 String timeSlot = String.format("%02d:00", hour);
-                Long availableCount = serviceCenter.getCenterSlot() - bookedSlots;
                 availableSlots.add(timeSlot + "|" + availableCount); // Format: "09:00|3"
             }
         }
@@ -664,10 +664,54 @@ public class AppointmentService {
     }
 
     // ===================================================================
-    // 8. ADMIN: Get all upcoming appointments (PENDING or CONFIRMED, future dates)
+    // 7.1 Availability calendar for one or more service centers (up to 30 days)
+    // ===================================================================
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public List<AvailabilityCalendarDTO> getAvailabilityCalendar(List<UUID> serviceCenterIds, LocalDate startDate, int days) {
+        if (serviceCenterIds == null || serviceCenterIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one service center is required");
+        }
+        if (serviceCenterIds.size() > MAX_CALENDAR_CENTERS) {
+            throw new IllegalArgumentException("At most " + MAX_CALENDAR_CENTERS + " service centers can be requested at once");
+        }
+
+        LocalDate today = LocalDate.now();
+        if (startDate.isBefore(today)) {
+            throw new IllegalArgumentException("Cannot check availability for past dates");
+        }
+
+        // Same horizon as createAppointment
+        LocalDate lastBookableDate = today.plusDays(BOOKING_HORIZON_DAYS);
+        if (startDate.isAfter(lastBookableDate)) {
+            throw new IllegalArgumentException("Cannot check availability more than 1 month in advance");
+        }
+        int clampedDays = Math.min(Math.min(Math.max(days, 1), SlotAvailabilityService.MAX_CALENDAR_DAYS),
+                (int) (lastBookableDate.toEpochDay() - startDate.toEpochDay()) + 1);
+
+        List<UUID> distinctIds = serviceCenterIds.stream().distinct().toList();
+        Map<UUID, ServiceCenter> centersById = serviceCenterRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(ServiceCenter::getId, c -> c));
+
+        List<ServiceCenter> serviceCenters = new ArrayList<>(distinctIds.size());
+        for (UUID id : distinctIds) {
+            ServiceCenter serviceCenter = centersById.get(id);
+            if (serviceCenter == null) {
+                throw new RuntimeException("Service center not found");
+            }
+            if (!serviceCenter.getIsActive()) {
+                throw new RuntimeException("Service center is not currently available");
+            }
+            serviceCenters.add(serviceCenter);
+        }
+
+        return slotAvailabilityService.getAvailabilityCalendar(serviceCenters, startDate, clampedDays);
+    }
+
+    // ===================================================================
+    // 8. ADMIN: Get upcoming appointments (PENDING or CONFIRMED, future dates), one page at a time
     // ===================================================================
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
-    public List<AdminAppointmentDTO> getAllUpcomingAppointments() {
+    public AdminAppointmentPageDTO getAllUpcomingAppointments(String cursor, Integer size) {
         User currentUser = getCurrentUser();
         boolean isAdmin = currentUser.getRoles().stream()
                 .anyMatch(r -> "ADMIN".equals(r.getName()));
@@ -675,20 +719,14 @@ public class AppointmentService {
             throw new RuntimeException("Only ADMIN can view all appointments");
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        return appointmentRepository.findAll().stream()
-                .filter(a -> (a.getStatus().equals("PENDING") || a.getStatus().equals("CONFIRMED"))
-                        && a.getAppointmentDate().isAfter(now))
-                .sorted((a1, a2) -> a1.getAppointmentDate().compareTo(a2.getAppointmentDate()))
-                .map(this::toAdminAppointmentDTO)
-                .collect(Collectors.toList());
+        return loadAdminAppointmentPage(ACTIVE_STATUSES, LocalDateTime.now(), false, cursor, size);
     }
 
     // ===================================================================
-    // 9. ADMIN: Get all ongoing appointments (IN_PROGRESS)
+    // 9. ADMIN: Get ongoing appointments (IN_PROGRESS), one page at a time
     // ===================================================================
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
-    public List<AdminAppointmentDTO> getAllOngoingAppointments() {
+    public AdminAppointmentPageDTO getAllOngoingAppointments(String cursor, Integer size) {
         User currentUser = getCurrentUser();
         boolean isAdmin = currentUser.getRoles().stream()
                 .anyMatch(r -> "ADMIN".equals(r.getName()));
@@ -696,18 +734,14 @@ public class AppointmentService {
             throw new RuntimeException("Only ADMIN can view all appointments");
         }
 
-        return appointmentRepository.findAll().stream()
-                .filter(a -> a.getStatus().equals("IN_PROGRESS"))
-                .sorted((a1, a2) -> a1.getAppointmentDate().compareTo(a2.getAppointmentDate()))
-                .map(this::toAdminAppointmentDTO)
-                .collect(Collectors.toList());
+        return loadAdminAppointmentPage(List.of("IN_PROGRESS"), KEYSET_EPOCH, false, cursor, size);
     }
 
     // ===================================================================
-    // 10. ADMIN: Get all unassigned appointments (PENDING or CONFIRMED, future dates, no employees assigned)
+    // 10. ADMIN: Get unassigned appointments (PENDING or CONFIRMED, future dates, no employees assigned)
     // ===================================================================
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
-    public List<AdminAppointmentDTO> getAllUnassignedAppointments() {
+    public AdminAppointmentPageDTO getAllUnassignedAppointments(String cursor, Integer size) {
         User currentUser = getCurrentUser();
         boolean isAdmin = currentUser.getRoles().stream()
                 .anyMatch(r -> "ADMIN".equals(r.getName()));
@@ -715,14 +749,65 @@ public class AppointmentService {
             throw new RuntimeException("Only ADMIN can view all appointments");
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        return appointmentRepository.findAll().stream()
-                .filter(a -> (a.getStatus().equals("PENDING") || a.getStatus().equals("CONFIRMED"))
-                        && a.getAppointmentDate().isAfter(now)
-                        && a.getAssignedEmployees().isEmpty())
-                .sorted((a1, a2) -> a1.getAppointmentDate().compareTo(a2.getAppointmentDate()))
-                .map(this::toAdminAppointmentDTO)
-                .collect(Collectors.toList());
+        return loadAdminAppointmentPage(ACTIVE_STATUSES, LocalDateTime.now(), true, cursor, size);
+    }
+
+    // ===================================================================
+    // HELPER: Load one keyset page of admin appointments (2 queries per page)
+    // ===================================================================
+    private AdminAppointmentPageDTO loadAdminAppointmentPage(List<String> statuses, LocalDateTime from,
+                                                             boolean unassignedOnly, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_ADMIN_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_ADMIN_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_ADMIN_PAGE_SIZE);
+        }
+
+        KeysetCursor after = cursor == null || cursor.isBlank()
+                ? new KeysetCursor(from, KeysetCursor.MIN_ID)
+                : KeysetCursor.decode(cursor);
+
+        // Fetch one extra row to know whether another page follows
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<AdminAppointmentDTO> rows = unassignedOnly
+                ? appointmentRepository.findUnassignedAdminAppointmentPage(
+                        statuses, from, after.appointmentDate(), after.id(), limit)
+                : appointmentRepository.findAdminAppointmentPage(
+                        statuses, from, after.appointmentDate(), after.id(), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<AdminAppointmentDTO> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        if (!unassignedOnly && !items.isEmpty()) {
+            Map<UUID, List<String>> employeeNames = new HashMap<>();
+            for (Object[] row : appointmentRepository.findAssignedEmployeeNames(
+                    items.stream().map(AdminAppointmentDTO::getId).toList())) {
+                employeeNames.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+            for (AdminAppointmentDTO dto : items) {
+                List<String> names = employeeNames.getOrDefault(dto.getId(), List.of());
+                dto.setAssignedEmployees(String.join(", ", names));
+                dto.setAssignedEmployeeCount(names.size());
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            AdminAppointmentDTO last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(LocalDateTime.parse(last.getDate()), last.getId()).encode();
+        }
+        return new AdminAppointmentPageDTO(items, nextCursor);
+    }
+
+    // ===================================================================
+    // HELPER: Load booking conflict facts (single round trip)
+    // ===================================================================
+    private BookingConflictFacts loadBookingConflictFacts(UUID vehicleId, UUID customerId, UUID serviceCenterId,
+                                                          AppointmentType appointmentType,
+                                                          LocalDateTime startTime, LocalDateTime endTime,
+                                                          LocalDateTime now) {
+        List<Object[]> rows = appointmentRepository.getBookingConflictFacts(
+                vehicleId, customerId, serviceCenterId, appointmentType.name(), startTime, endTime, now);
+        return rows.isEmpty() ? BookingConflictFacts.NONE : BookingConflictFacts.fromRow(rows.get(0));
     }
 
     // ===================================================================
@@ -742,29 +827,6 @@ public class AppointmentService {
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
     }
 
-    // ===================================================================
-    // HELPER: Convert Appointment to AdminAppointmentDTO
-    // ===================================================================
-    private AdminAppointmentDTO toAdminAppointmentDTO(Appointment appointment) {
-        AdminAppointmentDTO dto = new AdminAppointmentDTO();
-        dto.setId(appointment.getId());
-        dto.setVehicleId(appointment.getVehicle().getId());
-        dto.setVehicleName(appointment.getVehicle().getBrand() + " " + appointment.getVehicle().getModel());
-        dto.setLicensePlate(appointment.getVehicle().getLicensePlate());
-        dto.setCustomerName(appointment.getUser().getFullName());
-        dto.setCustomerEmail(appointment.getUser().getEmail());
-        dto.setService(appointment.getServiceOrModification().getName());
-        dto.setType(appointment.getAppointmentType());
-        dto.setDate(appointment.getAppointmentDate().toString());
-        dto.setStatus(appointment.getStatus());
-        dto.setServiceCenter(appointment.getServiceCenter().getName());
-        dto.setAssignedEmployees(appointment.getAssignedEmployees().stream()
-                .map(User::getFullName)
-                .collect(Collectors.joining(", ")));
-        dto.setAssignedEmployeeCount(appointment.getAssignedEmployees().size());
-        return dto;
-    }
-
     // ===================================================================
     // HELPER: Convert User to EmployeeDTO
     // ===================================================================
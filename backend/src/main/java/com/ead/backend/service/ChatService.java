@@ -24,6 +24,7 @@ public class ChatService {
     private final AppointmentService appointmentService;
     private final SimpMessagingTemplate messagingTemplate;
     private final NotificationService notificationService;
+    private final UnreadCounterService unreadCounters;
 
     /**
      * Get or create chat room for an appointment
@@ -99,6 +100,7 @@ public class ChatService {
 
         ChatMessage savedMessage = chatMessageRepository.save(message);
         log.info("Message saved to database - MessageId: {}", savedMessage.getMessageId());
+        unreadCounters.messageAdded(chatRoomId, sender.getId());
 
         // Update chat room's last message
         chatRoom.setLastMessage(messageText);
@@ -152,6 +154,7 @@ public class ChatService {
         });
 
         chatMessageRepository.saveAll(unreadMessages);
+        unreadCounters.messagesRead(chatRoomId, userId, unreadMessages.size());
 
         // Notify via WebSocket
         if (!unreadMessages.isEmpty()) {
@@ -196,7 +199,7 @@ public class ChatService {
 
     private ChatRoomDTO convertToChatRoomDTO(ChatRoom chatRoom, UUID userId) {
         Appointment appointment = chatRoom.getAppointment();
-        Integer unreadCount = chatMessageRepository.countUnreadMessages(chatRoom.getChatRoomId(), userId);
+        Integer unreadCount = unreadCounters.unreadMessages(chatRoom.getChatRoomId(), userId);
 
         String vehicleInfo = String.format("%s %s (%s)",
                 appointment.getVehicle().getBrand(),
@@ -41,16 +41,16 @@ public class ChatbotService {
 
     private final WebClient webClient;
     private final ShiftScheduleService shiftScheduleService;
-    private final AppointmentService appointmentService;
+    private final SlotAvailabilityService slotAvailabilityService;
     private final ServiceCenterService serviceCenterService;
     private final Map<String, Deque<Message>> conversationHistory = new ConcurrentHashMap<>();
 
     public ChatbotService(WebClient.Builder webClientBuilder,
                           ShiftScheduleService shiftScheduleService,
-                          AppointmentService appointmentService,
+                          SlotAvailabilityService slotAvailabilityService,
                           ServiceCenterService serviceCenterService) {
         this.shiftScheduleService = shiftScheduleService;
-        this.appointmentService = appointmentService;
+        this.slotAvailabilityService = slotAvailabilityService;
         this.serviceCenterService = serviceCenterService;
         this.webClient = LLMUtil.configureWebClient(webClientBuilder);
     }
@@ -183,8 +183,10 @@ public class ChatbotService {
                 return "No nearby service centers found within 50km of your location.";
             }
 
-            Map<Integer, Integer> slots = appointmentService.getAvailableSlotsByHour(
-                    centers.get(0).getId(),
+            ServiceCenterDTO center = centers.get(0);
+            Map<Integer, Integer> slots = slotAvailabilityService.getAvailableSlotsByHour(
+                    center.getId(),
+                    center.getCenterSlot(),
                     targetDate
             );
 
@@ -25,16 +25,8 @@ public class CustomerAppointmentService {
     @Transactional(readOnly = true)
     public List<Appointment> getCurrentUserDetailedAppointments() {
         User currentUser = getCurrentUser();                 // <-- RE-USED FROM AppointmentService
-        return appointmentRepository.findByUserId(currentUser.getId())
-                .stream()
-                .peek(a -> {
-                    // Force lazy loads – required for DTO mapping
-                    a.getVehicle().getId();
-                    a.getServiceOrModification().getId();
-                    a.getServiceCenter().getId();
-                    a.getAssignedEmployees().size();   // triggers fetch
-                })
-                .toList();
+        // Relations needed for DTO mapping come in through the entity graph, in one select
+        return appointmentRepository.findWithEmployeesByUserId(currentUser.getId());
     }
 
     // -----------------------------------------------------------------
@@ -828,6 +828,7 @@ public class EmailService {
             logger.info("Employee assignment email sent to: {}", toEmail);
         } catch (Exception e) {
             logger.error("Failed to send employee assignment email to: {}", toEmail, e);
+            throw new RuntimeException("Failed to send employee assignment email", e);
         }
     }
 
@@ -1002,6 +1003,7 @@ public class EmailService {
             logger.info("Appointment started email sent to: {}", toEmail);
         } catch (Exception e) {
             logger.error("Failed to send appointment started email to: {}", toEmail, e);
+            throw new RuntimeException("Failed to send appointment started email", e);
         }
     }
 
@@ -1167,6 +1169,7 @@ public class EmailService {
             logger.info("Appointment completed email sent to: {}", toEmail);
         } catch (Exception e) {
             logger.error("Failed to send appointment completed email to: {}", toEmail, e);
+            throw new RuntimeException("Failed to send appointment completed email", e);
         }
     }
 
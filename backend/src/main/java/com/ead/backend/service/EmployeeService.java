@@ -29,6 +29,8 @@ public class EmployeeService {
     private final UserRepository userRepository;
     private final VehicleRepository vehicleRepository;
     private final EmployeeCenterRepository employeeCenterRepository;
+    private final SlotCapacityLedger slotCapacityLedger;
+    private final AnalyticsRollupService analyticsRollupService;
 
     /**
      * Retrieves all time logs for a given appointment and employee.
@@ -68,8 +70,7 @@ public class EmployeeService {
             return List.of();
         }
 
-        Set<User> employees = Set.of(employeeOpt.get());
-        List<Appointment> appointments = appointmentRepository.findByAssignedEmployees(employees);
+        List<Appointment> appointments = appointmentRepository.findDetailedByAssignedEmployeesId(employeeOpt.get().getId());
 
         return appointments.stream().map(a -> {
             // User details
@@ -118,6 +119,7 @@ public class EmployeeService {
      *
      * @param appointmentId the appointment ID
      * @param newStatus     the new status (PENDING, CONFIRMED, IN_PROGRESS, COMPLETED, CANCELLED)
+     * @throws RuntimeException with message SLOT_FULL when reinstating a cancelled appointment whose hour is full
      */
     @Transactional
     public void updateAppointmentStatus(UUID appointmentId, String newStatus) {
@@ -132,6 +134,16 @@ public class EmployeeService {
             logger.info("Status is already '{}'. No update performed.", newStatus);
             return;
         }
+        if ("CANCELLED".equals(currentStatus)) {
+            // A cancelled appointment gave its slot back: it has to win it again before it counts as booked
+            ServiceCenter serviceCenter = appointment.getServiceCenter();
+            if (!slotCapacityLedger.tryReserve(serviceCenter.getId(), appointment.getAppointmentDate(),
+                    serviceCenter.getCenterSlot())) {
+                throw new RuntimeException("SLOT_FULL");
+            }
+            logger.info("Reserved service center slot of the reinstated appointment");
+        }
+        AnalyticsRollupService.Snapshot before = analyticsRollupService.snapshot(appointment);
         LocalDateTime now = LocalDateTime.now();
         switch (newStatus) {
             case "IN_PROGRESS":
@@ -158,11 +170,16 @@ public class EmployeeService {
                 appointment.setEndTime(null);
                 logger.info("Reset start time and end time of the appointment");
                 break;
+            case "CANCELLED":
+                slotCapacityLedger.release(appointment.getServiceCenter().getId(), appointment.getAppointmentDate());
+                logger.info("Released service center slot of the cancelled appointment");
+                break;
             default:
                 break;
         }
         appointment.setStatus(newStatus);
         appointmentRepository.save(appointment);
+        analyticsRollupService.recordChange(before, appointment);
     }
 
     /**
@@ -0,0 +1,175 @@
+package com.ead.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicting in-memory store for Idempotency-Key handling.
+ * <p>
+ * The first request for a (scope, key) pair runs the action; replays within the TTL get the
+ * stored result without running it again, and concurrent duplicates wait for the in-flight
+ * execution instead of racing it. Failed executions are not stored, so the client can retry.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${app.idempotency.ttl-ms:86400000}")
+    private long ttlMs = 86_400_000;
+
+    @Value("${app.idempotency.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    @Value("${app.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs = 30_000;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    // Completed keys in completion order, used to evict the oldest results when the store is full
+    private final Queue<Completed> completionOrder = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Result of an idempotent execution.
+     *
+     * @param value    the (original) result
+     * @param replayed true if the value was served from the store instead of running the action
+     */
+    public record IdempotentResult<T>(T value, boolean replayed) {
+    }
+
+    /**
+     * Run {@code action} at most once per (scope, key) within the TTL.
+     *
+     * @param scope   owner of the key (e.g. the authenticated user), so keys of different users never collide
+     * @param key     client supplied Idempotency-Key
+     * @param request request payload; reusing a key for a different payload is rejected
+     */
+    @SuppressWarnings("unchecked")
+    public <T> IdempotentResult<T> execute(String scope, String key, Object request, Supplier<T> action) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Key storeKey = new Key(scope, key);
+        Entry fresh = new Entry(request);
+
+        while (true) {
+            Entry existing = entries.putIfAbsent(storeKey, fresh);
+            if (existing == null) {
+                return new IdempotentResult<>(runFirst(storeKey, fresh, action), false);
+            }
+            if (existing.isExpired(System.currentTimeMillis(), ttlMs)) {
+                entries.remove(storeKey, existing);
+                continue;
+            }
+            if (!Objects.equals(existing.request, request)) {
+                throw new IllegalArgumentException("Idempotency-Key has already been used for a different request");
+            }
+            return new IdempotentResult<>((T) awaitResult(existing), true);
+        }
+    }
+
+    /**
+     * Drop expired results.
+     *
+     * @return number of entries removed
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:60000}")
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.isExpired(now, ttlMs));
+        completionOrder.removeIf(completed -> entries.get(completed.key()) != completed.entry());
+        return before - entries.size();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private <T> T runFirst(Key storeKey, Entry entry, Supplier<T> action) {
+        T value;
+        try {
+            value = action.get();
+        } catch (RuntimeException e) {
+            // Not stored: waiters see the same failure, later retries run again
+            entries.remove(storeKey, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+
+        entry.completedAt = System.currentTimeMillis();
+        entry.result.complete(value);
+        completionOrder.add(new Completed(storeKey, entry));
+        evictIfFull();
+        return value;
+    }
+
+    private Object awaitResult(Entry entry) {
+        try {
+            return entry.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("A request with this Idempotency-Key is still being processed. Please retry shortly.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        purgeExpired();
+        // Still full: evict the oldest completed results (in-flight entries are never evicted)
+        while (entries.size() > maxEntries) {
+            Completed oldest = completionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            entries.remove(oldest.key(), oldest.entry());
+        }
+        log.debug("Idempotency store evicted to {} entries", entries.size());
+    }
+
+    private record Key(String scope, String key) {
+    }
+
+    private record Completed(Key key, Entry entry) {
+    }
+
+    private static final class Entry {
+        private final Object request;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private Entry(Object request) {
+            this.request = request;
+        }
+
+        // In-flight entries never expire; completed ones live for the TTL after completion
+        private boolean isExpired(long now, long ttlMs) {
+            return completedAt > 0 && now - completedAt > ttlMs;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.ead.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Recent SSE events per user, so a browser that reconnects with {@code Last-Event-ID} gets only what it missed.
+ * <p>
+ * Event ids are the send time in milliseconds followed by a three-digit sequence, increasing across the node
+ * (and across restarts, clock permitting). Each user has a bounded ring of their latest events; publishing and
+ * replaying hold the user's ring, so every event reaches a reconnecting browser exactly once, either in its
+ * replay or live. A ring remembers the oldest id it can answer for; older ids (evicted events, a restart, an
+ * idle user whose ring was dropped) are not covered and the caller falls back to the database.
+ */
+@Service
+@Slf4j
+public class NotificationReplayBuffer {
+
+    private static final long IDS_PER_MILLI = 1000;
+
+    @Value("${app.notifications.replay.events-per-user:50}")
+    private int eventsPerUser = 50;
+
+    @Value("${app.notifications.replay.max-users:50000}")
+    private int maxUsers = 50_000;
+
+    @Value("${app.notifications.replay.idle-retention-ms:600000}")
+    private long idleRetentionMs = 600_000;
+
+    // Starts at the boot time so that ids handed out before a restart are never mistaken for covered ones
+    private final AtomicLong lastEventId = new AtomicLong(System.currentTimeMillis() * IDS_PER_MILLI);
+    private final Map<UUID, Ring> rings = new ConcurrentHashMap<>();
+
+    /**
+     * Give {@code data} the next event id, remember it for {@code userId} and hand it to {@code delivery},
+     * which must only enqueue (it runs while the user's ring is held).
+     */
+    public void publish(UUID userId, String name, Object data, Consumer<SseConnectionRegistry.OutboundEvent> delivery) {
+        Ring ring = ringFor(userId);
+        if (ring == null) {
+            delivery.accept(new SseConnectionRegistry.OutboundEvent(nextEventId(), name, data));
+            return;
+        }
+        synchronized (ring) {
+            SseConnectionRegistry.OutboundEvent event = new SseConnectionRegistry.OutboundEvent(nextEventId(), name, data);
+            ring.add(event);
+            delivery.accept(event);
+        }
+    }
+
+    /**
+     * Call {@code opener} with the events of {@code userId} published after {@code afterEventId}, or with
+     * {@code null} when the ring no longer reaches back that far. No event of the user is published while
+     * {@code opener} runs, so a connection it opens receives every later event live.
+     */
+    public <T> T replay(UUID userId, long afterEventId, Function<List<SseConnectionRegistry.OutboundEvent>, T> opener) {
+        Ring ring = ringFor(userId);
+        if (ring == null) {
+            return opener.apply(null);
+        }
+        synchronized (ring) {
+            return opener.apply(ring.after(afterEventId));
+        }
+    }
+
+    /**
+     * The latest event id handed out on this node.
+     */
+    public long lastEventId() {
+        return lastEventId.get();
+    }
+
+    /**
+     * Lowest event id for events created at {@code epochMillis}, e.g. for rows replayed from the database.
+     */
+    public static long eventIdAt(long epochMillis) {
+        return epochMillis * IDS_PER_MILLI;
+    }
+
+    /**
+     * Creation time, in epoch milliseconds, encoded in {@code eventId}.
+     */
+    public static long epochMillisOf(long eventId) {
+        return eventId / IDS_PER_MILLI;
+    }
+
+    public int trackedUsers() {
+        return rings.size();
+    }
+
+    // Users who got no event for a while are unlikely to reconnect soon; the database covers them if they do
+    @Scheduled(fixedDelayString = "${app.notifications.replay.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleRetentionMs;
+        int before = rings.size();
+        rings.values().removeIf(ring -> ring.lastUsedMillis < cutoff);
+        int evicted = before - rings.size();
+        if (evicted > 0) {
+            log.debug("Dropped replay buffers of {} idle users", evicted);
+        }
+    }
+
+    private long nextEventId() {
+        long candidate = eventIdAt(System.currentTimeMillis());
+        return lastEventId.accumulateAndGet(candidate, (previous, now) -> Math.max(previous + 1, now));
+    }
+
+    // Null when the node already tracks its maximum number of users
+    private Ring ringFor(UUID userId) {
+        Ring ring = rings.get(userId);
+        if (ring != null || rings.size() >= maxUsers) {
+            return ring;
+        }
+        return rings.computeIfAbsent(userId, id -> new Ring(eventsPerUser, lastEventId.get()));
+    }
+
+    private static final class Ring {
+        private final int capacity;
+        private final ArrayDeque<SseConnectionRegistry.OutboundEvent> events;
+        // Every event of the user with a greater id is in the ring
+        private long coveredFrom;
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+
+        private Ring(int capacity, long coveredFrom) {
+            this.capacity = capacity;
+            this.events = new ArrayDeque<>(capacity);
+            this.coveredFrom = coveredFrom;
+        }
+
+        private void add(SseConnectionRegistry.OutboundEvent event) {
+            if (events.size() == capacity) {
+                coveredFrom = events.removeFirst().id();
+            }
+            events.addLast(event);
+            lastUsedMillis = System.currentTimeMillis();
+        }
+
+        private List<SseConnectionRegistry.OutboundEvent> after(long eventId) {
+            lastUsedMillis = System.currentTimeMillis();
+            if (eventId < coveredFrom) {
+                return null;
+            }
+            List<SseConnectionRegistry.OutboundEvent> missed = new ArrayList<>();
+            for (SseConnectionRegistry.OutboundEvent event : events) {
+                if (event.id() > eventId) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        }
+    }
+}
@@ -3,18 +3,24 @@ package com.ead.backend.service;
 import com.ead.backend.dto.NotificationEventDTO;
 import com.ead.backend.entity.Notification;
 import com.ead.backend.repository.NotificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -23,82 +29,165 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final ObjectMapper objectMapper;
-
-    private final Map<UUID, SseEmitter> emitters = new ConcurrentHashMap<>();
-
+    private final SseConnectionRegistry connectionRegistry;
+    private final NotificationWriteBuffer notificationWriter;
+    private final NotificationReplayBuffer replayBuffer;
+    private final UnreadCounterService unreadCounters;
+
+    @Value("${app.notifications.replay.max-events:50}")
+    private int maxReplayEvents = 50;
+
+    @Value("${app.notifications.replay.overlap-ms:10000}")
+    private long replayOverlapMs = 10_000;
+
+    /**
+     * Open one more live connection for {@code userId}; other tabs and devices stay connected.
+     *
+     * @throws IllegalStateException if the node is at its connection cap
+     */
     public SseEmitter subscribe(UUID userId) {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        emitters.put(userId, emitter);
+        return subscribe(userId, null);
+    }
 
-        log.info("User {} subscribed to notifications", userId);
+    /**
+     * Like {@link #subscribe(UUID)}, but a browser reconnecting with {@code lastEventId} first gets the events
+     * it missed: from the replay buffer when it still covers the gap, otherwise from the database followed by
+     * whatever the buffer received since the read.
+     *
+     * @throws IllegalStateException if the node is at its connection cap
+     */
+    public SseEmitter subscribe(UUID userId, Long lastEventId) {
+        SseEmitter emitter;
+        if (lastEventId == null) {
+            emitter = connectionRegistry.open(userId);
+        } else {
+            emitter = replayBuffer.replay(userId, lastEventId,
+                    missed -> missed != null ? connectionRegistry.open(userId, backlog(missed)) : null);
+            if (emitter == null) {
+                emitter = subscribeWithStoredBacklog(userId, lastEventId);
+            }
+        }
+        log.info("User {} subscribed to notifications ({} connections)", userId, connectionRegistry.connectionCount(userId));
+        return emitter;
+    }
 
-        emitter.onCompletion(() -> {
-            emitters.remove(userId);
-            log.info("User {} unsubscribed (completion)", userId);
+    // The gap is older than the replay buffer: keyset read of the stored notifications since the last event.
+    // A notification is published once its row is committed, and its created_at is its insert time, so rows
+    // only trail their event by a commit (or by clock skew between nodes). The read starts an overlap earlier
+    // and may repeat notifications the browser already has; clients de-duplicate them by notification id.
+    private SseEmitter subscribeWithStoredBacklog(UUID userId, long lastEventId) {
+        long readAt = replayBuffer.lastEventId();
+        LocalDateTime since = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(NotificationReplayBuffer.epochMillisOf(lastEventId) - replayOverlapMs),
+                ZoneId.systemDefault());
+        List<Notification> stored = notificationRepository.findCreatedSince(
+                userId, since, PageRequest.of(0, maxReplayEvents + 1));
+        log.debug("Replaying {} stored notifications to user {} since {}", stored.size(), userId, since);
+
+        return replayBuffer.replay(userId, readAt, recent -> {
+            List<SseConnectionRegistry.OutboundEvent> events = new ArrayList<>();
+            Set<String> storedIds = new HashSet<>();
+            for (Notification notification : stored) {
+                events.add(toEvent(notification, lastEventId));
+                storedIds.add(String.valueOf(notification.getId()));
+            }
+            if (recent != null) {
+                // Committed before the read but published after it: already replayed from the database
+                recent.stream()
+                        .filter(event -> !(event.data() instanceof NotificationEventDTO dto && storedIds.contains(dto.getId())))
+                        .forEach(events::add);
+            }
+            return connectionRegistry.open(userId, backlog(events));
         });
+    }
 
-        emitter.onTimeout(() -> {
-            emitters.remove(userId);
-            log.info("User {} unsubscribed (timeout)", userId);
-        });
+    // Too many missed events to replay through a connection queue: tell the browser to reload its list instead
+    private List<SseConnectionRegistry.OutboundEvent> backlog(List<SseConnectionRegistry.OutboundEvent> missed) {
+        if (missed.size() <= maxReplayEvents) {
+            return missed;
+        }
+        return List.of(new SseConnectionRegistry.OutboundEvent(replayBuffer.lastEventId(), "resync",
+                "Too many missed notifications to replay, reload the notification list"));
+    }
 
-        emitter.onError(e -> {
-            emitters.remove(userId);
-            log.error("Error for user {}: {}", userId, e.getMessage());
-        });
+    // Never below the browser's last event id, so rows from the overlap do not move its Last-Event-ID back
+    private SseConnectionRegistry.OutboundEvent toEvent(Notification notification, long lastEventId) {
+        Object data = notification.getData();
+        if (notification.getData() != null) {
+            try {
+                data = objectMapper.readValue(notification.getData(), Object.class);
+            } catch (Exception e) {
+                // Not JSON: replay the stored text as is
+            }
+        }
+        long createdAt = notification.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long eventId = Math.max(lastEventId, NotificationReplayBuffer.eventIdAt(createdAt));
+        return new SseConnectionRegistry.OutboundEvent(eventId, "notification", eventOf(notification, data));
+    }
 
-        return emitter;
+    // Live and replayed events carry the notification id, so clients can tell a replayed one they already have
+    private static NotificationEventDTO eventOf(Notification notification, Object data) {
+        return new NotificationEventDTO(String.valueOf(notification.getId()), notification.getType(),
+                notification.getMessage(), notification.getCreatedAt().toString(), data);
     }
 
     @Transactional
     public void sendNotification(UUID userId, String type, String message, Object data) {
         try {
-            // 1. Save to database
-            String dataJson = objectMapper.writeValueAsString(data);
-            Notification notification = new Notification(userId, type, message, dataJson);
-            notificationRepository.save(notification);
-
-            // 2. Send via SSE (real-time)
-            NotificationEventDTO event = new NotificationEventDTO(type, message, data);
-            sendSseEvent(userId, event);
-
-            log.info("Notification sent to user {}: {}", userId, type);
+            deliverNotification(userId, type, message, data);
         } catch (Exception e) {
             log.error("Failed to send notification: {}", e.getMessage());
         }
     }
 
+    /**
+     * Like {@link #sendNotification}, but a failure to store the notification is thrown to the caller, so the
+     * outbox can retry it.
+     */
+    @Transactional
+    public void deliverNotification(UUID userId, String type, String message, Object data) throws JsonProcessingException {
+        // 1. Save to database (batched JDBC insert, see NotificationWriteBuffer for durability)
+        // 2. Send via SSE (real-time) once the row is committed; delivery itself is asynchronous
+        String dataJson = objectMapper.writeValueAsString(data);
+        notificationWriter.write(new Notification(userId, type, message, dataJson),
+                stored -> sendSseEvent(userId, eventOf(stored, data)));
+        unreadCounters.notificationsAdded(userId, 1);
+
+        log.info("Notification sent to user {}: {}", userId, type);
+    }
+
+    // Fans out to every open connection of the user (only queues; never waits on the network) and keeps the
+    // event for replay to browsers that reconnect
     private void sendSseEvent(UUID userId, NotificationEventDTO event) {
-        SseEmitter emitter = emitters.get(userId);
-        if (emitter != null) {
-            try {
-                emitter.send(SseEmitter.event()
-                        .name("notification")
-                        .data(event));
-            } catch (IOException e) {
-                emitters.remove(userId);
-                log.error("Failed to send SSE to user {}", userId);
-            }
-        }
+        replayBuffer.publish(userId, "notification", event, outbound -> connectionRegistry.send(userId, outbound));
     }
 
     public void sendToAll(String type, String message, Object data) {
-        NotificationEventDTO event = new NotificationEventDTO(type, message, data);
-        emitters.forEach((userId, emitter) -> {
-            try {
-                // Save to database for each user
-                String dataJson = objectMapper.writeValueAsString(data);
-                Notification notification = new Notification(userId, type, message, dataJson);
-                notificationRepository.save(notification);
-
-                // Send SSE
-                emitter.send(SseEmitter.event()
-                        .name("notification")
-                        .data(event));
-            } catch (Exception e) {
-                emitters.remove(userId);
+        Set<UUID> userIds = connectionRegistry.connectedUsers();
+        if (userIds.isEmpty()) {
+            return;
+        }
+        try {
+            // Save to database for each connected user, as JDBC batches rather than a row at a time
+            String dataJson = objectMapper.writeValueAsString(data);
+            List<Notification> notifications = new ArrayList<>(userIds.size());
+            for (UUID userId : userIds) {
+                notifications.add(new Notification(userId, type, message, dataJson));
             }
-        });
+            notificationWriter.writeAll(notifications,
+                    stored -> sendSseEvent(stored.getUserId(), eventOf(stored, data)));
+            userIds.forEach(userId -> unreadCounters.notificationsAdded(userId, 1));
+        } catch (Exception e) {
+            log.error("Failed to save broadcast notification for {} users: {}", userIds.size(), e.getMessage());
+        }
+    }
+
+    public NotificationWriteBuffer.WriteStats getWriteStats() {
+        return notificationWriter.stats();
+    }
+
+    public SseConnectionRegistry.ConnectionStats getConnectionStats() {
+        return connectionRegistry.stats();
     }
 
     // Get all notifications for a user
@@ -115,8 +204,12 @@ public class NotificationService {
     @Transactional
     public void markAsRead(Long notificationId) {
         notificationRepository.findById(notificationId).ifPresent(notification -> {
+            boolean wasUnread = !Boolean.TRUE.equals(notification.getIsRead());
             notification.setIsRead(true);
             notificationRepository.save(notification);
+            if (wasUnread) {
+                unreadCounters.notificationsRead(notification.getUserId(), 1);
+            }
         });
     }
 
@@ -127,16 +220,18 @@ public class NotificationService {
                 .findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
         notifications.forEach(n -> n.setIsRead(true));
         notificationRepository.saveAll(notifications);
+        unreadCounters.notificationsRead(userId, notifications.size());
     }
 
-    // Get unread count
+    // Get unread count (badge polling: served from memory, see UnreadCounterService)
     public Long getUnreadCount(UUID userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return unreadCounters.unreadNotifications(userId);
     }
 
     // Clear all notifications
     @Transactional
     public void clearAllNotifications(UUID userId) {
         notificationRepository.deleteByUserId(userId);
+        unreadCounters.forgetNotifications(userId);
     }
 }
\ No newline at end of file
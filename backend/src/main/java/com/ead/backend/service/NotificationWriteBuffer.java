@@ -0,0 +1,290 @@
+package com.ead.backend.service;
+
+import com.ead.backend.entity.Notification;
+import com.ead.backend.enums.NotificationDurability;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Persists notification rows with JDBC batch inserts instead of one JPA save per row.
+ * <p>
+ * {@link Notification} ids are IDENTITY columns, so Hibernate inserts them one statement at a time and a
+ * broadcast to thousands of users becomes thousands of round trips. Durability is configurable:
+ * <ul>
+ *     <li>{@code flush-on-commit}: rows written inside a transaction are inserted as one batch on that
+ *     transaction's connection just before it commits, so they commit or roll back with the business write.
+ *     Outside a transaction the batch is inserted before returning.</li>
+ *     <li>{@code best-effort}: rows go to an in-memory buffer (after commit, if in a transaction) that a
+ *     background thread flushes every few milliseconds or whenever a full batch is waiting. Callers never
+ *     wait on the insert; rows still buffered when the node dies are lost.</li>
+ * </ul>
+ * Either way a row gets its id and its {@code created_at} when it is inserted, and the {@code onStored} callback
+ * of a write runs only once the row is committed, so whatever it publishes can already be read back.
+ */
+@Service
+@Slf4j
+public class NotificationWriteBuffer {
+
+    static final String INSERT_SQL = "INSERT INTO notifications (user_id, type, message, is_read, created_at, data) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.notifications.persistence.durability:flush-on-commit}")
+    private String durability = "flush-on-commit";
+
+    @Value("${app.notifications.persistence.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${app.notifications.persistence.flush-interval-ms:5}")
+    private long flushIntervalMs = 5;
+
+    @Value("${app.notifications.persistence.buffer-capacity:50000}")
+    private int bufferCapacity = 50_000;
+
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final LongAdder overflowWrites = new LongAdder();
+
+    private NotificationDurability mode;
+    private BlockingQueue<PendingRow> buffer;
+    private ExecutorService flusher;
+
+    /**
+     * Buffer and insert counters, for sizing the batch and the buffer.
+     */
+    public record WriteStats(NotificationDurability durability, int buffered, long rowsWritten, long batches,
+                             long failedRows, long overflowWrites) {
+    }
+
+    private record PendingRow(Notification row, Consumer<Notification> onStored) {
+    }
+
+    public NotificationWriteBuffer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        mode = NotificationDurability.from(durability);
+        buffer = new LinkedBlockingQueue<>(bufferCapacity);
+        if (mode == NotificationDurability.BEST_EFFORT) {
+            flusher = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "notification-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.execute(this::flushLoop);
+        }
+        log.info("Notification persistence: {} (batch size {})", mode, batchSize);
+    }
+
+    /**
+     * Stop the background writer and insert whatever it had not flushed yet.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<PendingRow> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.info("Flushing {} buffered notifications on shutdown", remaining.size());
+            insertQuietly(remaining);
+        }
+    }
+
+    public void write(Notification notification) {
+        writeAll(List.of(notification));
+    }
+
+    public void write(Notification notification, Consumer<Notification> onStored) {
+        writeAll(List.of(notification), onStored);
+    }
+
+    public void writeAll(List<Notification> notifications) {
+        writeAll(notifications, row -> { });
+    }
+
+    /**
+     * Persist {@code notifications} according to the configured durability and call {@code onStored} with each
+     * row once it is committed. Rows that fail to insert, or whose transaction rolls back, are not passed on.
+     *
+     * @throws DataAccessException in {@code flush-on-commit} mode outside a transaction, if the insert fails
+     */
+    public void writeAll(List<Notification> notifications, Consumer<Notification> onStored) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        List<Notification> rows = List.copyOf(notifications);
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive();
+
+        if (mode == NotificationDurability.FLUSH_ON_COMMIT) {
+            if (inTransaction) {
+                // Same connection as the business write (the transaction manager exposes it to JDBC)
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        insert(rows);
+                    }
+
+                    @Override
+                    public void afterCommit() {
+                        rows.forEach(onStored);
+                    }
+                });
+            } else {
+                insert(rows);
+                rows.forEach(onStored);
+            }
+        } else if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(rows, onStored);
+                }
+            });
+        } else {
+            enqueue(rows, onStored);
+        }
+    }
+
+    public WriteStats stats() {
+        return new WriteStats(mode, buffer.size(), rowsWritten.sum(), batches.sum(), failedRows.sum(),
+                overflowWrites.sum());
+    }
+
+    private void enqueue(List<Notification> rows, Consumer<Notification> onStored) {
+        List<PendingRow> overflow = null;
+        for (Notification row : rows) {
+            PendingRow pending = new PendingRow(row, onStored);
+            if (!buffer.offer(pending)) {
+                if (overflow == null) {
+                    overflow = new ArrayList<>();
+                }
+                overflow.add(pending);
+            }
+        }
+        if (overflow != null) {
+            // The writer is falling behind: push back on the caller instead of dropping rows
+            overflowWrites.add(overflow.size());
+            insertQuietly(overflow);
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(buffer.take());
+                // Let a burst accumulate for up to the flush interval, but never past a full batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingRow next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                insertQuietly(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Auto-commit outside a transaction, so the rows are committed when the insert returns
+    private void insertQuietly(List<PendingRow> pending) {
+        List<Notification> rows = pending.stream().map(PendingRow::row).toList();
+        try {
+            insert(rows);
+        } catch (DataAccessException e) {
+            failedRows.add(rows.size());
+            log.error("Failed to persist {} notifications: {}", rows.size(), e.getMessage());
+            return;
+        }
+        for (PendingRow row : pending) {
+            try {
+                row.onStored().accept(row.row());
+            } catch (Exception e) {
+                log.error("Failed to publish stored notification {}: {}", row.row().getId(), e.getMessage());
+            }
+        }
+    }
+
+    // Sets the generated id and the insert time as created_at on every row
+    private void insert(List<Notification> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Notification> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            Notification notification = chunk.get(i);
+                            statement.setObject(1, notification.getUserId());
+                            statement.setString(2, notification.getType());
+                            statement.setString(3, notification.getMessage());
+                            statement.setBoolean(4, Boolean.TRUE.equals(notification.getIsRead()));
+                            statement.setTimestamp(5, Timestamp.valueOf(now));
+                            statement.setString(6, notification.getData());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    }, keys);
+            List<Map<String, Object>> generated = keys.getKeyList();
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).setCreatedAt(now);
+                if (i < generated.size()) {
+                    chunk.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+                }
+            }
+            batches.increment();
+        }
+        rowsWritten.add(rows.size());
+    }
+}
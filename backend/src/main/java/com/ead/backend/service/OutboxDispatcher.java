@@ -0,0 +1,262 @@
+package com.ead.backend.service;
+
+import com.ead.backend.entity.OutboxEvent;
+import com.ead.backend.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the transactional outbox to {@link EmailService} and {@link NotificationService}.
+ * <p>
+ * Due events are claimed in a short transaction (FOR UPDATE SKIP LOCKED + lease), delivered
+ * without holding a database connection, and then marked dispatched or rescheduled with
+ * exponential backoff. Events that keep failing are parked as FAILED after the max attempts.
+ */
+@Service
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EmailService emailService;
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    // Single delivery thread: the mail relay is slow, but ordering and a bounded footprint matter more
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "outbox-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    @Value("${app.outbox.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${app.outbox.initial-backoff-ms:10000}")
+    private long initialBackoffMs = 10000;
+
+    @Value("${app.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs = 3600000;
+
+    @Value("${app.outbox.lease-ms:300000}")
+    private long leaseMs = 300000;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays = 7;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            EmailService emailService,
+                            NotificationService notificationService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.emailService = emailService;
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Schedule a drain on the dispatcher thread. Calls made while a drain is already queued are coalesced.
+     */
+    public void wakeUp() {
+        if (!wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                wakeUpPending.set(false);
+                drain();
+            });
+        } catch (RejectedExecutionException e) {
+            wakeUpPending.set(false);
+        }
+    }
+
+    // Safety net for events whose wake-up was missed (restart, retries that became due)
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:2000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /**
+     * Deliver due events batch by batch until the outbox has nothing left that is due.
+     *
+     * @return number of events delivered successfully
+     */
+    public int drain() {
+        int delivered = 0;
+        while (true) {
+            List<OutboxEvent> batch;
+            try {
+                batch = claimBatch();
+            } catch (Exception e) {
+                log.error("Failed to claim outbox events: {}", e.getMessage());
+                return delivered;
+            }
+            if (batch.isEmpty()) {
+                return delivered;
+            }
+
+            List<Long> dispatchedIds = new ArrayList<>();
+            List<OutboxEvent> failed = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            for (OutboxEvent event : batch) {
+                try {
+                    dispatch(event);
+                    dispatchedIds.add(event.getId());
+                } catch (Exception e) {
+                    failed.add(event);
+                    errors.add(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                }
+            }
+
+            recordResults(dispatchedIds, failed, errors);
+            delivered += dispatchedIds.size();
+
+            if (batch.size() < batchSize) {
+                return delivered;
+            }
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeDispatched() {
+        Integer purged = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteDispatchedBefore(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("Purged {} dispatched outbox events", purged);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.lockDueEvents(now, batchSize);
+            if (!due.isEmpty()) {
+                outboxEventRepository.markProcessing(
+                        due.stream().map(OutboxEvent::getId).toList(),
+                        now.plusNanos(leaseMs * 1_000_000));
+            }
+            return due;
+        });
+    }
+
+    private void recordResults(List<Long> dispatchedIds, List<OutboxEvent> failed, List<String> errors) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                if (!dispatchedIds.isEmpty()) {
+                    outboxEventRepository.markDispatched(dispatchedIds, now);
+                }
+                for (int i = 0; i < failed.size(); i++) {
+                    OutboxEvent event = failed.get(i);
+                    int attempts = event.getAttempts() + 1;
+                    boolean giveUp = attempts >= maxAttempts;
+                    String error = errors.get(i);
+
+                    outboxEventRepository.markAttemptFailed(
+                            event.getId(),
+                            giveUp ? OutboxEvent.STATUS_FAILED : OutboxEvent.STATUS_PENDING,
+                            attempts,
+                            now.plusNanos(backoffMillis(attempts) * 1_000_000),
+                            error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error
+                    );
+
+                    if (giveUp) {
+                        log.error("Outbox event {} ({}) failed permanently after {} attempts: {}",
+                                event.getId(), event.getEventType(), attempts, error);
+                    } else {
+                        log.warn("Outbox event {} ({}) failed (attempt {}), retrying: {}",
+                                event.getId(), event.getEventType(), attempts, error);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            // Leases expire, so the batch is retried later; delivery is at-least-once
+            log.error("Failed to record outbox delivery results: {}", e.getMessage());
+        }
+    }
+
+    long backoffMillis(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(maxBackoffMs, initialBackoffMs << exponent);
+    }
+
+    private void dispatch(OutboxEvent event) throws Exception {
+        Map<String, Object> payload = objectMapper.readValue(event.getPayload(), new TypeReference<>() {});
+
+        switch (event.getEventType()) {
+            case OutboxService.NOTIFICATION -> notificationService.deliverNotification(
+                    UUID.fromString(text(payload, "userId")),
+                    text(payload, "type"),
+                    text(payload, "message"),
+                    payload.get("data"));
+            case OutboxService.APPOINTMENT_CONFIRMATION_EMAIL -> emailService.sendAppointmentConfirmationEmail(
+                    text(payload, "toEmail"),
+                    text(payload, "userName"),
+                    text(payload, "bookingId"),
+                    text(payload, "appointmentDate"),
+                    text(payload, "appointmentTime"),
+                    text(payload, "serviceName"),
+                    text(payload, "vehicleInfo"),
+                    text(payload, "serviceCenterName"));
+            case OutboxService.EMPLOYEE_ASSIGNMENT_EMAIL -> emailService.sendEmployeeAssignmentEmail(
+                    text(payload, "toEmail"),
+                    text(payload, "employeeName"),
+                    text(payload, "bookingId"),
+                    text(payload, "appointmentDate"),
+                    text(payload, "appointmentTime"),
+                    text(payload, "serviceName"),
+                    text(payload, "vehicleInfo"),
+                    text(payload, "customerName"));
+            case OutboxService.APPOINTMENT_STARTED_EMAIL -> emailService.sendAppointmentStartedEmail(
+                    text(payload, "toEmail"),
+                    text(payload, "customerName"),
+                    text(payload, "bookingId"),
+                    text(payload, "serviceName"),
+                    text(payload, "vehicleInfo"),
+                    text(payload, "technicianName"));
+            case OutboxService.APPOINTMENT_COMPLETED_EMAIL -> emailService.sendAppointmentCompletedEmail(
+                    text(payload, "toEmail"),
+                    text(payload, "customerName"),
+                    text(payload, "bookingId"),
+                    text(payload, "serviceName"),
+                    text(payload, "vehicleInfo"),
+                    text(payload, "startTime"),
+                    text(payload, "endTime"));
+            default -> throw new IllegalStateException("Unknown outbox event type: " + event.getEventType());
+        }
+    }
+
+    private static String text(Map<String, Object> payload, String key) {
+        Object value = payload.get(key);
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ead.backend.service;
+
+import com.ead.backend.entity.OutboxEvent;
+import com.ead.backend.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes emails and notifications to the transactional outbox.
+ * <p>
+ * Events are inserted in the caller's transaction, so they are only delivered if the
+ * appointment change commits. Delivery happens later on the {@link OutboxDispatcher}
+ * thread, which is woken up right after the commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    public static final String NOTIFICATION = "NOTIFICATION";
+    public static final String APPOINTMENT_CONFIRMATION_EMAIL = "APPOINTMENT_CONFIRMATION_EMAIL";
+    public static final String EMPLOYEE_ASSIGNMENT_EMAIL = "EMPLOYEE_ASSIGNMENT_EMAIL";
+    public static final String APPOINTMENT_STARTED_EMAIL = "APPOINTMENT_STARTED_EMAIL";
+    public static final String APPOINTMENT_COMPLETED_EMAIL = "APPOINTMENT_COMPLETED_EMAIL";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public void enqueueNotification(UUID userId, String type, String message, Object data) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("userId", userId.toString());
+        payload.put("type", type);
+        payload.put("message", message);
+        payload.put("data", data);
+        enqueue(NOTIFICATION, payload);
+    }
+
+    @Transactional
+    public void enqueueAppointmentConfirmationEmail(String toEmail, String userName, String bookingId,
+            String appointmentDate, String appointmentTime, String serviceName, String vehicleInfo,
+            String serviceCenterName) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("toEmail", toEmail);
+        payload.put("userName", userName);
+        payload.put("bookingId", bookingId);
+        payload.put("appointmentDate", appointmentDate);
+        payload.put("appointmentTime", appointmentTime);
+        payload.put("serviceName", serviceName);
+        payload.put("vehicleInfo", vehicleInfo);
+        payload.put("serviceCenterName", serviceCenterName);
+        enqueue(APPOINTMENT_CONFIRMATION_EMAIL, payload);
+    }
+
+    @Transactional
+    public void enqueueEmployeeAssignmentEmail(String toEmail, String employeeName, String bookingId,
+            String appointmentDate, String appointmentTime, String serviceName, String vehicleInfo,
+            String customerName) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("toEmail", toEmail);
+        payload.put("employeeName", employeeName);
+        payload.put("bookingId", bookingId);
+        payload.put("appointmentDate", appointmentDate);
+        payload.put("appointmentTime", appointmentTime);
+        payload.put("serviceName", serviceName);
+        payload.put("vehicleInfo", vehicleInfo);
+        payload.put("customerName", customerName);
+        enqueue(EMPLOYEE_ASSIGNMENT_EMAIL, payload);
+    }
+
+    @Transactional
+    public void enqueueAppointmentStartedEmail(String toEmail, String customerName, String bookingId,
+            String serviceName, String vehicleInfo, String technicianName) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("toEmail", toEmail);
+        payload.put("customerName", customerName);
+        payload.put("bookingId", bookingId);
+        payload.put("serviceName", serviceName);
+        payload.put("vehicleInfo", vehicleInfo);
+        payload.put("technicianName", technicianName);
+        enqueue(APPOINTMENT_STARTED_EMAIL, payload);
+    }
+
+    @Transactional
+    public void enqueueAppointmentCompletedEmail(String toEmail, String customerName, String bookingId,
+            String serviceName, String vehicleInfo, String startTime, String endTime) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("toEmail", toEmail);
+        payload.put("customerName", customerName);
+        payload.put("bookingId", bookingId);
+        payload.put("serviceName", serviceName);
+        payload.put("vehicleInfo", vehicleInfo);
+        payload.put("startTime", startTime);
+        payload.put("endTime", endTime);
+        enqueue(APPOINTMENT_COMPLETED_EMAIL, payload);
+    }
+
+    private void enqueue(String eventType, Map<String, Object> payload) {
+        String payloadJson;
+        try {
+            payloadJson = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + eventType + " outbox event", e);
+        }
+        outboxEventRepository.save(new OutboxEvent(eventType, payloadJson));
+
+        // Deliver as soon as the surrounding transaction has committed instead of waiting for the next poll
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxDispatcher.wakeUp();
+                }
+            });
+        } else {
+            outboxDispatcher.wakeUp();
+        }
+    }
+}
@@ -36,13 +36,14 @@ public class ShiftScheduleService {
     private final UserRepository userRepository;
     private final EmployeeCenterRepository employeeCenterRepository;
     private final NotificationService notificationService;
-    private final EmailService emailService;
+    private final OutboxService outboxService;
     private final EmployeeCenterRepository empCenterRepository;
+    private final AnalyticsRollupService analyticsRollupService;
 
 
     public List<ShiftScheduleAppointmentsDTO> getPendingAppointments() {
 
-        List<Appointment> pendingAppointment = appointmentRepository.findByStatus("PENDING");
+        List<Appointment> pendingAppointment = appointmentRepository.findDetailedByStatus("PENDING");
 
         return pendingAppointment.stream().map(ShiftScheduleMapper::toDTO).toList();
     }
@@ -53,7 +54,7 @@ public class ShiftScheduleService {
         UUID employeeId = employee.getId();
         Optional<EmployeeCenter> employeeCenter = employeeCenterRepository.findByEmployeeId(employeeId);
         ServiceCenter serviceCenter = employeeCenter.map(EmployeeCenter::getServiceCenter).orElse(null);
-        List<Appointment> pendingAppointments = appointmentRepository.findByStatusAndServiceCenter("PENDING", serviceCenter);
+        List<Appointment> pendingAppointments = appointmentRepository.findDetailedByStatusAndServiceCenter("PENDING", serviceCenter);
         return pendingAppointments.stream()
                 .filter(apt -> canEmployeeTakeAppointment(employeeId, apt))
                 .map(ShiftScheduleMapper::toDTO)
@@ -157,6 +158,7 @@ public class ShiftScheduleService {
         shift.setAssignedBy(ShiftAssignmentType.BY_SELF);
 
         shiftSchedulesRepository.save(shift);
+        AnalyticsRollupService.Snapshot before = analyticsRollupService.snapshot(appointment);
         appointment.setStatus("CONFIRMED");
 
         boolean alreadyAssigned = appointment.getAssignedEmployees().stream().anyMatch(u -> u.getId().equals(employee.getId()));
@@ -164,6 +166,7 @@ public class ShiftScheduleService {
             appointment.getAssignedEmployees().add(employee);
         }
         appointmentRepository.save(appointment);
+        analyticsRollupService.recordChange(before, appointment);
 
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
@@ -202,7 +205,7 @@ public class ShiftScheduleService {
                 }}
         );
 
-        emailService.sendEmployeeAssignmentEmail(
+        outboxService.enqueueEmployeeAssignmentEmail(
                 employee.getEmail(),
                 employee.getFullName(),
                 bookingId,
@@ -0,0 +1,129 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.AvailabilityCalendarDTO;
+import com.ead.backend.dto.AvailabilityDayDTO;
+import com.ead.backend.entity.ServiceCenter;
+import com.ead.backend.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Availability engine for service center time slots.
+ * Answers "how many slots are booked / free per hour" for a center and day with a single
+ * grouped query instead of one count query per business hour.
+ */
+@Service
+@RequiredArgsConstructor
+public class SlotAvailabilityService {
+
+    private static final List<Integer> WEEKDAY_HOURS = List.of(8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19);
+    private static final List<Integer> WEEKEND_HOURS = List.of(9, 10, 11, 12, 13, 14, 15, 16);
+
+    // Same booking horizon as AppointmentService.createAppointment
+    public static final int MAX_CALENDAR_DAYS = 30;
+
+    private final AppointmentRepository appointmentRepository;
+
+    /**
+     * Business hours (start hour of each slot) for the given date.
+     * Weekdays are 8 AM - 7 PM, Saturday and Sunday are 9 AM - 4 PM.
+     */
+    public static List<Integer> getBusinessHours(LocalDate date) {
+        int dayOfWeek = date.getDayOfWeek().getValue(); // 1=Monday, 7=Sunday
+        return (dayOfWeek == 6 || dayOfWeek == 7) ? WEEKEND_HOURS : WEEKDAY_HOURS;
+    }
+
+    /**
+     * Booked (non-cancelled) appointments per hour of the day, indexed by hour (0-23).
+     */
+    @Transactional(readOnly = true)
+    public int[] getBookedSlotsPerHour(UUID serviceCenterId, LocalDate date) {
+        List<Object[]> usage = appointmentRepository.getSlotUsageByDateRange(
+                serviceCenterId,
+                date.atStartOfDay(),
+                date.atTime(23, 59, 59)
+        );
+
+        int[] bookedPerHour = new int[24];
+        for (Object[] row : usage) {
+            LocalDateTime slot = (LocalDateTime) row[0];
+            bookedPerHour[slot.getHour()] += ((Number) row[1]).intValue();
+        }
+        return bookedPerHour;
+    }
+
+    /**
+     * Remaining slots per business hour for the given center and date.
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Integer> getAvailableSlotsByHour(UUID serviceCenterId, int centerSlot, LocalDate date) {
+        int[] bookedPerHour = getBookedSlotsPerHour(serviceCenterId, date);
+
+        Map<Integer, Integer> availableSlots = new LinkedHashMap<>();
+        for (Integer hour : getBusinessHours(date)) {
+            availableSlots.put(hour, Math.max(0, centerSlot - bookedPerHour[hour]));
+        }
+        return availableSlots;
+    }
+
+    /**
+     * Remaining slots per business hour for several centers over consecutive days, loaded with
+     * one grouped range query. Hours that start within the next hour are reported as 0, like
+     * {@link AppointmentService#getAvailableTimeSlots}.
+     */
+    @Transactional(readOnly = true)
+    public List<AvailabilityCalendarDTO> getAvailabilityCalendar(List<ServiceCenter> serviceCenters,
+                                                                LocalDate startDate, int days) {
+        LocalDate endDate = startDate.plusDays(days - 1L);
+        List<UUID> serviceCenterIds = serviceCenters.stream().map(ServiceCenter::getId).toList();
+
+        List<Object[]> usage = appointmentRepository.getSlotUsageByCentersAndDateRange(
+                serviceCenterIds,
+                startDate.atStartOfDay(),
+                endDate.atTime(23, 59, 59)
+        );
+
+        // centerId -> [day offset][hour] booked count
+        Map<UUID, int[][]> bookedByCenter = new HashMap<>();
+        for (Object[] row : usage) {
+            LocalDateTime slot = (LocalDateTime) row[1];
+            int dayOffset = (int) (slot.toLocalDate().toEpochDay() - startDate.toEpochDay());
+            bookedByCenter.computeIfAbsent((UUID) row[0], id -> new int[days][24])
+                    [dayOffset][slot.getHour()] += ((Number) row[2]).intValue();
+        }
+
+        LocalDateTime bookableFrom = LocalDateTime.now().plusHours(1);
+        List<AvailabilityCalendarDTO> calendars = new ArrayList<>(serviceCenters.size());
+        for (ServiceCenter center : serviceCenters) {
+            int[][] booked = bookedByCenter.getOrDefault(center.getId(), new int[days][24]);
+            List<AvailabilityDayDTO> calendarDays = new ArrayList<>(days);
+
+            for (int d = 0; d < days; d++) {
+                LocalDate date = startDate.plusDays(d);
+                List<Integer> hours = getBusinessHours(date);
+                int[] remaining = new int[hours.size()];
+                for (int i = 0; i < remaining.length; i++) {
+                    int hour = hours.get(i);
+                    if (!date.atTime(hour, 0).isBefore(bookableFrom)) {
+                        remaining[i] = Math.max(0, center.getCenterSlot() - booked[d][hour]);
+                    }
+                }
+                calendarDays.add(new AvailabilityDayDTO(date, hours.get(0), remaining));
+            }
+
+            calendars.add(new AvailabilityCalendarDTO(
+                    center.getId(), center.getName(), center.getCenterSlot(), calendarDays));
+        }
+        return calendars;
+    }
+}
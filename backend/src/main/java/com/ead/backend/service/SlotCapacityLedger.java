@@ -0,0 +1,214 @@
+package com.ead.backend.service;
+
+import com.ead.backend.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory ledger of booked capacity per (service center, hour).
+ * <p>
+ * Bookings reserve a slot under the slot's lock before the appointment row is inserted, so two
+ * concurrent customers can never both take the last slot of an hour. Slots are hydrated
+ * lazily from the database, warmed for the booking horizon at startup and reconciled
+ * against the database on a fixed delay.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotCapacityLedger {
+
+    // One day past the booking horizon, so the whole last bookable day is covered
+    private static final int RECONCILE_HORIZON_DAYS = AppointmentService.BOOKING_HORIZON_DAYS + 1;
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final Map<SlotKey, Slot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * Atomically reserve one unit of capacity for the given center and hour.
+     * When called inside a transaction the reservation is released automatically on rollback.
+     *
+     * @return true if capacity was available and has been reserved
+     */
+    public boolean tryReserve(UUID serviceCenterId, LocalDateTime slotTime, int capacity) {
+        SlotKey key = SlotKey.of(serviceCenterId, slotTime);
+        Slot slot = slotFor(key);
+
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (!slot.tryReserve(capacity, inTransaction)) {
+            return false;
+        }
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    slot.complete(status == STATUS_COMMITTED);
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Release one unit of capacity (e.g. when an appointment is cancelled).
+     * Inside a transaction the release only happens once the transaction commits.
+     */
+    public void release(UUID serviceCenterId, LocalDateTime slotTime) {
+        SlotKey key = SlotKey.of(serviceCenterId, slotTime);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseNow(key);
+                }
+            });
+        } else {
+            releaseNow(key);
+        }
+    }
+
+    /**
+     * Number of non-cancelled appointments currently held for the given center and hour.
+     */
+    public int getBooked(UUID serviceCenterId, LocalDateTime slotTime) {
+        return slotFor(SlotKey.of(serviceCenterId, slotTime)).booked();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            int loaded = reconcile();
+            log.info("Slot capacity ledger warmed with {} booked slots", loaded);
+        } catch (Exception e) {
+            log.error("Failed to warm slot capacity ledger: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-sync booked counts for the booking horizon with the database and evict past hours.
+     * Reservations of transactions that have not completed yet are kept on top of the database count.
+     * A slot that committed, rolled back or released anything while the database was read is left
+     * alone until the next run: the count read may or may not include that change.
+     */
+    @Scheduled(fixedDelayString = "${app.booking.ledger.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.booking.ledger.reconcile-interval-ms:300000}")
+    public int reconcile() {
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = from.plusDays(RECONCILE_HORIZON_DAYS);
+
+        Map<SlotKey, Long> versions = new HashMap<>();
+        slots.forEach((key, slot) -> versions.put(key, slot.version()));
+
+        Map<SlotKey, Integer> dbCounts = new HashMap<>();
+        List<Object[]> rows = appointmentRepository.getSlotUsageForAllCenters(from, to);
+        for (Object[] row : rows) {
+            SlotKey key = SlotKey.of((UUID) row[0], (LocalDateTime) row[1]);
+            dbCounts.merge(key, ((Number) row[2]).intValue(), Integer::sum);
+        }
+
+        slots.keySet().removeIf(key -> key.slotTime().isBefore(from));
+        slots.forEach((key, slot) -> {
+            Long version = versions.get(key);
+            if (version != null && !key.slotTime().isAfter(to)) {
+                slot.reconcile(dbCounts.getOrDefault(key, 0), version);
+            }
+        });
+        dbCounts.forEach((key, count) -> slots.computeIfAbsent(key, k -> new Slot(count)));
+
+        log.debug("Slot capacity ledger reconciled: {} slots tracked", slots.size());
+        return dbCounts.size();
+    }
+
+    private Slot slotFor(SlotKey key) {
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            return slot;
+        }
+        // Hydrate from the database on first access; a concurrent hydration simply loses the race
+        Long booked = appointmentRepository.countByServiceCenterIdAndAppointmentDateAndStatusNot(
+                key.serviceCenterId(), key.slotTime(), "CANCELLED");
+        return slots.computeIfAbsent(key, k -> new Slot(booked != null ? booked.intValue() : 0));
+    }
+
+    private void releaseNow(SlotKey key) {
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            slot.release();
+        }
+    }
+
+    private record SlotKey(UUID serviceCenterId, LocalDateTime slotTime) {
+        static SlotKey of(UUID serviceCenterId, LocalDateTime slotTime) {
+            return new SlotKey(serviceCenterId, slotTime.truncatedTo(ChronoUnit.HOURS));
+        }
+    }
+
+    // Guarded by its own lock: one hour of one center is only ever contended by bookings for that hour
+    private static final class Slot {
+        private int booked;
+        // Reservations of transactions that have not completed yet
+        private int inFlight;
+        // Bumped by every change the database sees (commit, rollback, release)
+        private long version;
+
+        private Slot(int booked) {
+            this.booked = booked;
+        }
+
+        private synchronized int booked() {
+            return booked;
+        }
+
+        private synchronized long version() {
+            return version;
+        }
+
+        private synchronized boolean tryReserve(int capacity, boolean inTransaction) {
+            if (booked >= capacity) {
+                return false;
+            }
+            booked++;
+            if (inTransaction) {
+                inFlight++;
+            }
+            return true;
+        }
+
+        private synchronized void complete(boolean committed) {
+            inFlight--;
+            if (!committed) {
+                decrement();
+            }
+            version++;
+        }
+
+        private synchronized void release() {
+            decrement();
+            version++;
+        }
+
+        private synchronized void reconcile(int dbCount, long expectedVersion) {
+            if (version == expectedVersion) {
+                booked = dbCount + inFlight;
+            }
+        }
+
+        private void decrement() {
+            booked = booked > 0 ? booked - 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.SlotUtilizationCellDTO;
+import com.ead.backend.dto.SlotUtilizationDTO;
+import com.ead.backend.entity.ServiceCenter;
+import com.ead.backend.enums.UtilizationWindow;
+import com.ead.backend.repository.AppointmentRepository;
+import com.ead.backend.repository.ServiceCenterRepository;
+import com.ead.backend.util.AnalyticsHelper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Precomputed slot utilization heatmaps (booked vs {@code centerSlot} per center, weekday and hour)
+ * for capacity planning.
+ * <p>
+ * Booked counts per (center, day, hour) are kept in memory for the longest history window plus the
+ * booking horizon. A scheduled job re-reads only the days that can still change (yesterday onwards)
+ * and shifts the buffer when the day rolls over; a nightly rebuild re-reads everything. After each
+ * refresh the heatmaps of every window are recomputed and published, so requests never hit the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotUtilizationService {
+
+    private static final int HOURS_PER_DAY = 24;
+    private static final int HISTORY_DAYS = 91;
+    private static final int FUTURE_DAYS = SlotAvailabilityService.MAX_CALENDAR_DAYS;
+    private static final int RETAINED_DAYS = HISTORY_DAYS + 1 + FUTURE_DAYS;
+
+    // Past days re-read on every refresh, for late status changes (e.g. no-shows cancelled the next day)
+    private static final int MUTABLE_PAST_DAYS = 1;
+
+    private final AppointmentRepository appointmentRepository;
+    private final ServiceCenterRepository serviceCenterRepository;
+
+    // Guarded by this: booked count per center at [(day - firstDay) * 24 + hour]
+    private final Map<UUID, int[]> bookedByCenter = new HashMap<>();
+    private LocalDate firstDay;
+    private LocalDate lastRefreshDay;
+
+    // Published after every refresh; readers never lock
+    private volatile Map<UtilizationWindow, List<SlotUtilizationDTO>> heatmaps = Map.of();
+
+    /**
+     * Heatmaps of all active centers (or only {@code serviceCenterId}) for {@code window}.
+     */
+    public List<SlotUtilizationDTO> getHeatmaps(UtilizationWindow window, UUID serviceCenterId) {
+        Map<UtilizationWindow, List<SlotUtilizationDTO>> current = heatmaps;
+        if (current.isEmpty()) {
+            // Not warmed yet (startup failure or first request racing the warm-up)
+            refresh();
+            current = heatmaps;
+        }
+        List<SlotUtilizationDTO> centers = current.getOrDefault(window, List.of());
+        if (serviceCenterId == null) {
+            return centers;
+        }
+        return centers.stream()
+                .filter(heatmap -> heatmap.getServiceCenterId().equals(serviceCenterId))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Failed to warm slot utilization heatmaps: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-read the days that can still change and republish the heatmaps.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.utilization.refresh-interval-ms:900000}",
+            initialDelayString = "${app.analytics.utilization.refresh-interval-ms:900000}")
+    public synchronized void refresh() {
+        LocalDate today = LocalDate.now();
+        if (firstDay == null) {
+            rebuild();
+            return;
+        }
+        shiftTo(today.minusDays(HISTORY_DAYS));
+        // Also covers the days that became past since the last refresh if it was more than a day ago
+        LocalDate reloadFrom = lastRefreshDay.minusDays(MUTABLE_PAST_DAYS);
+        load(reloadFrom.isBefore(firstDay) ? firstDay : reloadFrom, lastDay());
+        publish(today);
+    }
+
+    /**
+     * Re-read the whole retained range and republish the heatmaps.
+     */
+    @Scheduled(cron = "${app.analytics.utilization.rebuild-cron:0 45 4 * * *}")
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        bookedByCenter.clear();
+        firstDay = today.minusDays(HISTORY_DAYS);
+        load(firstDay, lastDay());
+        publish(today);
+        log.info("Rebuilt slot utilization heatmaps for {} centers in {} ms",
+                bookedByCenter.size(), System.currentTimeMillis() - started);
+    }
+
+    private LocalDate lastDay() {
+        return firstDay.plusDays(RETAINED_DAYS - 1L);
+    }
+
+    // Drop days that left the history window; new days start empty and are filled by the next load
+    private void shiftTo(LocalDate newFirstDay) {
+        int days = (int) (newFirstDay.toEpochDay() - firstDay.toEpochDay());
+        if (days <= 0) {
+            return;
+        }
+        int cells = Math.min(days, RETAINED_DAYS) * HOURS_PER_DAY;
+        for (int[] booked : bookedByCenter.values()) {
+            System.arraycopy(booked, cells, booked, 0, booked.length - cells);
+            Arrays.fill(booked, booked.length - cells, booked.length, 0);
+        }
+        firstDay = newFirstDay;
+    }
+
+    // Replace the booked counts of [from, to] with the database counts
+    private void load(LocalDate from, LocalDate to) {
+        int fromCell = (int) (from.toEpochDay() - firstDay.toEpochDay()) * HOURS_PER_DAY;
+        int toCell = (int) (to.toEpochDay() - firstDay.toEpochDay() + 1) * HOURS_PER_DAY;
+        for (int[] booked : bookedByCenter.values()) {
+            Arrays.fill(booked, fromCell, toCell, 0);
+        }
+
+        List<Object[]> usage = appointmentRepository.getSlotUsageForAllCenters(from.atStartOfDay(), to.atTime(23, 59, 59));
+        for (Object[] row : usage) {
+            LocalDateTime slot = (LocalDateTime) row[1];
+            int cell = (int) (slot.toLocalDate().toEpochDay() - firstDay.toEpochDay()) * HOURS_PER_DAY + slot.getHour();
+            if (cell >= fromCell && cell < toCell) {
+                bookedByCenter.computeIfAbsent((UUID) row[0], id -> new int[RETAINED_DAYS * HOURS_PER_DAY])[cell]
+                        += ((Number) row[2]).intValue();
+            }
+        }
+    }
+
+    private void publish(LocalDate today) {
+        List<ServiceCenter> centers = serviceCenterRepository.findByIsActiveTrue();
+        LocalDateTime computedAt = LocalDateTime.now();
+
+        Map<UtilizationWindow, List<SlotUtilizationDTO>> published = new EnumMap<>(UtilizationWindow.class);
+        for (UtilizationWindow window : UtilizationWindow.values()) {
+            List<SlotUtilizationDTO> windowHeatmaps = new ArrayList<>();
+            for (ServiceCenter center : centers) {
+                windowHeatmaps.add(heatmap(center, window.startDay(today), window.endDay(today), computedAt));
+            }
+            published.put(window, List.copyOf(windowHeatmaps));
+        }
+        heatmaps = published;
+        lastRefreshDay = today;
+    }
+
+    private SlotUtilizationDTO heatmap(ServiceCenter center, LocalDate start, LocalDate end, LocalDateTime computedAt) {
+        int centerSlot = center.getCenterSlot() != null ? center.getCenterSlot() : 0;
+        int[] booked = bookedByCenter.get(center.getId());
+
+        // [weekday (0 = Monday) * 24 + hour]
+        long[] bookedCells = new long[7 * HOURS_PER_DAY];
+        long[] capacityCells = new long[7 * HOURS_PER_DAY];
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            int weekday = day.getDayOfWeek().getValue() - 1;
+            int dayCell = (int) (day.toEpochDay() - firstDay.toEpochDay()) * HOURS_PER_DAY;
+            for (Integer hour : SlotAvailabilityService.getBusinessHours(day)) {
+                capacityCells[weekday * HOURS_PER_DAY + hour] += centerSlot;
+                if (booked != null) {
+                    bookedCells[weekday * HOURS_PER_DAY + hour] += booked[dayCell + hour];
+                }
+            }
+        }
+
+        List<SlotUtilizationCellDTO> cells = new ArrayList<>();
+        long totalBooked = 0;
+        long totalCapacity = 0;
+        for (int cell = 0; cell < capacityCells.length; cell++) {
+            if (capacityCells[cell] == 0) {
+                continue;
+            }
+            totalBooked += bookedCells[cell];
+            totalCapacity += capacityCells[cell];
+            cells.add(new SlotUtilizationCellDTO(
+                    DayOfWeek.of(cell / HOURS_PER_DAY + 1),
+                    cell % HOURS_PER_DAY,
+                    bookedCells[cell],
+                    capacityCells[cell],
+                    AnalyticsHelper.calculatePercentage(bookedCells[cell], capacityCells[cell])));
+        }
+
+        return new SlotUtilizationDTO(
+                center.getId(),
+                center.getName(),
+                centerSlot,
+                start,
+                end,
+                totalBooked,
+                totalCapacity,
+                AnalyticsHelper.calculatePercentage(totalBooked, totalCapacity),
+                cells,
+                computedAt);
+    }
+}
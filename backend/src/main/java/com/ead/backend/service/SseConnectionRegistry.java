@@ -0,0 +1,412 @@
+package com.ead.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live SSE notification connections, any number per user (tabs, devices).
+ * <p>
+ * Every connection has a bounded outbound queue drained on a small dispatcher pool, so callers only
+ * enqueue and never wait on network I/O to browsers. A connection is a slow (or half-dead) consumer, and is
+ * disconnected rather than allowed to buffer without bound, when its queue fills up while one of its own writes
+ * is in progress or when a single write takes longer than the write timeout; the browser reconnects. A writer
+ * stuck on such a connection is replaced by an extra dispatcher thread until its write returns, so a few dead
+ * clients cannot starve the others, and connections merely waiting for a dispatcher thread get extra room in
+ * their queue. A global cap bounds open connections; a user over their own cap loses their oldest connection.
+ * Emitters time out, so connections abandoned without a clean close are released eventually.
+ */
+@Service
+@Slf4j
+public class SseConnectionRegistry {
+
+    @Value("${app.notifications.sse.max-connections:20000}")
+    private int maxConnections = 20_000;
+
+    @Value("${app.notifications.sse.max-connections-per-user:5}")
+    private int maxConnectionsPerUser = 5;
+
+    @Value("${app.notifications.sse.queue-capacity:64}")
+    private int queueCapacity = 64;
+
+    @Value("${app.notifications.sse.timeout-ms:1800000}")
+    private long timeoutMs = 1_800_000;
+
+    @Value("${app.notifications.sse.write-timeout-ms:10000}")
+    private long writeTimeoutMs = 10_000;
+
+    private final Map<UUID, Set<Connection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicLong connectionIds = new AtomicLong();
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder sentEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder failedSends = new LongAdder();
+    private final LongAdder slowConsumers = new LongAdder();
+    private final AtomicInteger stalledWriters = new AtomicInteger();
+
+    private static final int DISPATCH_THREADS = 8;
+    private static final int MAX_DISPATCH_THREADS = 64;
+    // Queue room, as a multiple of the capacity, for a connection that is only waiting for a dispatcher thread
+    private static final int BACKLOG_ALLOWANCE = 4;
+
+    // Platform threads, not virtual: SseEmitter writes under a monitor, which pins a virtual thread's carrier.
+    // A write blocked on a full TCP window holds one dispatcher thread until the container's write timeout.
+    // At most one drain per connection is ever queued, so the queue is bounded by the connection cap.
+    private final ThreadPoolExecutor dispatcher = newDispatcher();
+
+    // Completing an emitter waits for its write in progress, so it never runs on a dispatcher thread.
+    // Threads are only created for completions that block, and each is held at most as long as the stuck write.
+    private final ExecutorService completer = Executors.newCachedThreadPool(daemonThreads("sse-complete-"));
+
+    /**
+     * An event waiting in a connection queue. Kept as plain data because an {@link SseEmitter.SseEventBuilder}
+     * can only be built once, and the same event goes to every connection of a user. An {@code id} of 0 is
+     * sent without an SSE id.
+     */
+    public record OutboundEvent(long id, String name, Object data) {
+
+        public OutboundEvent(String name, Object data) {
+            this(0, name, data);
+        }
+    }
+
+    /**
+     * Connection and queue counters, for sizing nodes.
+     */
+    public record ConnectionStats(int connections, int users, long opened, long closed, long rejected,
+                                  long sentEvents, long droppedEvents, long failedSends, long slowConsumers,
+                                  long queuedEvents, int maxQueueDepth, int queueCapacity, int stalledWriters) {
+    }
+
+    /**
+     * Open a new connection for {@code userId}.
+     *
+     * @throws IllegalStateException if the node is at its connection cap
+     */
+    public SseEmitter open(UUID userId) {
+        return open(userId, List.of());
+    }
+
+    /**
+     * Open a new connection for {@code userId} whose queue starts with {@code backlog}, e.g. events replayed
+     * for a reconnecting browser. Only this connection receives the backlog.
+     *
+     * @throws IllegalStateException if the node is at its connection cap
+     */
+    public SseEmitter open(UUID userId, List<OutboundEvent> backlog) {
+        Connection connection = register(userId, new SseEmitter(timeoutMs));
+        boolean queued = false;
+        for (OutboundEvent event : backlog) {
+            queued = enqueue(connection, event);
+            if (!queued) {
+                break;
+            }
+        }
+        if (queued) {
+            scheduleDrain(connection);
+        }
+        return connection.emitter;
+    }
+
+    /**
+     * Queue {@code event} on every connection of {@code userId}; writing happens on the dispatcher.
+     *
+     * @return number of connections the event was queued on
+     */
+    public int send(UUID userId, OutboundEvent event) {
+        Set<Connection> connections = connectionsByUser.get(userId);
+        if (connections == null) {
+            return 0;
+        }
+        int queued = 0;
+        for (Connection connection : connections) {
+            if (enqueue(connection, event)) {
+                queued++;
+                scheduleDrain(connection);
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Users with at least one open connection.
+     */
+    public Set<UUID> connectedUsers() {
+        return Set.copyOf(connectionsByUser.keySet());
+    }
+
+    public int connectionCount(UUID userId) {
+        Set<Connection> connections = connectionsByUser.get(userId);
+        return connections == null ? 0 : connections.size();
+    }
+
+    public ConnectionStats stats() {
+        long queuedEvents = 0;
+        int maxQueueDepth = 0;
+        for (Set<Connection> connections : connectionsByUser.values()) {
+            for (Connection connection : connections) {
+                int depth = connection.queue.size();
+                queuedEvents += depth;
+                maxQueueDepth = Math.max(maxQueueDepth, depth);
+            }
+        }
+        return new ConnectionStats(connectionCount.get(), connectionsByUser.size(), opened.sum(), closed.sum(),
+                rejected.sum(), sentEvents.sum(), droppedEvents.sum(), failedSends.sum(), slowConsumers.sum(),
+                queuedEvents, maxQueueDepth, queueCapacity, stalledWriters.get());
+    }
+
+    /**
+     * Disconnect connections whose write in progress has exceeded the write timeout, and give the dispatcher an
+     * extra thread for each writer they hold until its write returns.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.sse.write-check-interval-ms:1000}")
+    public void checkWrites() {
+        long now = System.nanoTime();
+        long writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        for (Set<Connection> connections : connectionsByUser.values()) {
+            for (Connection connection : connections) {
+                if (connection.stall(now, writeTimeoutNanos)) {
+                    slowConsumers.increment();
+                    log.info("Disconnecting SSE consumer {} of user {}: a write has been blocked for over {} ms",
+                            connection.id, connection.userId, writeTimeoutMs);
+                    stalledWriters.incrementAndGet();
+                    resizeDispatcher();
+                    close(connection);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionsByUser.values().forEach(connections -> connections.forEach(this::close));
+        dispatcher.shutdown();
+        completer.shutdown();
+    }
+
+    Connection register(UUID userId, SseEmitter emitter) {
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            rejected.increment();
+            throw new IllegalStateException("Too many notification connections, try again later");
+        }
+
+        Connection connection = new Connection(connectionIds.incrementAndGet(), userId, emitter,
+                queueCapacity * BACKLOG_ALLOWANCE);
+        Set<Connection> connections = connectionsByUser.compute(userId, (id, existing) -> {
+            Set<Connection> set = existing != null ? existing : new CopyOnWriteArraySet<>();
+            set.add(connection);
+            return set;
+        });
+        opened.increment();
+
+        emitter.onCompletion(() -> close(connection));
+        emitter.onTimeout(() -> close(connection));
+        emitter.onError(e -> {
+            log.debug("SSE connection {} of user {} failed: {}", connection.id, userId, e.getMessage());
+            close(connection);
+        });
+
+        // Over the per-user cap: the oldest connection is most likely a tab the user forgot
+        if (connections.size() > maxConnectionsPerUser) {
+            connections.stream()
+                    .min(Comparator.comparingLong(existing -> existing.id))
+                    .filter(oldest -> oldest != connection)
+                    .ifPresent(this::close);
+        }
+        return connection;
+    }
+
+    private boolean enqueue(Connection connection, OutboundEvent event) {
+        if (connection.closed.get()) {
+            return false;
+        }
+        // A full queue only means a slow consumer while the connection is writing; otherwise it is waiting
+        // for a dispatcher thread and may use the backlog allowance
+        if (connection.queue.size() >= queueCapacity && connection.isWriting()) {
+            slowConsumers.increment();
+            droppedEvents.increment();
+            log.info("Disconnecting slow SSE consumer {} of user {} ({} events queued)",
+                    connection.id, connection.userId, connection.queue.size());
+            close(connection);
+            return false;
+        }
+        if (!connection.queue.offer(event)) {
+            droppedEvents.increment();
+            log.warn("Disconnecting SSE consumer {} of user {}: {} events queued waiting for a dispatcher thread",
+                    connection.id, connection.userId, connection.queue.size());
+            close(connection);
+            return false;
+        }
+        return true;
+    }
+
+    // At most one drain per connection is scheduled or running, so events are written in order
+    private void scheduleDrain(Connection connection) {
+        if (!connection.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> drain(connection));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            connection.draining.set(false);
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            OutboundEvent event;
+            while (!connection.closed.get() && (event = connection.queue.poll()) != null) {
+                SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                        .name(event.name())
+                        .data(event.data());
+                if (event.id() > 0) {
+                    builder.id(Long.toString(event.id()));
+                }
+                connection.writeStarted(System.nanoTime());
+                try {
+                    connection.emitter.send(builder);
+                } finally {
+                    if (connection.writeFinished()) {
+                        stalledWriters.decrementAndGet();
+                        resizeDispatcher();
+                    }
+                }
+                sentEvents.increment();
+            }
+        } catch (Exception e) {
+            failedSends.increment();
+            log.debug("Failed to send SSE to user {}: {}", connection.userId, e.getMessage());
+            close(connection);
+        } finally {
+            connection.draining.set(false);
+        }
+        // Picks up an event queued after the last poll but before the flag was cleared
+        if (!connection.closed.get() && !connection.queue.isEmpty()) {
+            scheduleDrain(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connectionsByUser.computeIfPresent(connection.userId, (id, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+        connectionCount.decrementAndGet();
+        closed.increment();
+        droppedEvents.add(connection.queue.size());
+        connection.queue.clear();
+        // Completing waits for a write in progress, which may be stuck on a dead client
+        try {
+            completer.execute(() -> {
+                try {
+                    connection.emitter.complete();
+                } catch (Exception e) {
+                    // Already completed or the response is gone
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    // One extra thread per stalled writer, so DISPATCH_THREADS keep serving healthy connections
+    private synchronized void resizeDispatcher() {
+        dispatcher.setCorePoolSize(Math.min(DISPATCH_THREADS + stalledWriters.get(), MAX_DISPATCH_THREADS));
+    }
+
+    private static ThreadPoolExecutor newDispatcher() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                DISPATCH_THREADS, MAX_DISPATCH_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                daemonThreads("sse-dispatch-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    static final class Connection {
+        private final long id;
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<OutboundEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Start of the write in progress, 0 when not writing; guarded by this connection
+        private long writeStartedNanos;
+        // The write in progress overran the write timeout and its thread was replaced; guarded by this connection
+        private boolean stalled;
+
+        private Connection(long id, UUID userId, SseEmitter emitter, int queueLimit) {
+            this.id = id;
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new LinkedBlockingQueue<>(queueLimit);
+        }
+
+        private synchronized boolean isWriting() {
+            return writeStartedNanos != 0;
+        }
+
+        private synchronized void writeStarted(long nanos) {
+            writeStartedNanos = nanos != 0 ? nanos : 1;
+        }
+
+        /**
+         * @return true if the write had been marked stalled, i.e. its thread is given back
+         */
+        private synchronized boolean writeFinished() {
+            writeStartedNanos = 0;
+            boolean wasStalled = stalled;
+            stalled = false;
+            return wasStalled;
+        }
+
+        /**
+         * Mark the write in progress stalled if it started over {@code timeoutNanos} before {@code now}.
+         *
+         * @return true if it was marked now
+         */
+        private synchronized boolean stall(long now, long timeoutNanos) {
+            if (writeStartedNanos == 0 || stalled || now - writeStartedNanos <= timeoutNanos) {
+                return false;
+            }
+            stalled = true;
+            return true;
+        }
+    }
+}
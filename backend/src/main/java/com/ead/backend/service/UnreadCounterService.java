@@ -0,0 +1,197 @@
+package com.ead.backend.service;
+
+import com.ead.backend.repository.ChatMessageRepository;
+import com.ead.backend.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Unread badge counts kept in memory: unread notifications per user and unread chat messages per
+ * (chat room, reader).
+ * <p>
+ * A count is read from the database the first time it is asked for and from then on maintained by the writes
+ * that change it (new notification or message, mark-read), applied after their transaction commits. Counts
+ * nobody asked for are not tracked; the database still has the truth when they are. Badges are polled much more
+ * often than anything changes, so polling no longer costs a COUNT query. A periodic reconciliation recounts the
+ * tracked counts (fixing drift from races with the first read or from other nodes) and drops counts nobody has
+ * polled since the previous run.
+ */
+@Service
+@Slf4j
+public class UnreadCounterService {
+
+    private final NotificationRepository notificationRepository;
+    private final ChatMessageRepository chatMessageRepository;
+
+    private final Map<UUID, Counter> notificationCounts = new ConcurrentHashMap<>();
+    // Chat room -> reader -> unread messages sent by someone else
+    private final Map<UUID, Map<UUID, Counter>> chatCounts = new ConcurrentHashMap<>();
+
+    public UnreadCounterService(NotificationRepository notificationRepository,
+                                ChatMessageRepository chatMessageRepository) {
+        this.notificationRepository = notificationRepository;
+        this.chatMessageRepository = chatMessageRepository;
+    }
+
+    public long unreadNotifications(UUID userId) {
+        Counter counter = notificationCounts.get(userId);
+        if (counter == null) {
+            counter = hydrate(notificationCounts, userId, countNotifications(userId));
+        }
+        return counter.read();
+    }
+
+    public int unreadMessages(UUID chatRoomId, UUID userId) {
+        Map<UUID, Counter> readers = chatCounts.computeIfAbsent(chatRoomId, id -> new ConcurrentHashMap<>());
+        Counter counter = readers.get(userId);
+        if (counter == null) {
+            counter = hydrate(readers, userId, countMessages(chatRoomId, userId));
+        }
+        return (int) counter.read();
+    }
+
+    public void notificationsAdded(UUID userId, int count) {
+        afterCommit(() -> adjust(notificationCounts.get(userId), count));
+    }
+
+    public void notificationsRead(UUID userId, int count) {
+        afterCommit(() -> adjust(notificationCounts.get(userId), -count));
+    }
+
+    /**
+     * Drop the count of {@code userId}, e.g. after deleting their notifications; the next read recounts it.
+     */
+    public void forgetNotifications(UUID userId) {
+        afterCommit(() -> notificationCounts.remove(userId));
+    }
+
+    /**
+     * A message by {@code senderId} is unread for every other reader of the room.
+     */
+    public void messageAdded(UUID chatRoomId, UUID senderId) {
+        afterCommit(() -> {
+            Map<UUID, Counter> readers = chatCounts.get(chatRoomId);
+            if (readers != null) {
+                readers.forEach((userId, counter) -> {
+                    if (!userId.equals(senderId)) {
+                        adjust(counter, 1);
+                    }
+                });
+            }
+        });
+    }
+
+    public void messagesRead(UUID chatRoomId, UUID userId, int count) {
+        afterCommit(() -> {
+            Map<UUID, Counter> readers = chatCounts.get(chatRoomId);
+            if (readers != null) {
+                adjust(readers.get(userId), -count);
+            }
+        });
+    }
+
+    /**
+     * Recount the counts polled since the previous run and forget the others.
+     */
+    @Scheduled(fixedDelayString = "${app.unread-counters.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.unread-counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        int corrected = 0;
+        int dropped = 0;
+        for (Map.Entry<UUID, Counter> entry : notificationCounts.entrySet()) {
+            Counter counter = entry.getValue();
+            if (!counter.readSinceReconcile) {
+                notificationCounts.remove(entry.getKey(), counter);
+                dropped++;
+            } else if (counter.correctTo(countNotifications(entry.getKey()))) {
+                corrected++;
+            }
+        }
+        for (Map.Entry<UUID, Map<UUID, Counter>> room : chatCounts.entrySet()) {
+            for (Map.Entry<UUID, Counter> entry : room.getValue().entrySet()) {
+                Counter counter = entry.getValue();
+                if (!counter.readSinceReconcile) {
+                    room.getValue().remove(entry.getKey(), counter);
+                    dropped++;
+                } else if (counter.correctTo(countMessages(room.getKey(), entry.getKey()))) {
+                    corrected++;
+                }
+            }
+            if (room.getValue().isEmpty()) {
+                chatCounts.remove(room.getKey(), room.getValue());
+            }
+        }
+        if (corrected > 0 || dropped > 0) {
+            log.info("Reconciled unread counters: {} corrected, {} idle dropped", corrected, dropped);
+        }
+    }
+
+    // The database read happens outside the map so it never blocks other keys
+    private static Counter hydrate(Map<UUID, Counter> counters, UUID key, long databaseCount) {
+        Counter hydrated = new Counter(databaseCount);
+        Counter existing = counters.putIfAbsent(key, hydrated);
+        return existing != null ? existing : hydrated;
+    }
+
+    private long countNotifications(UUID userId) {
+        Long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return count != null ? count : 0;
+    }
+
+    private long countMessages(UUID chatRoomId, UUID userId) {
+        Integer count = chatMessageRepository.countUnreadMessages(chatRoomId, userId);
+        return count != null ? count : 0;
+    }
+
+    // Counts nobody has read yet are not tracked: the first read gets them from the database
+    private static void adjust(Counter counter, long delta) {
+        if (counter != null && delta != 0) {
+            counter.value.add(delta);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Counter {
+        private final LongAdder value = new LongAdder();
+        private volatile boolean readSinceReconcile = true;
+
+        private Counter(long initial) {
+            value.add(initial);
+        }
+
+        private long read() {
+            readSinceReconcile = true;
+            return Math.max(0, value.sum());
+        }
+
+        private boolean correctTo(long actual) {
+            readSinceReconcile = false;
+            long drift = actual - value.sum();
+            if (drift == 0) {
+                return false;
+            }
+            value.add(drift);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.ead.backend.util;
+
+import java.util.UUID;
+
+/**
+ * HyperLogLog distinct-count sketch over UUIDs.
+ * <p>
+ * 2^{@value #PRECISION} registers each keep the highest leading-zero rank seen among the hashes routed
+ * to them, so a sketch takes constant space and estimates the number of distinct ids with a standard
+ * error of about 1.04 / sqrt(2^{@value #PRECISION}) (~2.3%). Sketches merge by taking the register-wise
+ * maximum, so per-day, per-center sketches (or their stored registers) combine into any range.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 11;
+    public static final int REGISTER_COUNT = 1 << PRECISION;
+
+    private final byte[] registers = new byte[REGISTER_COUNT];
+
+    /**
+     * Register that {@code id} is routed to.
+     */
+    public static int registerOf(UUID id) {
+        return (int) (hash(id) >>> (64 - PRECISION));
+    }
+
+    /**
+     * Rank (position of the first set bit, 1-based) of {@code id} in its register.
+     */
+    public static int rankOf(UUID id) {
+        // The guard bit bounds the rank when the remaining hash bits are all zero
+        long remaining = (hash(id) << PRECISION) | (1L << (PRECISION - 1));
+        return Long.numberOfLeadingZeros(remaining) + 1;
+    }
+
+    public void offer(UUID id) {
+        raise(registerOf(id), rankOf(id));
+    }
+
+    /**
+     * Raise {@code register} to {@code rank} if that is higher, e.g. when rebuilding from stored registers.
+     */
+    public void raise(int register, int rank) {
+        if (register < 0 || register >= REGISTER_COUNT) {
+            throw new IllegalArgumentException("Invalid sketch register: " + register);
+        }
+        if (rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            raise(i, other.registers[i]);
+        }
+    }
+
+    public long estimate() {
+        double sum = 0.0;
+        int emptyRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                emptyRegisters++;
+            }
+        }
+
+        double alpha = 0.7213 / (1.0 + 1.079 / REGISTER_COUNT);
+        double estimate = alpha * REGISTER_COUNT * REGISTER_COUNT / sum;
+
+        // Small cardinalities: linear counting on the empty registers is more accurate
+        if (estimate <= 2.5 * REGISTER_COUNT && emptyRegisters > 0) {
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / emptyRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    // 64-bit mix of both UUID halves (MurmurHash3 finalizer), so sequential ids spread evenly
+    private static long hash(UUID id) {
+        long h = id.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ id.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE53A87B5L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
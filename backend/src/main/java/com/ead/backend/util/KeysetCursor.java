@@ -0,0 +1,33 @@
+package com.ead.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset pagination cursor on (appointmentDate, id).
+ * Encoded as URL-safe Base64 so clients pass it back untouched.
+ */
+public record KeysetCursor(LocalDateTime appointmentDate, UUID id) {
+
+    // Lowest possible id, used together with a lower date bound for the first page
+    public static final UUID MIN_ID = new UUID(0L, 0L);
+
+    public String encode() {
+        String raw = appointmentDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ead.backend.util;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable log-linear histogram of non-negative durations (HDR-style).
+ * <p>
+ * Values below 2^{@value #SUB_BUCKET_BITS} are counted exactly; above that every power of two is split
+ * into 2^({@value #SUB_BUCKET_BITS} - 1) equal buckets, so any recorded value is reported within about
+ * 3% of its true value. Bucket indexes are stable, so histograms (or their stored bucket counts) from
+ * different days or dimensions merge by adding counts.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+
+    private long[] counts = new long[SUB_BUCKET_COUNT];
+    private long totalCount;
+
+    /**
+     * Bucket of {@code value}; negative values count as zero.
+     */
+    public static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) Math.max(value, 0);
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS + 1;
+        return shift * SUB_BUCKET_HALF + (int) (value >> shift);
+    }
+
+    /**
+     * Highest value that falls into {@code bucket}.
+     */
+    public static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket >> (SUB_BUCKET_BITS - 1)) - 1;
+        long subBucket = bucket - (long) shift * SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public void record(long value) {
+        add(bucketOf(value), 1);
+    }
+
+    /**
+     * Add {@code count} samples to {@code bucket}, e.g. when rebuilding from stored bucket counts.
+     */
+    public void add(int bucket, long count) {
+        if (bucket < 0) {
+            throw new IllegalArgumentException("Invalid histogram bucket: " + bucket);
+        }
+        if (bucket >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(bucket + 1, counts.length * 2));
+        }
+        counts[bucket] += count;
+        totalCount += count;
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int bucket = 0; bucket < other.counts.length; bucket++) {
+            if (other.counts[bucket] != 0) {
+                add(bucket, other.counts[bucket]);
+            }
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Smallest recorded value (bucket upper bound) at or below which {@code percentile}% of the samples fall.
+     *
+     * @return the value, or null if the histogram is empty
+     */
+    public Long valueAtPercentile(double percentile) {
+        if (totalCount <= 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return highestValueOf(bucket);
+            }
+        }
+        return highestValueOf(counts.length - 1);
+    }
+}
@@ -0,0 +1,29 @@
+-- =====================================================
+-- Flyway Migration: V19__Create_outbox_events_table.sql
+-- Description: Transactional outbox for appointment emails and notifications
+-- Author: EAD Team
+-- Date: 2026-10-17
+-- =====================================================
+
+-- Events are written in the same transaction as the appointment change and
+-- delivered afterwards by the background outbox dispatcher
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+-- The dispatcher polls for due events in id order
+CREATE INDEX idx_outbox_events_status_next_attempt ON outbox_events(status, next_attempt_at);
+
+COMMENT ON TABLE outbox_events IS 'Transactional outbox for emails and notifications triggered by appointment changes';
+COMMENT ON COLUMN outbox_events.event_type IS 'Kind of side effect (e.g. NOTIFICATION, APPOINTMENT_CONFIRMATION_EMAIL)';
+COMMENT ON COLUMN outbox_events.payload IS 'JSON arguments for the side effect';
+COMMENT ON COLUMN outbox_events.status IS 'PENDING, PROCESSING, DISPATCHED or FAILED';
+COMMENT ON COLUMN outbox_events.next_attempt_at IS 'Earliest time of the next delivery attempt (also the lease end while PROCESSING)';
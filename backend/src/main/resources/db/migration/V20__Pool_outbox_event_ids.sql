@@ -0,0 +1,11 @@
+-- =====================================================
+-- Flyway Migration: V20__Pool_outbox_event_ids.sql
+-- Description: Hand out outbox event ids in blocks of 50
+-- Author: EAD Team
+-- Date: 2026-10-17
+-- =====================================================
+
+-- OutboxEvent uses a pooled sequence generator (allocationSize = 50) so that
+-- bulk operations such as batch employee assignment insert their events in
+-- JDBC batches instead of one round trip per event
+ALTER SEQUENCE outbox_events_id_seq INCREMENT BY 50;
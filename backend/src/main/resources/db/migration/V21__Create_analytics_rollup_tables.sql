@@ -0,0 +1,39 @@
+-- =====================================================
+-- Flyway Migration: V21__Create_analytics_rollup_tables.sql
+-- Description: Daily appointment rollups read by the analytics reports
+-- Author: EAD Team
+-- Date: 2026-10-17
+-- =====================================================
+
+-- Appointments per day, service center, service/modification and status.
+-- Revenue is derived at query time as appointment_count * estimated_cost.
+CREATE TABLE IF NOT EXISTS appointment_daily_rollup (
+    appointment_day DATE NOT NULL,
+    service_center_id UUID NOT NULL,
+    service_or_modification_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    appointment_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (appointment_day, service_center_id, service_or_modification_id, status)
+);
+
+-- Assigned appointments per day, service center, employee and status
+CREATE TABLE IF NOT EXISTS employee_daily_rollup (
+    appointment_day DATE NOT NULL,
+    service_center_id UUID NOT NULL,
+    employee_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    appointment_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (appointment_day, service_center_id, employee_id, status)
+);
+
+-- Backfill from existing appointments
+INSERT INTO appointment_daily_rollup (appointment_day, service_center_id, service_or_modification_id, status, appointment_count)
+SELECT CAST(a.appointment_date AS DATE), a.service_center_id, a.service_or_modification_id, a.status, COUNT(*)
+FROM appointment a
+GROUP BY CAST(a.appointment_date AS DATE), a.service_center_id, a.service_or_modification_id, a.status;
+
+INSERT INTO employee_daily_rollup (appointment_day, service_center_id, employee_id, status, appointment_count)
+SELECT CAST(a.appointment_date AS DATE), a.service_center_id, ae.employee_id, a.status, COUNT(*)
+FROM appointment a
+JOIN appointment_employees ae ON ae.appointment_id = a.id
+GROUP BY CAST(a.appointment_date AS DATE), a.service_center_id, ae.employee_id, a.status;
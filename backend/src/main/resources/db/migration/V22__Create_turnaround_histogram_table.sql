@@ -0,0 +1,20 @@
+-- =====================================================
+-- Flyway Migration: V22__Create_turnaround_histogram_table.sql
+-- Description: Daily turnaround histograms (wait and work duration) read by the turnaround report
+-- Author: EAD Team
+-- Date: 2026-10-17
+-- =====================================================
+
+-- Sample count per histogram bucket, per day, service center, dimension and metric.
+-- dimension SERVICE: dimension_id is the service/modification; EMPLOYEE: the assigned employee.
+-- Bucket indexes come from LatencyHistogram (log-linear seconds); filled by the rollup rebuild.
+CREATE TABLE IF NOT EXISTS turnaround_histogram (
+    appointment_day DATE NOT NULL,
+    service_center_id UUID NOT NULL,
+    dimension VARCHAR(20) NOT NULL,
+    dimension_id UUID NOT NULL,
+    metric VARCHAR(20) NOT NULL,
+    bucket INTEGER NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (appointment_day, service_center_id, dimension, dimension_id, metric, bucket)
+);
@@ -0,0 +1,17 @@
+-- =====================================================
+-- Flyway Migration: V23__Create_customer_daily_sketch_table.sql
+-- Description: Daily HyperLogLog sketches of customer ids for approximate distinct counts
+-- Author: EAD Team
+-- Date: 2026-10-17
+-- =====================================================
+
+-- Non-empty HyperLogLog registers per day, service center and sketch (ALL / RETURNING customers).
+-- Register indexes and ranks come from HyperLogLog (hash computed in Java); filled by the rollup rebuild.
+CREATE TABLE IF NOT EXISTS customer_daily_sketch (
+    appointment_day DATE NOT NULL,
+    service_center_id UUID NOT NULL,
+    sketch VARCHAR(20) NOT NULL,
+    register_index INTEGER NOT NULL,
+    register_rank INTEGER NOT NULL,
+    PRIMARY KEY (appointment_day, service_center_id, sketch, register_index)
+);
@@ -0,0 +1,10 @@
+-- =====================================================
+-- Flyway Migration: V24__Add_notifications_user_created_index.sql
+-- Description: Index for keyset reads of a user's notifications by creation time
+-- Author: EAD Team
+-- Date: 2026-10-17
+-- =====================================================
+
+-- SSE replay reads the notifications a reconnecting browser missed as
+-- user_id = ? AND created_at >= ? ORDER BY created_at, id
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created ON notifications(user_id, created_at, id);
@@ -1,6 +1,7 @@
 package com.ead.backend.controller;
 
 import com.ead.backend.dto.AdminAppointmentDTO;
+import com.ead.backend.dto.AdminAppointmentPageDTO;
 import com.ead.backend.dto.AdminEmployeeCenterDTO;
 import com.ead.backend.entity.Appointment;
 import com.ead.backend.entity.ServiceCenter;
@@ -8,6 +9,7 @@ import com.ead.backend.entity.ServiceOrModification;
 import com.ead.backend.entity.User;
 import com.ead.backend.entity.Vehicle;
 import com.ead.backend.service.AdminService;
+import com.ead.backend.service.AppointmentExportService;
 import com.ead.backend.service.AppointmentService;
 import com.ead.backend.enums.AppointmentType;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -47,6 +49,9 @@ class AdminAppointmentControllerTest {
     @MockitoBean
     private AdminService adminService;
 
+    @MockitoBean
+    private AppointmentExportService appointmentExportService;
+
     private UUID appointmentId;
     private UUID employeeId;
     private UUID serviceCenterId;
@@ -100,7 +105,7 @@ class AdminAppointmentControllerTest {
     void testGetUpcomingAppointments_AsAdmin_Success() throws Exception {
         // Arrange
         List<AdminAppointmentDTO> appointments = Arrays.asList(adminAppointmentDTO);
-        when(appointmentService.getAllUpcomingAppointments()).thenReturn(appointments);
+        when(appointmentService.getAllUpcomingAppointments(any(), any())).thenReturn(new AdminAppointmentPageDTO(appointments, null));
 
         // Act & Assert
         mockMvc.perform(get("/admin/appointments/upcoming")
@@ -110,7 +115,7 @@ class AdminAppointmentControllerTest {
                 .andExpect(jsonPath("$[0].customerName").value("John Doe"))
                 .andExpect(jsonPath("$[0].status").value("PENDING"));
 
-        verify(appointmentService, times(1)).getAllUpcomingAppointments();
+        verify(appointmentService, times(1)).getAllUpcomingAppointments(any(), any());
     }
 
     @Test
@@ -118,7 +123,7 @@ class AdminAppointmentControllerTest {
     @DisplayName("Should return empty list when no upcoming appointments")
     void testGetUpcomingAppointments_EmptyList() throws Exception {
         // Arrange
-        when(appointmentService.getAllUpcomingAppointments()).thenReturn(Collections.emptyList());
+        when(appointmentService.getAllUpcomingAppointments(any(), any())).thenReturn(new AdminAppointmentPageDTO(Collections.emptyList(), null));
 
         // Act & Assert
         mockMvc.perform(get("/admin/appointments/upcoming")
@@ -126,7 +131,7 @@ class AdminAppointmentControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isEmpty());
 
-        verify(appointmentService, times(1)).getAllUpcomingAppointments();
+        verify(appointmentService, times(1)).getAllUpcomingAppointments(any(), any());
     }
 
     @Test
@@ -138,7 +143,7 @@ class AdminAppointmentControllerTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isForbidden()); // App returns 403 for insufficient privileges
 
-        verify(appointmentService, never()).getAllUpcomingAppointments();
+        verify(appointmentService, never()).getAllUpcomingAppointments(any(), any());
     }
 
     @Test
@@ -150,7 +155,7 @@ class AdminAppointmentControllerTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isForbidden()); // App returns 403 for insufficient privileges
 
-        verify(appointmentService, never()).getAllUpcomingAppointments();
+        verify(appointmentService, never()).getAllUpcomingAppointments(any(), any());
     }
 
     // ===================================================================
@@ -168,7 +173,7 @@ class AdminAppointmentControllerTest {
         ongoingAppointment.setCustomerName("John Doe");
 
         List<AdminAppointmentDTO> appointments = Arrays.asList(ongoingAppointment);
-        when(appointmentService.getAllOngoingAppointments()).thenReturn(appointments);
+        when(appointmentService.getAllOngoingAppointments(any(), any())).thenReturn(new AdminAppointmentPageDTO(appointments, null));
 
         // Act & Assert
         mockMvc.perform(get("/admin/appointments/ongoing")
@@ -176,7 +181,7 @@ class AdminAppointmentControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].status").value("IN_PROGRESS"));
 
-        verify(appointmentService, times(1)).getAllOngoingAppointments();
+        verify(appointmentService, times(1)).getAllOngoingAppointments(any(), any());
     }
 
     // ===================================================================
@@ -194,7 +199,7 @@ class AdminAppointmentControllerTest {
         unassignedAppointment.setAssignedEmployeeCount(0);
 
         List<AdminAppointmentDTO> appointments = Arrays.asList(unassignedAppointment);
-        when(appointmentService.getAllUnassignedAppointments()).thenReturn(appointments);
+        when(appointmentService.getAllUnassignedAppointments(any(), any())).thenReturn(new AdminAppointmentPageDTO(appointments, null));
 
         // Act & Assert
         mockMvc.perform(get("/admin/appointments/unassigned")
@@ -202,7 +207,7 @@ class AdminAppointmentControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].assignedEmployeeCount").value(0));
 
-        verify(appointmentService, times(1)).getAllUnassignedAppointments();
+        verify(appointmentService, times(1)).getAllUnassignedAppointments(any(), any());
     }
 
     // ===================================================================
@@ -421,9 +426,9 @@ class AdminAppointmentControllerTest {
                 .andExpect(status().isUnauthorized());
 
         // Verify services were never called
-        verify(appointmentService, never()).getAllUpcomingAppointments();
-        verify(appointmentService, never()).getAllOngoingAppointments();
-        verify(appointmentService, never()).getAllUnassignedAppointments();
+        verify(appointmentService, never()).getAllUpcomingAppointments(any(), any());
+        verify(appointmentService, never()).getAllOngoingAppointments(any(), any());
+        verify(appointmentService, never()).getAllUnassignedAppointments(any(), any());
         verify(appointmentService, never()).assignEmployees(any(UUID.class), anySet());
         verify(adminService, never()).getAllEmployeesWithServiceCenter();
         verify(adminService, never()).assignEmployeeToServiceCenter(any(UUID.class), any(UUID.class));
@@ -3,7 +3,11 @@ package com.ead.backend.controller;
 import com.ead.backend.dto.*;
 import com.ead.backend.enums.AppointmentType;
 import com.ead.backend.enums.PeriodType;
+import com.ead.backend.service.AnalyticsCacheService;
+import com.ead.backend.service.AnalyticsComparisonService;
+import com.ead.backend.service.AnalyticsReportJobService;
 import com.ead.backend.service.AnalyticsService;
+import com.ead.backend.service.SlotUtilizationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +22,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -38,6 +43,18 @@ class AnalyticsControllerTest {
     @MockitoBean
     private AnalyticsService analyticsService;
 
+    @MockitoBean
+    private AnalyticsCacheService analyticsCacheService;
+
+    @MockitoBean
+    private SlotUtilizationService slotUtilizationService;
+
+    @MockitoBean
+    private AnalyticsReportJobService analyticsReportJobService;
+
+    @MockitoBean
+    private AnalyticsComparisonService analyticsComparisonService;
+
     private UUID serviceCenterId;
     private ServiceDistributionResponseDTO serviceDistributionDTO;
     private RevenueTrendResponseDTO revenueTrendDTO;
@@ -50,6 +67,10 @@ class AnalyticsControllerTest {
     void setUp() {
         serviceCenterId = UUID.randomUUID();
 
+        // Bypass the report cache: every request reaches the (mocked) service
+        when(analyticsCacheService.get(anyString(), any(AnalyticsFilterRequestDTO.class), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+
         // Setup ServiceDistributionResponseDTO
         serviceDistributionDTO = new ServiceDistributionResponseDTO();
         serviceDistributionDTO.setTotalAppointments(100L);
@@ -242,7 +263,7 @@ class AnalyticsControllerTest {
     @DisplayName("Admin: Should successfully get customer insights analytics")
     void testGetCustomerInsights_AsAdmin_Success() throws Exception {
         // Arrange
-        when(analyticsService.getCustomerInsights(any(AnalyticsFilterRequestDTO.class))).thenReturn(customerInsightsDTO);
+        when(analyticsService.getCustomerInsights(any(AnalyticsFilterRequestDTO.class), anyInt(), anyInt(), anyString(), anyString())).thenReturn(customerInsightsDTO);
 
         // Act & Assert
         mockMvc.perform(get("/analytics/customer-insights")
@@ -255,7 +276,7 @@ class AnalyticsControllerTest {
                 .andExpect(jsonPath("$.data.totalCustomers").value(50))
                 .andExpect(jsonPath("$.data.repeatCustomerRate").value(60.0));
 
-        verify(analyticsService, times(1)).getCustomerInsights(any(AnalyticsFilterRequestDTO.class));
+        verify(analyticsService, times(1)).getCustomerInsights(any(AnalyticsFilterRequestDTO.class), eq(0), eq(20), eq("totalAppointments"), eq("DESC"));
     }
 
     // ===================================================================
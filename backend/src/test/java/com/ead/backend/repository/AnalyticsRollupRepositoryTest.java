@@ -0,0 +1,227 @@
+package com.ead.backend.repository;
+
+import com.ead.backend.entity.*;
+import com.ead.backend.enums.AppointmentType;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rebuild and report queries of the daily analytics rollups, and the exact dashboard counters they
+ * stand in for, against the test database.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = AnalyticsRollupRepositoryTest.JpaConfig.class)
+@ActiveProfiles("test")
+@DisplayName("Analytics Rollup Repository Tests")
+class AnalyticsRollupRepositoryTest {
+
+    // Only the JPA layer: the application class also registers startup runners that need the full context
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.ead.backend")
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private AppointmentDailyRollupRepository appointmentRollupRepository;
+
+    @Autowired
+    private EmployeeDailyRollupRepository employeeRollupRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final LocalDate day = LocalDate.of(2025, 3, 14);
+    private User customer;
+    private User employee;
+    private Vehicle vehicle;
+    private ServiceOrModification service;
+    private ServiceOrModification modification;
+    private ServiceCenter serviceCenter;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role("CUSTOMER");
+        entityManager.persist(role);
+
+        customer = persistUser("customer", role);
+        employee = persistUser("employee", role);
+
+        vehicle = new Vehicle();
+        vehicle.setBrand("Toyota");
+        vehicle.setModel("Camry");
+        vehicle.setYear(2020);
+        vehicle.setColor("Silver");
+        vehicle.setLicensePlate("ABC-1234");
+        vehicle.setUser(customer);
+        entityManager.persist(vehicle);
+
+        service = persistService("Oil Change", AppointmentType.SERVICE, 4500.0);
+        modification = persistService("Body Kit", AppointmentType.MODIFICATION, 120000.0);
+
+        serviceCenter = persistServiceCenter("Downtown Center");
+    }
+
+    @Test
+    @DisplayName("Rebuild should aggregate appointments per day, service and status")
+    void testRebuildFromAppointments() {
+        // Arrange
+        persistAppointment(service, "COMPLETED", 9);
+        persistAppointment(service, "COMPLETED", 15);
+        persistAppointment(modification, "PENDING", 11);
+        entityManager.flush();
+
+        // Act
+        int appointmentRows = appointmentRollupRepository.rebuildFromAppointments();
+        int employeeRows = employeeRollupRepository.rebuildFromAppointments();
+        entityManager.clear();
+
+        // Assert
+        assertEquals(2, appointmentRows);
+        assertEquals(2, employeeRows);
+        AppointmentDailyRollup completed = appointmentRollupRepository.findById(
+                new AppointmentDailyRollup.Key(day, serviceCenter.getId(), service.getId(), "COMPLETED")).orElseThrow();
+        assertEquals(2L, completed.getAppointmentCount());
+    }
+
+    @Test
+    @DisplayName("Report queries should derive revenue from counts and skip emptied buckets")
+    void testReportQueries() {
+        // Arrange
+        persistRollup(day, service, "COMPLETED", 3);
+        persistRollup(day, modification, "COMPLETED", 1);
+        persistRollup(day.plusDays(1), service, "CANCELLED", 0);
+        persistRollup(day.minusYears(1), service, "COMPLETED", 5);
+        entityManager.persist(new EmployeeDailyRollup(
+                new EmployeeDailyRollup.Key(day, serviceCenter.getId(), employee.getId(), "COMPLETED"), 2L));
+        entityManager.flush();
+
+        // Act
+        List<Object[]> distribution = appointmentRollupRepository.getServiceTypeDistribution(
+                day, day.plusDays(1), serviceCenter.getId(), null);
+        List<Object[]> revenue = appointmentRollupRepository.getRevenueByDay(day, day.plusDays(1), null);
+        List<Object[]> employees = employeeRollupRepository.getEmployeeAppointmentMetrics(
+                day, day, serviceCenter.getId());
+
+        // Assert
+        assertEquals(2, distribution.size());
+        assertEquals(service.getId(), distribution.get(0)[0]);
+        assertEquals(3L, ((Number) distribution.get(0)[3]).longValue());
+        assertEquals(13500.0, ((Number) distribution.get(0)[4]).doubleValue());
+
+        assertEquals(1, revenue.size());
+        Object[] row = revenue.get(0);
+        assertEquals(day, row[0]);
+        assertEquals(133500.0, ((Number) row[1]).doubleValue());
+        assertEquals(4L, ((Number) row[2]).longValue());
+        assertEquals(13500.0, ((Number) row[3]).doubleValue());
+        assertEquals(3L, ((Number) row[5]).longValue());
+        assertEquals(1L, ((Number) row[6]).longValue());
+
+        assertEquals(1, employees.size());
+        assertEquals(employee.getId(), employees.get(0)[1]);
+        assertEquals(2L, ((Number) employees.get(0)[5]).longValue());
+    }
+
+    @Test
+    @DisplayName("Dashboard counters and repeat customers should count only the requested service center")
+    void testDashboardCounters_ServiceCenterFilter() {
+        // Arrange
+        ServiceCenter otherCenter = persistServiceCenter("Uptown Center");
+        persistAppointment(serviceCenter, service, "COMPLETED", 9);
+        persistAppointment(serviceCenter, service, "PENDING", 10);
+        persistAppointment(otherCenter, modification, "COMPLETED", 11);
+        entityManager.flush();
+
+        // Act
+        Object[] centerRow = appointmentRepository.getDashboardCounters(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), serviceCenter.getId()).get(0);
+        Object[] otherRow = appointmentRepository.getDashboardCounters(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), otherCenter.getId()).get(0);
+        Object[] allRow = appointmentRepository.getDashboardCounters(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), null).get(0);
+
+        // Assert
+        assertEquals(2L, ((Number) centerRow[0]).longValue());
+        assertEquals(1L, ((Number) centerRow[1]).longValue());
+        assertEquals(4500.0, ((Number) centerRow[6]).doubleValue());
+        assertEquals(1L, ((Number) centerRow[7]).longValue());
+        assertEquals(1L, ((Number) centerRow[8]).longValue());
+        // The customer's single visit to the other center does not make them a repeat customer there
+        assertEquals(1L, ((Number) otherRow[7]).longValue());
+        assertEquals(0L, ((Number) otherRow[8]).longValue());
+        assertEquals(3L, ((Number) allRow[0]).longValue());
+        assertEquals(124500.0, ((Number) allRow[6]).doubleValue());
+        assertEquals(1L, ((Number) allRow[8]).longValue());
+    }
+
+    private User persistUser(String prefix, Role role) {
+        User user = new User();
+        user.setEmail(prefix + "@example.com");
+        user.setPassword("password123");
+        user.setFullName(prefix);
+        user.getRoles().add(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private ServiceOrModification persistService(String name, AppointmentType type, double cost) {
+        ServiceOrModification som = new ServiceOrModification();
+        som.setType(type);
+        som.setName(name);
+        som.setEstimatedTimeMinutes(60);
+        som.setEstimatedCost(cost);
+        entityManager.persist(som);
+        return som;
+    }
+
+    private ServiceCenter persistServiceCenter(String name) {
+        ServiceCenter center = new ServiceCenter();
+        center.setName(name);
+        center.setAddress("1 Main Street");
+        center.setCity("Colombo");
+        center.setLatitude(new BigDecimal("6.92707860"));
+        center.setLongitude(new BigDecimal("79.86124300"));
+        entityManager.persist(center);
+        return center;
+    }
+
+    private void persistAppointment(ServiceOrModification som, String status, int hour) {
+        persistAppointment(serviceCenter, som, status, hour);
+    }
+
+    private void persistAppointment(ServiceCenter center, ServiceOrModification som, String status, int hour) {
+        Appointment appointment = new Appointment();
+        appointment.setUser(customer);
+        appointment.setVehicle(vehicle);
+        appointment.setAppointmentType(som.getType());
+        appointment.setServiceOrModification(som);
+        appointment.setServiceCenter(center);
+        appointment.setAppointmentDate(day.atTime(hour, 0));
+        appointment.setStatus(status);
+        appointment.getAssignedEmployees().add(employee);
+        entityManager.persist(appointment);
+    }
+
+    private void persistRollup(LocalDate rollupDay, ServiceOrModification som, String status, long count) {
+        entityManager.persist(new AppointmentDailyRollup(
+                new AppointmentDailyRollup.Key(rollupDay, serviceCenter.getId(), som.getId(), status), count));
+    }
+}
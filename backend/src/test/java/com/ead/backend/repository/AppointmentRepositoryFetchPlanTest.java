@@ -0,0 +1,228 @@
+package com.ead.backend.repository;
+
+import com.ead.backend.entity.*;
+import com.ead.backend.enums.AppointmentType;
+import com.ead.backend.mappers.ShiftScheduleMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement counts for the appointment list fetch plans: mapping every row to its DTO must not
+ * issue a select per row, so each list is loaded with the same number of statements for 1 or 20 rows.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ContextConfiguration(classes = AppointmentRepositoryFetchPlanTest.JpaConfig.class)
+@ActiveProfiles("test")
+@DisplayName("Appointment Repository Fetch Plan Tests")
+class AppointmentRepositoryFetchPlanTest {
+
+    // Only the JPA layer: the application class also registers startup runners that need the full context
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.ead.backend")
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Role customerRole;
+    private ServiceOrModification service;
+    private ServiceCenter serviceCenter;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        customerRole = new Role("CUSTOMER");
+        entityManager.persist(customerRole);
+
+        service = new ServiceOrModification();
+        service.setType(AppointmentType.SERVICE);
+        service.setName("Oil Change");
+        service.setEstimatedTimeMinutes(60);
+        entityManager.persist(service);
+
+        serviceCenter = new ServiceCenter();
+        serviceCenter.setName("Downtown Center");
+        serviceCenter.setAddress("1 Main Street");
+        serviceCenter.setCity("Colombo");
+        serviceCenter.setLatitude(new BigDecimal("6.92707860"));
+        serviceCenter.setLongitude(new BigDecimal("79.86124300"));
+        entityManager.persist(serviceCenter);
+    }
+
+    @Test
+    @DisplayName("Customer appointment list should load with all relations in one statement")
+    void testFindWithEmployeesByUserId_ConstantStatements() {
+        // Arrange
+        User customer = persistUser("customer");
+        User employee = persistUser("employee");
+        User otherEmployee = persistUser("employee");
+        User largeCustomer = persistUser("customer");
+        persistAppointment(customer, "PENDING", employee);
+        for (int i = 0; i < 20; i++) {
+            persistAppointment(largeCustomer, "CONFIRMED", employee, otherEmployee);
+        }
+
+        // Act & Assert
+        long small = countStatements(() -> appointmentRepository.findWithEmployeesByUserId(customer.getId()),
+                this::walkCustomerView, 1);
+        long large = countStatements(() -> appointmentRepository.findWithEmployeesByUserId(largeCustomer.getId()),
+                this::walkCustomerView, 20);
+
+        assertEquals(1, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    @DisplayName("Employee appointment list should load with all relations in one statement")
+    void testFindDetailedByAssignedEmployeesId_ConstantStatements() {
+        // Arrange
+        User employee = persistUser("employee");
+        User busyEmployee = persistUser("employee");
+        persistAppointment(persistUser("customer"), "CONFIRMED", employee);
+        for (int i = 0; i < 20; i++) {
+            persistAppointment(persistUser("customer"), "CONFIRMED", busyEmployee);
+        }
+
+        // Act & Assert
+        long small = countStatements(() -> appointmentRepository.findDetailedByAssignedEmployeesId(employee.getId()),
+                this::walkEmployeeView, 1);
+        long large = countStatements(() -> appointmentRepository.findDetailedByAssignedEmployeesId(busyEmployee.getId()),
+                this::walkEmployeeView, 20);
+
+        assertEquals(1, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    @DisplayName("Pending appointment lists should load with all relations in one statement")
+    void testFindDetailedByStatus_ConstantStatements() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            persistAppointment(persistUser("customer"), "PENDING");
+        }
+        persistAppointment(persistUser("customer"), "IN_PROGRESS");
+
+        // Act & Assert
+        assertEquals(1, countStatements(() -> appointmentRepository.findDetailedByStatus("IN_PROGRESS"),
+                ShiftScheduleMapper::toDTO, 1));
+        assertEquals(1, countStatements(() -> appointmentRepository.findDetailedByStatus("PENDING"),
+                ShiftScheduleMapper::toDTO, 20));
+        assertEquals(1, countStatements(() -> appointmentRepository.findDetailedByStatusAndServiceCenter("PENDING", serviceCenter),
+                ShiftScheduleMapper::toDTO, 20));
+    }
+
+    @Test
+    @DisplayName("Batch assignment should load all appointments with their assignees in one statement")
+    void testFindForAssignmentByIdIn_ConstantStatements() {
+        // Arrange
+        User employee = persistUser("employee");
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(persistAppointment(persistUser("customer"), "PENDING", employee).getId());
+        }
+
+        // Act & Assert
+        assertEquals(1, countStatements(() -> appointmentRepository.findForAssignmentByIdIn(ids),
+                this::walkAssignmentView, 20));
+    }
+
+    /**
+     * Runs the query on a clean persistence context, maps every row the way its endpoint does
+     * and returns the number of JDBC statements that took.
+     */
+    private long countStatements(Supplier<List<Appointment>> query, Consumer<Appointment> mapper, int expectedRows) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<Appointment> appointments = query.get();
+        appointments.forEach(mapper);
+
+        assertEquals(expectedRows, appointments.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Associations read by CustomerAppointmentController and AppointmentBookingController
+    private void walkCustomerView(Appointment a) {
+        a.getVehicle().getLicensePlate();
+        a.getServiceOrModification().getEstimatedTimeMinutes();
+        a.getServiceCenter().getName();
+        a.getAssignedEmployees().forEach(User::getFullName);
+    }
+
+    // Associations read by AppointmentService.assignEmployees and the admin DTO mapping
+    private void walkAssignmentView(Appointment a) {
+        a.getUser().getFullName();
+        a.getVehicle().getModel();
+        a.getServiceOrModification().getName();
+        a.getServiceCenter().getName();
+        a.getAssignedEmployees().forEach(User::getFullName);
+    }
+
+    // Associations read by EmployeeService.getAppointmentsByEmployee
+    private void walkEmployeeView(Appointment a) {
+        a.getUser().getFullName();
+        a.getVehicle().getLicensePlate();
+        a.getServiceOrModification().getDescription();
+    }
+
+    private User persistUser(String prefix) {
+        User user = new User();
+        user.setEmail(prefix + "-" + (++sequence) + "@example.com");
+        user.setPassword("password123");
+        user.setFullName(prefix + " " + sequence);
+        user.getRoles().add(customerRole);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Appointment persistAppointment(User customer, String status, User... employees) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setBrand("Toyota");
+        vehicle.setModel("Camry");
+        vehicle.setYear(2020);
+        vehicle.setColor("Silver");
+        vehicle.setLicensePlate("ABC-" + (++sequence));
+        vehicle.setUser(customer);
+        entityManager.persist(vehicle);
+
+        Appointment appointment = new Appointment();
+        appointment.setUser(customer);
+        appointment.setVehicle(vehicle);
+        appointment.setAppointmentType(AppointmentType.SERVICE);
+        appointment.setServiceOrModification(service);
+        appointment.setServiceCenter(serviceCenter);
+        appointment.setAppointmentDate(LocalDateTime.now().plusDays(1).withNano(0));
+        appointment.setStatus(status);
+        appointment.getAssignedEmployees().addAll(List.of(employees));
+        entityManager.persist(appointment);
+        return appointment;
+    }
+}
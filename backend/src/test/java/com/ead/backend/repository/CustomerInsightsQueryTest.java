@@ -0,0 +1,169 @@
+package com.ead.backend.repository;
+
+import com.ead.backend.entity.*;
+import com.ead.backend.enums.AppointmentType;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Customer insights page and summary queries: spend is aggregated with the counts and
+ * pages are sorted on the aggregate expressions in the database.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = CustomerInsightsQueryTest.JpaConfig.class)
+@ActiveProfiles("test")
+@DisplayName("Customer Insights Query Tests")
+class CustomerInsightsQueryTest {
+
+    // Only the JPA layer: the application class also registers startup runners that need the full context
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.ead.backend")
+    static class JpaConfig {
+    }
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 3, 31, 23, 59, 59);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Role role;
+    private ServiceCenter serviceCenter;
+    private ServiceOrModification cheapService;
+    private ServiceOrModification expensiveService;
+    private User frequent;
+    private User bigSpender;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        role = new Role("CUSTOMER");
+        entityManager.persist(role);
+
+        serviceCenter = new ServiceCenter();
+        serviceCenter.setName("Downtown Center");
+        serviceCenter.setAddress("1 Main Street");
+        serviceCenter.setCity("Colombo");
+        serviceCenter.setLatitude(new BigDecimal("6.92707860"));
+        serviceCenter.setLongitude(new BigDecimal("79.86124300"));
+        entityManager.persist(serviceCenter);
+
+        cheapService = persistService("Oil Change", 4500.0);
+        expensiveService = persistService("Engine Overhaul", 90000.0);
+
+        // Three appointments, two completed cheap ones
+        frequent = persistCustomer("frequent");
+        persistAppointment(frequent, cheapService, "COMPLETED", 3);
+        persistAppointment(frequent, cheapService, "COMPLETED", 4);
+        persistAppointment(frequent, expensiveService, "CANCELLED", 5);
+
+        // One completed expensive appointment
+        bigSpender = persistCustomer("big-spender");
+        persistAppointment(bigSpender, expensiveService, "COMPLETED", 6);
+
+        // Outside the range
+        User lapsed = persistCustomer("lapsed");
+        Appointment old = persistAppointment(lapsed, expensiveService, "COMPLETED", 7);
+        old.setAppointmentDate(START.minusMonths(2));
+
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Should page customers with their completed spend in the database sort order")
+    void testGetCustomerInsights_SortedPages() {
+        // Act
+        Page<Object[]> byAppointments = userRepository.getCustomerInsights(START, END,
+                PageRequest.of(0, 1, JpaSort.unsafe(Sort.Direction.DESC, "COUNT(a)")));
+        Page<Object[]> bySpend = userRepository.getCustomerInsights(START, END, PageRequest.of(0, 10,
+                JpaSort.unsafe(Sort.Direction.DESC,
+                        "SUM(CASE WHEN a.status = 'COMPLETED' THEN som.estimatedCost ELSE 0.0 END)")));
+
+        // Assert
+        assertEquals(2, byAppointments.getTotalElements());
+        assertEquals(2, byAppointments.getTotalPages());
+        Object[] top = byAppointments.getContent().get(0);
+        assertEquals(frequent.getId(), top[0]);
+        assertEquals(3L, ((Number) top[4]).longValue());
+        assertEquals(9000.0, ((Number) top[9]).doubleValue());
+
+        assertEquals(List.of(bigSpender.getId(), frequent.getId()),
+                bySpend.getContent().stream().map(row -> row[0]).toList());
+    }
+
+    @Test
+    @DisplayName("Should summarize all customers in the range in one aggregate")
+    void testGetCustomerInsightsSummary() {
+        // Act
+        Object[] summary = userRepository.getCustomerInsightsSummary(START, END).get(0);
+
+        // Assert
+        assertEquals(2L, ((Number) summary[0]).longValue());
+        assertEquals(1L, ((Number) summary[1]).longValue());
+        assertEquals(4L, ((Number) summary[2]).longValue());
+        assertEquals(99000.0, ((Number) summary[3]).doubleValue());
+    }
+
+    private User persistCustomer(String name) {
+        User user = new User();
+        user.setEmail(name + "@example.com");
+        user.setPassword("password123");
+        user.setFullName(name);
+        user.getRoles().add(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private ServiceOrModification persistService(String name, double cost) {
+        ServiceOrModification som = new ServiceOrModification();
+        som.setType(AppointmentType.SERVICE);
+        som.setName(name);
+        som.setEstimatedTimeMinutes(60);
+        som.setEstimatedCost(cost);
+        entityManager.persist(som);
+        return som;
+    }
+
+    private Appointment persistAppointment(User customer, ServiceOrModification som, String status, int day) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setBrand("Toyota");
+        vehicle.setModel("Camry");
+        vehicle.setYear(2020);
+        vehicle.setColor("Silver");
+        vehicle.setLicensePlate("ABC-" + (++sequence));
+        vehicle.setUser(customer);
+        entityManager.persist(vehicle);
+
+        Appointment appointment = new Appointment();
+        appointment.setUser(customer);
+        appointment.setVehicle(vehicle);
+        appointment.setAppointmentType(AppointmentType.SERVICE);
+        appointment.setServiceOrModification(som);
+        appointment.setServiceCenter(serviceCenter);
+        appointment.setAppointmentDate(START.plusDays(day).withHour(10));
+        appointment.setStatus(status);
+        entityManager.persist(appointment);
+        return appointment;
+    }
+}
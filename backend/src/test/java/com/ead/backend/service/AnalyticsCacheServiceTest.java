@@ -0,0 +1,181 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.AnalyticsFilterRequestDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Analytics Cache Service Unit Tests")
+class AnalyticsCacheServiceTest {
+
+    private final AnalyticsCacheService cacheService = new AnalyticsCacheService();
+
+    private AnalyticsFilterRequestDTO filter;
+    private UUID serviceCenterId;
+
+    @BeforeEach
+    void setUp() {
+        serviceCenterId = UUID.randomUUID();
+        filter = new AnalyticsFilterRequestDTO();
+        filter.setStartDate(LocalDateTime.of(2025, 3, 1, 0, 0));
+        filter.setEndDate(LocalDateTime.of(2025, 3, 31, 23, 59, 59));
+        filter.setServiceCenterId(serviceCenterId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should serve identical filters from the cache and count hits and misses")
+    void testGet_HitAfterMiss() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        AnalyticsFilterRequestDTO sameFilter = new AnalyticsFilterRequestDTO(
+                filter.getStartDate(), filter.getEndDate(), serviceCenterId, null, null,
+                filter.getPeriodType(), false, null, null, false);
+
+        // Act
+        String first = cacheService.get("dashboard", filter, null, () -> "report-" + loads.incrementAndGet());
+        String second = cacheService.get("dashboard", sameFilter, null, () -> "report-" + loads.incrementAndGet());
+        String otherReport = cacheService.get("revenue-trend", filter, null, () -> "trend-" + loads.incrementAndGet());
+
+        // Assert
+        assertEquals("report-1", first);
+        assertEquals("report-1", second);
+        assertEquals("trend-2", otherReport);
+        AnalyticsCacheService.CacheStats stats = cacheService.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    @DisplayName("Should serve a stale result while refreshing it in the background")
+    void testGet_StaleWhileRevalidate() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(cacheService, "ttlMs", 0L);
+        cacheService.get("dashboard", filter, null, () -> "old");
+        Thread.sleep(5);
+
+        // Act
+        String stale = cacheService.get("dashboard", filter, null, () -> "new");
+
+        // Assert
+        assertEquals("old", stale);
+        assertEquals(1, cacheService.stats().staleHits());
+        String refreshed = awaitValue(() -> cacheService.get("dashboard", filter, null, () -> "new"), "new");
+        assertEquals("new", refreshed);
+    }
+
+    @Test
+    @DisplayName("Should only invalidate entries covering the changed center and day")
+    void testInvalidate_Selective() {
+        // Arrange
+        AnalyticsFilterRequestDTO otherCenter = new AnalyticsFilterRequestDTO();
+        otherCenter.setStartDate(filter.getStartDate());
+        otherCenter.setEndDate(filter.getEndDate());
+        otherCenter.setServiceCenterId(UUID.randomUUID());
+        AnalyticsFilterRequestDTO allCenters = new AnalyticsFilterRequestDTO();
+        allCenters.setAllTime(true);
+
+        cacheService.get("dashboard", filter, null, () -> "center");
+        cacheService.get("dashboard", otherCenter, null, () -> "other-center");
+        cacheService.get("dashboard", allCenters, null, () -> "all");
+
+        // Act
+        cacheService.invalidate(serviceCenterId, LocalDate.of(2025, 4, 2));
+        int afterOutOfRange = cacheService.stats().size();
+        cacheService.invalidate(serviceCenterId, LocalDate.of(2025, 3, 14));
+
+        // Assert
+        assertEquals(2, afterOutOfRange);
+        assertEquals(1, cacheService.stats().size());
+        assertEquals("other-center", cacheService.get("dashboard", otherCenter, null, () -> "reloaded"));
+        assertEquals("reloaded", cacheService.get("dashboard", filter, null, () -> "reloaded"));
+    }
+
+    @Test
+    @DisplayName("Should compute concurrent misses for the same key once")
+    void testGet_ConcurrentMissesLoadOnce() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return cacheService.get("dashboard", filter, null, () -> {
+                    sleep(100);
+                    return loads.incrementAndGet();
+                });
+            }));
+        }
+        start.countDown();
+
+        // Assert
+        for (Future<Integer> future : futures) {
+            assertEquals(1, future.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not store failed loads and should stay within the size bound")
+    void testGet_FailuresAndBound() {
+        // Arrange
+        ReflectionTestUtils.setField(cacheService, "maxEntries", 2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> cacheService.get("dashboard", filter, null, () -> {
+            throw new IllegalArgumentException("Invalid sort field");
+        }));
+        assertEquals(0, cacheService.stats().size());
+        assertEquals(1, cacheService.stats().loadFailures());
+
+        for (int page = 0; page < 4; page++) {
+            cacheService.get("customer-insights", filter, page, () -> "page");
+        }
+        assertEquals(2, cacheService.stats().size());
+        assertEquals(2, cacheService.stats().evictions());
+    }
+
+    private static String awaitValue(Supplier<String> read, String expected) throws InterruptedException {
+        String value = read.get();
+        for (int i = 0; i < 100 && !expected.equals(value); i++) {
+            Thread.sleep(20);
+            value = read.get();
+        }
+        return value;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.*;
+import com.ead.backend.entity.ServiceCenter;
+import com.ead.backend.enums.PeriodType;
+import com.ead.backend.exception.ResourceNotFoundException;
+import com.ead.backend.repository.ServiceCenterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Analytics Comparison Service Unit Tests")
+class AnalyticsComparisonServiceTest {
+
+    private final AnalyticsService analyticsService = mock(AnalyticsService.class);
+    private final ServiceCenterRepository serviceCenterRepository = mock(ServiceCenterRepository.class);
+    private final AnalyticsCacheService analyticsCacheService = new AnalyticsCacheService();
+
+    private AnalyticsComparisonService comparisonService;
+    private AnalyticsFilterRequestDTO filter;
+    private List<ServiceCenter> centers;
+
+    @BeforeEach
+    void setUp() {
+        comparisonService = new AnalyticsComparisonService(analyticsService, analyticsCacheService,
+                serviceCenterRepository, 2);
+
+        filter = new AnalyticsFilterRequestDTO();
+        filter.setStartDate(LocalDateTime.of(2025, 3, 1, 0, 0));
+        filter.setEndDate(LocalDateTime.of(2025, 3, 31, 23, 59, 59));
+        filter.setPeriodType(PeriodType.WEEKLY);
+
+        centers = List.of(center("Downtown"), center("Airport"), center("Harbor"), center("Uptown"));
+        when(serviceCenterRepository.findByIsActiveTrue()).thenReturn(centers);
+    }
+
+    @AfterEach
+    void tearDown() {
+        comparisonService.shutdown();
+        analyticsCacheService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should compute every report for every center within the connection budget and merge totals")
+    void testCompare_AllCentersWithinBudget() {
+        // Arrange
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(analyticsService.getServiceTypeDistribution(any())).thenAnswer(invocation -> tracked(running, maxRunning,
+                new ServiceDistributionResponseDTO(10L, 6L, 4L, 60.0, 40.0, List.of())));
+        when(analyticsService.getRevenueTrend(any())).thenAnswer(invocation -> tracked(running, maxRunning,
+                new RevenueTrendResponseDTO(2500.0, 2500.0, 2500.0, 2500.0, 10L,
+                        ((AnalyticsFilterRequestDTO) invocation.getArgument(0)).getPeriodType(), List.of())));
+        when(analyticsService.getEmployeePerformance(any())).thenAnswer(invocation -> tracked(running, maxRunning,
+                new EmployeePerformanceResponseDTO(3, 10L, 80.0, 40.0, List.of(), List.of())));
+
+        // Act
+        CenterComparisonResponseDTO result = comparisonService.compare(filter, null);
+
+        // Assert
+        assertEquals(4, result.getCenters().size());
+        assertEquals("Downtown", result.getCenters().get(0).getServiceCenterName());
+        assertEquals(PeriodType.WEEKLY, result.getCenters().get(0).getRevenueTrend().getPeriodType());
+        assertEquals(40L, result.getTotalAppointments());
+        assertEquals(10000.0, result.getTotalRevenue());
+        assertTrue(maxRunning.get() <= 2, "At most 2 reports should compute at once but saw " + maxRunning.get());
+        verify(analyticsService, times(4)).getEmployeePerformance(any());
+    }
+
+    @Test
+    @DisplayName("Should share cache entries with the per-center endpoints")
+    void testCompare_UsesReportCache() {
+        // Arrange
+        ServiceCenter downtown = centers.get(0);
+        when(serviceCenterRepository.findAllById(any())).thenReturn(List.of(downtown));
+        when(analyticsService.getServiceTypeDistribution(any())).thenReturn(
+                new ServiceDistributionResponseDTO(1L, 1L, 0L, 100.0, 0.0, List.of()));
+
+        // Act
+        comparisonService.compare(filter, List.of(downtown.getId()));
+        comparisonService.compare(filter, List.of(downtown.getId()));
+
+        // Assert
+        verify(analyticsService, times(1)).getServiceTypeDistribution(any());
+        assertEquals(3, analyticsCacheService.stats().misses());
+    }
+
+    @Test
+    @DisplayName("Should fail for unknown centers and when any center report fails")
+    void testCompare_Failures() {
+        // Arrange
+        UUID unknown = UUID.randomUUID();
+        when(serviceCenterRepository.findAllById(any())).thenReturn(List.of());
+        when(analyticsService.getRevenueTrend(any())).thenThrow(new RuntimeException("Database unavailable"));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> comparisonService.compare(filter, List.of(unknown)));
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> comparisonService.compare(filter, null));
+        assertEquals("Database unavailable", failure.getMessage());
+    }
+
+    private static <T> T tracked(AtomicInteger running, AtomicInteger maxRunning, T result) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(20);
+            return result;
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private static ServiceCenter center(String name) {
+        ServiceCenter center = new ServiceCenter();
+        center.setId(UUID.randomUUID());
+        center.setName(name);
+        return center;
+    }
+}
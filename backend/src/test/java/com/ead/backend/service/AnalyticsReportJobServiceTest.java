@@ -0,0 +1,189 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.AnalyticsFilterRequestDTO;
+import com.ead.backend.dto.ReportJobDTO;
+import com.ead.backend.dto.RevenueTrendResponseDTO;
+import com.ead.backend.enums.AnalyticsReportType;
+import com.ead.backend.enums.PeriodType;
+import com.ead.backend.enums.ReportJobStatus;
+import com.ead.backend.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Analytics Report Job Service Unit Tests")
+class AnalyticsReportJobServiceTest {
+
+    @TempDir
+    Path reportDirectory;
+
+    private final AnalyticsService analyticsService = mock(AnalyticsService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<AnalyticsReportJobService> services = new ArrayList<>();
+
+    private AnalyticsFilterRequestDTO filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new AnalyticsFilterRequestDTO();
+        filter.setAllTime(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(AnalyticsReportJobService::shutdown);
+    }
+
+    @Test
+    @DisplayName("Should run a submitted report in the background and store it as gzip JSON")
+    void testSubmit_StoresCompressedResult() throws Exception {
+        // Arrange
+        AnalyticsReportJobService jobService = newService(2, 5);
+        when(analyticsService.getRevenueTrend(any())).thenReturn(
+                new RevenueTrendResponseDTO(1500.0, 750.0, 1000.0, 500.0, 2L, PeriodType.MONTHLY, List.of()));
+
+        // Act
+        ReportJobDTO submitted = jobService.submit(AnalyticsReportType.REVENUE_TREND, filter);
+        ReportJobDTO finished = awaitFinished(jobService, submitted.getJobId());
+
+        // Assert
+        assertEquals(ReportJobStatus.COMPLETED, finished.getStatus());
+        Path file = jobService.getResultFile(submitted.getJobId());
+        assertEquals(Files.size(file), finished.getResultBytes());
+        assertNotNull(finished.getExpiresAt());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            JsonNode json = objectMapper.readTree(in);
+            assertEquals(1500.0, json.get("totalRevenue").asDouble());
+            assertEquals("MONTHLY", json.get("periodType").asText());
+        }
+    }
+
+    @Test
+    @DisplayName("Should record the failure of a report")
+    void testSubmit_Failure() throws Exception {
+        // Arrange
+        AnalyticsReportJobService jobService = newService(1, 5);
+        when(analyticsService.getDashboardSummary(any())).thenThrow(new RuntimeException("Query timed out"));
+
+        // Act
+        ReportJobDTO submitted = jobService.submit(AnalyticsReportType.DASHBOARD, filter);
+        ReportJobDTO finished = awaitFinished(jobService, submitted.getJobId());
+
+        // Assert
+        assertEquals(ReportJobStatus.FAILED, finished.getStatus());
+        assertEquals("Query timed out", finished.getError());
+        assertThrows(IllegalStateException.class, () -> jobService.getResultFile(submitted.getJobId()));
+    }
+
+    @Test
+    @DisplayName("Should reject submissions when the queue is full and skip cancelled queued jobs")
+    void testSubmit_BoundedQueueAndCancellation() throws Exception {
+        // Arrange
+        AnalyticsReportJobService jobService = newService(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(analyticsService.getDashboardSummary(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+
+        // Act
+        ReportJobDTO running = jobService.submit(AnalyticsReportType.DASHBOARD, filter);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        ReportJobDTO queued = jobService.submit(AnalyticsReportType.TURNAROUND, filter);
+        assertThrows(IllegalStateException.class, () -> jobService.submit(AnalyticsReportType.CUSTOM, filter));
+
+        ReportJobDTO cancelled = jobService.cancel(queued.getJobId());
+        // The cancelled job no longer holds the only queue slot
+        ReportJobDTO next = jobService.submit(AnalyticsReportType.CUSTOM, filter);
+        release.countDown();
+
+        // Assert
+        assertEquals(ReportJobStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(ReportJobStatus.COMPLETED, awaitFinished(jobService, running.getJobId()).getStatus());
+        assertEquals(ReportJobStatus.COMPLETED, awaitFinished(jobService, next.getJobId()).getStatus());
+        verify(analyticsService, never()).getTurnaroundReport(any());
+    }
+
+    @Test
+    @DisplayName("Should recover stored results after a restart")
+    void testStart_RecoversResults() throws Exception {
+        // Arrange
+        AnalyticsReportJobService jobService = newService(1, 5);
+        when(analyticsService.getCustomAnalytics(any())).thenReturn(null);
+        UUID jobId = jobService.submit(AnalyticsReportType.CUSTOM, filter).getJobId();
+        awaitFinished(jobService, jobId);
+        Path file = jobService.getResultFile(jobId);
+
+        // Act
+        AnalyticsReportJobService restarted = newService(1, 5);
+        ReportJobDTO recovered = restarted.getJob(jobId);
+
+        // Assert
+        assertEquals(ReportJobStatus.COMPLETED, recovered.getStatus());
+        assertEquals(AnalyticsReportType.CUSTOM, recovered.getReport());
+        assertEquals(file, restarted.getResultFile(jobId));
+    }
+
+    @Test
+    @DisplayName("Should forget expired jobs and delete their results")
+    void testPurgeExpired_DeletesResults() throws Exception {
+        // Arrange
+        AnalyticsReportJobService jobService = newService(1, 5);
+        ReflectionTestUtils.setField(jobService, "resultTtlMs", -1L);
+        when(analyticsService.getCustomAnalytics(any())).thenReturn(null);
+        UUID jobId = jobService.submit(AnalyticsReportType.CUSTOM, filter).getJobId();
+        awaitFinished(jobService, jobId);
+        Path file = jobService.getResultFile(jobId);
+
+        // Act
+        jobService.purgeExpired();
+
+        // Assert
+        assertThrows(ResourceNotFoundException.class, () -> jobService.getJob(jobId));
+        assertFalse(Files.exists(file));
+    }
+
+    private AnalyticsReportJobService newService(int workers, int queueCapacity) {
+        AnalyticsReportJobService jobService = new AnalyticsReportJobService(analyticsService, objectMapper);
+        ReflectionTestUtils.setField(jobService, "directory", reportDirectory.toString());
+        ReflectionTestUtils.setField(jobService, "workers", workers);
+        ReflectionTestUtils.setField(jobService, "queueCapacity", queueCapacity);
+        jobService.start();
+        services.add(jobService);
+        return jobService;
+    }
+
+    private ReportJobDTO awaitFinished(AnalyticsReportJobService jobService, UUID jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            ReportJobDTO job = jobService.getJob(jobId);
+            if (job.getStatus() != ReportJobStatus.QUEUED && job.getStatus() != ReportJobStatus.RUNNING) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("Report job " + jobId + " did not finish");
+        return null;
+    }
+}
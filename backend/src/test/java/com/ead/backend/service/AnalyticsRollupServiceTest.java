@@ -0,0 +1,276 @@
+package com.ead.backend.service;
+
+import com.ead.backend.entity.Appointment;
+import com.ead.backend.entity.CustomerDailySketch;
+import com.ead.backend.entity.ServiceCenter;
+import com.ead.backend.entity.ServiceOrModification;
+import com.ead.backend.entity.User;
+import com.ead.backend.entity.TurnaroundHistogramBucket;
+import com.ead.backend.repository.AppointmentDailyRollupRepository;
+import com.ead.backend.repository.AppointmentRepository;
+import com.ead.backend.repository.CustomerDailySketchRepository;
+import com.ead.backend.repository.EmployeeDailyRollupRepository;
+import com.ead.backend.repository.TurnaroundHistogramRepository;
+import com.ead.backend.util.HyperLogLog;
+import com.ead.backend.util.LatencyHistogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Analytics Rollup Service Unit Tests")
+class AnalyticsRollupServiceTest {
+
+    @Mock
+    private AppointmentDailyRollupRepository appointmentRollupRepository;
+
+    @Mock
+    private EmployeeDailyRollupRepository employeeRollupRepository;
+
+    @Mock
+    private TurnaroundHistogramRepository turnaroundHistogramRepository;
+
+    @Mock
+    private CustomerDailySketchRepository customerSketchRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AnalyticsCacheService analyticsCacheService;
+
+    @Mock
+    private AppointmentFactSnapshot appointmentFactSnapshot;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AnalyticsRollupService analyticsRollupService;
+
+    private Appointment appointment;
+    private UUID serviceCenterId;
+    private UUID serviceId;
+    private final LocalDate day = LocalDate.of(2025, 3, 14);
+
+    @BeforeEach
+    void setUp() {
+        serviceCenterId = UUID.randomUUID();
+        serviceId = UUID.randomUUID();
+
+        ServiceCenter serviceCenter = new ServiceCenter();
+        serviceCenter.setId(serviceCenterId);
+        ServiceOrModification service = new ServiceOrModification();
+        service.setId(serviceId);
+
+        appointment = new Appointment();
+        appointment.setId(UUID.randomUUID());
+        appointment.setAppointmentDate(day.atTime(10, 0));
+        appointment.setServiceCenter(serviceCenter);
+        appointment.setServiceOrModification(service);
+        appointment.setStatus("PENDING");
+        appointment.setAssignedEmployees(new HashSet<>());
+    }
+
+    @Test
+    @DisplayName("Should add one to the rollup of a newly created appointment")
+    void testRecordChange_Created() {
+        // Act
+        analyticsRollupService.recordChange(null, appointment);
+
+        // Assert
+        verify(appointmentRollupRepository).addToCount(day, serviceCenterId, serviceId, "PENDING", 1L);
+        verifyNoMoreInteractions(appointmentRollupRepository);
+        verifyNoInteractions(employeeRollupRepository);
+    }
+
+    @Test
+    @DisplayName("Should move the appointment and its employees between status buckets")
+    void testRecordChange_StatusChange() {
+        // Arrange
+        User employee = new User();
+        employee.setId(UUID.randomUUID());
+        appointment.getAssignedEmployees().add(employee);
+        appointment.setStatus("IN_PROGRESS");
+        AnalyticsRollupService.Snapshot before = analyticsRollupService.snapshot(appointment);
+
+        // Act
+        appointment.setStatus("COMPLETED");
+        appointment.setEndTime(LocalDateTime.now());
+        analyticsRollupService.recordChange(before, appointment);
+
+        // Assert
+        verify(appointmentRollupRepository).addToCount(day, serviceCenterId, serviceId, "IN_PROGRESS", -1L);
+        verify(appointmentRollupRepository).addToCount(day, serviceCenterId, serviceId, "COMPLETED", 1L);
+        verify(employeeRollupRepository).addToCount(day, serviceCenterId, employee.getId(), "IN_PROGRESS", -1L);
+        verify(employeeRollupRepository).addToCount(day, serviceCenterId, employee.getId(), "COMPLETED", 1L);
+        verify(analyticsCacheService).invalidate(serviceCenterId, day);
+    }
+
+    @Test
+    @DisplayName("Should only touch employee rollups when employees are assigned")
+    void testRecordChange_AssignmentOnly() {
+        // Arrange
+        AnalyticsRollupService.Snapshot before = analyticsRollupService.snapshot(appointment);
+        User employee = new User();
+        employee.setId(UUID.randomUUID());
+
+        // Act
+        appointment.getAssignedEmployees().add(employee);
+        analyticsRollupService.recordChange(before, appointment);
+
+        // Assert
+        verify(appointmentRollupRepository, never()).addToCount(any(), any(), any(), any(), anyLong());
+        verify(employeeRollupRepository).addToCount(day, serviceCenterId, employee.getId(), "PENDING", 1L);
+    }
+
+    @Test
+    @DisplayName("Should record wait time on start and work duration on completion")
+    void testRecordChange_TurnaroundSamples() {
+        // Arrange
+        User employee = new User();
+        employee.setId(UUID.randomUUID());
+        appointment.getAssignedEmployees().add(employee);
+        appointment.setStatus("IN_PROGRESS");
+        appointment.setStartTime(day.atTime(10, 20));
+        AnalyticsRollupService.Snapshot before = analyticsRollupService.snapshot(appointment);
+
+        // Act
+        appointment.setStatus("COMPLETED");
+        appointment.setEndTime(day.atTime(11, 50));
+        analyticsRollupService.recordChange(before, appointment);
+
+        // Assert
+        int workBucket = LatencyHistogram.bucketOf(90 * 60);
+        assertEquals(20 * 60, before.waitSeconds());
+        verify(turnaroundHistogramRepository).addToCount(day, serviceCenterId,
+                TurnaroundHistogramBucket.DIMENSION_SERVICE, serviceId, "WORK", workBucket, 1L);
+        verify(turnaroundHistogramRepository).addToCount(day, serviceCenterId,
+                TurnaroundHistogramBucket.DIMENSION_EMPLOYEE, employee.getId(), "WORK", workBucket, 1L);
+        // The wait sample is unchanged, so it is not touched
+        verify(turnaroundHistogramRepository, never()).addToCount(any(), any(), any(), any(), eq("WAIT"), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should add a booking's customer to the daily sketches")
+    void testRecordChange_CustomerSketches() {
+        // Arrange
+        User customer = new User();
+        customer.setId(UUID.randomUUID());
+        appointment.setUser(customer);
+        when(appointmentRepository.existsByUserIdAndAppointmentDateBefore(customer.getId(), appointment.getAppointmentDate()))
+                .thenReturn(true);
+        int register = HyperLogLog.registerOf(customer.getId());
+        int rank = HyperLogLog.rankOf(customer.getId());
+
+        // Act
+        analyticsRollupService.recordChange(null, appointment);
+        appointment.setStatus("CONFIRMED");
+        analyticsRollupService.recordChange(analyticsRollupService.snapshot(appointment), appointment);
+
+        // Assert
+        verify(customerSketchRepository).raiseRegister(day, serviceCenterId, CustomerDailySketch.SKETCH_ALL, register, rank);
+        verify(customerSketchRepository).raiseRegister(day, serviceCenterId, CustomerDailySketch.SKETCH_RETURNING, register, rank);
+        verifyNoMoreInteractions(customerSketchRepository);
+    }
+
+    @Test
+    @DisplayName("Rebuild should count a customer as returning only from their first appointment date on")
+    void testRebuild_ReturningCustomerSketches() {
+        // Arrange: two appointments at the same first hour, then a later one
+        UUID customerId = UUID.randomUUID();
+        LocalDateTime first = day.atTime(9, 0);
+        when(appointmentRepository.streamCustomerSketchSamples()).thenReturn(Stream.of(
+                new Object[]{first, serviceCenterId, customerId},
+                new Object[]{first, serviceCenterId, customerId},
+                new Object[]{day.plusDays(1).atTime(9, 0), serviceCenterId, customerId}));
+        int register = HyperLogLog.registerOf(customerId);
+        int rank = HyperLogLog.rankOf(customerId);
+
+        // Act
+        analyticsRollupService.rebuild();
+
+        // Assert
+        verify(customerSketchRepository).raiseRegister(day, serviceCenterId, CustomerDailySketch.SKETCH_ALL, register, rank);
+        verify(customerSketchRepository, never()).raiseRegister(eq(day), any(), eq(CustomerDailySketch.SKETCH_RETURNING), anyInt(), anyInt());
+        verify(customerSketchRepository).raiseRegister(day.plusDays(1), serviceCenterId, CustomerDailySketch.SKETCH_RETURNING, register, rank);
+    }
+
+    @Test
+    @DisplayName("Warm-up should rebuild when started appointments exist but the histograms are empty")
+    void testWarmUp_FillsEmptyHistograms() {
+        // Arrange
+        when(turnaroundHistogramRepository.hasRows()).thenReturn(false);
+        when(appointmentRepository.existsByStartTimeIsNotNull()).thenReturn(true);
+        when(customerSketchRepository.hasRows()).thenReturn(true);
+
+        // Act
+        analyticsRollupService.warmUp();
+
+        // Assert
+        verify(turnaroundHistogramRepository).deleteAllRows();
+        verify(appointmentRepository).streamTurnaroundSamples();
+        verify(transactionManager).commit(any());
+        verify(analyticsCacheService).invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Warm-up should rebuild when appointments exist but the customer sketches are empty")
+    void testWarmUp_FillsEmptySketches() {
+        // Arrange
+        when(turnaroundHistogramRepository.hasRows()).thenReturn(true);
+        when(customerSketchRepository.hasRows()).thenReturn(false);
+        when(appointmentRepository.existsByAppointmentDateIsNotNull()).thenReturn(true);
+
+        // Act
+        analyticsRollupService.warmUp();
+
+        // Assert
+        verify(customerSketchRepository).deleteAllRows();
+        verify(appointmentRepository).streamCustomerSketchSamples();
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Warm-up should leave filled histograms and sketches to the incremental updates")
+    void testWarmUp_AlreadyFilled() {
+        // Arrange
+        when(turnaroundHistogramRepository.hasRows()).thenReturn(true);
+        when(customerSketchRepository.hasRows()).thenReturn(true);
+
+        // Act
+        analyticsRollupService.warmUp();
+
+        // Assert
+        verify(turnaroundHistogramRepository, never()).deleteAllRows();
+        verify(appointmentRollupRepository, never()).lockForRebuild();
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should ignore appointments that are missing rollup keys")
+    void testSnapshot_Incomplete() {
+        // Arrange
+        appointment.setServiceCenter(null);
+
+        // Act & Assert
+        assertNull(analyticsRollupService.snapshot(appointment));
+        analyticsRollupService.recordChange(null, appointment);
+        verifyNoInteractions(appointmentRollupRepository, employeeRollupRepository);
+    }
+}
@@ -0,0 +1,185 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.AnalyticsDashboardDTO;
+import com.ead.backend.dto.AnalyticsFilterRequestDTO;
+import com.ead.backend.repository.AppointmentDailyRollupRepository;
+import com.ead.backend.repository.AppointmentRepository;
+import com.ead.backend.repository.CustomerDailySketchRepository;
+import com.ead.backend.repository.EmployeeDailyRollupRepository;
+import com.ead.backend.repository.TimeLogRepository;
+import com.ead.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Analytics Service Unit Tests")
+class AnalyticsServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private TimeLogRepository timeLogRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AppointmentDailyRollupRepository appointmentRollupRepository;
+
+    @Mock
+    private EmployeeDailyRollupRepository employeeRollupRepository;
+
+    @Mock
+    private CustomerDailySketchRepository customerSketchRepository;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    private AnalyticsFilterRequestDTO filter;
+    private final LocalDateTime startDate = LocalDate.of(2025, 3, 1).atStartOfDay();
+    private final LocalDateTime endDate = LocalDate.of(2025, 3, 31).atTime(23, 59, 59);
+
+    @BeforeEach
+    void setUp() {
+        filter = new AnalyticsFilterRequestDTO();
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        analyticsService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should map the dashboard counter row and the sub-reports into the summary")
+    void testGetDashboardSummary_MapsCounters() {
+        // Arrange
+        UUID serviceCenterId = UUID.randomUUID();
+        filter.setServiceCenterId(serviceCenterId);
+        // Row: [total, completed, confirmed, pending, inProgress, cancelled, revenue, customers, repeatCustomers]
+        when(appointmentRepository.getDashboardCounters(startDate, endDate, serviceCenterId))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 4L, 2L, 1L, 1L, 2L, 18000.0, 6L, 3L}));
+        when(userRepository.countByRoleName("EMPLOYEE")).thenReturn(3L);
+
+        // Act
+        AnalyticsDashboardDTO dashboard = analyticsService.getDashboardSummary(filter);
+
+        // Assert
+        assertEquals(10L, dashboard.getTotalAppointments());
+        assertEquals(4L, dashboard.getCompletedAppointments());
+        assertEquals(2L, dashboard.getConfirmedAppointments());
+        assertEquals(1L, dashboard.getPendingAppointments());
+        assertEquals(1L, dashboard.getInProgressAppointments());
+        assertEquals(2L, dashboard.getCancelledAppointments());
+        assertEquals(18000.0, dashboard.getTotalRevenue());
+        assertEquals(40.0, dashboard.getCompletionRate());
+        assertEquals(4500.0, dashboard.getAverageServiceCost());
+        assertEquals(6L, dashboard.getTotalCustomers());
+        assertEquals(3L, dashboard.getTotalEmployees());
+        assertEquals(50.0, dashboard.getRepeatCustomerRate());
+        assertEquals(startDate, dashboard.getPeriodStart());
+        assertEquals(endDate, dashboard.getPeriodEnd());
+        verify(appointmentRollupRepository, never()).getDashboardCounters(any(), any(), any());
+        verify(userRepository, never()).getCustomerInsightsSummary(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should query the full date range for allTime and report zeros when nothing matches")
+    void testGetDashboardSummary_AllTime() {
+        // Arrange
+        filter.setAllTime(true);
+        LocalDateTime minDate = LocalDate.of(1970, 1, 1).atStartOfDay();
+        LocalDateTime maxDate = LocalDate.of(9999, 12, 31).atTime(23, 59, 59);
+        when(appointmentRepository.getDashboardCounters(minDate, maxDate, null)).thenReturn(List.of());
+
+        // Act
+        AnalyticsDashboardDTO dashboard = analyticsService.getDashboardSummary(filter);
+
+        // Assert
+        assertEquals(0L, dashboard.getTotalAppointments());
+        assertEquals(0.0, dashboard.getTotalRevenue());
+        assertEquals(0.0, dashboard.getCompletionRate());
+        assertEquals(0L, dashboard.getTotalCustomers());
+        assertEquals(0.0, dashboard.getRepeatCustomerRate());
+        verify(appointmentRepository).getDashboardCounters(minDate, maxDate, null);
+        verify(employeeRollupRepository).getEmployeeAppointmentMetrics(LocalDate.of(1970, 1, 1), LocalDate.of(9999, 12, 31), null);
+        verify(timeLogRepository).getEmployeeTimeMetricsAllTime();
+    }
+
+    @Test
+    @DisplayName("Approximate dashboard should use exact customer counts until the sketches are filled")
+    void testGetDashboardSummary_ApproximateBeforeSketches() {
+        // Arrange
+        filter.setApproximate(true);
+        LocalDate startDay = startDate.toLocalDate();
+        LocalDate endDay = endDate.toLocalDate();
+        // Row: [total, completed, confirmed, pending, inProgress, cancelled, revenue]
+        when(appointmentRollupRepository.getDashboardCounters(startDay, endDay, null))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 4L, 2L, 1L, 1L, 2L, 18000.0}));
+        when(customerSketchRepository.hasRows()).thenReturn(false);
+        when(appointmentRepository.getDashboardCounters(startDate, endDate, null))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 4L, 2L, 1L, 1L, 2L, 18000.0, 6L, 3L}));
+
+        // Act
+        AnalyticsDashboardDTO dashboard = analyticsService.getDashboardSummary(filter);
+
+        // Assert
+        assertEquals(10L, dashboard.getTotalAppointments());
+        assertEquals(6L, dashboard.getTotalCustomers());
+        assertEquals(50.0, dashboard.getRepeatCustomerRate());
+        verify(customerSketchRepository, never()).getMergedRegisters(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Approximate dashboard should estimate customers from filled sketches")
+    void testGetDashboardSummary_ApproximateFromSketches() {
+        // Arrange
+        filter.setApproximate(true);
+        LocalDate startDay = startDate.toLocalDate();
+        LocalDate endDay = endDate.toLocalDate();
+        when(appointmentRollupRepository.getDashboardCounters(startDay, endDay, null))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 4L, 2L, 1L, 1L, 2L, 18000.0}));
+        when(customerSketchRepository.hasRows()).thenReturn(true);
+
+        // Act
+        AnalyticsDashboardDTO dashboard = analyticsService.getDashboardSummary(filter);
+
+        // Assert
+        assertEquals(10L, dashboard.getTotalAppointments());
+        assertEquals(0L, dashboard.getTotalCustomers());
+        verify(customerSketchRepository).getMergedRegisters(startDay, endDay, null);
+        verify(appointmentRepository, never()).getDashboardCounters(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should rethrow a failing sub-report's exception as is")
+    void testGetDashboardSummary_SubReportFails() {
+        // Arrange
+        when(appointmentRepository.getDashboardCounters(startDate, endDate, null))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 1L, 0L, 0L, 0L, 0L, 4500.0, 1L, 0L}));
+        when(employeeRollupRepository.getEmployeeAppointmentMetrics(any(), any(), any()))
+                .thenThrow(new IllegalStateException("Employee rollups unavailable"));
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> analyticsService.getDashboardSummary(filter));
+        assertEquals("Employee rollups unavailable", exception.getMessage());
+    }
+}
@@ -0,0 +1,142 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.AnalyticsFilterRequestDTO;
+import com.ead.backend.dto.AppointmentExportRowDTO;
+import com.ead.backend.enums.AppointmentType;
+import com.ead.backend.enums.ExportFormat;
+import com.ead.backend.repository.AppointmentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Appointment Export Service Unit Tests")
+class AppointmentExportServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AppointmentExportService exportService;
+
+    private AppointmentExportRowDTO row;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new AppointmentExportService(appointmentRepository, objectMapper);
+
+        row = new AppointmentExportRowDTO(
+                UUID.randomUUID(),
+                LocalDateTime.of(2025, 3, 14, 10, 0),
+                null,
+                null,
+                "COMPLETED",
+                AppointmentType.SERVICE,
+                "Oil Change",
+                4500.0,
+                "Downtown Center",
+                "Doe, \"Johnny\"",
+                "john@example.com",
+                "Toyota",
+                "Camry",
+                "ABC-1234");
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line and close the database stream")
+    void testExport_Ndjson() throws Exception {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(appointmentRepository.streamForExport(any(), any(), any(), any(), any()))
+                .thenReturn(Stream.of(row, row).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long written = exportService.export(new AnalyticsFilterRequestDTO(), ExportFormat.NDJSON, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(row.getId().toString(), first.get("id").asText());
+        assertEquals("2025-03-14T10:00", first.get("appointmentDate").asText());
+        assertTrue(first.get("startTime").isNull());
+        assertEquals(4500.0, first.get("estimatedCost").asDouble());
+        assertEquals("Doe, \"Johnny\"", first.get("customerName").asText());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header and quote cells that need it")
+    void testExport_Csv() throws Exception {
+        // Arrange
+        when(appointmentRepository.streamForExport(any(), any(), any(), any(), any())).thenReturn(Stream.of(row));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.export(new AnalyticsFilterRequestDTO(), ExportFormat.CSV, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,appointmentDate,startTime,endTime,status"));
+        assertEquals(row.getId() + ",2025-03-14T10:00,,,COMPLETED,SERVICE,Oil Change,4500.0,Downtown Center,"
+                + "\"Doe, \"\"Johnny\"\"\",john@example.com,Toyota,Camry,ABC-1234", lines[1]);
+    }
+
+    @Test
+    @DisplayName("Should pass filters through and leave missing date bounds open")
+    void testExport_Filters() throws Exception {
+        // Arrange
+        UUID serviceCenterId = UUID.randomUUID();
+        LocalDateTime startDate = LocalDateTime.of(2025, 1, 1, 0, 0);
+        AnalyticsFilterRequestDTO filter = new AnalyticsFilterRequestDTO();
+        filter.setStartDate(startDate);
+        filter.setServiceCenterId(serviceCenterId);
+        filter.setAppointmentType(AppointmentType.MODIFICATION);
+        filter.setStatus("COMPLETED");
+        when(appointmentRepository.streamForExport(any(), any(), any(), any(), any())).thenReturn(Stream.empty());
+
+        // Act
+        long written = exportService.export(filter, ExportFormat.CSV, new ByteArrayOutputStream());
+
+        // Assert
+        assertEquals(0, written);
+        verify(appointmentRepository).streamForExport(eq(startDate),
+                argThat(end -> end.getYear() == 9999),
+                eq(serviceCenterId), eq(AppointmentType.MODIFICATION), eq("COMPLETED"));
+    }
+
+    @Test
+    @DisplayName("Should neutralize spreadsheet formulas in CSV cells")
+    void testCsv_FormulaInjection() {
+        assertEquals("\"'=HYPERLINK(\"\"x\"\")\"", AppointmentExportService.csv("=HYPERLINK(\"x\")"));
+        assertEquals("'+94 77 123 4567", AppointmentExportService.csv("+94 77 123 4567"));
+        assertEquals("", AppointmentExportService.csv(null));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown export formats")
+    void testExportFormat_Unknown() {
+        assertEquals(ExportFormat.CSV, ExportFormat.from("csv"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.from("xlsx"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.ead.backend.service;
+
+import com.ead.backend.entity.Appointment;
+import com.ead.backend.entity.ServiceCenter;
+import com.ead.backend.entity.ServiceOrModification;
+import com.ead.backend.entity.User;
+import com.ead.backend.enums.AppointmentType;
+import com.ead.backend.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Appointment Fact Snapshot Unit Tests")
+class AppointmentFactSnapshotTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AppointmentFactSnapshot.Columns columns;
+
+    private final UUID centerA = UUID.randomUUID();
+    private final UUID centerB = UUID.randomUUID();
+    private final UUID oilChange = UUID.randomUUID();
+    private final UUID bodyKit = UUID.randomUUID();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID employee = UUID.randomUUID();
+    private final LocalDate day = LocalDate.of(2025, 3, 14);
+
+    @BeforeEach
+    void setUp() {
+        columns = new AppointmentFactSnapshot.Columns();
+        columns.put(fact(UUID.randomUUID(), day, centerA, oilChange, "COMPLETED", alice, true));
+        columns.put(fact(UUID.randomUUID(), day.plusDays(1), centerA, oilChange, "PENDING", alice, false));
+        columns.put(fact(UUID.randomUUID(), day.plusDays(2), centerA, bodyKit, "COMPLETED", bob, true));
+        columns.put(fact(UUID.randomUUID(), day.plusDays(40), centerB, oilChange, "CANCELLED", bob, false));
+    }
+
+    @Test
+    @DisplayName("Should aggregate counts, revenue and customers over the matching rows")
+    void testAggregate_Totals() {
+        // Act
+        AppointmentFactSnapshot.SliceResult result = columns.aggregate(
+                new AppointmentFactSnapshot.Slice(day, day.plusDays(30), centerA, null, null, null, null));
+
+        // Assert
+        assertEquals(3, result.totalAppointments());
+        assertEquals(2, result.count("COMPLETED"));
+        assertEquals(1, result.count("PENDING"));
+        assertEquals(0, result.count("CANCELLED"));
+        assertEquals(4500.0 + 120000.0, result.completedRevenue());
+        assertEquals(2, result.customers());
+        assertEquals(1, result.repeatCustomers());
+        assertEquals(oilChange, result.services().get(0).id());
+        assertEquals(2, result.services().get(0).count());
+        assertEquals(9000.0, result.services().get(0).revenue());
+    }
+
+    @Test
+    @DisplayName("Should slice by service type, status and employee")
+    void testAggregate_Slices() {
+        // Act
+        AppointmentFactSnapshot.SliceResult modifications = columns.aggregate(new AppointmentFactSnapshot.Slice(
+                null, null, null, null, AppointmentType.MODIFICATION, null, null));
+        AppointmentFactSnapshot.SliceResult cancelled = columns.aggregate(new AppointmentFactSnapshot.Slice(
+                null, null, null, oilChange, null, "CANCELLED", null));
+        AppointmentFactSnapshot.SliceResult byEmployee = columns.aggregate(new AppointmentFactSnapshot.Slice(
+                null, null, null, null, null, null, employee));
+        AppointmentFactSnapshot.SliceResult unknownCenter = columns.aggregate(new AppointmentFactSnapshot.Slice(
+                null, null, UUID.randomUUID(), null, null, null, null));
+
+        // Assert
+        assertEquals(1, modifications.totalAppointments());
+        assertEquals(bodyKit, modifications.services().get(0).id());
+        assertEquals(1, cancelled.totalAppointments());
+        assertEquals(2, byEmployee.totalAppointments());
+        assertEquals(1, byEmployee.employees().size());
+        assertEquals(2, byEmployee.employees().get(0).completed());
+        assertEquals(0, unknownCenter.totalAppointments());
+    }
+
+    @Test
+    @DisplayName("Should overwrite the row of a changed appointment, including its employees")
+    void testPut_UpdatesExistingRow() {
+        // Arrange
+        UUID appointmentId = UUID.randomUUID();
+        columns.put(fact(appointmentId, day, centerB, oilChange, "PENDING", alice, true));
+
+        // Act
+        columns.put(fact(appointmentId, day, centerB, oilChange, "COMPLETED", alice, false));
+
+        // Assert
+        AppointmentFactSnapshot.SliceResult result = columns.aggregate(
+                new AppointmentFactSnapshot.Slice(day, day, centerB, null, null, null, null));
+        assertEquals(5, columns.size);
+        assertEquals(1, result.totalAppointments());
+        assertEquals(1, result.count("COMPLETED"));
+        assertTrue(result.employees().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should load from the database on first query and apply later changes")
+    void testQuery_LoadsLazilyAndAppliesChanges() {
+        // Arrange
+        AppointmentFactSnapshot snapshot = new AppointmentFactSnapshot(appointmentRepository, transactionManager);
+        UUID appointmentId = UUID.randomUUID();
+        when(appointmentRepository.streamAnalyticsFacts()).thenReturn(Stream.<Object[]>of(new Object[]{
+                appointmentId, day.atTime(10, 0), centerA, oilChange, "Oil Change", AppointmentType.SERVICE,
+                "PENDING", 4500.0, alice}));
+        when(appointmentRepository.streamAnalyticsFactEmployees()).thenReturn(Stream.<Object[]>of(new Object[]{
+                appointmentId, employee, "Jane Smith", "jane@example.com"}));
+        AppointmentFactSnapshot.Slice all = new AppointmentFactSnapshot.Slice(null, null, null, null, null, null, null);
+
+        Appointment completed = new Appointment();
+        completed.setId(appointmentId);
+        completed.setAppointmentDate(day.atTime(10, 0));
+        completed.setServiceCenter(new ServiceCenter());
+        completed.getServiceCenter().setId(centerA);
+        completed.setServiceOrModification(new ServiceOrModification());
+        completed.getServiceOrModification().setId(oilChange);
+        completed.getServiceOrModification().setType(AppointmentType.SERVICE);
+        completed.getServiceOrModification().setEstimatedCost(4500.0);
+        completed.setUser(new User());
+        completed.getUser().setId(alice);
+        completed.setStatus("COMPLETED");
+
+        // Act
+        AppointmentFactSnapshot.SliceResult loaded = snapshot.query(all);
+        snapshot.recordChange(completed);
+        AppointmentFactSnapshot.SliceResult changed = snapshot.query(all);
+
+        // Assert
+        assertEquals(1, loaded.totalAppointments());
+        assertEquals("Jane Smith", loaded.employees().get(0).name());
+        assertEquals(1, changed.totalAppointments());
+        assertEquals(1, changed.count("COMPLETED"));
+        assertEquals(4500.0, changed.completedRevenue());
+        verify(appointmentRepository, times(1)).streamAnalyticsFacts();
+    }
+
+    private AppointmentFactSnapshot.Fact fact(UUID appointmentId, LocalDate date, UUID centerId, UUID serviceId,
+                                              String status, UUID customerId, boolean assigned) {
+        boolean modification = serviceId.equals(bodyKit);
+        return new AppointmentFactSnapshot.Fact(
+                appointmentId,
+                date,
+                centerId,
+                serviceId,
+                modification ? "Body Kit" : "Oil Change",
+                modification ? AppointmentType.MODIFICATION : AppointmentType.SERVICE,
+                status,
+                modification ? 120000.0 : 4500.0,
+                customerId,
+                assigned ? List.of(new AppointmentFactSnapshot.EmployeeRef(employee, "Jane Smith", "jane@example.com"))
+                        : List.of());
+    }
+}
@@ -1,8 +1,11 @@
 package com.ead.backend.service;
 
+import com.ead.backend.dto.AdminAppointmentDTO;
+import com.ead.backend.dto.AdminAppointmentPageDTO;
 import com.ead.backend.entity.*;
 import com.ead.backend.enums.AppointmentType;
 import com.ead.backend.repository.*;
+import com.ead.backend.util.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -10,10 +13,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -42,11 +48,14 @@ class AppointmentServiceTest {
     private ServiceCenterRepository serviceCenterRepository;
 
     @Mock
-    private EmailService emailService;
+    private OutboxService outboxService;
 
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private AnalyticsRollupService analyticsRollupService;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -116,6 +125,10 @@ class AppointmentServiceTest {
         testAppointment.setAppointmentDate(LocalDateTime.now().plusDays(2).withHour(10).withMinute(0).withSecond(0));
         testAppointment.setStatus("PENDING");
 
+        // Real slot ledger backed by the mocked repository, so slot counts come from the stubs below
+        ReflectionTestUtils.setField(appointmentService, "slotCapacityLedger",
+                new SlotCapacityLedger(appointmentRepository));
+
         // Mock security context
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
@@ -150,12 +163,11 @@ class AppointmentServiceTest {
         when(vehicleRepository.findById(vehicleId)).thenReturn(Optional.of(testVehicle));
         when(serviceOrModificationRepository.findById(serviceId)).thenReturn(Optional.of(testService));
         when(serviceCenterRepository.findById(serviceCenterId)).thenReturn(Optional.of(testServiceCenter));
-        when(appointmentRepository.findByVehicleIdAndAppointmentDateAndStatusNot(any(), any(), eq("CANCELLED")))
-                .thenReturn(Collections.emptyList());
+        when(appointmentRepository.getBookingConflictFacts(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.singletonList(new Object[]{0L, 0L, 0L, null, null, null}));
         when(appointmentRepository.countByServiceCenterIdAndAppointmentDateAndStatusNot(any(), any(), eq("CANCELLED")))
                 .thenReturn(2L);
         when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
-        doNothing().when(notificationService).sendNotification(any(), any(), any(), any());
 
         // Act
         Appointment result = appointmentService.createAppointment(newAppointment);
@@ -164,8 +176,83 @@ class AppointmentServiceTest {
         assertNotNull(result);
         assertEquals("PENDING", result.getStatus());
         verify(appointmentRepository, times(1)).save(any(Appointment.class));
-        verify(notificationService, times(1)).sendNotification(any(), eq("APPOINTMENT_CREATED"), any(), any());
-        verify(emailService, times(1)).sendAppointmentConfirmationEmail(any(), any(), any(), any(), any(), any(), any(), any());
+        verify(outboxService, times(1)).enqueueNotification(any(), eq("APPOINTMENT_CREATED"), any(), any());
+        verify(outboxService, times(1)).enqueueAppointmentConfirmationEmail(any(), any(), any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    @DisplayName("Should accept the last business hour of the last bookable day")
+    void testCreateAppointment_LastBookableDay() {
+        // Arrange - the calendar offers every business hour of today + horizon, so all of them must be bookable
+        LocalDate lastDay = LocalDate.now().plusDays(AppointmentService.BOOKING_HORIZON_DAYS);
+        List<Integer> hours = SlotAvailabilityService.getBusinessHours(lastDay);
+        Appointment newAppointment = new Appointment();
+        newAppointment.setAppointmentType(AppointmentType.SERVICE);
+        newAppointment.setAppointmentDate(lastDay.atTime(hours.get(hours.size() - 1), 0));
+
+        Vehicle vehicleRef = new Vehicle();
+        vehicleRef.setId(vehicleId);
+        newAppointment.setVehicle(vehicleRef);
+
+        ServiceOrModification somRef = new ServiceOrModification();
+        somRef.setId(serviceId);
+        newAppointment.setServiceOrModification(somRef);
+
+        ServiceCenter scRef = new ServiceCenter();
+        scRef.setId(serviceCenterId);
+        newAppointment.setServiceCenter(scRef);
+
+        when(userRepository.findByEmail("customer@example.com")).thenReturn(Optional.of(testUser));
+        when(vehicleRepository.findById(vehicleId)).thenReturn(Optional.of(testVehicle));
+        when(serviceOrModificationRepository.findById(serviceId)).thenReturn(Optional.of(testService));
+        when(serviceCenterRepository.findById(serviceCenterId)).thenReturn(Optional.of(testServiceCenter));
+        when(appointmentRepository.getBookingConflictFacts(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.singletonList(new Object[]{0L, 0L, 0L, null, null, null}));
+        when(appointmentRepository.countByServiceCenterIdAndAppointmentDateAndStatusNot(any(), any(), eq("CANCELLED")))
+                .thenReturn(0L);
+        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+
+        // Act
+        Appointment result = appointmentService.createAppointment(newAppointment);
+
+        // Assert
+        assertNotNull(result);
+        verify(appointmentRepository, times(1)).save(any(Appointment.class));
+    }
+
+    @Test
+    @DisplayName("Should reject an appointment past the last bookable day")
+    void testCreateAppointment_BeyondHorizon() {
+        // Arrange
+        Appointment newAppointment = new Appointment();
+        newAppointment.setAppointmentType(AppointmentType.SERVICE);
+        newAppointment.setAppointmentDate(LocalDate.now()
+                .plusDays(AppointmentService.BOOKING_HORIZON_DAYS + 1).atTime(10, 0));
+
+        Vehicle vehicleRef = new Vehicle();
+        vehicleRef.setId(vehicleId);
+        newAppointment.setVehicle(vehicleRef);
+
+        ServiceOrModification somRef = new ServiceOrModification();
+        somRef.setId(serviceId);
+        newAppointment.setServiceOrModification(somRef);
+
+        ServiceCenter scRef = new ServiceCenter();
+        scRef.setId(serviceCenterId);
+        newAppointment.setServiceCenter(scRef);
+
+        when(userRepository.findByEmail("customer@example.com")).thenReturn(Optional.of(testUser));
+        when(vehicleRepository.findById(vehicleId)).thenReturn(Optional.of(testVehicle));
+        when(serviceOrModificationRepository.findById(serviceId)).thenReturn(Optional.of(testService));
+        when(serviceCenterRepository.findById(serviceCenterId)).thenReturn(Optional.of(testServiceCenter));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            appointmentService.createAppointment(newAppointment);
+        });
+        assertEquals("Appointment cannot be scheduled more than 1 month in advance", exception.getMessage());
+        verify(appointmentRepository, never()).save(any(Appointment.class));
     }
 
     @Test
@@ -322,8 +409,8 @@ class AppointmentServiceTest {
         when(vehicleRepository.findById(vehicleId)).thenReturn(Optional.of(testVehicle));
         when(serviceOrModificationRepository.findById(serviceId)).thenReturn(Optional.of(testService));
         when(serviceCenterRepository.findById(serviceCenterId)).thenReturn(Optional.of(testServiceCenter));
-        when(appointmentRepository.findByVehicleIdAndAppointmentDateAndStatusNot(any(), any(), eq("CANCELLED")))
-                .thenReturn(Collections.emptyList());
+        when(appointmentRepository.getBookingConflictFacts(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.singletonList(new Object[]{0L, 0L, 0L, null, null, null}));
         when(appointmentRepository.countByServiceCenterIdAndAppointmentDateAndStatusNot(any(), any(), eq("CANCELLED")))
                 .thenReturn(5L); // Fully booked (centerSlot = 5)
 
@@ -358,8 +445,8 @@ class AppointmentServiceTest {
         when(vehicleRepository.findById(vehicleId)).thenReturn(Optional.of(testVehicle));
         when(serviceOrModificationRepository.findById(serviceId)).thenReturn(Optional.of(testService));
         when(serviceCenterRepository.findById(serviceCenterId)).thenReturn(Optional.of(testServiceCenter));
-        when(appointmentRepository.findByVehicleIdAndAppointmentDateAndStatusNot(any(), any(), eq("CANCELLED")))
-                .thenReturn(Arrays.asList(testAppointment));
+        when(appointmentRepository.getBookingConflictFacts(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.singletonList(new Object[]{1L, 0L, 0L, null, null, null}));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -368,6 +455,79 @@ class AppointmentServiceTest {
         assertTrue(exception.getMessage().contains("already has an appointment scheduled"));
     }
 
+    @Test
+    @DisplayName("Should reject booking that overlaps another appointment of the vehicle")
+    void testCreateAppointment_OverlappingAppointment() {
+        // Arrange
+        LocalDateTime appointmentDate = LocalDateTime.now().plusDays(2).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Appointment newAppointment = new Appointment();
+        newAppointment.setAppointmentType(AppointmentType.SERVICE);
+        newAppointment.setAppointmentDate(appointmentDate);
+
+        Vehicle vehicleRef = new Vehicle();
+        vehicleRef.setId(vehicleId);
+        newAppointment.setVehicle(vehicleRef);
+
+        ServiceOrModification somRef = new ServiceOrModification();
+        somRef.setId(serviceId);
+        newAppointment.setServiceOrModification(somRef);
+
+        ServiceCenter scRef = new ServiceCenter();
+        scRef.setId(serviceCenterId);
+        newAppointment.setServiceCenter(scRef);
+
+        when(userRepository.findByEmail("customer@example.com")).thenReturn(Optional.of(testUser));
+        when(vehicleRepository.findById(vehicleId)).thenReturn(Optional.of(testVehicle));
+        when(serviceOrModificationRepository.findById(serviceId)).thenReturn(Optional.of(testService));
+        when(serviceCenterRepository.findById(serviceCenterId)).thenReturn(Optional.of(testServiceCenter));
+        when(appointmentRepository.getBookingConflictFacts(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.singletonList(new Object[]{
+                        0L, 0L, 0L, "Wheel Alignment", Timestamp.valueOf(appointmentDate.minusMinutes(30)), 90}));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            appointmentService.createAppointment(newAppointment);
+        });
+        assertTrue(exception.getMessage().contains("conflicting appointment for 'Wheel Alignment'"));
+        verify(appointmentRepository, times(1)).getBookingConflictFacts(
+                eq(vehicleId), eq(userId), eq(serviceCenterId), eq("SERVICE"), eq(appointmentDate), any(), any());
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    @DisplayName("Should reject booking when the customer reached the daily limit")
+    void testCreateAppointment_DailyLimitReached() {
+        // Arrange
+        Appointment newAppointment = new Appointment();
+        newAppointment.setAppointmentType(AppointmentType.SERVICE);
+        newAppointment.setAppointmentDate(LocalDateTime.now().plusDays(2).withHour(10).withMinute(0));
+
+        Vehicle vehicleRef = new Vehicle();
+        vehicleRef.setId(vehicleId);
+        newAppointment.setVehicle(vehicleRef);
+
+        ServiceOrModification somRef = new ServiceOrModification();
+        somRef.setId(serviceId);
+        newAppointment.setServiceOrModification(somRef);
+
+        ServiceCenter scRef = new ServiceCenter();
+        scRef.setId(serviceCenterId);
+        newAppointment.setServiceCenter(scRef);
+
+        when(userRepository.findByEmail("customer@example.com")).thenReturn(Optional.of(testUser));
+        when(vehicleRepository.findById(vehicleId)).thenReturn(Optional.of(testVehicle));
+        when(serviceOrModificationRepository.findById(serviceId)).thenReturn(Optional.of(testService));
+        when(serviceCenterRepository.findById(serviceCenterId)).thenReturn(Optional.of(testServiceCenter));
+        when(appointmentRepository.getBookingConflictFacts(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.singletonList(new Object[]{0L, 0L, 2L, null, null, null}));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            appointmentService.createAppointment(newAppointment);
+        });
+        assertTrue(exception.getMessage().contains("maximum limit of 2 appointments per day"));
+    }
+
     // ===================================================================
     // GET APPOINTMENTS TESTS
     // ===================================================================
@@ -378,7 +538,7 @@ class AppointmentServiceTest {
         // Arrange
         List<Appointment> appointments = Arrays.asList(testAppointment);
         when(userRepository.findByEmail("customer@example.com")).thenReturn(Optional.of(testUser));
-        when(appointmentRepository.findByUserId(userId)).thenReturn(appointments);
+        when(appointmentRepository.findWithEmployeesByUserId(userId)).thenReturn(appointments);
 
         // Act
         List<Appointment> result = appointmentService.getUserAppointments();
@@ -387,7 +547,7 @@ class AppointmentServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(appointmentId, result.get(0).getId());
-        verify(appointmentRepository, times(1)).findByUserId(userId);
+        verify(appointmentRepository, times(1)).findWithEmployeesByUserId(userId);
     }
 
     @Test
@@ -395,7 +555,7 @@ class AppointmentServiceTest {
     void testGetUserAppointments_EmptyList() {
         // Arrange
         when(userRepository.findByEmail("customer@example.com")).thenReturn(Optional.of(testUser));
-        when(appointmentRepository.findByUserId(userId)).thenReturn(Collections.emptyList());
+        when(appointmentRepository.findWithEmployeesByUserId(userId)).thenReturn(Collections.emptyList());
 
         // Act
         List<Appointment> result = appointmentService.getUserAppointments();
@@ -403,7 +563,7 @@ class AppointmentServiceTest {
         // Assert
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(appointmentRepository, times(1)).findByUserId(userId);
+        verify(appointmentRepository, times(1)).findWithEmployeesByUserId(userId);
     }
 
     // ===================================================================
@@ -441,4 +601,137 @@ class AppointmentServiceTest {
         assertTrue(exception.getMessage().contains("not found"));
         verify(appointmentRepository, never()).save(any());
     }
+
+    // ===================================================================
+    // ADMIN APPOINTMENT PAGE TESTS
+    // ===================================================================
+
+    @Test
+    @DisplayName("Should page upcoming appointments with a keyset cursor and batch-load employee names")
+    void testGetAllUpcomingAppointments_KeysetPage() {
+        // Arrange
+        testUser.getRoles().add(new Role("ADMIN"));
+        when(userRepository.findByEmail("customer@example.com")).thenReturn(Optional.of(testUser));
+
+        LocalDateTime date = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        List<AdminAppointmentDTO> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(new AdminAppointmentDTO(UUID.randomUUID(), vehicleId, "Toyota", "Camry", "ABC123",
+                    "Test Customer", "customer@example.com", "Oil Change", AppointmentType.SERVICE,
+                    date.plusHours(i), "PENDING", "Main Service Center"));
+        }
+        when(appointmentRepository.findAdminAppointmentPage(any(), any(), any(), any(), any())).thenReturn(rows);
+        List<Object[]> employees = new ArrayList<>();
+        employees.add(new Object[]{rows.get(0).getId(), "Jane Smith"});
+        employees.add(new Object[]{rows.get(0).getId(), "John Tech"});
+        when(appointmentRepository.findAssignedEmployeeNames(any())).thenReturn(employees);
+
+        // Act
+        AdminAppointmentPageDTO page = appointmentService.getAllUpcomingAppointments(null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertEquals("Jane Smith, John Tech", page.getItems().get(0).getAssignedEmployees());
+        assertEquals(2, page.getItems().get(0).getAssignedEmployeeCount());
+        assertEquals(0, page.getItems().get(1).getAssignedEmployeeCount());
+        assertNotNull(page.getNextCursor());
+
+        KeysetCursor next = KeysetCursor.decode(page.getNextCursor());
+        assertEquals(rows.get(1).getId(), next.id());
+        assertEquals(date.plusHours(1), next.appointmentDate());
+        verify(appointmentRepository, never()).findAll();
+        verify(appointmentRepository).findAdminAppointmentPage(eq(List.of("PENDING", "CONFIRMED")), any(),
+                any(), eq(KeysetCursor.MIN_ID), eq(PageRequest.of(0, 3)));
+    }
+
+    @Test
+    @DisplayName("Should reject page sizes above the limit")
+    void testGetAllUnassignedAppointments_PageSizeLimit() {
+        // Arrange
+        testUser.getRoles().add(new Role("ADMIN"));
+        when(userRepository.findByEmail("customer@example.com")).thenReturn(Optional.of(testUser));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                appointmentService.getAllUnassignedAppointments(null, 500));
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    // ===================================================================
+    // BATCH EMPLOYEE ASSIGNMENT TESTS
+    // ===================================================================
+
+    private User employee(String name) {
+        User employee = new User();
+        employee.setId(UUID.randomUUID());
+        employee.setEmail(name.toLowerCase().replace(" ", ".") + "@example.com");
+        employee.setFullName(name);
+        employee.getRoles().add(new Role("EMPLOYEE"));
+        return employee;
+    }
+
+    @Test
+    @DisplayName("Should assign a whole schedule with one appointment query and one employee query")
+    void testAssignEmployees_Batch() {
+        // Arrange
+        testUser.getRoles().add(new Role("ADMIN"));
+        when(userRepository.findByEmail("customer@example.com")).thenReturn(Optional.of(testUser));
+
+        Appointment secondAppointment = new Appointment();
+        secondAppointment.setId(UUID.randomUUID());
+        secondAppointment.setUser(testUser);
+        secondAppointment.setVehicle(testVehicle);
+        secondAppointment.setServiceOrModification(testService);
+        secondAppointment.setServiceCenter(testServiceCenter);
+        secondAppointment.setAppointmentDate(testAppointment.getAppointmentDate().plusHours(2));
+
+        User jane = employee("Jane Smith");
+        User john = employee("John Tech");
+        Map<UUID, Set<UUID>> assignments = new LinkedHashMap<>();
+        assignments.put(appointmentId, Set.of(jane.getId(), john.getId()));
+        assignments.put(secondAppointment.getId(), Set.of(jane.getId()));
+
+        when(appointmentRepository.findForAssignmentByIdIn(assignments.keySet()))
+                .thenReturn(List.of(testAppointment, secondAppointment));
+        when(userRepository.findAllById(Set.of(jane.getId(), john.getId()))).thenReturn(List.of(jane, john));
+        when(appointmentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<Appointment> result = appointmentService.assignEmployees(assignments);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(Set.of(jane, john), testAppointment.getAssignedEmployees());
+        assertEquals(Set.of(jane), secondAppointment.getAssignedEmployees());
+        verify(userRepository, never()).findById(any());
+        verify(appointmentRepository, never()).findById(any());
+        verify(appointmentRepository, times(1)).saveAll(anyList());
+        // 2 customer notifications + 3 employee notifications, 3 employee emails
+        verify(outboxService, times(5)).enqueueNotification(any(), any(), any(), any());
+        verify(outboxService, times(3)).enqueueEmployeeAssignmentEmail(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch when one user is not an employee")
+    void testAssignEmployees_BatchValidatesBeforeChanging() {
+        // Arrange
+        testUser.getRoles().add(new Role("ADMIN"));
+        when(userRepository.findByEmail("customer@example.com")).thenReturn(Optional.of(testUser));
+
+        User jane = employee("Jane Smith");
+        User customer = new User();
+        customer.setId(UUID.randomUUID());
+        customer.getRoles().add(new Role("CUSTOMER"));
+
+        when(appointmentRepository.findForAssignmentByIdIn(any())).thenReturn(List.of(testAppointment));
+        when(userRepository.findAllById(any())).thenReturn(List.of(jane, customer));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                appointmentService.assignEmployees(Map.of(appointmentId, Set.of(jane.getId(), customer.getId()))));
+        assertTrue(exception.getMessage().contains("is not an EMPLOYEE"));
+        assertTrue(testAppointment.getAssignedEmployees().isEmpty());
+        verify(appointmentRepository, never()).saveAll(any());
+        verifyNoInteractions(outboxService);
+    }
 }
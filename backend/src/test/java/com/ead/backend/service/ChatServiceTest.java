@@ -38,6 +38,9 @@ class ChatServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private UnreadCounterService unreadCounters;
+
     @InjectMocks
     private ChatService chatService;
 
@@ -160,7 +163,7 @@ class ChatServiceTest {
         // Arrange
         UUID appointmentId = appointment.getId();
         when(chatRoomRepository.findByAppointment_Id(appointmentId)).thenReturn(Optional.of(chatRoom));
-        when(chatMessageRepository.countUnreadMessages(any(), any())).thenReturn(3);
+        when(unreadCounters.unreadMessages(any(), any())).thenReturn(3);
 
         // Act
         ChatRoomDTO result = chatService.getChatRoomByAppointment(appointmentId, customer.getId());
@@ -181,7 +184,7 @@ class ChatServiceTest {
         UUID userId = customer.getId();
         List<ChatRoom> chatRooms = Arrays.asList(chatRoom);
         when(chatRoomRepository.findAllByUserId(userId)).thenReturn(chatRooms);
-        when(chatMessageRepository.countUnreadMessages(any(), any())).thenReturn(2);
+        when(unreadCounters.unreadMessages(any(), any())).thenReturn(2);
 
         // Act
         List<ChatRoomDTO> result = chatService.getMyChatRooms(userId);
@@ -120,7 +120,7 @@ class CustomerAppointmentServiceTest {
         Appointment appt = createSampleAppointment(userId);
 
         when(userRepository.findByEmail(eq(email))).thenReturn(Optional.of(user));
-        when(appointmentRepository.findByUserId(eq(userId))).thenReturn(Collections.singletonList(appt));
+        when(appointmentRepository.findWithEmployeesByUserId(eq(userId))).thenReturn(Collections.singletonList(appt));
 
         // Act
         List<Appointment> results = service.getCurrentUserDetailedAppointments();
@@ -137,7 +137,7 @@ class CustomerAppointmentServiceTest {
         assertThat(returned.getAssignedEmployees()).isNotNull().hasSize(1);
 
         verify(userRepository).findByEmail(eq(email));
-        verify(appointmentRepository).findByUserId(eq(userId));
+        verify(appointmentRepository).findWithEmployeesByUserId(eq(userId));
         verifyNoMoreInteractions(userRepository, appointmentRepository);
     }
 
@@ -177,7 +177,7 @@ class CustomerAppointmentServiceTest {
         user.setEmail(email);
 
         when(userRepository.findByEmail(eq(email))).thenReturn(Optional.of(user));
-        when(appointmentRepository.findByUserId(eq(userId))).thenReturn(Collections.emptyList());
+        when(appointmentRepository.findWithEmployeesByUserId(eq(userId))).thenReturn(Collections.emptyList());
 
         // Act
         List<Appointment> results = service.getCurrentUserDetailedAppointments();
@@ -186,7 +186,7 @@ class CustomerAppointmentServiceTest {
         assertThat(results).isNotNull().isEmpty();
 
         verify(userRepository).findByEmail(eq(email));
-        verify(appointmentRepository).findByUserId(eq(userId));
+        verify(appointmentRepository).findWithEmployeesByUserId(eq(userId));
         verifyNoMoreInteractions(userRepository, appointmentRepository);
     }
 }
@@ -14,7 +14,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.never;
@@ -26,6 +26,7 @@ import com.ead.backend.dto.AppointmentDTO;
 import com.ead.backend.dto.TimeLogRequestDto;
 import com.ead.backend.dto.TimeLogResponseDTO;
 import com.ead.backend.entity.Appointment;
+import com.ead.backend.entity.ServiceCenter;
 import com.ead.backend.entity.ServiceOrModification;
 import com.ead.backend.entity.TimeLog;
 import com.ead.backend.entity.User;
@@ -46,6 +47,10 @@ class EmployeeServiceTest {
     private UserRepository userRepository;
     @Mock
     private VehicleRepository vehicleRepository;
+    @Mock
+    private AnalyticsRollupService analyticsRollupService;
+    @Mock
+    private SlotCapacityLedger slotCapacityLedger;
     @InjectMocks
     private EmployeeService employeeService;
 
@@ -112,7 +117,7 @@ class EmployeeServiceTest {
     @Test
     void testGetAppointmentsByEmployee_ReturnsAppointments() {
         when(userRepository.findByEmail(employeeEmail)).thenReturn(Optional.of(employee));
-        when(appointmentRepository.findByAssignedEmployees(anySet())).thenReturn(List.of(appointment));
+        when(appointmentRepository.findDetailedByAssignedEmployeesId(employeeId)).thenReturn(List.of(appointment));
         List<AppointmentDTO> result = employeeService.getAppointmentsByEmployee(employeeEmail);
         assertEquals(1, result.size());
         assertEquals(appointment.getUser().getFullName(), result.get(0).getUserFullName());
@@ -178,6 +183,37 @@ class EmployeeServiceTest {
         verify(appointmentRepository, never()).save(any());
     }
 
+    @Test
+    void testUpdateAppointmentStatus_FromCancelled_ReservesSlot() {
+        ServiceCenter serviceCenter = serviceCenter();
+        appointment.setStatus("CANCELLED");
+        when(appointmentRepository.findById(appointmentId)).thenReturn(Optional.of(appointment));
+        when(slotCapacityLedger.tryReserve(serviceCenter.getId(), appointment.getAppointmentDate(), 2)).thenReturn(true);
+        employeeService.updateAppointmentStatus(appointmentId, "PENDING");
+        assertEquals("PENDING", appointment.getStatus());
+        verify(appointmentRepository).save(appointment);
+    }
+
+    @Test
+    void testUpdateAppointmentStatus_FromCancelled_SlotFull_Throws() {
+        serviceCenter();
+        appointment.setStatus("CANCELLED");
+        when(appointmentRepository.findById(appointmentId)).thenReturn(Optional.of(appointment));
+        when(slotCapacityLedger.tryReserve(any(), any(), eq(2))).thenReturn(false);
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> employeeService.updateAppointmentStatus(appointmentId, "CONFIRMED"));
+        assertEquals("SLOT_FULL", ex.getMessage());
+        assertEquals("CANCELLED", appointment.getStatus());
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    private ServiceCenter serviceCenter() {
+        ServiceCenter serviceCenter = new ServiceCenter();
+        serviceCenter.setId(UUID.randomUUID());
+        serviceCenter.setCenterSlot(2);
+        appointment.setServiceCenter(serviceCenter);
+        return serviceCenter;
+    }
+
     @Test
     void testAddTimeLog_Success() {
         TimeLogRequestDto dto = new TimeLogRequestDto();
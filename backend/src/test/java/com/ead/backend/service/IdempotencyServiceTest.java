@@ -0,0 +1,132 @@
+package com.ead.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Idempotency Service Unit Tests")
+class IdempotencyServiceTest {
+
+    private final IdempotencyService idempotencyService = new IdempotencyService();
+
+    @Test
+    @DisplayName("Should replay the original result without running the action again")
+    void testExecute_ReplayReturnsOriginal() {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act
+        IdempotencyService.IdempotentResult<String> first = idempotencyService.execute(
+                "customer@example.com", "key-1", "request", () -> "booking-" + executions.incrementAndGet());
+        IdempotencyService.IdempotentResult<String> replay = idempotencyService.execute(
+                "customer@example.com", "key-1", "request", () -> "booking-" + executions.incrementAndGet());
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertFalse(first.replayed());
+        assertTrue(replay.replayed());
+        assertEquals("booking-1", replay.value());
+    }
+
+    @Test
+    @DisplayName("Should scope keys per user and reject reuse with a different request")
+    void testExecute_ScopeAndPayloadMismatch() {
+        // Arrange
+        idempotencyService.execute("alice@example.com", "key-1", "request-a", () -> "a");
+
+        // Act
+        IdempotencyService.IdempotentResult<String> otherUser =
+                idempotencyService.execute("bob@example.com", "key-1", "request-b", () -> "b");
+
+        // Assert
+        assertFalse(otherUser.replayed());
+        assertThrows(IllegalArgumentException.class, () ->
+                idempotencyService.execute("alice@example.com", "key-1", "request-b", () -> "c"));
+    }
+
+    @Test
+    @DisplayName("Should not store failed executions")
+    void testExecute_FailureIsNotStored() {
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute(
+                "customer@example.com", "key-1", "request", () -> {
+                    throw new RuntimeException("Service center is fully booked");
+                }));
+
+        IdempotencyService.IdempotentResult<String> retry = idempotencyService.execute(
+                "customer@example.com", "key-1", "request", () -> "booking");
+        assertFalse(retry.replayed());
+        assertEquals("booking", retry.value());
+    }
+
+    @Test
+    @DisplayName("Should make concurrent duplicates wait for the in-flight execution")
+    void testExecute_ConcurrentDuplicatesRunOnce() throws Exception {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<IdempotencyService.IdempotentResult<Integer>>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute("customer@example.com", "key-1", "request", () -> {
+                    sleep(100);
+                    return executions.incrementAndGet();
+                });
+            }));
+        }
+        start.countDown();
+
+        // Assert
+        int replayed = 0;
+        for (Future<IdempotencyService.IdempotentResult<Integer>> future : futures) {
+            IdempotencyService.IdempotentResult<Integer> result = future.get(5, TimeUnit.SECONDS);
+            assertEquals(1, result.value());
+            if (result.replayed()) {
+                replayed++;
+            }
+        }
+        executor.shutdown();
+        assertEquals(1, executions.get());
+        assertEquals(7, replayed);
+    }
+
+    @Test
+    @DisplayName("Should evict the oldest results when the store is full")
+    void testExecute_BoundedStore() {
+        // Arrange
+        ReflectionTestUtils.setField(idempotencyService, "maxEntries", 3);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            idempotencyService.execute("customer@example.com", "key-" + i, "request", () -> "booking");
+        }
+
+        // Assert
+        assertEquals(3, idempotencyService.size());
+        assertFalse(idempotencyService.execute("customer@example.com", "key-0", "request", () -> "booking").replayed());
+        assertTrue(idempotencyService.execute("customer@example.com", "key-4", "request", () -> "booking").replayed());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
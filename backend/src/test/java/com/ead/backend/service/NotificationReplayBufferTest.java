@@ -0,0 +1,74 @@
+package com.ead.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Notification Replay Buffer Unit Tests")
+class NotificationReplayBufferTest {
+
+    private final NotificationReplayBuffer replayBuffer = new NotificationReplayBuffer();
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should hand out increasing ids and replay only the events after the last one seen")
+    void testReplay_EventsAfterLastSeen() {
+        // Arrange
+        List<SseConnectionRegistry.OutboundEvent> delivered = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            replayBuffer.publish(userId, "notification", "event " + i, delivered::add);
+        }
+
+        // Act
+        List<SseConnectionRegistry.OutboundEvent> missed = replayBuffer.replay(userId, delivered.get(0).id(), events -> events);
+        List<SseConnectionRegistry.OutboundEvent> upToDate = replayBuffer.replay(userId, delivered.get(2).id(), events -> events);
+
+        // Assert
+        assertTrue(delivered.get(0).id() < delivered.get(1).id() && delivered.get(1).id() < delivered.get(2).id());
+        assertEquals(List.of("event 1", "event 2"), missed.stream().map(SseConnectionRegistry.OutboundEvent::data).toList());
+        assertTrue(upToDate.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not cover ids older than the ring or than the node")
+    void testReplay_NotCovered() {
+        // Arrange
+        ReflectionTestUtils.setField(replayBuffer, "eventsPerUser", 2);
+        long beforeStart = NotificationReplayBuffer.eventIdAt(System.currentTimeMillis() - 60_000);
+        List<SseConnectionRegistry.OutboundEvent> delivered = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            replayBuffer.publish(userId, "notification", "event " + i, delivered::add);
+        }
+
+        // Act & Assert: the first event was evicted, so a browser that only saw it may have missed nothing or more
+        assertNull(replayBuffer.replay(userId, delivered.get(0).id() - 1, events -> events));
+        assertEquals(2, replayBuffer.replay(userId, delivered.get(0).id(), events -> events).size());
+        assertNull(replayBuffer.replay(UUID.randomUUID(), beforeStart, events -> events));
+    }
+
+    @Test
+    @DisplayName("Should still deliver but stop tracking users over the cap, and drop idle users")
+    void testPublish_UserCapAndIdleEviction() {
+        // Arrange
+        ReflectionTestUtils.setField(replayBuffer, "maxUsers", 1);
+        List<SseConnectionRegistry.OutboundEvent> delivered = new ArrayList<>();
+        replayBuffer.publish(userId, "notification", "tracked", delivered::add);
+
+        // Act
+        replayBuffer.publish(UUID.randomUUID(), "notification", "untracked", delivered::add);
+        int trackedBeforeEviction = replayBuffer.trackedUsers();
+        ReflectionTestUtils.setField(replayBuffer, "idleRetentionMs", -1L);
+        replayBuffer.evictIdle();
+
+        // Assert
+        assertEquals(2, delivered.size());
+        assertEquals(1, trackedBeforeEviction);
+        assertEquals(0, replayBuffer.trackedUsers());
+    }
+}
@@ -1,5 +1,6 @@
 package com.ead.backend.service;
 
+import com.ead.backend.dto.NotificationEventDTO;
 import com.ead.backend.entity.Notification;
 import com.ead.backend.repository.NotificationRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -10,17 +11,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -33,6 +42,18 @@ class NotificationServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private NotificationWriteBuffer notificationWriter;
+
+    @Spy
+    private SseConnectionRegistry connectionRegistry = new SseConnectionRegistry();
+
+    @Mock
+    private UnreadCounterService unreadCounters;
+
+    @Spy
+    private NotificationReplayBuffer replayBuffer = new NotificationReplayBuffer();
+
     @InjectMocks
     private NotificationService service;
 
@@ -43,37 +64,39 @@ class NotificationServiceTest {
 
     @AfterEach
     void tearDown() {
-        // ensure emitters map is cleared between tests
-        try {
-            Field f = NotificationService.class.getDeclaredField("emitters");
-            f.setAccessible(true);
-            Map<UUID, SseEmitter> emitters = (Map<UUID, SseEmitter>) f.get(service);
-            emitters.clear();
-        } catch (Exception ignored) {
-        }
+        connectionRegistry.shutdown();
     }
 
-    // Helper to inject a mock emitter into the private emitters map
-    @SuppressWarnings("unchecked")
-    private void putEmitter(UUID userId, SseEmitter emitter) throws Exception {
-        Field f = NotificationService.class.getDeclaredField("emitters");
-        f.setAccessible(true);
-        Map<UUID, SseEmitter> emitters = (Map<UUID, SseEmitter>) f.get(service);
-        // If map is null (shouldn't be), create one
-        if (emitters == null) {
-            emitters = new ConcurrentHashMap<>();
-            f.set(service, emitters);
-        }
-        emitters.put(userId, emitter);
+    // Helper to register a mock emitter as a connection of the user
+    private void putEmitter(UUID userId, SseEmitter emitter) {
+        connectionRegistry.register(userId, emitter);
+    }
+
+    private boolean emittersContains(UUID userId) {
+        return connectionRegistry.connectionCount(userId) > 0;
     }
 
-    // Helper to read emitters map size
+    // The writer stores rows right away and hands them on, like flush-on-commit outside a transaction
     @SuppressWarnings("unchecked")
-    private boolean emittersContains(UUID userId) throws Exception {
-        Field f = NotificationService.class.getDeclaredField("emitters");
-        f.setAccessible(true);
-        Map<UUID, SseEmitter> emitters = (Map<UUID, SseEmitter>) f.get(service);
-        return emitters != null && emitters.containsKey(userId);
+    private void storeImmediately() {
+        AtomicLong ids = new AtomicLong(100);
+        lenient().doAnswer(invocation -> {
+            Notification row = invocation.getArgument(0);
+            store(row, ids.incrementAndGet());
+            invocation.<Consumer<Notification>>getArgument(1).accept(row);
+            return null;
+        }).when(notificationWriter).write(any(Notification.class), any(Consumer.class));
+        lenient().doAnswer(invocation -> {
+            List<Notification> rows = invocation.getArgument(0);
+            rows.forEach(row -> store(row, ids.incrementAndGet()));
+            rows.forEach(invocation.<Consumer<Notification>>getArgument(1));
+            return null;
+        }).when(notificationWriter).writeAll(anyList(), any(Consumer.class));
+    }
+
+    private static void store(Notification row, long id) {
+        row.setId(id);
+        row.setCreatedAt(LocalDateTime.now());
     }
 
     @Test
@@ -82,17 +105,123 @@ class NotificationServiceTest {
         SseEmitter emitter = service.subscribe(userId);
 
         assertThat(emitter).isNotNull();
-        // verify stored via reflection
-        try {
-            assertThat(emittersContains(userId)).isTrue();
-        } catch (Exception e) {
-            // if reflection fails, still assert emitter not null
-            assertThat(emitter).isNotNull();
-        }
+        assertThat(emittersContains(userId)).isTrue();
+    }
+
+    @Test
+    void subscribe_keepsEarlierConnectionsOfTheUser() throws Exception {
+        storeImmediately();
+        UUID userId = UUID.randomUUID();
+        SseEmitter firstTab = mock(SseEmitter.class);
+        putEmitter(userId, firstTab);
+
+        service.subscribe(userId);
+        service.sendToAll("INFO", "hello", null);
+
+        assertThat(connectionRegistry.connectionCount(userId)).isEqualTo(2);
+        verify(firstTab, timeout(5000)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void subscribe_withLastEventId_replaysMissedEventsFromBuffer() throws Exception {
+        storeImmediately();
+        UUID userId = UUID.randomUUID();
+        service.sendNotification(userId, "INFO", "seen", null);
+        long lastSeen = replayBuffer.lastEventId();
+        service.sendNotification(userId, "INFO", "missed 1", null);
+        service.sendNotification(userId, "INFO", "missed 2", null);
+
+        service.subscribe(userId, lastSeen);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SseConnectionRegistry.OutboundEvent>> backlog = ArgumentCaptor.forClass(List.class);
+        verify(connectionRegistry).open(eq(userId), backlog.capture());
+        assertThat(backlog.getValue())
+                .extracting(event -> ((NotificationEventDTO) event.data()).getMessage())
+                .containsExactly("missed 1", "missed 2");
+        assertThat(backlog.getValue()).allMatch(event -> event.id() > lastSeen);
+        verify(notificationRepository, never()).findCreatedSince(any(), any(), any());
+    }
+
+    @Test
+    void subscribe_withLastEventIdOlderThanBuffer_replaysStoredNotifications() throws Exception {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime disconnectedAt = LocalDateTime.now().minusHours(1);
+        long lastSeen = NotificationReplayBuffer.eventIdAt(
+                disconnectedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        Notification stored = new Notification(userId, "INFO", "while away", "{\"k\":1}");
+        stored.setId(41L);
+        stored.setCreatedAt(disconnectedAt.plusMinutes(5));
+        when(notificationRepository.findCreatedSince(eq(userId),
+                eq(disconnectedAt.truncatedTo(ChronoUnit.MILLIS).minusSeconds(10)), any()))
+                .thenReturn(List.of(stored));
+        when(objectMapper.readValue(eq("{\"k\":1}"), eq(Object.class))).thenReturn(Map.of("k", 1));
+
+        service.subscribe(userId, lastSeen);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SseConnectionRegistry.OutboundEvent>> backlog = ArgumentCaptor.forClass(List.class);
+        verify(connectionRegistry).open(eq(userId), backlog.capture());
+        assertThat(backlog.getValue()).hasSize(1);
+        NotificationEventDTO replayed = (NotificationEventDTO) backlog.getValue().get(0).data();
+        assertThat(replayed.getMessage()).isEqualTo("while away");
+        assertThat(replayed.getData()).isEqualTo(Map.of("k", 1));
+        assertThat(backlog.getValue().get(0).id()).isGreaterThan(lastSeen);
+    }
+
+    @Test
+    void subscribe_withLastEventIdOlderThanBuffer_replaysOverlapOnceWithoutMovingLastEventIdBack() throws Exception {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime disconnectedAt = LocalDateTime.now().minusHours(1);
+        long lastSeen = NotificationReplayBuffer.eventIdAt(
+                disconnectedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        // Inserted just before the last event the browser saw, but published after it
+        Notification committedLate = new Notification(userId, "INFO", "committed late", null);
+        committedLate.setId(41L);
+        committedLate.setCreatedAt(disconnectedAt.minusSeconds(2));
+        when(notificationRepository.findCreatedSince(eq(userId), any(), any())).thenAnswer(invocation -> {
+            // Committed before the read, published while it runs
+            doAnswer(write -> {
+                Notification row = write.getArgument(0);
+                row.setId(41L);
+                row.setCreatedAt(committedLate.getCreatedAt());
+                write.<Consumer<Notification>>getArgument(1).accept(row);
+                return null;
+            }).when(notificationWriter).write(any(Notification.class), any());
+            service.sendNotification(userId, "INFO", "committed late", null);
+            return List.of(committedLate);
+        });
+
+        service.subscribe(userId, lastSeen);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SseConnectionRegistry.OutboundEvent>> backlog = ArgumentCaptor.forClass(List.class);
+        verify(connectionRegistry).open(eq(userId), backlog.capture());
+        assertThat(backlog.getValue()).hasSize(1);
+        assertThat(((NotificationEventDTO) backlog.getValue().get(0).data()).getId()).isEqualTo("41");
+        assertThat(backlog.getValue().get(0).id()).isEqualTo(lastSeen);
+    }
+
+    @Test
+    void subscribe_withTooManyMissedEvents_asksForResync() throws Exception {
+        storeImmediately();
+        UUID userId = UUID.randomUUID();
+        ReflectionTestUtils.setField(service, "maxReplayEvents", 1);
+        long lastSeen = replayBuffer.lastEventId();
+        service.sendNotification(userId, "INFO", "missed 1", null);
+        service.sendNotification(userId, "INFO", "missed 2", null);
+
+        service.subscribe(userId, lastSeen);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SseConnectionRegistry.OutboundEvent>> backlog = ArgumentCaptor.forClass(List.class);
+        verify(connectionRegistry).open(eq(userId), backlog.capture());
+        assertThat(backlog.getValue()).extracting(SseConnectionRegistry.OutboundEvent::name).containsExactly("resync");
     }
 
     @Test
     void sendNotification_savesAndSendsSse() throws Exception {
+        storeImmediately();
         UUID userId = UUID.randomUUID();
         String type = "INFO";
         String message = "Hi";
@@ -103,7 +232,6 @@ class NotificationServiceTest {
 
         // capture saved notification
         ArgumentCaptor<Notification> savedCaptor = ArgumentCaptor.forClass(Notification.class);
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> i.getArgument(0));
 
         // mock emitter and inject
         SseEmitter mockEmitter = mock(SseEmitter.class);
@@ -115,15 +243,20 @@ class NotificationServiceTest {
 
         // Assert
         verify(objectMapper).writeValueAsString(eq(data));
-        verify(notificationRepository).save(savedCaptor.capture());
+        verify(notificationWriter).write(savedCaptor.capture(), any());
         Notification saved = savedCaptor.getValue();
         assertThat(saved.getUserId()).isEqualTo(userId);
         assertThat(saved.getType()).isEqualTo(type);
         assertThat(saved.getMessage()).isEqualTo(message);
         assertThat(saved.getData()).isEqualTo("{\"k\":\"v\"}");
-
-        // verify SSE was attempted
-        verify(mockEmitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(unreadCounters).notificationsAdded(userId, 1);
+
+        // verify SSE was attempted, carrying the id of the stored row
+        ArgumentCaptor<SseEmitter.SseEventBuilder> builder = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(mockEmitter, timeout(5000).times(1)).send(builder.capture());
+        assertThat(builder.getValue().build())
+                .anyMatch(part -> part.getData() instanceof NotificationEventDTO event
+                        && event.getId().equals(String.valueOf(saved.getId())));
     }
 
     @Test
@@ -142,36 +275,44 @@ class NotificationServiceTest {
         assertDoesNotThrow(() -> service.sendNotification(userId, type, message, data));
 
         verify(objectMapper).writeValueAsString(any());
-        verifyNoInteractions(notificationRepository);
-        verifyNoInteractions(mockEmitter);
+        verifyNoInteractions(notificationRepository, notificationWriter);
+        verify(mockEmitter, never()).send(any(SseEmitter.SseEventBuilder.class));
     }
 
     @Test
     void sendNotification_whenEmitterFails_removesEmitter() throws Exception {
+        storeImmediately();
         UUID userId = UUID.randomUUID();
         String type = "ALERT";
         String message = "boom";
         Object data = Collections.singletonMap("x", 1);
 
         when(objectMapper.writeValueAsString(eq(data))).thenReturn("{\"x\":1}");
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> i.getArgument(0));
 
         SseEmitter badEmitter = mock(SseEmitter.class);
         doThrow(new IOException("send-failed")).when(badEmitter).send(any(SseEmitter.SseEventBuilder.class));
+        // complete() is synchronized, so wait on a latch rather than verify(timeout) holding its monitor
+        CountDownLatch completed = new CountDownLatch(1);
+        doAnswer(i -> {
+            completed.countDown();
+            return null;
+        }).when(badEmitter).complete();
         putEmitter(userId, badEmitter);
 
         // Act: should not throw because sendNotification catches exceptions
         assertDoesNotThrow(() -> service.sendNotification(userId, type, message, data));
 
-        // repository still saved
-        verify(notificationRepository).save(any(Notification.class));
+        // notification still saved
+        verify(notificationWriter).write(any(Notification.class), any());
 
-        // emitter should have been removed from internal map
+        // the failed connection should have been closed and removed
+        assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
         assertThat(emittersContains(userId)).isFalse();
     }
 
     @Test
     void sendToAll_savesForEachAndSends() throws Exception {
+        storeImmediately();
         UUID u1 = UUID.randomUUID();
         UUID u2 = UUID.randomUUID();
         Object payload = Collections.singletonMap("p", true);
@@ -186,15 +327,17 @@ class NotificationServiceTest {
         putEmitter(u1, e1);
         putEmitter(u2, e2);
 
-        when(notificationRepository.save(any(Notification.class))).thenAnswer(i -> i.getArgument(0));
-
         // Act
         service.sendToAll("BROAD", "hello", payload);
 
-        // Assert: each user should have a notification saved and emitter.send called
-        verify(notificationRepository, times(2)).save(any(Notification.class));
-        verify(e1).send(any(SseEmitter.SseEventBuilder.class));
-        verify(e2).send(any(SseEmitter.SseEventBuilder.class));
+        // Assert: one batch with a notification per user is saved and emitter.send called
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(notificationWriter).writeAll(batchCaptor.capture(), any());
+        assertThat(batchCaptor.getValue()).extracting(Notification::getUserId).containsExactlyInAnyOrder(u1, u2);
+        verify(objectMapper, times(1)).writeValueAsString(eq(payload));
+        verify(e1, timeout(5000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(e2, timeout(5000)).send(any(SseEmitter.SseEventBuilder.class));
     }
 
     @Test
@@ -236,6 +379,7 @@ class NotificationServiceTest {
         ArgumentCaptor<Notification> cap = ArgumentCaptor.forClass(Notification.class);
         verify(notificationRepository).save(cap.capture());
         assertThat(cap.getValue().getIsRead()).isTrue();
+        verify(unreadCounters).notificationsRead(any(), eq(1));
     }
 
     @Test
@@ -260,16 +404,17 @@ class NotificationServiceTest {
         verify(notificationRepository).saveAll(cap.capture());
         List<Notification> savedList = (List<Notification>) cap.getValue();
         assertThat(savedList).allMatch(Notification::getIsRead);
+        verify(unreadCounters).notificationsRead(eq(userId), eq(2));
     }
 
     @Test
-    void getUnreadCount_delegatesToRepository() {
+    void getUnreadCount_servedFromCounters() {
         UUID userId = UUID.randomUUID();
-        when(notificationRepository.countByUserIdAndIsReadFalse(eq(userId))).thenReturn(7L);
+        when(unreadCounters.unreadNotifications(eq(userId))).thenReturn(7L);
 
         Long count = service.getUnreadCount(userId);
         assertThat(count).isEqualTo(7L);
-        verify(notificationRepository).countByUserIdAndIsReadFalse(eq(userId));
+        verifyNoInteractions(notificationRepository);
     }
 
     @Test
@@ -0,0 +1,194 @@
+package com.ead.backend.service;
+
+import com.ead.backend.entity.Notification;
+import com.ead.backend.enums.NotificationDurability;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Notification Write Buffer Unit Tests")
+class NotificationWriteBufferTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Integer> insertedBatches = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private NotificationWriteBuffer writeBuffer;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (writeBuffer != null) {
+            writeBuffer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should insert rows written in a transaction as one batch just before commit")
+    void testWriteAll_FlushOnCommitInTransaction() {
+        // Arrange
+        writeBuffer = newBuffer("flush-on-commit", 500, 5);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // Act
+        writeBuffer.writeAll(notifications(3));
+        int insertedBeforeCommit = insertedBatches.size();
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        // Assert
+        assertEquals(0, insertedBeforeCommit);
+        assertEquals(List.of(3), insertedBatches);
+        assertEquals(3, writeBuffer.stats().rowsWritten());
+    }
+
+    @Test
+    @DisplayName("Should hand rows on with their generated ids only after the transaction commits")
+    void testWriteAll_OnStoredAfterCommit() {
+        // Arrange
+        writeBuffer = newBuffer("flush-on-commit", 500, 5);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        List<Notification> stored = new ArrayList<>();
+
+        // Act
+        writeBuffer.writeAll(notifications(2), stored::add);
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+        int storedBeforeCommit = stored.size();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Assert
+        assertEquals(0, storedBeforeCommit);
+        assertEquals(List.of(1L, 2L), stored.stream().map(Notification::getId).toList());
+        assertTrue(stored.stream().allMatch(notification -> notification.getCreatedAt() != null));
+    }
+
+    @Test
+    @DisplayName("Should not insert anything when the transaction rolls back")
+    void testWriteAll_FlushOnCommitRollback() {
+        // Arrange
+        writeBuffer = newBuffer("flush-on-commit", 500, 5);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // Act
+        writeBuffer.write(notifications(1).get(0));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should insert outside a transaction before returning, split into JDBC batches")
+    void testWriteAll_FlushOnCommitWithoutTransaction() {
+        // Arrange
+        writeBuffer = newBuffer("flush-on-commit", 2, 5);
+
+        // Act
+        writeBuffer.writeAll(notifications(5));
+
+        // Assert
+        assertEquals(List.of(2, 2, 1), insertedBatches);
+        assertEquals(5, writeBuffer.stats().rowsWritten());
+        assertEquals(3, writeBuffer.stats().batches());
+    }
+
+    @Test
+    @DisplayName("Should buffer best-effort rows and flush them in the background in batches")
+    void testWriteAll_BestEffortFlushesInBackground() throws Exception {
+        // Arrange
+        writeBuffer = newBuffer("best-effort", 4, 5);
+
+        List<Notification> stored = new CopyOnWriteArrayList<>();
+
+        // Act
+        writeBuffer.writeAll(notifications(10), stored::add);
+
+        // Assert: rows are handed on only once inserted
+        long deadline = System.currentTimeMillis() + 5000;
+        while (stored.size() < 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(NotificationDurability.BEST_EFFORT, writeBuffer.stats().durability());
+        assertEquals(10, writeBuffer.stats().rowsWritten());
+        assertTrue(stored.stream().allMatch(notification -> notification.getId() != null));
+        assertTrue(insertedBatches.stream().allMatch(size -> size <= 4), "Batches over the batch size: " + insertedBatches);
+    }
+
+    @Test
+    @DisplayName("Should flush buffered best-effort rows on shutdown")
+    void testShutdown_FlushesBufferedRows() {
+        // Arrange: an interval long enough that only the shutdown can flush the rows
+        writeBuffer = newBuffer("best-effort", 500, 60_000);
+        writeBuffer.writeAll(notifications(7));
+
+        // Act
+        writeBuffer.shutdown();
+
+        // Assert
+        assertEquals(7, writeBuffer.stats().rowsWritten());
+        assertEquals(0, writeBuffer.stats().buffered());
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown durability")
+    void testStart_UnknownDurability() {
+        // Arrange
+        NotificationWriteBuffer buffer = new NotificationWriteBuffer(jdbcTemplate);
+        ReflectionTestUtils.setField(buffer, "durability", "sometimes");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, buffer::start);
+    }
+
+    private NotificationWriteBuffer newBuffer(String durability, int batchSize, long flushIntervalMs) {
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+            int rows = invocation.<BatchPreparedStatementSetter>getArgument(1).getBatchSize();
+            List<Map<String, Object>> keys = invocation.<KeyHolder>getArgument(2).getKeyList();
+            for (int i = 0; i < rows; i++) {
+                keys.add(Map.of("id", ids.incrementAndGet()));
+            }
+            insertedBatches.add(rows);
+            return new int[rows];
+        });
+
+        NotificationWriteBuffer buffer = new NotificationWriteBuffer(jdbcTemplate);
+        ReflectionTestUtils.setField(buffer, "durability", durability);
+        ReflectionTestUtils.setField(buffer, "batchSize", batchSize);
+        ReflectionTestUtils.setField(buffer, "flushIntervalMs", flushIntervalMs);
+        buffer.start();
+        return buffer;
+    }
+
+    private static List<Notification> notifications(int count) {
+        List<Notification> notifications = new ArrayList<>();
+        IntStream.range(0, count).forEach(i ->
+                notifications.add(new Notification(UUID.randomUUID(), "INFO", "Message " + i, "{}")));
+        return notifications;
+    }
+}
@@ -0,0 +1,197 @@
+package com.ead.backend.service;
+
+import com.ead.backend.entity.OutboxEvent;
+import com.ead.backend.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Outbox Dispatcher Unit Tests")
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new OutboxDispatcher(outboxEventRepository, emailService, notificationService,
+                objectMapper, transactionManager);
+    }
+
+    private OutboxEvent event(long id, String type, Map<String, Object> payload, int attempts) throws Exception {
+        OutboxEvent event = new OutboxEvent(type, objectMapper.writeValueAsString(payload));
+        event.setId(id);
+        event.setAttempts(attempts);
+        return event;
+    }
+
+    @Test
+    @DisplayName("Should deliver due events and mark them dispatched in one update")
+    void testDrain_DeliversBatch() throws Exception {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        OutboxEvent notification = event(1L, OutboxService.NOTIFICATION, Map.of(
+                "userId", userId.toString(),
+                "type", "APPOINTMENT_CREATED",
+                "message", "Your appointment has been scheduled",
+                "data", Map.of("service", "Oil Change")), 0);
+        OutboxEvent email = event(2L, OutboxService.APPOINTMENT_STARTED_EMAIL, Map.of(
+                "toEmail", "customer@example.com",
+                "customerName", "John Doe",
+                "bookingId", "b-1",
+                "serviceName", "Oil Change",
+                "vehicleInfo", "Toyota Camry",
+                "technicianName", "Jane Smith"), 0);
+        when(outboxEventRepository.lockDueEvents(any(), anyInt())).thenReturn(List.of(notification, email));
+
+        // Act
+        int delivered = dispatcher.drain();
+
+        // Assert
+        assertEquals(2, delivered);
+        verify(notificationService).deliverNotification(eq(userId), eq("APPOINTMENT_CREATED"),
+                eq("Your appointment has been scheduled"), eq(Map.of("service", "Oil Change")));
+        verify(emailService).sendAppointmentStartedEmail("customer@example.com", "John Doe", "b-1",
+                "Oil Change", "Toyota Camry", "Jane Smith");
+        verify(outboxEventRepository).markProcessing(eq(List.of(1L, 2L)), any());
+        verify(outboxEventRepository).markDispatched(eq(List.of(1L, 2L)), any());
+        verify(outboxEventRepository, never()).markAttemptFailed(any(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reschedule a failed delivery with backoff")
+    void testDrain_FailureIsRetried() throws Exception {
+        // Arrange
+        OutboxEvent email = event(5L, OutboxService.APPOINTMENT_STARTED_EMAIL, Map.of(
+                "toEmail", "customer@example.com"), 0);
+        when(outboxEventRepository.lockDueEvents(any(), anyInt())).thenReturn(List.of(email));
+        doThrow(new RuntimeException("SMTP relay unavailable"))
+                .when(emailService).sendAppointmentStartedEmail(any(), any(), any(), any(), any(), any());
+
+        // Act
+        int delivered = dispatcher.drain();
+
+        // Assert
+        assertEquals(0, delivered);
+        verify(outboxEventRepository).markAttemptFailed(eq(5L), eq(OutboxEvent.STATUS_PENDING), eq(1), any(),
+                eq("SMTP relay unavailable"));
+        verify(outboxEventRepository, never()).markDispatched(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep an email retryable when the mail server rejects it")
+    void testDrain_MailSendFailureIsRetried() throws Exception {
+        // Arrange: the real email service over a mail sender that fails to send
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(MimeMessage.class));
+        EmailService realEmailService = new EmailService(mailSender);
+        ReflectionTestUtils.setField(realEmailService, "fromEmail", "noreply@automobileservice.com");
+        ReflectionTestUtils.setField(realEmailService, "frontendUrl", "http://localhost:5173");
+        ReflectionTestUtils.setField(realEmailService, "appName", "DriveCare");
+        ReflectionTestUtils.setField(realEmailService, "logoUrl", "https://i.imgur.com/placeholder.png");
+        dispatcher = new OutboxDispatcher(outboxEventRepository, realEmailService, notificationService,
+                objectMapper, transactionManager);
+
+        OutboxEvent email = event(6L, OutboxService.EMPLOYEE_ASSIGNMENT_EMAIL, Map.of(
+                "toEmail", "employee@example.com",
+                "employeeName", "Jane Smith",
+                "bookingId", "b-1",
+                "appointmentDate", "2026-10-20",
+                "appointmentTime", "10:00",
+                "serviceName", "Oil Change",
+                "vehicleInfo", "Toyota Camry",
+                "customerName", "John Doe"), 0);
+        when(outboxEventRepository.lockDueEvents(any(), anyInt())).thenReturn(List.of(email));
+
+        // Act
+        int delivered = dispatcher.drain();
+
+        // Assert
+        assertEquals(0, delivered);
+        verify(mailSender).send(any(MimeMessage.class));
+        verify(outboxEventRepository).markAttemptFailed(eq(6L), eq(OutboxEvent.STATUS_PENDING), eq(1), any(), any());
+        verify(outboxEventRepository, never()).markDispatched(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep a notification retryable when it cannot be stored")
+    void testDrain_NotificationFailureIsRetried() throws Exception {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        OutboxEvent notification = event(8L, OutboxService.NOTIFICATION, Map.of(
+                "userId", userId.toString(),
+                "type", "APPOINTMENT_CREATED",
+                "message", "Your appointment has been scheduled"), 0);
+        when(outboxEventRepository.lockDueEvents(any(), anyInt())).thenReturn(List.of(notification));
+        doThrow(new RuntimeException("Connection is not available"))
+                .when(notificationService).deliverNotification(any(), any(), any(), any());
+
+        // Act
+        int delivered = dispatcher.drain();
+
+        // Assert
+        assertEquals(0, delivered);
+        verify(outboxEventRepository).markAttemptFailed(eq(8L), eq(OutboxEvent.STATUS_PENDING), eq(1), any(),
+                eq("Connection is not available"));
+        verify(outboxEventRepository, never()).markDispatched(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should park an event as failed after the maximum attempts")
+    void testDrain_GivesUpAfterMaxAttempts() throws Exception {
+        // Arrange
+        OutboxEvent email = event(7L, OutboxService.APPOINTMENT_STARTED_EMAIL, Map.of(
+                "toEmail", "customer@example.com"), 7);
+        when(outboxEventRepository.lockDueEvents(any(), anyInt())).thenReturn(List.of(email));
+        doThrow(new RuntimeException("Mailbox does not exist"))
+                .when(emailService).sendAppointmentStartedEmail(any(), any(), any(), any(), any(), any());
+
+        // Act
+        dispatcher.drain();
+
+        // Assert
+        verify(outboxEventRepository).markAttemptFailed(eq(7L), eq(OutboxEvent.STATUS_FAILED), eq(8), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should back off exponentially up to the maximum delay")
+    void testBackoffMillis() {
+        assertEquals(10_000, dispatcher.backoffMillis(1));
+        assertEquals(20_000, dispatcher.backoffMillis(2));
+        assertEquals(40_000, dispatcher.backoffMillis(3));
+        assertEquals(3_600_000, dispatcher.backoffMillis(30));
+    }
+}
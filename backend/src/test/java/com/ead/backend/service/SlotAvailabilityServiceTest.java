@@ -0,0 +1,116 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.AvailabilityCalendarDTO;
+import com.ead.backend.dto.AvailabilityDayDTO;
+import com.ead.backend.entity.ServiceCenter;
+import com.ead.backend.repository.AppointmentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Slot Availability Service Unit Tests")
+class SlotAvailabilityServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private SlotAvailabilityService slotAvailabilityService;
+
+    private final UUID serviceCenterId = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should compute weekday availability from a single grouped query")
+    void testGetAvailableSlotsByHour_Weekday() {
+        // Arrange
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        List<Object[]> usage = new ArrayList<>();
+        usage.add(new Object[]{monday.atTime(9, 0), 2L});
+        usage.add(new Object[]{monday.atTime(14, 0), 5L});
+        when(appointmentRepository.getSlotUsageByDateRange(eq(serviceCenterId), any(), any())).thenReturn(usage);
+
+        // Act
+        Map<Integer, Integer> slots = slotAvailabilityService.getAvailableSlotsByHour(serviceCenterId, 5, monday);
+
+        // Assert
+        assertEquals(12, slots.size());
+        assertEquals(5, slots.get(8));
+        assertEquals(3, slots.get(9));
+        assertEquals(0, slots.get(14));
+        verify(appointmentRepository, times(1)).getSlotUsageByDateRange(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should only return weekend business hours on Saturday")
+    void testGetAvailableSlotsByHour_Weekend() {
+        // Arrange
+        LocalDate saturday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.SATURDAY));
+        when(appointmentRepository.getSlotUsageByDateRange(eq(serviceCenterId), any(), any())).thenReturn(List.of());
+
+        // Act
+        Map<Integer, Integer> slots = slotAvailabilityService.getAvailableSlotsByHour(serviceCenterId, 2, saturday);
+
+        // Assert
+        assertEquals(List.of(9, 10, 11, 12, 13, 14, 15, 16), new ArrayList<>(slots.keySet()));
+        assertTrue(slots.values().stream().allMatch(v -> v == 2));
+    }
+
+    @Test
+    @DisplayName("Should build a multi-center calendar from a single range query")
+    void testGetAvailabilityCalendar_MultipleCenters() {
+        // Arrange
+        ServiceCenter first = new ServiceCenter();
+        first.setId(serviceCenterId);
+        first.setName("Colombo");
+        first.setCenterSlot(3);
+        ServiceCenter second = new ServiceCenter();
+        second.setId(UUID.randomUUID());
+        second.setName("Kandy");
+        second.setCenterSlot(2);
+
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        List<Object[]> usage = new ArrayList<>();
+        usage.add(new Object[]{serviceCenterId, monday.atTime(8, 0), 1L});
+        usage.add(new Object[]{second.getId(), monday.plusDays(5).atTime(10, 0), 2L});
+        when(appointmentRepository.getSlotUsageByCentersAndDateRange(any(), any(), any())).thenReturn(usage);
+
+        // Act
+        List<AvailabilityCalendarDTO> calendar =
+                slotAvailabilityService.getAvailabilityCalendar(List.of(first, second), monday, 7);
+
+        // Assert
+        assertEquals(2, calendar.size());
+        AvailabilityDayDTO firstMonday = calendar.get(0).getDays().get(0);
+        assertEquals(7, calendar.get(0).getDays().size());
+        assertEquals(8, firstMonday.getFirstHour());
+        assertEquals(12, firstMonday.getRemainingSlots().length);
+        assertEquals(2, firstMonday.getRemainingSlots()[0]);
+        assertEquals(3, firstMonday.getRemainingSlots()[1]);
+
+        AvailabilityDayDTO secondSaturday = calendar.get(1).getDays().get(5);
+        assertEquals(9, secondSaturday.getFirstHour());
+        assertEquals(8, secondSaturday.getRemainingSlots().length);
+        assertEquals(0, secondSaturday.getRemainingSlots()[1]);
+        assertEquals(2, secondSaturday.getRemainingSlots()[0]);
+
+        verify(appointmentRepository, times(1)).getSlotUsageByCentersAndDateRange(
+                eq(List.of(serviceCenterId, second.getId())), eq(monday.atStartOfDay()), eq(monday.plusDays(6).atTime(23, 59, 59)));
+    }
+}
@@ -0,0 +1,170 @@
+package com.ead.backend.service;
+
+import com.ead.backend.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Slot Capacity Ledger Unit Tests")
+class SlotCapacityLedgerTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private SlotCapacityLedger ledger;
+
+    private UUID serviceCenterId;
+    private LocalDateTime slotTime;
+
+    @BeforeEach
+    void setUp() {
+        serviceCenterId = UUID.randomUUID();
+        slotTime = LocalDateTime.now().plusDays(2).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    @DisplayName("Should hydrate a slot from the database only once")
+    void testTryReserve_HydratesOnce() {
+        when(appointmentRepository.countByServiceCenterIdAndAppointmentDateAndStatusNot(
+                eq(serviceCenterId), eq(slotTime), eq("CANCELLED"))).thenReturn(1L);
+
+        assertTrue(ledger.tryReserve(serviceCenterId, slotTime, 3));
+        assertTrue(ledger.tryReserve(serviceCenterId, slotTime, 3));
+        assertFalse(ledger.tryReserve(serviceCenterId, slotTime, 3));
+
+        assertEquals(3, ledger.getBooked(serviceCenterId, slotTime));
+        verify(appointmentRepository, times(1))
+                .countByServiceCenterIdAndAppointmentDateAndStatusNot(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should never oversell capacity under concurrent reservations")
+    void testTryReserve_Concurrent() throws Exception {
+        when(appointmentRepository.countByServiceCenterIdAndAppointmentDateAndStatusNot(any(), any(), any()))
+                .thenReturn(0L);
+        ledger.getBooked(serviceCenterId, slotTime);
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        for (int i = 0; i < threads * 10; i++) {
+            executor.submit(() -> {
+                start.await();
+                if (ledger.tryReserve(serviceCenterId, slotTime, 5)) {
+                    granted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(5, granted.get());
+        assertEquals(5, ledger.getBooked(serviceCenterId, slotTime));
+    }
+
+    @Test
+    @DisplayName("Should release the reservation when the transaction rolls back")
+    void testTryReserve_RollbackReleases() {
+        when(appointmentRepository.countByServiceCenterIdAndAppointmentDateAndStatusNot(any(), any(), any()))
+                .thenReturn(0L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(ledger.tryReserve(serviceCenterId, slotTime, 1));
+            assertEquals(1, ledger.getBooked(serviceCenterId, slotTime));
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, ledger.getBooked(serviceCenterId, slotTime));
+        assertTrue(ledger.tryReserve(serviceCenterId, slotTime, 1));
+    }
+
+    @Test
+    @DisplayName("Should free capacity when an appointment is cancelled")
+    void testRelease_FreesCapacity() {
+        when(appointmentRepository.countByServiceCenterIdAndAppointmentDateAndStatusNot(any(), any(), any()))
+                .thenReturn(2L);
+
+        assertFalse(ledger.tryReserve(serviceCenterId, slotTime, 2));
+        ledger.release(serviceCenterId, slotTime);
+
+        assertTrue(ledger.tryReserve(serviceCenterId, slotTime, 2));
+    }
+
+    @Test
+    @DisplayName("Should reset booked counts to the database state on reconcile")
+    void testReconcile_SyncsWithDatabase() {
+        when(appointmentRepository.countByServiceCenterIdAndAppointmentDateAndStatusNot(any(), any(), any()))
+                .thenReturn(0L);
+        ledger.tryReserve(serviceCenterId, slotTime, 5);
+        ledger.tryReserve(serviceCenterId, slotTime, 5);
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{serviceCenterId, slotTime, 4L});
+        when(appointmentRepository.getSlotUsageForAllCenters(any(), any())).thenReturn(rows);
+
+        ledger.reconcile();
+        assertEquals(4, ledger.getBooked(serviceCenterId, slotTime));
+
+        when(appointmentRepository.getSlotUsageForAllCenters(any(), any())).thenReturn(Collections.emptyList());
+        ledger.reconcile();
+        assertEquals(0, ledger.getBooked(serviceCenterId, slotTime));
+    }
+
+    @Test
+    @DisplayName("Should keep a booking that commits while reconcile reads the database")
+    void testReconcile_BookingCommitsDuringRead() {
+        when(appointmentRepository.countByServiceCenterIdAndAppointmentDateAndStatusNot(any(), any(), any()))
+                .thenReturn(0L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            assertTrue(ledger.tryReserve(serviceCenterId, slotTime, 1));
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // The read misses the new row, and the booking is no longer in flight once it returns
+        when(appointmentRepository.getSlotUsageForAllCenters(any(), any())).thenAnswer(invocation -> {
+            synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            return Collections.emptyList();
+        });
+        ledger.reconcile();
+
+        assertEquals(1, ledger.getBooked(serviceCenterId, slotTime));
+        assertFalse(ledger.tryReserve(serviceCenterId, slotTime, 1));
+    }
+}
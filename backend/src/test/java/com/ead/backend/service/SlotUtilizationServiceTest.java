@@ -0,0 +1,110 @@
+package com.ead.backend.service;
+
+import com.ead.backend.dto.SlotUtilizationCellDTO;
+import com.ead.backend.dto.SlotUtilizationDTO;
+import com.ead.backend.entity.ServiceCenter;
+import com.ead.backend.enums.UtilizationWindow;
+import com.ead.backend.repository.AppointmentRepository;
+import com.ead.backend.repository.ServiceCenterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Slot Utilization Service Unit Tests")
+class SlotUtilizationServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private ServiceCenterRepository serviceCenterRepository;
+
+    @InjectMocks
+    private SlotUtilizationService slotUtilizationService;
+
+    private ServiceCenter center;
+    private LocalDate yesterday;
+
+    @BeforeEach
+    void setUp() {
+        center = new ServiceCenter();
+        center.setId(UUID.randomUUID());
+        center.setName("Downtown");
+        center.setCenterSlot(3);
+        yesterday = LocalDate.now().minusDays(1);
+        when(serviceCenterRepository.findByIsActiveTrue()).thenReturn(List.of(center));
+    }
+
+    @Test
+    @DisplayName("Should fold booked slots into weekday and hour cells against center capacity")
+    void testRebuild_ComputesHeatmap() {
+        // Arrange
+        List<Object[]> usage = new ArrayList<>();
+        usage.add(new Object[]{center.getId(), yesterday.atTime(10, 0), 2L});
+        usage.add(new Object[]{center.getId(), LocalDate.now().minusDays(200).atTime(10, 0), 5L});
+        when(appointmentRepository.getSlotUsageForAllCenters(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(usage);
+
+        // Act
+        slotUtilizationService.rebuild();
+        List<SlotUtilizationDTO> heatmaps = slotUtilizationService.getHeatmaps(UtilizationWindow.LAST_7_DAYS, null);
+
+        // Assert
+        assertEquals(1, heatmaps.size());
+        SlotUtilizationDTO heatmap = heatmaps.get(0);
+        long expectedCapacity = 0;
+        for (LocalDate day = yesterday.minusDays(6); !day.isAfter(yesterday); day = day.plusDays(1)) {
+            expectedCapacity += 3L * SlotAvailabilityService.getBusinessHours(day).size();
+        }
+        assertEquals(2, heatmap.getBookedSlots());
+        assertEquals(expectedCapacity, heatmap.getCapacitySlots());
+
+        SlotUtilizationCellDTO cell = heatmap.getCells().stream()
+                .filter(c -> c.getDayOfWeek() == yesterday.getDayOfWeek() && c.getHour() == 10)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, cell.getBookedSlots());
+        assertEquals(3, cell.getCapacitySlots());
+        assertEquals(66.67, cell.getUtilizationPercentage());
+        assertTrue(slotUtilizationService.getHeatmaps(UtilizationWindow.LAST_7_DAYS, UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should only re-read days from yesterday on when refreshing")
+    void testRefresh_RereadsMutableDaysOnly() {
+        // Arrange
+        List<Object[]> history = new ArrayList<>();
+        history.add(new Object[]{center.getId(), yesterday.minusDays(3).atTime(10, 0), 1L});
+        history.add(new Object[]{center.getId(), yesterday.atTime(10, 0), 2L});
+        List<Object[]> recent = new ArrayList<>();
+        recent.add(new Object[]{center.getId(), yesterday.atTime(10, 0), 3L});
+        when(appointmentRepository.getSlotUsageForAllCenters(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(history)
+                .thenReturn(recent);
+        slotUtilizationService.rebuild();
+
+        // Act
+        slotUtilizationService.refresh();
+
+        // Assert
+        verify(appointmentRepository).getSlotUsageForAllCenters(eq(yesterday.atStartOfDay()), any(LocalDateTime.class));
+        SlotUtilizationDTO heatmap = slotUtilizationService.getHeatmaps(UtilizationWindow.LAST_7_DAYS, center.getId()).get(0);
+        assertEquals(4, heatmap.getBookedSlots());
+    }
+}
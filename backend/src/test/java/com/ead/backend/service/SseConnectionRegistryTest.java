@@ -0,0 +1,263 @@
+package com.ead.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SSE Connection Registry Unit Tests")
+class SseConnectionRegistryTest {
+
+    private final SseConnectionRegistry registry = new SseConnectionRegistry();
+
+    private final UUID userId = UUID.randomUUID();
+    private final SseConnectionRegistry.OutboundEvent event = new SseConnectionRegistry.OutboundEvent("notification", "hi");
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should fan out to every connection of a user")
+    void testSend_FansOutToAllConnections() throws Exception {
+        // Arrange
+        SseEmitter laptop = mock(SseEmitter.class);
+        SseEmitter phone = mock(SseEmitter.class);
+        registry.register(userId, laptop);
+        registry.register(userId, phone);
+
+        // Act
+        int queued = registry.send(userId, event);
+
+        // Assert
+        assertEquals(2, queued);
+        verify(laptop, timeout(5000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(phone, timeout(5000)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(0, registry.send(UUID.randomUUID(), event));
+    }
+
+    @Test
+    @DisplayName("Should send the event id so browsers can resume with Last-Event-ID")
+    void testSend_IncludesEventId() throws Exception {
+        // Arrange
+        SseEmitter emitter = mock(SseEmitter.class);
+        registry.register(userId, emitter);
+
+        // Act
+        registry.send(userId, new SseConnectionRegistry.OutboundEvent(42L, "notification", "hi"));
+
+        // Assert
+        ArgumentCaptor<SseEmitter.SseEventBuilder> builder = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(5000)).send(builder.capture());
+        String frame = builder.getValue().build().stream()
+                .map(part -> String.valueOf(part.getData()))
+                .reduce("", String::concat);
+        assertTrue(frame.contains("id:42\n"), frame);
+    }
+
+    @Test
+    @DisplayName("Should close the oldest connection of a user over the per-user cap")
+    void testRegister_PerUserCapEvictsOldest() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(registry, "maxConnectionsPerUser", 2);
+        SseEmitter first = mock(SseEmitter.class);
+        CountDownLatch completed = completionOf(first);
+
+        // Act
+        registry.register(userId, first);
+        registry.register(userId, mock(SseEmitter.class));
+        registry.register(userId, mock(SseEmitter.class));
+
+        // Assert
+        assertEquals(2, registry.connectionCount(userId));
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, registry.stats().closed());
+    }
+
+    @Test
+    @DisplayName("Should reject connections over the global cap")
+    void testRegister_GlobalCap() {
+        // Arrange
+        ReflectionTestUtils.setField(registry, "maxConnections", 1);
+        registry.register(userId, mock(SseEmitter.class));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> registry.register(UUID.randomUUID(), mock(SseEmitter.class)));
+        assertEquals(1, registry.stats().connections());
+        assertEquals(1, registry.stats().rejected());
+    }
+
+    @Test
+    @DisplayName("Should drop the connection whose send fails and keep the others")
+    void testSend_FailedConnectionRemoved() throws Exception {
+        // Arrange
+        SseEmitter broken = mock(SseEmitter.class);
+        SseEmitter healthy = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(broken).send(any(SseEmitter.SseEventBuilder.class));
+        CountDownLatch completed = completionOf(broken);
+        registry.register(userId, broken);
+        registry.register(userId, healthy);
+
+        // Act
+        registry.send(userId, event);
+        registry.send(userId, event);
+
+        // Assert
+        verify(healthy, timeout(5000).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        verify(broken, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(1, registry.connectionCount(userId));
+        assertEquals(1, registry.stats().failedSends());
+    }
+
+    @Test
+    @DisplayName("Should not block the sender on a stuck client and disconnect it once its queue is full")
+    void testSend_SlowConsumerDisconnected() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(registry, "queueCapacity", 2);
+        StuckEmitter stuck = new StuckEmitter();
+        registry.register(userId, stuck);
+
+        // Act: the first event is being written, two more fill the queue, the fourth overflows it
+        registry.send(userId, event);
+        assertTrue(stuck.writing.await(5, TimeUnit.SECONDS));
+        registry.send(userId, event);
+        registry.send(userId, event);
+        int queued = registry.send(userId, event);
+        boolean stillStuck = stuck.release.getCount() > 0;
+        stuck.release.countDown();
+
+        // Assert
+        assertEquals(0, queued);
+        assertTrue(stillStuck, "Sending should not wait for the stuck client");
+        assertEquals(0, registry.connectionCount(userId));
+        assertEquals(1, registry.stats().slowConsumers());
+        assertEquals(3, registry.stats().droppedEvents());
+        assertTrue(stuck.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, stuck.sends.get());
+    }
+
+    @Test
+    @DisplayName("Should disconnect clients whose write overruns the timeout and keep serving the others")
+    void testCheckWrites_StuckWritersReplaced() throws Exception {
+        // Arrange: every regular dispatcher thread is stuck writing to a dead client
+        ReflectionTestUtils.setField(registry, "writeTimeoutMs", 1L);
+        List<StuckEmitter> stuckEmitters = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            StuckEmitter stuck = new StuckEmitter();
+            stuckEmitters.add(stuck);
+            UUID stuckUserId = UUID.randomUUID();
+            registry.register(stuckUserId, stuck);
+            registry.send(stuckUserId, event);
+        }
+        for (StuckEmitter stuck : stuckEmitters) {
+            assertTrue(stuck.writing.await(5, TimeUnit.SECONDS));
+        }
+        SseEmitter healthy = mock(SseEmitter.class);
+        registry.register(userId, healthy);
+        Thread.sleep(5);
+
+        // Act
+        registry.checkWrites();
+        registry.send(userId, event);
+
+        // Assert: completing the dead clients waits on their writes without holding up the healthy one
+        verify(healthy, timeout(5000)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(8, registry.stats().slowConsumers());
+        assertEquals(8, registry.stats().stalledWriters());
+        assertEquals(1, registry.stats().connections());
+
+        stuckEmitters.forEach(stuck -> stuck.release.countDown());
+        for (StuckEmitter stuck : stuckEmitters) {
+            assertTrue(stuck.completed.await(5, TimeUnit.SECONDS));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.stats().stalledWriters() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, registry.stats().stalledWriters());
+    }
+
+    @Test
+    @DisplayName("Should not count a connection waiting for a dispatcher thread as a slow consumer")
+    void testSend_DispatcherBacklogNotSlowConsumer() throws Exception {
+        // Arrange: the dispatcher is busy with stuck clients that have not reached the write timeout yet
+        ReflectionTestUtils.setField(registry, "queueCapacity", 2);
+        List<StuckEmitter> stuckEmitters = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            StuckEmitter stuck = new StuckEmitter();
+            stuckEmitters.add(stuck);
+            UUID stuckUserId = UUID.randomUUID();
+            registry.register(stuckUserId, stuck);
+            registry.send(stuckUserId, event);
+        }
+        for (StuckEmitter stuck : stuckEmitters) {
+            assertTrue(stuck.writing.await(5, TimeUnit.SECONDS));
+        }
+        SseEmitter healthy = mock(SseEmitter.class);
+        registry.register(userId, healthy);
+
+        // Act: more events than the queue capacity while no thread is free to write them
+        int queued = 0;
+        for (int i = 0; i < 3; i++) {
+            queued += registry.send(userId, event);
+        }
+        stuckEmitters.forEach(stuck -> stuck.release.countDown());
+
+        // Assert
+        assertEquals(3, queued);
+        verify(healthy, timeout(5000).times(3)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(0, registry.stats().slowConsumers());
+        assertEquals(1, registry.connectionCount(userId));
+    }
+
+    // complete() is synchronized, so waiting for it with verify(timeout) would hold its monitor
+    private static CountDownLatch completionOf(SseEmitter emitter) {
+        CountDownLatch completed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            completed.countDown();
+            return null;
+        }).when(emitter).complete();
+        return completed;
+    }
+
+    // Emitter whose writes hang like a client that stopped reading; like SseEmitter, it writes and completes
+    // under its monitor
+    private static final class StuckEmitter extends SseEmitter {
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final AtomicInteger sends = new AtomicInteger();
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) {
+            sends.incrementAndGet();
+            writing.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ead.backend.service;
+
+import com.ead.backend.repository.ChatMessageRepository;
+import com.ead.backend.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Unread Counter Service Unit Tests")
+class UnreadCounterServiceTest {
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final ChatMessageRepository chatMessageRepository = mock(ChatMessageRepository.class);
+    private final UnreadCounterService unreadCounters = new UnreadCounterService(notificationRepository, chatMessageRepository);
+
+    private final UUID userId = UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should count from the database once and then follow writes and mark-read in memory")
+    void testUnreadNotifications_HydratedOnceThenMaintained() {
+        // Arrange
+        when(notificationRepository.countByUserIdAndIsReadFalse(userId)).thenReturn(4L);
+
+        // Act
+        long first = unreadCounters.unreadNotifications(userId);
+        unreadCounters.notificationsAdded(userId, 2);
+        unreadCounters.notificationsRead(userId, 1);
+        long second = unreadCounters.unreadNotifications(userId);
+
+        // Assert
+        assertEquals(4, first);
+        assertEquals(5, second);
+        verify(notificationRepository, times(1)).countByUserIdAndIsReadFalse(userId);
+    }
+
+    @Test
+    @DisplayName("Should apply changes only after the transaction commits")
+    void testNotificationsAdded_AfterCommitOnly() {
+        // Arrange
+        when(notificationRepository.countByUserIdAndIsReadFalse(userId)).thenReturn(0L);
+        unreadCounters.unreadNotifications(userId);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        unreadCounters.notificationsAdded(userId, 1);
+        long beforeCommit = unreadCounters.unreadNotifications(userId);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Assert
+        assertEquals(0, beforeCommit);
+        assertEquals(1, unreadCounters.unreadNotifications(userId));
+    }
+
+    @Test
+    @DisplayName("Should count a chat message as unread for every reader except its sender")
+    void testUnreadMessages_PerReader() {
+        // Arrange
+        UUID chatRoomId = UUID.randomUUID();
+        UUID employeeId = UUID.randomUUID();
+        when(chatMessageRepository.countUnreadMessages(chatRoomId, userId)).thenReturn(1);
+        when(chatMessageRepository.countUnreadMessages(chatRoomId, employeeId)).thenReturn(0);
+        unreadCounters.unreadMessages(chatRoomId, userId);
+        unreadCounters.unreadMessages(chatRoomId, employeeId);
+
+        // Act
+        unreadCounters.messageAdded(chatRoomId, userId);
+        unreadCounters.messageAdded(chatRoomId, userId);
+        unreadCounters.messagesRead(chatRoomId, userId, 1);
+
+        // Assert
+        assertEquals(0, unreadCounters.unreadMessages(chatRoomId, userId));
+        assertEquals(2, unreadCounters.unreadMessages(chatRoomId, employeeId));
+        verify(chatMessageRepository, times(2)).countUnreadMessages(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should correct drifted counts and drop counts nobody polled")
+    void testReconcile() {
+        // Arrange
+        UUID idleUserId = UUID.randomUUID();
+        // Another node adds notifications after the first read
+        when(notificationRepository.countByUserIdAndIsReadFalse(userId)).thenReturn(3L, 6L);
+        when(notificationRepository.countByUserIdAndIsReadFalse(idleUserId)).thenReturn(1L);
+        unreadCounters.unreadNotifications(userId);
+        unreadCounters.unreadNotifications(idleUserId);
+        unreadCounters.reconcile();
+        unreadCounters.unreadNotifications(userId);
+
+        // Act: the idle user was not polled since the first run
+        unreadCounters.reconcile();
+
+        // Assert
+        assertEquals(6, unreadCounters.unreadNotifications(userId));
+        verify(notificationRepository, times(2)).countByUserIdAndIsReadFalse(idleUserId);
+    }
+}
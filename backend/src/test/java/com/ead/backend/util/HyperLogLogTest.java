@@ -0,0 +1,74 @@
+package com.ead.backend.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HyperLogLog Unit Tests")
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("Should estimate distinct ids within a few percent and ignore duplicates")
+    void testEstimate_Accuracy() {
+        // Arrange
+        HyperLogLog sketch = new HyperLogLog();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            ids.add(UUID.randomUUID());
+        }
+
+        // Act
+        ids.forEach(sketch::offer);
+        ids.subList(0, 10_000).forEach(sketch::offer);
+
+        // Assert
+        assertEquals(50_000, sketch.estimate(), 50_000 * 0.08);
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    @DisplayName("Should count small cardinalities almost exactly")
+    void testEstimate_Small() {
+        // Arrange
+        HyperLogLog sketch = new HyperLogLog();
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            sketch.offer(UUID.randomUUID());
+        }
+
+        // Assert
+        assertEquals(20, sketch.estimate(), 1);
+    }
+
+    @Test
+    @DisplayName("Should merge overlapping sketches like a union")
+    void testMerge_Union() {
+        // Arrange
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        for (int i = 0; i < 6_000; i++) {
+            UUID id = UUID.randomUUID();
+            if (i < 4_000) {
+                monday.offer(id);
+            }
+            if (i >= 2_000) {
+                tuesday.offer(id);
+            }
+        }
+
+        // Act
+        HyperLogLog both = new HyperLogLog();
+        both.merge(monday);
+        both.merge(tuesday);
+
+        // Assert
+        assertEquals(6_000, both.estimate(), 6_000 * 0.08);
+        assertTrue(HyperLogLog.rankOf(UUID.randomUUID()) >= 1);
+    }
+}
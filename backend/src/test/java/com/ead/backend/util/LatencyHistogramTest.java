@@ -0,0 +1,64 @@
+package com.ead.backend.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Latency Histogram Unit Tests")
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should map every value into a bucket whose bounds contain it")
+    void testBucketOf_ContiguousAndBounded() {
+        int previous = -1;
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(bucket == previous || bucket == previous + 1, "Buckets must be contiguous at " + value);
+            assertTrue(LatencyHistogram.highestValueOf(bucket) >= value);
+            assertTrue(LatencyHistogram.highestValueOf(bucket) - value <= Math.max(1, value / 30));
+            previous = bucket;
+        }
+        assertEquals(0, LatencyHistogram.bucketOf(-5));
+    }
+
+    @Test
+    @DisplayName("Should report percentiles within the bucket precision")
+    void testValueAtPercentile() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long seconds = 1; seconds <= 10_000; seconds++) {
+            histogram.record(seconds);
+        }
+
+        // Act & Assert
+        assertEquals(10_000, histogram.getTotalCount());
+        assertEquals(5_000, histogram.valueAtPercentile(50), 5_000 * 0.04);
+        assertEquals(9_000, histogram.valueAtPercentile(90), 9_000 * 0.04);
+        assertEquals(9_900, histogram.valueAtPercentile(99), 9_900 * 0.04);
+        assertNull(new LatencyHistogram().valueAtPercentile(50));
+    }
+
+    @Test
+    @DisplayName("Should give the same percentiles when merging per-day histograms")
+    void testMerge() {
+        // Arrange
+        LatencyHistogram monday = new LatencyHistogram();
+        LatencyHistogram tuesday = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (long minutes = 1; minutes <= 600; minutes++) {
+            (minutes % 2 == 0 ? monday : tuesday).record(minutes * 60);
+            all.record(minutes * 60);
+        }
+
+        // Act
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.merge(monday);
+        merged.merge(tuesday);
+
+        // Assert
+        assertEquals(all.getTotalCount(), merged.getTotalCount());
+        assertEquals(all.valueAtPercentile(50), merged.valueAtPercentile(50));
+        assertEquals(all.valueAtPercentile(99), merged.valueAtPercentile(99));
+    }
+}
@@ -6,7 +6,7 @@ import {
   getServiceDistribution,
   getRevenueTrend,
   getEmployeePerformance,
-  getCustomerInsights,
+  getAllCustomerInsights,
 } from '@/services/analyticsService';
 import type { AnalyticsParams } from '@/types/analytics';
 import {
@@ -113,7 +113,7 @@ const ExportModal = ({ isOpen, onClose }: ExportModalProps) => {
         }
 
         case 'customer-insights': {
-          const data = await getCustomerInsights(params);
+          const data = await getAllCustomerInsights(params);
           rawData = data;
           const formatted = formatCustomerInsights(data);
           csvContent = convertToCSV(formatted.rows, formatted.headers);
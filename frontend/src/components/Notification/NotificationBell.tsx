@@ -15,6 +15,8 @@ const NotificationBell: React.FC<NotificationBellProps> = ({ userId }) => {
   const [unreadCount, setUnreadCount] = useState<number>(0);
   const [isPanelOpen, setIsPanelOpen] = useState<boolean>(false);
   const eventSourceRef = useRef<EventSource | null>(null);
+  // Ids already in the list: a reconnect can replay notifications the list already has
+  const seenIdsRef = useRef<Set<string>>(new Set());
   const bellRef = useRef<HTMLDivElement>(null);
 
   useEffect(() => {
@@ -37,6 +39,7 @@ const NotificationBell: React.FC<NotificationBellProps> = ({ userId }) => {
         notificationService.getUserNotifications(userId),
         notificationService.getUnreadCount(userId),
       ]);
+      seenIdsRef.current = new Set(notifs.map((n) => String(n.id)));
       setNotifications(notifs);
       setUnreadCount(count);
     } catch (error) {
@@ -59,7 +62,12 @@ const NotificationBell: React.FC<NotificationBellProps> = ({ userId }) => {
     );
   };
 
-  const handleNewNotification = (notification: any) => {
+  const handleNewNotification = (event: any) => {
+    const id = String(event.id);
+    if (seenIdsRef.current.has(id)) return;
+    seenIdsRef.current.add(id);
+    // Events carry the stored notification id as a string
+    const notification = { ...event, id: Number(event.id) };
     setNotifications((prev) => [notification, ...prev]);
     setUnreadCount((prev) => prev + 1);
 
@@ -61,13 +61,29 @@ const transformToAdminService = (dto: AdminAppointmentDTO, displayStatus: 'upcom
   };
 };
 
+// The appointment lists are paged: keep following the X-Next-Cursor header until the last page
+const ADMIN_APPOINTMENT_PAGE_SIZE = 200;
+
+const getAllAppointmentPages = async (url: string): Promise<AdminAppointmentDTO[]> => {
+  const appointments: AdminAppointmentDTO[] = [];
+  let cursor: string | undefined;
+  do {
+    const response = await api.get(url, {
+      params: { size: ADMIN_APPOINTMENT_PAGE_SIZE, cursor },
+    });
+    appointments.push(...response.data);
+    cursor = response.headers['x-next-cursor'] || undefined;
+  } while (cursor);
+  return appointments;
+};
+
 /**
  * Get all upcoming appointments
  */
 export const getUpcomingAppointments = async (): Promise<AdminService[]> => {
   try {
-    const response = await api.get('/admin/appointments/upcoming');
-    return response.data.map((dto: AdminAppointmentDTO) => transformToAdminService(dto, 'upcoming'));
+    const appointments = await getAllAppointmentPages('/admin/appointments/upcoming');
+    return appointments.map((dto) => transformToAdminService(dto, 'upcoming'));
   } catch (error) {
     console.error('Error fetching upcoming appointments:', error);
     throw error;
@@ -79,8 +95,8 @@ export const getUpcomingAppointments = async (): Promise<AdminService[]> => {
  */
 export const getOngoingAppointments = async (): Promise<AdminService[]> => {
   try {
-    const response = await api.get('/admin/appointments/ongoing');
-    return response.data.map((dto: AdminAppointmentDTO) => transformToAdminService(dto, 'ongoing'));
+    const appointments = await getAllAppointmentPages('/admin/appointments/ongoing');
+    return appointments.map((dto) => transformToAdminService(dto, 'ongoing'));
   } catch (error) {
     console.error('Error fetching ongoing appointments:', error);
     throw error;
@@ -92,8 +108,8 @@ export const getOngoingAppointments = async (): Promise<AdminService[]> => {
  */
 export const getUnassignedAppointments = async (): Promise<AdminService[]> => {
   try {
-    const response = await api.get('/admin/appointments/unassigned');
-    return response.data.map((dto: AdminAppointmentDTO) => transformToAdminService(dto, 'unassigned'));
+    const appointments = await getAllAppointmentPages('/admin/appointments/unassigned');
+    return appointments.map((dto) => transformToAdminService(dto, 'unassigned'));
   } catch (error) {
     console.error('Error fetching unassigned appointments:', error);
     throw error;
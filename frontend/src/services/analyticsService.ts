@@ -95,6 +95,33 @@ export const getCustomerInsights = async (
   return response.data.data;
 };
 
+const CUSTOMER_INSIGHTS_EXPORT_PAGE_SIZE = 100;
+
+/**
+ * Get customer insights with every customer, following the pages
+ * (the endpoint returns at most 100 customers per call)
+ */
+export const getAllCustomerInsights = async (
+  params?: AnalyticsParams
+): Promise<CustomerInsights> => {
+  const fetchPage = async (page: number): Promise<CustomerInsights> => {
+    const queryString = buildQueryString(params);
+    const pageQuery = `page=${page}&size=${CUSTOMER_INSIGHTS_EXPORT_PAGE_SIZE}`;
+    const response = await api.get<AnalyticsResponse<CustomerInsights>>(
+      `${BASE_URL}/customer-insights${queryString ? `${queryString}&` : '?'}${pageQuery}`
+    );
+    return response.data.data;
+  };
+
+  const first = await fetchPage(0);
+  const customerInsights = [...(first.customerInsights ?? [])];
+  for (let page = 1; page < (first.totalPages ?? 1); page++) {
+    const next = await fetchPage(page);
+    customerInsights.push(...(next.customerInsights ?? []));
+  }
+  return { ...first, customerInsights, page: 0, totalPages: 1, pageSize: customerInsights.length };
+};
+
 /**
  * Custom analytics with POST for complex filters
  */
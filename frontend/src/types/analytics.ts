@@ -106,6 +106,9 @@ export interface CustomerInsights {
   totalAppointments: number;
   customerInsights: CustomerInsightItem[];
   topCustomers: CustomerInsightItem[];
+  page?: number;
+  pageSize?: number;
+  totalPages?: number;
 }
 
 export interface CustomerInsightItem {